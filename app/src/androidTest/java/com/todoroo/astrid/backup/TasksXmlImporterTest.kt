@@ -0,0 +1,136 @@
+package com.todoroo.astrid.backup
+
+import android.net.Uri
+import androidx.test.InstrumentationRegistry
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.backup.TasksXmlImporter.CHUNK_SIZE
+import com.todoroo.astrid.dao.Database
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.backup.TasksJsonImporter.ImportResult
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import timber.log.Timber
+import java.io.File
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class TasksXmlImporterTest : InjectingTestCase() {
+    @Inject lateinit var database: Database
+    @Inject lateinit var importer: TasksXmlImporter
+
+    private val context = InstrumentationRegistry.getTargetContext()
+
+    @Test
+    fun importLargeBackup() {
+        val start = System.nanoTime()
+        val result = import(backup(TASKS))
+        val elapsed = (System.nanoTime() - start) / 1_000_000
+        Timber.d("imported %s tasks in %sms", TASKS, elapsed)
+
+        assertEquals(TASKS, result.importCount)
+        assertEquals(0, result.errorCount)
+        assertEquals(TASKS, count("tasks"))
+        assertEquals(TASKS, count("tags"))
+        assertEquals(TAGS, count("tagdata"))
+        assertEquals(TASKS / 10, count("alarms"))
+        assertEquals(TASKS / 10, count("userActivity"))
+        assertTrue("${elapsed}ms", elapsed < 120_000)
+    }
+
+    @Test
+    fun rollBackChunkWithMalformedElement() {
+        val committed = TASKS / 2 / CHUNK_SIZE * CHUNK_SIZE
+        val result = import(backup(TASKS, malformedAt = committed + CHUNK_SIZE / 2))
+
+        assertEquals(1, result.errorCount)
+        assertEquals(committed, count("tasks"))
+        assertEquals(committed, count("tags"))
+        assertEquals(committed / 10, count("alarms"))
+    }
+
+    @Test
+    fun skipTasksImportedBeforeFailure() {
+        val committed = 2 * CHUNK_SIZE
+        import(backup(3 * CHUNK_SIZE, malformedAt = committed + 10))
+
+        val result = import(backup(3 * CHUNK_SIZE))
+
+        assertEquals(committed, result.skipCount)
+        assertEquals(CHUNK_SIZE, result.importCount)
+        assertEquals(3 * CHUNK_SIZE, count("tasks"))
+        assertEquals(3 * CHUNK_SIZE, count("tags"))
+    }
+
+    @Test
+    fun reportUnknownFormat() {
+        val file = File(context.cacheDir, "backup.xml")
+        file.writeText("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>\n" +
+                "<astrid format=\"1\" version=\"1\">\n</astrid>\n")
+
+        val result = import(file)
+
+        assertEquals(1, result.errorCount)
+        assertEquals(0, result.importCount)
+    }
+
+    @Test
+    fun returnPartialResultAfterDatabaseFailure() {
+        import(backup(CHUNK_SIZE))
+        database.openHelper.writableDatabase.execSQL(
+                "CREATE TRIGGER fail_import BEFORE INSERT ON tasks " +
+                        "BEGIN SELECT RAISE(ABORT, 'fail'); END")
+
+        val result = import(backup(2 * CHUNK_SIZE))
+
+        assertEquals(1, result.errorCount)
+        assertEquals(CHUNK_SIZE, result.skipCount)
+        assertEquals(CHUNK_SIZE, count("tasks"))
+    }
+
+    private fun import(file: File): ImportResult =
+            importer.importTasks(context, Uri.fromFile(file), null).also { file.delete() }
+
+    private fun count(table: String): Int =
+            database.openHelper.readableDatabase.query("SELECT COUNT(*) FROM $table").use {
+                it.moveToFirst()
+                it.getInt(0)
+            }
+
+    /** Writes a format 2 backup, optionally with a malformed task element */
+    private fun backup(tasks: Int, malformedAt: Int = -1): File {
+        val file = File(context.cacheDir, "backup.xml")
+        file.bufferedWriter().use { writer ->
+            writer.write("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>\n")
+            writer.write("<astrid format=\"2\" version=\"1\">\n")
+            repeat(tasks) {
+                if (it == malformedAt) {
+                    writer.write("<task title=\"broken\" <metadata />\n")
+                }
+                writer.write("<task title=\"Task $it\" remoteId=\"${1000 + it}\" $TASK_ATTRIBUTES>\n")
+                writer.write("<metadata key=\"tags-tag\" value=\"Tag ${it % TAGS}\" value2=\"tag-${it % TAGS}\" />\n")
+                if (it % 10 == 0) {
+                    writer.write("<metadata key=\"alarm\" value=\"${1_000_000L * it}\" />\n")
+                    writer.write("<comment message=\"Comment $it\" target_id=\"${1000 + it}\" created_at=\"1\" />\n")
+                }
+                writer.write("</task>\n")
+            }
+            writer.write("</astrid>\n")
+        }
+        return file
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val TASKS = 50_000
+        private const val TAGS = 200
+        private const val TASK_ATTRIBUTES =
+                "created=\"1\" modified=\"1\" completed=\"0\" deleted=\"0\" dueDate=\"0\" " +
+                        "hideUntil=\"0\" importance=\"2\" elapsedSeconds=\"0\" estimatedSeconds=\"0\" " +
+                        "notificationFlags=\"0\" lastNotified=\"0\" notifications=\"0\" " +
+                        "snoozeTime=\"0\" repeatUntil=\"0\" timerStart=\"0\""
+    }
+}
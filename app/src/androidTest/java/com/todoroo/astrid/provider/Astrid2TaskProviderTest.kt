@@ -0,0 +1,67 @@
+package com.todoroo.astrid.provider
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.provider.Astrid2TaskProvider.checkClause
+import org.junit.Assert.assertEquals
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class Astrid2TaskProviderTest {
+    @Test
+    fun allowColumnsAndLiterals() {
+        accept("importance > 1 AND definiteDueDate > 0")
+        accept("name LIKE 'it''s %' OR name IS NULL")
+        accept("(importance = ? OR importance IN (1, 2)) AND NOT tags_id = ''")
+        accept("preferredDueDate ASC, name COLLATE NOCASE desc")
+    }
+
+    @Test
+    fun rejectUnknownColumn() = reject("title = 'a'")
+
+    @Test
+    fun rejectSubquery() {
+        reject("identifier IN (SELECT _id FROM tasks)")
+        reject("name = (SELECT password FROM caldav_accounts)")
+    }
+
+    @Test
+    fun rejectStatementSeparator() {
+        reject("importance = 1; DROP TABLE tasks")
+        reject("importance = 1;")
+    }
+
+    @Test
+    fun rejectComments() {
+        reject("importance = 1 -- comment")
+        reject("importance = 1--")
+        reject("importance /* comment */ = 1")
+    }
+
+    @Test
+    fun rejectUnbalancedQuotes() {
+        reject("name = 'abc")
+        reject("name = abc'")
+        reject("name = 'a'' OR importance = 1")
+        reject("name = \"abc\"")
+    }
+
+    @Test
+    fun rejectUnbalancedParentheses() {
+        reject("(importance = 1")
+        reject("importance = 1)")
+        reject("importance = 1) OR (1 = 1")
+        reject("((importance = 1)")
+    }
+
+    private fun accept(clause: String) = assertEquals(clause, checkClause(clause))
+
+    private fun reject(clause: String) {
+        try {
+            checkClause(clause)
+            fail(clause)
+        } catch (e: IllegalArgumentException) {
+        }
+    }
+}
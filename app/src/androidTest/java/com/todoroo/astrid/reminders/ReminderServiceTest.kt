@@ -6,6 +6,7 @@ import com.todoroo.andlib.utility.DateUtilities
 import com.todoroo.astrid.dao.TaskDao
 import com.todoroo.astrid.data.Task
 import org.junit.After
+import org.junit.Assert.assertEquals
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mockito.Mockito
@@ -174,6 +175,39 @@ class ReminderServiceTest : InjectingTestCase() {
                 .add(ReminderEntry(1, task.reminderSnooze, ReminderService.TYPE_SNOOZE))
     }
 
+    @Test
+    fun persistNextReminder() {
+        val task = newTask(
+                with(DUE_TIME, DateTimeUtils.newDateTime().plusDays(1)),
+                with(REMINDERS, Task.NOTIFY_AT_DEADLINE))
+        taskDao.createNew(task)
+        service.scheduleAlarm(task)
+        val order = Mockito.inOrder(jobs)
+        order.verify(jobs).cancelReminder(task.getId())
+        order.verify(jobs).add(ReminderEntry(task.getId(), task.getDueDate(), ReminderService.TYPE_DUE))
+        val saved = taskDao.fetch(task.getId())!!
+        assertEquals(task.getDueDate(), saved.reminderNext)
+        assertEquals(ReminderService.TYPE_DUE, saved.reminderType)
+    }
+
+    @Test
+    fun scheduleUpcomingReminders() {
+        val now = DateTimeUtils.newDateTime()
+        val today = newTask(with(DUE_TIME, now.plusHours(1)), with(REMINDERS, Task.NOTIFY_AT_DEADLINE))
+        val nextWeek = newTask(with(DUE_TIME, now.plusDays(7)), with(REMINDERS, Task.NOTIFY_AT_DEADLINE))
+        taskDao.createNew(today)
+        taskDao.createNew(nextWeek)
+        service.scheduleUpcomingAlarms(0, now.plusDays(1).millis)
+        Mockito.verify(jobs).cancelReminder(today.getId())
+        Mockito.verify(jobs).cancelReminder(nextWeek.getId())
+        Mockito.verify(jobs).add(listOf(
+                ReminderEntry(today.getId(), today.getDueDate(), ReminderService.TYPE_DUE),
+                ReminderEntry(nextWeek.getId(), nextWeek.getDueDate(), ReminderService.TYPE_DUE)))
+        Mockito.verify(jobs).add(listOf(
+                ReminderEntry(today.getId(), today.getDueDate(), ReminderService.TYPE_DUE)))
+        assertEquals(nextWeek.getDueDate(), taskDao.fetch(nextWeek.getId())!!.reminderNext)
+    }
+
     @Test
     fun scheduleInitialRandomReminder() {
         Freeze.freezeClock {
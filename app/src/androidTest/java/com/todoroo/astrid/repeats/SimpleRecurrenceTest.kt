@@ -0,0 +1,89 @@
+package com.todoroo.astrid.repeats
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.ical.values.Frequency
+import com.google.ical.values.RRule
+import com.natpryce.makeiteasy.MakeItEasy.with
+import com.todoroo.astrid.data.Task
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.makers.TaskMaker.COMPLETION_TIME
+import org.tasks.makers.TaskMaker.DUE_DATE
+import org.tasks.makers.TaskMaker.DUE_TIME
+import org.tasks.makers.TaskMaker.newTask
+import org.tasks.time.DateTime
+import timber.log.Timber
+import java.util.*
+
+/** Compares occurrences computed without a recurrence iterator with the iterator's results */
+@RunWith(AndroidJUnit4::class)
+class SimpleRecurrenceTest {
+    @Test
+    fun matchesRecurrenceIterator() {
+        val random = Random(1)
+        repeat(2000) {
+            val rrule = RRule().apply {
+                freq = FREQUENCIES[random.nextInt(FREQUENCIES.size)]
+                interval = 1 + random.nextInt(5)
+                if (random.nextInt(4) == 0) {
+                    count = 2 + random.nextInt(5)
+                }
+            }
+            // stay clear of daylight savings transitions
+            val date = DateTime(
+                    1990 + random.nextInt(40),
+                    1 + random.nextInt(12),
+                    1 + random.nextInt(31),
+                    8 + random.nextInt(12),
+                    random.nextInt(60))
+            val afterComplete = random.nextBoolean()
+            val task = newTask(
+                    with(if (random.nextBoolean()) DUE_TIME else DUE_DATE, date),
+                    with(COMPLETION_TIME, date.plusDays(random.nextInt(1000))))
+            val recurrence = rrule.toIcal()
+            val original = RepeatTaskHelper.setUpStartDate(task, afterComplete, rrule.freq)
+            if (rrule.freq == Frequency.MONTHLY && original.isLastDayOfMonth) {
+                return@repeat // handled separately
+            }
+            val start = RepeatTaskHelper.setUpStartDateAsDV(task, original)
+
+            assertEquals(
+                    "$recurrence from $original",
+                    DateTime(RepeatTaskHelper.iterateRecurrence(RRule(recurrence), original, start)),
+                    DateTime(RepeatTaskHelper.computeNextDueDate(task, recurrence, afterComplete)))
+        }
+    }
+
+    @Test
+    fun dailyTaskTenYearsOverdue() {
+        val task = newTask(with(DUE_TIME, DateTime().minusDays(3653)))
+        val recurrence = "RRULE:FREQ=DAILY;INTERVAL=1"
+        val original = RepeatTaskHelper.setUpStartDate(task, false, Frequency.DAILY)
+        val start = RepeatTaskHelper.setUpStartDateAsDV(task, original)
+        val expected = RepeatTaskHelper.iterateRecurrence(RRule(recurrence), original, start)
+
+        var begin = System.nanoTime()
+        repeat(ITERATIONS) {
+            RepeatTaskHelper.iterateRecurrence(RRule(recurrence), original, start)
+        }
+        val iterated = System.nanoTime() - begin
+        begin = System.nanoTime()
+        repeat(ITERATIONS) {
+            assertEquals(expected, RepeatTaskHelper.computeNextDueDate(task, recurrence, false))
+        }
+        val computed = System.nanoTime() - begin
+        Timber.d(
+                "%s repeats: iterator %sus, cached and computed %sus",
+                ITERATIONS, iterated / 1000, computed / 1000)
+
+        assertTrue(computed < iterated)
+    }
+
+    companion object {
+        private const val ITERATIONS = 10_000
+        private val FREQUENCIES =
+                arrayOf(Frequency.DAILY, Frequency.WEEKLY, Frequency.MONTHLY, Frequency.YEARLY)
+    }
+}
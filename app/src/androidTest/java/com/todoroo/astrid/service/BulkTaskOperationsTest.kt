@@ -0,0 +1,132 @@
+package com.todoroo.astrid.service
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.natpryce.makeiteasy.MakeItEasy.with
+import com.todoroo.andlib.utility.DateUtilities.now
+import com.todoroo.astrid.api.CaldavFilter
+import com.todoroo.astrid.dao.TaskDao
+import com.todoroo.astrid.data.Task
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.ArgumentCaptor
+import org.mockito.Mockito
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.tasks.data.Alarm
+import org.tasks.data.AlarmDao
+import org.tasks.data.CaldavCalendar
+import org.tasks.data.CaldavDao
+import org.tasks.data.CaldavTask
+import org.tasks.data.Tag
+import org.tasks.data.TagDao
+import org.tasks.data.TagData
+import org.tasks.data.TagDataDao
+import org.tasks.db.DbUtils.collect
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.QueryCounter
+import org.tasks.injection.TestComponent
+import org.tasks.jobs.WorkManager
+import org.tasks.makers.TaskMaker.PARENT
+import org.tasks.makers.TaskMaker.newTask
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class BulkTaskOperationsTest : InjectingTestCase() {
+    @Inject lateinit var taskDao: TaskDao
+    @Inject lateinit var tagDao: TagDao
+    @Inject lateinit var tagDataDao: TagDataDao
+    @Inject lateinit var caldavDao: CaldavDao
+    @Inject lateinit var alarmDao: AlarmDao
+    @Inject lateinit var taskCompleter: TaskCompleter
+    @Inject lateinit var taskDuplicator: TaskDuplicator
+    @Inject lateinit var taskMover: TaskMover
+
+    private val workManager = Mockito.mock(WorkManager::class.java)
+
+    @Before
+    override fun setUp() {
+        super.setUp()
+        taskDao.initialize(workManager)
+    }
+
+    @Test
+    fun completeManyTasks() {
+        val tasks = collect(createTasks()) { taskDao.fetch(it) }
+
+        val statements = QueryCounter.countStatements { taskDao.setCompletionDate(tasks, now()) }
+
+        assertTrue(collect(tasks.map { it.id }) { taskDao.fetch(it) }.all { it.isCompleted })
+        assertTrue("$statements statements", statements <= 2)
+        assertEquals(listOf(COUNT), afterSaveBatches())
+    }
+
+    @Test
+    fun completeTaskKeepsOtherChanges() {
+        val parent = newTask().apply { taskDao.createNew(this) }
+        val child = newTask(with(PARENT, parent.id)).apply { taskDao.createNew(this) }
+        val edited = taskDao.fetch(parent.id).apply { setTitle("edited") }
+
+        taskCompleter.setComplete(edited, true)
+
+        assertEquals("edited", taskDao.fetch(parent.id).title)
+        assertTrue(taskDao.fetch(parent.id).isCompleted)
+        assertTrue(taskDao.fetch(child.id).isCompleted)
+    }
+
+    @Test
+    fun duplicateManyTasks() {
+        val ids = createTasks()
+        val tag = TagData("tag").apply { tagDataDao.createNew(this) }
+        tagDao.insert(ids.map { Tag(it, null, tag.name, tag.remoteId) })
+        caldavDao.insert(ids.map { CaldavTask(it, "calendar") })
+        alarmDao.insert(ids.map { Alarm(it, 1) })
+
+        var clones = emptyList<Task>()
+        var queries = 0
+        val statements = QueryCounter.countStatements {
+            queries = QueryCounter.count { clones = taskDuplicator.duplicate(ids) }
+        }
+
+        val cloneIds = clones.map { it.id }
+        assertEquals(COUNT, cloneIds.size)
+        assertEquals(COUNT, collect(cloneIds) { tagDao.getTagsForTasks(it) }.size)
+        assertEquals(COUNT, collect(cloneIds) { caldavDao.getTasks(it) }.size)
+        assertEquals(COUNT, collect(cloneIds) { alarmDao.getAlarms(it) }.size)
+        // one insert per row and no updates afterwards
+        assertTrue("$statements statements", statements <= 4 * COUNT)
+        assertTrue("$queries queries", queries < 20)
+        assertEquals(listOf(COUNT), afterSaveBatches())
+    }
+
+    @Test
+    fun moveManyTasks() {
+        val ids = createTasks()
+
+        taskMover.move(ids, CaldavFilter(CaldavCalendar("", "calendar")))
+
+        assertEquals(COUNT, collect(ids) { caldavDao.getTasks(it) }.size)
+        verify(workManager, times(1)).sync(false)
+    }
+
+    private fun createTasks(): List<Long> = (1..COUNT).map {
+        newTask().apply { taskDao.createNew(this) }.id
+    }
+
+    /** @return number of tasks passed to each call to [WorkManager.afterSave] */
+    private fun afterSaveBatches(): List<Int> {
+        @Suppress("UNCHECKED_CAST")
+        val captor = ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<Task>>
+        verify(workManager, Mockito.atLeast(0)).afterSave(captor.capture(), Mockito.anyList<Task>())
+        verify(workManager, Mockito.never()).afterSave(Mockito.any(Task::class.java), Mockito.any())
+        return captor.allValues.map { it.size }
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val COUNT = 1000
+    }
+}
@@ -0,0 +1,165 @@
+package com.todoroo.astrid.service
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.natpryce.makeiteasy.MakeItEasy.with
+import com.todoroo.andlib.sql.QueryTemplate
+import com.todoroo.astrid.api.CaldavFilter
+import com.todoroo.astrid.api.Filter
+import com.todoroo.astrid.dao.Database
+import com.todoroo.astrid.dao.TaskDao
+import com.todoroo.astrid.dao.TaskDao.TaskCriteria.activeAndVisible
+import com.todoroo.astrid.data.Task
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.R
+import org.tasks.data.Alarm
+import org.tasks.data.AlarmDao
+import org.tasks.data.CaldavCalendar
+import org.tasks.data.CaldavDao
+import org.tasks.Measurement.Companion.measure
+import org.tasks.data.DeletionDao
+import org.tasks.db.QueryUtils.removeOrder
+import org.tasks.db.QueryUtils.showHiddenAndCompleted
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import org.tasks.makers.CaldavTaskMaker.CALENDAR
+import org.tasks.makers.CaldavTaskMaker.TASK
+import org.tasks.makers.CaldavTaskMaker.newCaldavTask
+import org.tasks.makers.TaskMaker.COMPLETION_TIME
+import org.tasks.makers.TaskMaker.DELETION_TIME
+import org.tasks.makers.TaskMaker.PARENT
+import org.tasks.makers.TaskMaker.newTask
+import org.tasks.preferences.Preferences
+import org.tasks.time.DateTime
+import timber.log.Timber
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class TaskDeleterTest : InjectingTestCase() {
+    @Inject lateinit var database: Database
+    @Inject lateinit var taskDao: TaskDao
+    @Inject lateinit var caldavDao: CaldavDao
+    @Inject lateinit var alarmDao: AlarmDao
+    @Inject lateinit var deletionDao: DeletionDao
+    @Inject lateinit var taskDeleter: TaskDeleter
+    @Inject lateinit var preferences: Preferences
+
+    @Test
+    fun clearCompletedInFilter() {
+        val completed = addTask("1", completed = true)
+        val otherList = addTask("2", completed = true)
+        val incomplete = addTask("1", completed = false)
+
+        assertEquals(1, taskDeleter.clearCompleted(CaldavFilter(CaldavCalendar("", "1"))))
+
+        assertTrue(taskDao.fetch(completed).isDeleted)
+        assertFalse(taskDao.fetch(otherList).isDeleted)
+        assertFalse(taskDao.fetch(incomplete).isDeleted)
+    }
+
+    @Test
+    fun clearCompletedDeletesSubtasks() {
+        val parent = addTask("1", completed = true)
+        val child = newTask(with(PARENT, parent)).apply { taskDao.createNew(this) }.id
+
+        taskDeleter.clearCompleted(CaldavFilter(CaldavCalendar("", "1")))
+
+        assertTrue(taskDao.fetch(child).isDeleted)
+    }
+
+    @Test
+    fun clearCompletedSubtasksOfMatchingParent() {
+        val parent = newTask().apply {
+            setTitle("parent")
+            taskDao.createNew(this)
+        }.id
+        val child = newTask(with(PARENT, parent), with(COMPLETION_TIME, DateTime()))
+                .apply { taskDao.createNew(this) }.id
+        val grandchild = newTask(with(PARENT, child), with(COMPLETION_TIME, DateTime()))
+                .apply { taskDao.createNew(this) }.id
+
+        assertEquals(2, taskDeleter.clearCompleted(titleFilter("parent")))
+
+        assertFalse(taskDao.fetch(parent).isDeleted)
+        assertTrue(taskDao.fetch(child).isDeleted)
+        assertTrue(taskDao.fetch(grandchild).isDeleted)
+    }
+
+    @Test
+    fun onlyClearMatchingTasksWhenSubtasksAreHidden() {
+        preferences.setBoolean(R.string.p_disable_subtasks, true)
+        val parent = newTask().apply {
+            setTitle("parent")
+            taskDao.createNew(this)
+        }.id
+        val child = newTask(with(PARENT, parent), with(COMPLETION_TIME, DateTime()))
+                .apply { taskDao.createNew(this) }.id
+
+        assertEquals(0, taskDeleter.clearCompleted(titleFilter("parent")))
+
+        assertFalse(taskDao.fetch(child).isDeleted)
+    }
+
+    @Test
+    fun purgeDeletedTasksAndMetadata() {
+        val deleted = newTask(with(DELETION_TIME, DateTime())).apply { taskDao.createNew(this) }.id
+        val active = newTask().apply { taskDao.createNew(this) }.id
+        alarmDao.insert(Alarm(deleted, 1))
+        alarmDao.insert(Alarm(active, 1))
+
+        assertEquals(1, taskDeleter.purgeDeleted())
+
+        assertNull(taskDao.fetch(deleted))
+        assertTrue(alarmDao.getAlarms(deleted).isEmpty())
+        assertEquals(1, alarmDao.getAlarms(active).size)
+    }
+
+    @Test
+    fun clearCompletedFromLargeList() {
+        database.runInTransaction {
+            repeat(TASKS) {
+                taskDao.createNew(if (it % 2 == 0) newTask() else newTask(with(COMPLETION_TIME, DateTime())))
+            }
+        }
+        val filter = Filter("", QueryTemplate().where(activeAndVisible()))
+        val query = removeOrder(showHiddenAndCompleted(filter.originalSqlQuery))
+
+        val entities = measure {
+            val completed = taskDao
+                    .fetchTasks(preferences, Filter(null, null).apply { setFilterQueryOverride(query) })
+                    .filter { it.isCompleted }
+                    .map { it.id }
+            deletionDao.markDeleted(completed)
+            assertEquals(TASKS / 2, completed.size)
+        }
+        database.openHelper.writableDatabase.execSQL("UPDATE tasks SET deleted = 0")
+        val setBased = measure {
+            assertEquals(TASKS / 2, taskDao.markCompletedDeleted(query, false).size)
+        }
+        Timber.d(
+                "clear %s completed: entities %sms %s bytes, set-based %sms %s bytes",
+                TASKS / 2, entities.millis, entities.bytes, setBased.millis, setBased.bytes)
+
+        assertTrue(setBased.bytes < entities.bytes)
+    }
+
+    private fun titleFilter(title: String) =
+            Filter("", QueryTemplate().where(Task.TITLE.eq(title)))
+
+    private fun addTask(calendar: String, completed: Boolean): Long {
+        val task = if (completed) newTask(with(COMPLETION_TIME, DateTime())) else newTask()
+        taskDao.createNew(task)
+        caldavDao.insert(newCaldavTask(with(TASK, task.id), with(CALENDAR, calendar)))
+        return task.id
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val TASKS = 50_000
+    }
+}
@@ -145,6 +145,17 @@ class TaskMoverTest : InjectingTestCase() {
         assertEquals(0, taskDao.fetch(3).getParent())
     }
 
+    @Test
+    fun spaceOrderOfLocalSubtasksMovedToGoogleTasks() {
+        createTasks(1)
+        createSubtask(2, 1)
+        createSubtask(3, 1)
+        moveToGoogleTasks("1", 1)
+        assertEquals(
+                listOf(0L, GoogleTaskDao.ORDER_GAP),
+                listOf(2L, 3L).map { googleTaskDao.getByTaskId(it).order }.sorted())
+    }
+
     @Test
     fun moveLocalChildToGoogleTasks() {
         createTasks(1)
@@ -13,12 +13,14 @@ import com.todoroo.astrid.utility.TitleParser
 import org.junit.Assert.*
 import org.junit.Test
 import org.junit.runner.RunWith
+import org.tasks.Measurement.Companion.measure
 import org.tasks.R
 import org.tasks.data.TagDataDao
 import org.tasks.date.DateTimeUtils
 import org.tasks.injection.InjectingTestCase
 import org.tasks.injection.TestComponent
 import org.tasks.preferences.Preferences
+import timber.log.Timber
 import java.util.*
 import javax.inject.Inject
 
@@ -427,4 +429,37 @@ class TitleParserTest : InjectingTestCase() {
                     tags.contains(tag))
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun parseManyTitles() {
+        val titles = (0 until 100).map {
+            when (it % 20) {
+                0 -> "Call mom tomorrow"
+                1 -> "Review pull request !!"
+                2 -> "Plan sprint #work"
+                3 -> "Pay rent monthly"
+                else -> "Pick up groceries on the way home $it"
+            }
+        }
+        val tags = ArrayList<String>()
+        var tagged = 0
+        val measurement = measure {
+            for (i in 0 until TITLES) {
+                tags.clear()
+                TitleParser.parse(tagDataDao, Task().apply { setTitle(titles[i % titles.size]) }, tags)
+                if (tags.isNotEmpty()) {
+                    tagged++
+                }
+            }
+        }
+        Timber.d(
+                "parsed %s titles in %sms, %s bytes per title",
+                TITLES, measurement.millis, measurement.bytes / TITLES)
+
+        assertEquals(TITLES / 20, tagged)
+    }
+
+    companion object {
+        private const val TITLES = 100_000
+    }
+}
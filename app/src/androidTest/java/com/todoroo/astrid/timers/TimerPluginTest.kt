@@ -0,0 +1,148 @@
+package com.todoroo.astrid.timers
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.dao.TaskDao
+import com.todoroo.astrid.data.Task
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.LocalBroadcastManager
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class TimerPluginTest : InjectingTestCase() {
+    @Inject lateinit var taskDao: TaskDao
+    @Inject lateinit var activeTimers: ActiveTimers
+    @Inject lateinit var timerPlugin: TimerPlugin
+    @Inject lateinit var localBroadcastManager: LocalBroadcastManager
+
+    @Test
+    fun loadRunningTimers() {
+        newTask(timerStart = 2000)
+        newTask(timerStart = 1000)
+        newTask(timerStart = 500, deleted = true)
+        newTask()
+
+        assertEquals(2, activeTimers.count())
+        assertEquals(1000, activeTimers.getEarliestStart())
+    }
+
+    @Test
+    fun reloadAfterInvalidate() {
+        val task = newTask()
+        assertEquals(0, activeTimers.count())
+
+        taskDao.setTimer(task.id, 1000, 0, 1000)
+        assertEquals(0, activeTimers.count())
+
+        activeTimers.invalidate()
+        assertEquals(1, activeTimers.count())
+    }
+
+    @Test
+    fun coalesceToggles() {
+        val task = newTask()
+
+        timerPlugin.startTimer(task)
+        timerPlugin.stopTimer(task)
+        timerPlugin.startTimer(task)
+
+        await { taskDao.fetch(task.id).timerStart > 0 }
+        assertEquals(1, activeTimers.count())
+    }
+
+    @Test
+    fun stopTimerAddsElapsedTime() {
+        val task = newTask(timerStart = System.currentTimeMillis() - 60_000)
+
+        timerPlugin.stopTimer(task)
+
+        await { taskDao.fetch(task.id).timerStart == 0L }
+        assertTrue(taskDao.fetch(task.id).elapsedSeconds >= 60)
+        assertEquals(0, activeTimers.count())
+    }
+
+    @Test
+    fun refreshAfterFlush() {
+        val task = newTask(timerStart = System.currentTimeMillis() - 60_000)
+        val refreshed = CountDownLatch(1)
+        val receiver = object : BroadcastReceiver() {
+            override fun onReceive(context: Context, intent: Intent) = refreshed.countDown()
+        }
+        localBroadcastManager.registerRefreshReceiver(receiver)
+        try {
+            timerPlugin.stopTimer(task)
+
+            assertTrue(refreshed.await(5, TimeUnit.SECONDS))
+            assertEquals(0L, taskDao.fetch(task.id).timerStart)
+        } finally {
+            localBroadcastManager.unregisterReceiver(receiver)
+        }
+    }
+
+    @Test
+    fun keepEditsSavedBeforeFlush() {
+        val task = newTask()
+
+        timerPlugin.startTimer(task)
+        val edited = taskDao.fetch(task.id)
+        edited.setTitle("edited")
+        taskDao.save(edited)
+
+        await { taskDao.fetch(task.id).timerStart > 0 }
+        assertEquals("edited", taskDao.fetch(task.id).title)
+    }
+
+    @Test
+    fun saveNewTask() {
+        val task = Task()
+
+        timerPlugin.startTimer(task)
+
+        await { !task.isNew }
+        await { activeTimers.count() == 1 }
+        assertTrue(taskDao.fetch(task.id).timerStart > 0)
+    }
+
+    @Test
+    fun removeDeletedTasks() {
+        val task = newTask(timerStart = 1000)
+        assertEquals(1, activeTimers.count())
+
+        timerPlugin.onDeleted(longArrayOf(task.id))
+
+        assertEquals(0, activeTimers.count())
+        assertFalse(activeTimers.getEarliestStart() > 0)
+    }
+
+    private fun newTask(timerStart: Long = 0, deleted: Boolean = false) =
+            Task().apply {
+                setTimerStart(timerStart)
+                if (deleted) {
+                    setDeletionDate(1000)
+                }
+                taskDao.createNew(this)
+            }
+
+    private fun await(condition: () -> Boolean) {
+        repeat(100) {
+            if (condition()) {
+                return
+            }
+            Thread.sleep(50)
+        }
+        fail("timed out")
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+}
@@ -0,0 +1,29 @@
+package org.tasks
+
+import android.os.Debug
+
+/** Elapsed time and allocations of a block run on the calling thread */
+data class Measurement(val millis: Long, val allocations: Int, val bytes: Long) {
+    companion object {
+        @Suppress("DEPRECATION")
+        fun measure(block: () -> Unit): Measurement {
+            Debug.resetThreadAllocCount()
+            Debug.resetThreadAllocSize()
+            Debug.startAllocCounting()
+            val start = System.nanoTime()
+            try {
+                block()
+            } finally {
+                Debug.stopAllocCounting()
+            }
+            val elapsed = System.nanoTime() - start
+            val measurement = Measurement(
+                    elapsed / 1_000_000,
+                    Debug.getThreadAllocCount(),
+                    Debug.getThreadAllocSize().toLong())
+            Debug.resetThreadAllocCount()
+            Debug.resetThreadAllocSize()
+            return measurement
+        }
+    }
+}
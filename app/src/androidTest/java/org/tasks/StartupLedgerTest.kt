@@ -0,0 +1,83 @@
+package org.tasks
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.InstrumentationRegistry
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.StartupLedger.Input.BOOT
+import org.tasks.StartupLedger.Input.VERSION
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import org.tasks.preferences.Preferences
+import java.io.File
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class StartupLedgerTest : InjectingTestCase() {
+    @Inject lateinit var preferences: Preferences
+
+    private val context = InstrumentationRegistry.getTargetContext()
+    private var runs = 0
+
+    override fun setUp() {
+        super.setUp()
+        preferences.clear()
+    }
+
+    @Test
+    fun runStepOnce() {
+        val ledger = StartupLedger(context, preferences)
+        ledger.run("step", { runs++ }, VERSION, BOOT)
+        ledger.run("step", { runs++ }, VERSION, BOOT)
+        assertEquals(1, runs)
+    }
+
+    @Test
+    fun runStepAfterInvalidate() {
+        val ledger = StartupLedger(context, preferences)
+        ledger.run("step", { runs++ }, VERSION)
+        ledger.invalidate()
+        ledger.run("step", { runs++ }, VERSION)
+        assertEquals(2, runs)
+    }
+
+    @Test
+    fun alwaysRunTracedStep() {
+        val ledger = StartupLedger(context, preferences)
+        ledger.trace("step") { runs++ }
+        ledger.trace("step") { runs++ }
+        assertEquals(2, runs)
+    }
+
+    @Test
+    fun appendReport() {
+        val file = File(context.filesDir, StartupLedger.REPORT)
+        file.delete()
+        val ledger = StartupLedger(context, preferences)
+        ledger.trace("first") {}
+        ledger.run("second", {}, VERSION)
+        ledger.report()
+        ledger.run("second", {}, VERSION)
+        ledger.report()
+        val lines = file.readLines()
+        assertEquals(2, lines.size)
+        assertTrue(lines[0].contains("first=") && lines[0].contains("second="))
+        assertTrue(lines[1].contains("second=skipped"))
+    }
+
+    @Test
+    fun trimReport() {
+        val file = File(context.filesDir, StartupLedger.REPORT)
+        file.writeText((1..300).joinToString("") { "old start $it ${"x".repeat(200)}\n" })
+        val ledger = StartupLedger(context, preferences)
+        ledger.trace("step") {}
+        ledger.report()
+        val lines = file.readLines()
+        assertEquals(100, lines.size)
+        assertTrue(lines.last().contains("step="))
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+}
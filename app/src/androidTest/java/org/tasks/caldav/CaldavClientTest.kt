@@ -3,6 +3,9 @@ package org.tasks.caldav
 import android.content.Context
 import androidx.test.core.app.ApplicationProvider
 import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.tasks.TestUtilities.newPreferences
@@ -11,11 +14,44 @@ import java.security.NoSuchAlgorithmException
 
 @RunWith(AndroidJUnit4::class)
 class CaldavClientTest {
+    private val context = ApplicationProvider.getApplicationContext<Context>()
+    private val clients = HttpClientRegistry(context, newPreferences(context), null)
+
     @Test
     @Throws(NoSuchAlgorithmException::class, KeyManagementException::class)
     fun dontCrashOnSpaceInUrl() {
-        val context = ApplicationProvider.getApplicationContext<Context>()
-        CaldavClient(context, null, newPreferences(context), null)
+        CaldavClient(null, clients)
                 .forUrl("https://example.com/remote.php/a space/", "username", "password")
     }
-}
\ No newline at end of file
+
+    @Test
+    fun reuseHttpClientForSameAccount() {
+        val client = CaldavClient(null, clients)
+        val first = client.forUrl("https://example.com/calendars/one/", "username", "password")
+        val second = client.forUrl("https://example.com/calendars/two/", "username", "password")
+
+        assertSame(first.httpClient, second.httpClient)
+        assertEquals(1, clients.misses)
+        assertEquals(1, clients.hits)
+    }
+
+    @Test
+    fun newHttpClientWhenPasswordChanges() {
+        val client = CaldavClient(null, clients)
+        val first = client.forUrl("https://example.com/", "username", "password")
+        val second = client.forUrl("https://example.com/", "username", "new password")
+
+        assertNotSame(first.httpClient, second.httpClient)
+        assertEquals(1, clients.clientCount)
+    }
+
+    @Test
+    fun separateHttpClientPerUser() {
+        val client = CaldavClient(null, clients)
+        val first = client.forUrl("https://example.com/", "user1", "password")
+        val second = client.forUrl("https://example.com/", "user2", "password")
+
+        assertNotSame(first.httpClient, second.httpClient)
+        assertEquals(2, clients.clientCount)
+    }
+}
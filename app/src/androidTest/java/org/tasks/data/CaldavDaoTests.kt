@@ -6,6 +6,7 @@ import com.todoroo.andlib.utility.DateUtilities
 import com.todoroo.astrid.dao.TaskDao
 import com.todoroo.astrid.helper.UUIDHelper
 import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
 import org.junit.Assert.assertTrue
 import org.junit.Test
 import org.junit.runner.RunWith
@@ -67,5 +68,71 @@ class CaldavDaoTests : InjectingTestCase() {
         assertTrue(caldavDao.getCaldavFilters(caldavAccount.uuid!!, DateUtilities.now()).isEmpty())
     }
 
+    @Test
+    fun vtodoIsStoredSeparately() {
+        val task = newTask(with(ID, 1L))
+        taskDao.createNew(task)
+        val caldavTask = CaldavTask(task.getId(), "calendar")
+        caldavTask.vtodo = VTODO
+        caldavTask.id = caldavDao.insert(caldavTask)
+        val loaded = caldavDao.getTask(task.getId())!!
+        assertNull(loaded.vtodo)
+        assertEquals(VTODO, caldavDao.getVtodo(loaded))
+    }
+
+    @Test
+    fun updateWithoutVtodoKeepsPayload() {
+        val task = newTask(with(ID, 1L))
+        taskDao.createNew(task)
+        val caldavTask = CaldavTask(task.getId(), "calendar")
+        caldavTask.vtodo = VTODO
+        caldavTask.id = caldavDao.insert(caldavTask)
+        val loaded = caldavDao.getTask(task.getId())!!
+        loaded.etag = "etag"
+        caldavDao.update(loaded)
+        assertEquals(VTODO, caldavDao.getVtodo(caldavDao.getTask(task.getId())!!))
+    }
+
+    @Test
+    fun vtodoIsCompressed() {
+        val task = newTask(with(ID, 1L))
+        taskDao.createNew(task)
+        val caldavTask = CaldavTask(task.getId(), "calendar")
+        caldavTask.vtodo = VTODO
+        caldavDao.insert(caldavTask)
+        val stats = caldavDao.getVtodoStats()
+        assertEquals(1, stats.count)
+        assertEquals(VTODO.length.toLong(), stats.size)
+        assertTrue(stats.stored < stats.size)
+    }
+
+    @Test
+    fun deleteRemovesVtodo() {
+        val task = newTask(with(ID, 1L))
+        taskDao.createNew(task)
+        val caldavTask = CaldavTask(task.getId(), "calendar")
+        caldavTask.vtodo = VTODO
+        caldavTask.id = caldavDao.insert(caldavTask)
+        caldavDao.delete(caldavTask)
+        assertEquals(0, caldavDao.getVtodoStats().count)
+    }
+
     override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val VTODO = """BEGIN:VCALENDAR
+VERSION:2.0
+PRODID:+//IDN tasks.org//android-90100//EN
+BEGIN:VTODO
+DTSTAMP:20200417T185224Z
+UID:2350123187279330298
+CREATED:20200417T185211Z
+LAST-MODIFIED:20200417T185219Z
+SUMMARY:Test title
+DESCRIPTION:Test description
+PRIORITY:9
+END:VTODO
+END:VCALENDAR
+"""
+    }
 }
\ No newline at end of file
@@ -2,21 +2,26 @@ package org.tasks.data
 
 import androidx.test.ext.junit.runners.AndroidJUnit4
 import com.natpryce.makeiteasy.MakeItEasy.with
+import com.todoroo.astrid.dao.Database
 import com.todoroo.astrid.dao.TaskDao
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.tasks.injection.InjectingTestCase
 import org.tasks.injection.TestComponent
 import org.tasks.makers.GoogleTaskMaker.LIST
+import org.tasks.makers.GoogleTaskMaker.ORDER
 import org.tasks.makers.GoogleTaskMaker.PARENT
 import org.tasks.makers.GoogleTaskMaker.REMOTE_ID
 import org.tasks.makers.GoogleTaskMaker.TASK
 import org.tasks.makers.GoogleTaskMaker.newGoogleTask
 import org.tasks.makers.GtaskListMaker.newGtaskList
 import org.tasks.makers.TaskMaker.newTask
+import timber.log.Timber
+import java.util.*
 import javax.inject.Inject
 
 @RunWith(AndroidJUnit4::class)
@@ -24,6 +29,7 @@ class GoogleTaskDaoTests : InjectingTestCase() {
     @Inject lateinit var googleTaskListDao: GoogleTaskListDao
     @Inject lateinit var googleTaskDao: GoogleTaskDao
     @Inject lateinit var taskDao: TaskDao
+    @Inject lateinit var database: Database
 
     @Before
     override fun setUp() {
@@ -53,15 +59,17 @@ class GoogleTaskDaoTests : InjectingTestCase() {
 
     @Test
     fun getPreviousIsNullForTopTask() {
-        googleTaskDao.insertAndShift(newGoogleTask(), true)
+        googleTaskDao.insert(newGoogleTask(), true)
         assertNull(googleTaskDao.getPrevious("1", 0, 0))
     }
 
     @Test
     fun getPrevious() {
-        insertTop(newGoogleTask())
+        insertTop(newGoogleTask(with(REMOTE_ID, "5678")))
         insertTop(newGoogleTask(with(REMOTE_ID, "1234")))
-        assertEquals("1234", googleTaskDao.getPrevious("1", 0, 1))
+        assertEquals(
+                "1234",
+                googleTaskDao.getPrevious("1", 0, googleTaskDao.getByRemoteId("5678").order))
     }
 
     @Test
@@ -72,18 +80,25 @@ class GoogleTaskDaoTests : InjectingTestCase() {
         assertEquals(2, tasks.size.toLong())
         val top = tasks[0]
         assertEquals("5678", top.remoteId)
-        assertEquals(0, top.order)
+        assertEquals(-GoogleTaskDao.ORDER_GAP, top.order)
     }
 
     @Test
-    fun insertAtTopOfListShiftsExisting() {
+    fun insertAtTopOfListDoesNotShiftExisting() {
         insertTop(newGoogleTask(with(REMOTE_ID, "1234")))
         insertTop(newGoogleTask(with(REMOTE_ID, "5678")))
         val tasks = googleTaskDao.getByLocalOrder("1")
         assertEquals(2, tasks.size.toLong())
         val bottom = tasks[1]
         assertEquals("1234", bottom.remoteId)
-        assertEquals(1, bottom.order)
+        assertEquals(0, bottom.order)
+    }
+
+    @Test
+    fun insertAtBottomLeavesGap() {
+        insertBottom(newGoogleTask(with(REMOTE_ID, "1234")))
+        insertBottom(newGoogleTask(with(REMOTE_ID, "5678")))
+        assertEquals(GoogleTaskDao.ORDER_GAP, googleTaskDao.getByRemoteId("5678").order)
     }
 
     @Test
@@ -100,50 +115,92 @@ class GoogleTaskDaoTests : InjectingTestCase() {
 
     @Test
     fun moveDownInList() {
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "1")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "2")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "3")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "1")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "2")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "3")), false)
         val two = getByRemoteId("2")
-        googleTaskDao.move(two, 0, 0)
-        assertEquals(0, googleTaskDao.getByRemoteId("2").order)
-        assertEquals(1, googleTaskDao.getByRemoteId("1").order)
-        assertEquals(2, googleTaskDao.getByRemoteId("3").order)
+        googleTaskDao.moveToTop(two, 0)
+        assertOrder("2", "1", "3")
     }
 
     @Test
     fun moveUpInList() {
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "1")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "2")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "3")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "1")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "2")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "3")), false)
         val one = getByRemoteId("1")
-        googleTaskDao.move(one, 0, 1)
-        assertEquals(0, googleTaskDao.getByRemoteId("2").order)
-        assertEquals(1, googleTaskDao.getByRemoteId("1").order)
-        assertEquals(2, googleTaskDao.getByRemoteId("3").order)
+        googleTaskDao.moveAfter(one, 0, getByRemoteId("2").order)
+        assertOrder("2", "1", "3")
     }
 
     @Test
     fun moveToTop() {
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "1")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "2")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "3")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "1")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "2")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "3")), false)
         val three = getByRemoteId("3")
-        googleTaskDao.move(three, 0, 0)
-        assertEquals(0, googleTaskDao.getByRemoteId("3").order)
-        assertEquals(1, googleTaskDao.getByRemoteId("1").order)
-        assertEquals(2, googleTaskDao.getByRemoteId("2").order)
+        googleTaskDao.moveToTop(three, 0)
+        assertOrder("3", "1", "2")
     }
 
     @Test
     fun moveToBottom() {
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "1")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "2")), false)
-        googleTaskDao.insertAndShift(newGoogleTask(with(REMOTE_ID, "3")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "1")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "2")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "3")), false)
         val one = getByRemoteId("1")
-        googleTaskDao.move(one, 0, 2)
-        assertEquals(0, googleTaskDao.getByRemoteId("2").order)
-        assertEquals(1, googleTaskDao.getByRemoteId("3").order)
-        assertEquals(2, googleTaskDao.getByRemoteId("1").order)
+        googleTaskDao.moveToBottom(one, 0)
+        assertOrder("2", "3", "1")
+    }
+
+    @Test
+    fun moveOnlyWritesMovedTask() {
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "1")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "2")), false)
+        googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "3")), false)
+        googleTaskDao.moveAfter(getByRemoteId("3"), 0, getByRemoteId("1").order)
+        assertEquals(0, googleTaskDao.getByRemoteId("1").order)
+        assertEquals(GoogleTaskDao.ORDER_GAP / 2, googleTaskDao.getByRemoteId("3").order)
+        assertEquals(GoogleTaskDao.ORDER_GAP, googleTaskDao.getByRemoteId("2").order)
+    }
+
+    @Test
+    fun respaceWhenGapIsUsedUp() {
+        (0..20).forEach {
+            googleTaskDao.insert(newGoogleTask(with(REMOTE_ID, "$it"), with(ORDER, it)))
+        }
+        googleTaskDao.moveAfter(getByRemoteId("20"), 0, 0)
+        assertOrder("0", "20", *(1..19).map { it.toString() }.toTypedArray())
+    }
+
+    @Test
+    fun moveThousandTasksInLargeList() {
+        val random = Random(1)
+        val remoteIds = (0 until 10_000).map { it.toString() }.toMutableList()
+        database.runInTransaction {
+            remoteIds.forEachIndexed { i, remoteId ->
+                googleTaskDao.insert(newGoogleTask(
+                        with(REMOTE_ID, remoteId), with(ORDER, i * GoogleTaskDao.ORDER_GAP.toInt())))
+            }
+        }
+
+        val written = countChanges {
+            repeat(1_000) {
+                val remoteId = remoteIds.removeAt(random.nextInt(remoteIds.size))
+                val position = random.nextInt(remoteIds.size + 1)
+                if (position == 0) {
+                    googleTaskDao.moveToTop(getByRemoteId(remoteId), 0)
+                } else {
+                    googleTaskDao.moveAfter(
+                            getByRemoteId(remoteId), 0, getByRemoteId(remoteIds[position - 1]).order)
+                }
+                remoteIds.add(position, remoteId)
+            }
+        }
+
+        Timber.d("Moved 1000 of 10000 tasks, %s rows written", written)
+        assertTrue(written <= 1_100)
+        assertOrder(*remoteIds.toTypedArray())
     }
 
     @Test
@@ -165,7 +222,28 @@ class GoogleTaskDaoTests : InjectingTestCase() {
         val task = newTask()
         taskDao.createNew(task)
         googleTask.task = task.getId()
-        googleTaskDao.insertAndShift(googleTask, top)
+        googleTaskDao.insert(googleTask, top)
+    }
+
+    private fun assertOrder(vararg remoteIds: String) {
+        val orders = remoteIds.toList()
+                .chunked(500)
+                .flatMap { googleTaskDao.getByRemoteId(it) }
+                .associate { it.remoteId to it.order }
+        val sorted = remoteIds.sortedBy { orders.getValue(it) }
+        assertEquals(remoteIds.toList(), sorted)
+        assertEquals(remoteIds.size, orders.values.distinct().size)
+    }
+
+    private fun countChanges(block: () -> Unit): Int {
+        val before = totalChanges()
+        block()
+        return totalChanges() - before
+    }
+
+    private fun totalChanges(): Int = database.query("SELECT total_changes()", null).use {
+        it.moveToFirst()
+        it.getInt(0)
     }
 
     private fun getByRemoteId(remoteId: String): SubsetGoogleTask {
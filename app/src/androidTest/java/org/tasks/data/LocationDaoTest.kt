@@ -9,7 +9,6 @@ import org.junit.Assert.*
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.tasks.Freeze
-import org.tasks.caldav.GeoUtils.toLikeString
 import org.tasks.date.DateTimeUtils.newDateTime
 import org.tasks.injection.InjectingTestCase
 import org.tasks.injection.TestComponent
@@ -39,7 +38,7 @@ class LocationDaoTest : InjectingTestCase() {
     @Test
     fun getExistingPlace() {
         locationDao.insert(newPlace(with(LATITUDE, 48.067222), with(LONGITUDE, 12.863611)))
-        val place = locationDao.findPlace(48.067222.toLikeString(), 12.863611.toLikeString())
+        val place = locationDao.findPlace(48.067222, 12.863611)
         assertEquals(48.067222, place?.latitude)
         assertEquals(12.863611, place?.longitude)
     }
@@ -47,7 +46,7 @@ class LocationDaoTest : InjectingTestCase() {
     @Test
     fun getPlaceWithLessPrecision() {
         locationDao.insert(newPlace(with(LATITUDE, 50.7547), with(LONGITUDE, -2.2279)))
-        val place = locationDao.findPlace(50.754712.toLikeString(), (-2.227945).toLikeString())
+        val place = locationDao.findPlace(50.754712, -2.227945)
         assertEquals(50.7547, place?.latitude)
         assertEquals(-2.2279, place?.longitude)
     }
@@ -56,11 +55,33 @@ class LocationDaoTest : InjectingTestCase() {
     fun getPlaceWithMorePrecision() {
         locationDao.insert(newPlace(with(LATITUDE, 36.246944), with(LONGITUDE, -116.816944)))
         locationDao.getPlaces().forEach { println(it) }
-        val place = locationDao.findPlace(36.2469.toLikeString(), (-116.8169).toLikeString())
+        val place = locationDao.findPlace(36.2469, -116.8169)
         assertEquals(36.246944, place?.latitude)
         assertEquals(-116.816944, place?.longitude)
     }
 
+    @Test
+    fun ignoreDistantPlace() {
+        locationDao.insert(newPlace(with(LATITUDE, 48.067222), with(LONGITUDE, 12.863611)))
+        assertNull(locationDao.findPlace(48.067722, 12.863611))
+    }
+
+    @Test
+    fun findPlaceAcrossGeohashBoundary() {
+        locationDao.insert(newPlace(with(LATITUDE, 0.00001), with(LONGITUDE, 0.00001)))
+        val place = locationDao.findPlace(-0.00001, -0.00001)
+        assertEquals(0.00001, place?.latitude)
+    }
+
+    @Test
+    fun nearestPlaceFirst() {
+        locationDao.insert(newPlace(with(LATITUDE, 40.0005), with(LONGITUDE, -75.0)))
+        locationDao.insert(newPlace(with(LATITUDE, 40.0001), with(LONGITUDE, -75.0)))
+        locationDao.insert(newPlace(with(LATITUDE, 40.1), with(LONGITUDE, -75.0)))
+        val places = locationDao.getPlacesNear(40.0, -75.0, 100.0)
+        assertEquals(listOf(40.0001, 40.0005), places.map { it.latitude })
+    }
+
     @Test
     fun noActiveGeofences() {
         val place = newPlace()
@@ -0,0 +1,109 @@
+package org.tasks.etesync
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.etesync.journalmanager.Exceptions.IntegrityException
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(AndroidJUnit4::class)
+class JournalPagerTest {
+    private val pager = JournalPager()
+    private val entries = (1..10).map { it.toString() }
+
+    @Test
+    fun deliverPagesInOrder() {
+        val pages = ArrayList<List<String>>()
+
+        pager.fetch(null, 3, { load(it) }, { load(it) }, { it }, { pages.add(it) })
+
+        assertEquals(listOf(
+                listOf("1", "2", "3"),
+                listOf("4", "5", "6"),
+                listOf("7", "8", "9"),
+                listOf("10")), pages)
+    }
+
+    @Test
+    fun prefetchOnAnotherThread() {
+        val caller = Thread.currentThread()
+        val threads = HashSet<Thread>()
+
+        pager.fetch(
+                null,
+                3,
+                { threads.add(Thread.currentThread()); load(it) },
+                { load(it) },
+                { it },
+                {})
+
+        assertEquals(1, threads.size)
+        assertNotEquals(caller, threads.single())
+    }
+
+    @Test
+    fun propagatePrefetchError() {
+        val pages = ArrayList<List<String>>()
+        try {
+            pager.fetch(
+                    null,
+                    3,
+                    { throw IntegrityException("bad hmac") },
+                    { load(it) },
+                    { it },
+                    { pages.add(it) })
+            fail()
+        } catch (e: IntegrityException) {
+            assertEquals("bad hmac", e.message)
+        }
+        assertEquals(1, pages.size)
+    }
+
+    @Test
+    fun propagateRuntimeError() {
+        try {
+            pager.fetch<String>(null, 3, { throw IllegalStateException() }, { load(it) }, { it }, {})
+            fail()
+        } catch (e: IllegalStateException) {
+        }
+    }
+
+    @Test
+    fun cancelPrefetchWhenCallbackThrows() {
+        val started = CountDownLatch(1)
+        val interrupted = CountDownLatch(1)
+        try {
+            pager.fetch(
+                    null,
+                    3,
+                    {
+                        started.countDown()
+                        try {
+                            Thread.sleep(10_000)
+                        } catch (e: InterruptedException) {
+                            interrupted.countDown()
+                        }
+                        load(it)
+                    },
+                    { load(it) },
+                    { it },
+                    {
+                        started.await()
+                        throw IllegalStateException()
+                    })
+            fail()
+        } catch (e: IllegalStateException) {
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS))
+    }
+
+    private fun load(last: String?): List<String> {
+        val start = last?.let { entries.indexOf(it) + 1 } ?: 0
+        return entries.subList(start, minOf(start + 3, entries.size))
+    }
+}
@@ -0,0 +1,305 @@
+package org.tasks.filters
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.natpryce.makeiteasy.MakeItEasy.with
+import com.todoroo.andlib.sql.UnaryCriterion
+import com.todoroo.astrid.api.MultipleSelectCriterion
+import com.todoroo.astrid.api.PermaSql
+import com.todoroo.astrid.api.TextInputCriterion
+import com.todoroo.astrid.core.CriterionInstance
+import com.todoroo.astrid.core.CriterionInstance.TYPE_ADD
+import com.todoroo.astrid.core.CriterionInstance.TYPE_INTERSECT
+import com.todoroo.astrid.core.CriterionInstance.TYPE_SUBTRACT
+import com.todoroo.astrid.core.CriterionInstance.TYPE_UNIVERSE
+import com.todoroo.astrid.dao.Database
+import com.todoroo.astrid.dao.TaskDao
+import com.todoroo.astrid.dao.TaskDao.TaskCriteria
+import com.todoroo.astrid.data.Task
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.data.CaldavDao
+import org.tasks.data.CaldavTask
+import org.tasks.data.GoogleTask
+import org.tasks.data.GoogleTaskDao
+import org.tasks.data.Tag
+import org.tasks.data.TagDao
+import org.tasks.data.TagDataDao
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import org.tasks.makers.TagDataMaker.NAME
+import org.tasks.makers.TagDataMaker.newTagData
+import org.tasks.makers.TaskMaker.COMPLETION_TIME
+import org.tasks.makers.TaskMaker.DELETION_TIME
+import org.tasks.makers.TaskMaker.DUE_DATE
+import org.tasks.makers.TaskMaker.newTask
+import org.tasks.time.DateTime
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class FilterCompilerTest : InjectingTestCase() {
+    @Inject lateinit var taskDao: TaskDao
+    @Inject lateinit var tagDao: TagDao
+    @Inject lateinit var tagDataDao: TagDataDao
+    @Inject lateinit var googleTaskDao: GoogleTaskDao
+    @Inject lateinit var caldavDao: CaldavDao
+    @Inject lateinit var database: Database
+    @Inject lateinit var provider: FilterCriteriaProvider
+    @Inject lateinit var filterCompiler: FilterCompiler
+
+    @Before
+    override fun setUp() {
+        super.setUp()
+        val now = DateTime()
+        addTask("alpha", Task.Priority.HIGH, now.minusDays(1), "work").also {
+            googleTaskDao.insert(GoogleTask(it.getId(), "list"))
+        }
+        addTask("beta", Task.Priority.LOW, null, "home").also {
+            caldavDao.insert(CaldavTask(it.getId(), "calendar"))
+        }
+        addTask("Alpha beta", Task.Priority.NONE, now.plusDays(1), "work", "home")
+        addTask("gamma", Task.Priority.MEDIUM, now.plusDays(14))
+        addTask("it's | odd", Task.Priority.MEDIUM, null, "it's")
+        taskDao.createNew(newTask(with(COMPLETION_TIME, now)).apply { setTitle("alpha") })
+        taskDao.createNew(newTask(with(DELETION_TIME, now)).apply { setTitle("alpha") })
+        taskDao.createNew(newTask().apply {
+            setTitle("alpha")
+            setHideUntil(now.plusDays(1).millis)
+        })
+    }
+
+    @Test
+    fun universe() = assertSameResults(universe)
+
+    @Test
+    fun titleContains() = assertSameResults(universe, criterion(TITLE, "alpha", TYPE_INTERSECT))
+
+    @Test
+    fun titleWithQuote() = assertSameResults(universe, criterion(TITLE, "it's", TYPE_INTERSECT))
+
+    @Test
+    fun importance() =
+            assertSameResults(universe, criterion(IMPORTANCE, "${Task.Priority.MEDIUM}", TYPE_INTERSECT))
+
+    @Test
+    fun noDueDate() = assertSameResults(universe, criterion(DUE, "0", TYPE_INTERSECT))
+
+    @Test
+    fun dueBeforeToday() =
+            assertSameResults(universe, criterion(DUE, PermaSql.VALUE_EOD, TYPE_INTERSECT))
+
+    @Test
+    fun dueBeforeNextWeek() =
+            assertSameResults(universe, criterion(DUE, PermaSql.VALUE_EOD_NEXT_WEEK, TYPE_INTERSECT))
+
+    @Test
+    fun tagIs() = assertSameResults(universe, criterion(TAG_IS, "work", TYPE_INTERSECT))
+
+    @Test
+    fun tagWithQuote() = assertSameResults(universe, criterion(TAG_IS, "it's", TYPE_INTERSECT))
+
+    @Test
+    fun tagContains() = assertSameResults(universe, criterion(TAG_CONTAINS, "o", TYPE_INTERSECT))
+
+    @Test
+    fun googleTaskList() = assertSameResults(universe, criterion(GTASKS, "list", TYPE_INTERSECT))
+
+    @Test
+    fun caldavCalendar() = assertSameResults(universe, criterion(CALDAV, "calendar", TYPE_INTERSECT))
+
+    @Test
+    fun intersectTags() =
+            assertSameResults(
+                    universe,
+                    criterion(TAG_IS, "work", TYPE_INTERSECT),
+                    criterion(TAG_IS, "home", TYPE_INTERSECT))
+
+    @Test
+    fun subtractTitle() =
+            assertSameResults(universe, criterion(TITLE, "alpha", TYPE_SUBTRACT))
+
+    @Test
+    fun subtractTag() =
+            assertSameResults(
+                    universe,
+                    criterion(TITLE, "a", TYPE_INTERSECT),
+                    criterion(TAG_IS, "home", TYPE_SUBTRACT))
+
+    @Test
+    fun addAfterIntersect() =
+            assertSameResults(
+                    universe,
+                    criterion(TAG_IS, "work", TYPE_INTERSECT),
+                    criterion(TITLE, "gamma", TYPE_ADD))
+
+    @Test
+    fun mixedOperators() =
+            assertSameResults(
+                    universe,
+                    criterion(IMPORTANCE, "${Task.Priority.MEDIUM}", TYPE_INTERSECT),
+                    criterion(TAG_CONTAINS, "or", TYPE_ADD),
+                    criterion(DUE, PermaSql.VALUE_EOD_TOMORROW, TYPE_SUBTRACT),
+                    criterion(CALDAV, "calendar", TYPE_ADD),
+                    criterion(TITLE, "beta", TYPE_INTERSECT))
+
+    @Test
+    fun addUniverse() =
+            assertSameResults(
+                    universe,
+                    criterion(TAG_IS, "work", TYPE_INTERSECT),
+                    CriterionInstance(universe).apply { type = TYPE_ADD })
+
+    @Test
+    fun activeAndVisibleAppliedOnce() {
+        val sql = filterCompiler.compile(listOf(
+                universe,
+                criterion(TAG_IS, "work", TYPE_INTERSECT),
+                criterion(TITLE, "alpha", TYPE_ADD),
+                criterion(DUE, PermaSql.VALUE_EOD, TYPE_SUBTRACT))).sql
+        val activeAndVisible = TaskCriteria.activeAndVisible().toString()
+        assertEquals(1, sql.split(activeAndVisible).size - 1)
+    }
+
+    @Test
+    fun compileSerializedCriteria() {
+        val criteria = listOf(
+                universe,
+                criterion(TAG_IS, "it's", TYPE_INTERSECT),
+                criterion(TITLE, "odd", TYPE_ADD))
+        assertEquals(
+                filterCompiler.compile(criteria).sql,
+                filterCompiler.compile(CriterionInstance.serialize(criteria))!!.sql)
+    }
+
+    @Test
+    fun runningCounts() {
+        val criteria = listOf(
+                universe,
+                criterion(TITLE, "alpha", TYPE_INTERSECT),
+                criterion(TAG_IS, "home", TYPE_ADD),
+                criterion(TITLE, "beta", TYPE_SUBTRACT))
+        val counter = CriterionCounter(database, filterCompiler)
+        counter.update(criteria)
+        counter.close()
+        for (i in criteria.indices) {
+            assertEquals(query(filterCompiler.compile(criteria.subList(0, i + 1)).sql).size, criteria[i].end)
+        }
+        assertEquals(5, criteria[0].max)
+    }
+
+    @Test
+    fun invalidateCountsWhenTasksChange() {
+        val criteria = listOf(universe, criterion(TITLE, "gamma", TYPE_INTERSECT))
+        val counter = CriterionCounter(database, filterCompiler)
+        counter.update(criteria)
+        assertEquals(1, criteria.last().end)
+        addTask("gamma 2", Task.Priority.NONE, null)
+        counter.invalidate()
+        counter.update(criteria)
+        counter.close()
+        assertEquals(2, criteria.last().end)
+    }
+
+    @Test
+    fun cacheCompiledFilters() {
+        val criterion = CriterionInstance.serialize(listOf(universe, criterion(TITLE, "alpha", TYPE_ADD)))
+
+        val compiled = filterCompiler.compile(criterion)
+
+        assertSame(compiled, filterCompiler.compile(criterion))
+        assertNotSame(compiled, FilterCompiler().compile(criterion))
+    }
+
+    @Test
+    fun fallBackToStoredSql() {
+        assertEquals(" WHERE 1", filterCompiler.getSql("invalid", " WHERE 1"))
+    }
+
+    private fun assertSameResults(vararg criteria: CriterionInstance) {
+        val list = criteria.toList()
+        val expected = query(legacySql(list))
+        val compiled = filterCompiler.compile(list)
+        assertEquals(expected, query(compiled.sql))
+        assertEquals(expected, query(filterCompiler.compile(CriterionInstance.serialize(list))!!.sql))
+        database.query("SELECT COUNT(*) FROM tasks" + compiled.selection, compiled.args).use {
+            it.moveToNext()
+            assertEquals(expected.size, it.getInt(0))
+        }
+        val counter = CriterionCounter(database, filterCompiler)
+        counter.update(list)
+        counter.close()
+        assertEquals(expected.size, list.last().end)
+    }
+
+    private fun query(sql: String): List<Long> =
+            taskDao.fetchFiltered(sql).map { it.getId() }.sorted()
+
+    /** Subquery per criterion, as filters were stored before they were compiled */
+    private fun legacySql(criteria: List<CriterionInstance>): String {
+        val sql = StringBuilder(" WHERE ")
+        for (instance in criteria) {
+            val value = instance.valueFromCriterion ?: ""
+            when (instance.type) {
+                TYPE_ADD -> sql.append("OR ")
+                TYPE_SUBTRACT -> sql.append("AND NOT ")
+                TYPE_INTERSECT -> sql.append("AND ")
+            }
+            if (instance.type == TYPE_UNIVERSE || instance.criterion.sql == null) {
+                sql.append(TaskCriteria.activeAndVisible()).append(' ')
+            } else {
+                val subSql = instance.criterion.sql.replace("?", UnaryCriterion.sanitize(value))
+                sql.append(Task.ID).append(" IN (").append(subSql).append(") ")
+            }
+        }
+        return sql.toString()
+    }
+
+    private val universe: CriterionInstance
+        get() = CriterionInstance().apply {
+            criterion = provider.startingUniverse
+            type = TYPE_UNIVERSE
+        }
+
+    private fun criterion(identifier: String, value: String, type: Int) =
+            CriterionInstance().apply {
+                criterion = provider.getFilterCriteria(identifier)
+                when (val c = criterion) {
+                    is TextInputCriterion -> selectedText = value
+                    is MultipleSelectCriterion -> {
+                        c.entryTitles = arrayOf(value)
+                        c.entryValues = arrayOf(value)
+                        selectedIndex = 0
+                    }
+                }
+                this.type = type
+            }
+
+    private fun addTask(
+            title: String, priority: Int, due: DateTime?, vararg tags: String): Task {
+        val task = newTask(with(DUE_DATE, due))
+        task.setTitle(title)
+        task.setPriority(priority)
+        taskDao.createNew(task)
+        for (tag in tags) {
+            val tagData = tagDataDao.getTagByName(tag)
+                    ?: newTagData(with(NAME, tag)).also { tagDataDao.createNew(it) }
+            tagDao.insert(Tag(task, tagData))
+        }
+        return task
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val TITLE = FilterCriteriaProvider.IDENTIFIER_TITLE
+        private const val IMPORTANCE = FilterCriteriaProvider.IDENTIFIER_IMPORTANCE
+        private const val DUE = FilterCriteriaProvider.IDENTIFIER_DUEDATE
+        private const val TAG_IS = FilterCriteriaProvider.IDENTIFIER_TAG_IS
+        private const val TAG_CONTAINS = FilterCriteriaProvider.IDENTIFIER_TAG_CONTAINS
+        private const val GTASKS = FilterCriteriaProvider.IDENTIFIER_GTASKS
+        private const val CALDAV = FilterCriteriaProvider.IDENTIFIER_CALDAV
+    }
+}
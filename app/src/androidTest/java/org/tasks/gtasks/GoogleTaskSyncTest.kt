@@ -0,0 +1,144 @@
+package org.tasks.gtasks
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.google.api.services.tasks.model.Tasks
+import com.natpryce.makeiteasy.MakeItEasy.with
+import com.todoroo.astrid.gtasks.api.GtasksInvoker
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.DebugNetworkInterceptor
+import org.tasks.data.GoogleTaskDao
+import org.tasks.data.GoogleTaskList
+import org.tasks.data.GoogleTaskListDao
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.QueryCounter
+import org.tasks.injection.TestComponent
+import org.tasks.makers.GtaskListMaker.ACCOUNT
+import org.tasks.makers.GtaskListMaker.REMOTE_ID
+import org.tasks.makers.GtaskListMaker.newGtaskList
+import org.tasks.preferences.Preferences
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import javax.inject.Inject
+import com.google.api.services.tasks.model.Task as RemoteTask
+
+@RunWith(AndroidJUnit4::class)
+class GoogleTaskSyncTest : InjectingTestCase() {
+    @Inject lateinit var synchronizer: GoogleTaskSynchronizer
+    @Inject lateinit var googleTaskListDao: GoogleTaskListDao
+    @Inject lateinit var googleTaskDao: GoogleTaskDao
+    @Inject lateinit var googleAccountManager: GoogleAccountManager
+    @Inject lateinit var preferences: Preferences
+    @Inject lateinit var interceptor: DebugNetworkInterceptor
+
+    @Test
+    fun accountsSyncInParallel() {
+        val started = CountDownLatch(3)
+        val executor = Executors.newFixedThreadPool(3)
+        val results = (1..3).map { account ->
+            val list = newList("account$account", "list$account")
+            val api = object : FakeTasksApi(pages("list$account", 1)) {
+                override fun onPage(page: Int) {
+                    started.countDown()
+                    // only returns true if every account is syncing at the same time
+                    overlapped = started.await(10, TimeUnit.SECONDS)
+                }
+            }
+            executor.submit<Boolean> {
+                synchronizer.fetchAndApplyRemoteChanges(api, list)
+                api.overlapped
+            }
+        }
+        executor.shutdown()
+
+        results.forEach { assertTrue(it.get()) }
+        (1..3).forEach {
+            val remoteIds = (0 until PAGE_SIZE).map { position -> "list$it-$position" }
+            assertEquals(PAGE_SIZE, googleTaskDao.getByRemoteId(remoteIds).size)
+        }
+    }
+
+    @Test
+    fun resolvesParentsAcrossPages() {
+        val list = newList("account", "list")
+        val api = FakeTasksApi(pages("list", 3))
+
+        synchronizer.fetchAndApplyRemoteChanges(api, list)
+
+        val remoteTasks = api.pages.flatten()
+        val googleTasks = googleTaskDao
+                .getByRemoteId(remoteTasks.map { it.id })
+                .associateBy { it.remoteId }
+        assertEquals(3 * PAGE_SIZE, googleTasks.size)
+        for (remote in remoteTasks) {
+            val parent = remote.parent?.let { googleTasks.getValue(it).task } ?: 0L
+            assertEquals(parent, googleTasks.getValue(remote.id).parent)
+        }
+    }
+
+    @Test
+    fun queryCountPerPageIsFixed() {
+        val onePage = countUpdateQueries("list1", 1)
+        val threePages = countUpdateQueries("list2", 3)
+
+        assertEquals(3 * onePage, threePages)
+    }
+
+    /** @return queries used to apply changes to tasks that were already synchronized */
+    private fun countUpdateQueries(listId: String, pages: Int): Int {
+        val list = newList("account", listId)
+        val api = FakeTasksApi(pages(listId, pages))
+        synchronizer.fetchAndApplyRemoteChanges(api, list)
+        return QueryCounter.count { synchronizer.fetchAndApplyRemoteChanges(api, list) }
+    }
+
+    private fun newList(account: String, remoteId: String): GoogleTaskList {
+        val list = newGtaskList(with(ACCOUNT, account), with(REMOTE_ID, remoteId))
+        googleTaskListDao.insertOrReplace(list)
+        return list
+    }
+
+    /** every tenth task is a parent, with the following nine tasks as its children */
+    private fun pages(listId: String, count: Int): List<List<RemoteTask>> =
+            (0 until count).map { page ->
+                (0 until PAGE_SIZE).map {
+                    val position = page * PAGE_SIZE + it
+                    RemoteTask()
+                            .setId("$listId-$position")
+                            .setTitle("Task $position")
+                            .setPosition(String.format("%020d", position))
+                            .setParent(
+                                    if (position % 10 == 0) null else "$listId-${position / 10 * 10}")
+                }
+            }
+
+    private open inner class FakeTasksApi(val pages: List<List<RemoteTask>>) : GtasksInvoker(
+            ApplicationProvider.getApplicationContext<Context>(),
+            googleAccountManager,
+            preferences,
+            interceptor) {
+        var overlapped = false
+
+        open fun onPage(page: Int) {}
+
+        override fun getAllGtasksFromListId(
+                listId: String?, lastSyncDate: Long, pageToken: String?): Tasks {
+            val page = pageToken?.toInt() ?: 0
+            onPage(page)
+            return Tasks()
+                    .setItems(pages[page])
+                    .setNextPageToken(if (page + 1 < pages.size) "${page + 1}" else null)
+        }
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val PAGE_SIZE = 100
+    }
+}
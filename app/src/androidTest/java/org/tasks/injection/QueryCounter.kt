@@ -0,0 +1,103 @@
+package org.tasks.injection
+
+import android.database.Cursor
+import android.os.CancellationSignal
+import androidx.sqlite.db.SupportSQLiteDatabase
+import androidx.sqlite.db.SupportSQLiteOpenHelper
+import androidx.sqlite.db.SupportSQLiteQuery
+import androidx.sqlite.db.SupportSQLiteStatement
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory
+
+/** Counts the queries and statements run on the calling thread */
+object QueryCounter : SupportSQLiteOpenHelper.Factory {
+    private val factory = FrameworkSQLiteOpenHelperFactory()
+    private val queries = ThreadLocal<IntArray>()
+    private val statements = ThreadLocal<IntArray>()
+
+    fun count(block: () -> Unit): Int = count(queries, block)
+
+    /** @return inserts, updates, deletes and other statements executed by [block] */
+    fun countStatements(block: () -> Unit): Int = count(statements, block)
+
+    private fun count(counts: ThreadLocal<IntArray>, block: () -> Unit): Int {
+        val count = IntArray(1)
+        counts.set(count)
+        try {
+            block()
+        } finally {
+            counts.remove()
+        }
+        return count[0]
+    }
+
+    override fun create(configuration: SupportSQLiteOpenHelper.Configuration): SupportSQLiteOpenHelper =
+            CountingOpenHelper(factory.create(configuration))
+
+    private fun increment(counts: ThreadLocal<IntArray> = queries) {
+        counts.get()?.let { it[0]++ }
+    }
+
+    private class CountingOpenHelper(
+            private val helper: SupportSQLiteOpenHelper) : SupportSQLiteOpenHelper by helper {
+        override fun getWritableDatabase(): SupportSQLiteDatabase =
+                CountingDatabase(helper.writableDatabase)
+
+        override fun getReadableDatabase(): SupportSQLiteDatabase =
+                CountingDatabase(helper.readableDatabase)
+    }
+
+    private class CountingDatabase(
+            private val db: SupportSQLiteDatabase) : SupportSQLiteDatabase by db {
+        override fun query(query: String?): Cursor {
+            increment()
+            return db.query(query)
+        }
+
+        override fun query(query: String?, bindArgs: Array<out Any?>?): Cursor {
+            increment()
+            return db.query(query, bindArgs)
+        }
+
+        override fun query(query: SupportSQLiteQuery?): Cursor {
+            increment()
+            return db.query(query)
+        }
+
+        override fun query(
+                query: SupportSQLiteQuery?, cancellationSignal: CancellationSignal?): Cursor {
+            increment()
+            return db.query(query, cancellationSignal)
+        }
+
+        override fun execSQL(sql: String?) {
+            increment(statements)
+            db.execSQL(sql)
+        }
+
+        override fun execSQL(sql: String?, bindArgs: Array<out Any?>?) {
+            increment(statements)
+            db.execSQL(sql, bindArgs)
+        }
+
+        override fun compileStatement(sql: String?): SupportSQLiteStatement =
+                CountingStatement(db.compileStatement(sql))
+    }
+
+    private class CountingStatement(
+            private val statement: SupportSQLiteStatement) : SupportSQLiteStatement by statement {
+        override fun execute() {
+            increment(statements)
+            statement.execute()
+        }
+
+        override fun executeUpdateDelete(): Int {
+            increment(statements)
+            return statement.executeUpdateDelete()
+        }
+
+        override fun executeInsert(): Long {
+            increment(statements)
+            return statement.executeInsert()
+        }
+    }
+}
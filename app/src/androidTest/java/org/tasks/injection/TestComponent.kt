@@ -1,21 +1,31 @@
 package org.tasks.injection
 
 import com.todoroo.astrid.alarms.AlarmJobServiceTest
+import com.todoroo.astrid.backup.TasksXmlImporterTest
 import com.todoroo.astrid.dao.TaskDaoTests
 import com.todoroo.astrid.gtasks.GtasksListServiceTest
 import com.todoroo.astrid.gtasks.GtasksMetadataServiceTest
 import com.todoroo.astrid.model.TaskTest
 import com.todoroo.astrid.reminders.ReminderServiceTest
 import com.todoroo.astrid.repeats.RepeatTaskHelperTest
+import com.todoroo.astrid.service.BulkTaskOperationsTest
 import com.todoroo.astrid.service.QuickAddMarkupTest
+import com.todoroo.astrid.service.TaskDeleterTest
 import com.todoroo.astrid.service.TaskMoverTest
 import com.todoroo.astrid.service.TitleParserTest
 import com.todoroo.astrid.subtasks.SubtasksHelperTest
 import com.todoroo.astrid.subtasks.SubtasksMovingTest
 import com.todoroo.astrid.sync.NewSyncTestCase
+import com.todoroo.astrid.timers.TimerPluginTest
 import dagger.Component
 import org.tasks.data.*
+import org.tasks.StartupLedgerTest
+import org.tasks.filters.FilterCompilerTest
+import org.tasks.gtasks.GoogleTaskSyncTest
 import org.tasks.jobs.BackupServiceTests
+import org.tasks.location.PlaceSearchTest
+import org.tasks.tasklist.ViewHolderTest
+import org.tasks.ui.ChipListCacheTest
 
 @ApplicationScope
 @Component(modules = [TestModule::class])
@@ -40,4 +50,14 @@ interface TestComponent : ApplicationComponent {
     fun inject(taskMoverTest: TaskMoverTest)
     fun inject(locationDaoTest: LocationDaoTest)
     fun inject(googleTaskListDaoTest: GoogleTaskListDaoTest)
+    fun inject(filterCompilerTest: FilterCompilerTest)
+    fun inject(startupLedgerTest: StartupLedgerTest)
+    fun inject(googleTaskSyncTest: GoogleTaskSyncTest)
+    fun inject(placeSearchTest: PlaceSearchTest)
+    fun inject(bulkTaskOperationsTest: BulkTaskOperationsTest)
+    fun inject(taskDeleterTest: TaskDeleterTest)
+    fun inject(chipListCacheTest: ChipListCacheTest)
+    fun inject(tasksXmlImporterTest: TasksXmlImporterTest)
+    fun inject(timerPluginTest: TimerPluginTest)
+    fun inject(viewHolderTest: ViewHolderTest)
 }
\ No newline at end of file
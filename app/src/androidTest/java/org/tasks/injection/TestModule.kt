@@ -16,6 +16,7 @@ class TestModule {
     @ApplicationScope
     fun getDatabase(@ForApplication context: Context): Database {
         return Room.inMemoryDatabaseBuilder(context, Database::class.java)
+                .openHelperFactory(QueryCounter)
                 .fallbackToDestructiveMigration()
                 .build()
     }
@@ -264,6 +264,26 @@ class NotificationQueueTest {
         }
     }
 
+    @Test
+    fun dropEntriesAfterHorizon() {
+        val now = DateTimeUtils.currentTimeMillis()
+        queue.clear(now + ONE_MINUTE)
+        queue.add(ReminderEntry(1, now, ReminderService.TYPE_DUE))
+        queue.add(ReminderEntry(2, now + 2 * ONE_MINUTE, ReminderService.TYPE_DUE))
+        Mockito.verify(workManager).cancelNotifications()
+        Mockito.verify(workManager).scheduleNotification(now)
+        assertEquals(listOf(ReminderEntry(1, now, ReminderService.TYPE_DUE)), queue.jobs)
+    }
+
+    @Test
+    fun extendHorizon() {
+        queue.clear(ONE_MINUTE)
+        assertEquals(ONE_MINUTE, queue.extendHorizon(2 * ONE_MINUTE))
+        assertEquals(2 * ONE_MINUTE, queue.extendHorizon(ONE_MINUTE))
+        assertEquals(2 * ONE_MINUTE, queue.horizon)
+        Mockito.verify(workManager).cancelNotifications()
+    }
+
     companion object {
         private val ONE_MINUTE = TimeUnit.MINUTES.toMillis(1)
     }
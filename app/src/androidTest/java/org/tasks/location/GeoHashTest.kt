@@ -0,0 +1,35 @@
+package org.tasks.location
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class GeoHashTest {
+    @Test
+    fun encode() = assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11))
+
+    @Test
+    fun encodeFullPrecision() =
+            assertEquals(GeoHash.MAX_PRECISION, GeoHash.encode(57.64911, 10.40744).length)
+
+    @Test
+    fun coverIncludesNeighbors() {
+        val cells = GeoHash.cover(0.0, 0.0, 25.0)
+        assertEquals(9, cells.size)
+        assertTrue(cells.contains(GeoHash.encode(0.00001, 0.00001, 7)))
+        assertTrue(cells.contains(GeoHash.encode(-0.00001, -0.00001, 7)))
+    }
+
+    @Test
+    fun coverWrapsAntimeridian() {
+        val cells = GeoHash.cover(0.0, 179.99999, 25.0)
+        assertTrue(cells.contains(GeoHash.encode(0.0, -179.99999, cells.first().length)))
+    }
+
+    @Test
+    fun smallerCellsForSmallerRadius() =
+            assertTrue(GeoHash.precisionFor(0.0, 25.0) > GeoHash.precisionFor(0.0, 1000.0))
+}
@@ -0,0 +1,103 @@
+package org.tasks.location
+
+import android.location.Location
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.natpryce.makeiteasy.MakeItEasy.with
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.data.MergedGeofence
+import org.tasks.makers.PlaceMaker.LATITUDE
+import org.tasks.makers.PlaceMaker.LONGITUDE
+import org.tasks.makers.PlaceMaker.UUID
+import org.tasks.makers.PlaceMaker.newPlace
+
+@RunWith(AndroidJUnit4::class)
+class GeofenceBudgetTest {
+    @Test
+    fun registerEverythingWithinBudget() {
+        val geofences = listOf(geofence("a", 1.0), geofence("b", 2.0))
+
+        val budget = GeofenceBudget.select(geofences, location(0.0), 2)
+
+        assertEquals(geofences, budget.selected)
+        assertEquals(0f, budget.rerankRadius)
+    }
+
+    @Test
+    fun selectNearestPlaces() {
+        val geofences = listOf(
+                geofence("far", 0.3),
+                geofence("near", 0.01),
+                geofence("farthest", 0.4),
+                geofence("nearer", 0.005))
+
+        val budget = GeofenceBudget.select(geofences, location(0.0), 3)
+
+        assertEquals(listOf("nearer", "near"), budget.selected.map { it.uid })
+    }
+
+    @Test
+    fun rerankBeforeExcludedPlaceIsReached() {
+        val geofences = listOf(
+                geofence("a", 0.01),
+                geofence("b", 0.1),
+                geofence("c", 0.2))
+
+        val budget = GeofenceBudget.select(geofences, location(0.0), 2)
+        val distance = FloatArray(1)
+        Location.distanceBetween(0.0, 0.0, 0.1, 0.0, distance)
+
+        assertEquals(distance[0] - RADIUS, budget.rerankRadius, 1f)
+    }
+
+    @Test
+    fun minimumRerankRadius() {
+        val geofences = listOf(
+                geofence("a", 0.0001),
+                geofence("b", 0.0002),
+                geofence("c", 0.0003))
+
+        val budget = GeofenceBudget.select(geofences, location(0.0), 2)
+
+        assertEquals(GeofenceBudget.MIN_RERANK_RADIUS, budget.rerankRadius)
+    }
+
+    @Test
+    fun selectOldestPlacesWithoutLocation() {
+        val geofences = (1..150).map { geofence("$it", it / 100.0, id = it.toLong()) }.shuffled()
+
+        val budget = GeofenceBudget.select(geofences, null, GeofenceBudget.MAX_GEOFENCES)
+
+        assertEquals((1..100).map { "$it" }, budget.selected.map { it.uid })
+        assertEquals(0f, budget.rerankRadius)
+    }
+
+    @Test
+    fun registerEverythingWithinBudgetWithoutLocation() {
+        val geofences = listOf(geofence("a", 1.0), geofence("b", 2.0))
+
+        val budget = GeofenceBudget.select(geofences, null, 2)
+
+        assertEquals(geofences, budget.selected)
+    }
+
+    private fun location(latitude: Double): Location {
+        val location = Location("test")
+        location.latitude = latitude
+        location.longitude = 0.0
+        return location
+    }
+
+    private fun geofence(uid: String, latitude: Double, id: Long = 0): MergedGeofence {
+        val geofence = MergedGeofence()
+        geofence.place = newPlace(with(UUID, uid), with(LATITUDE, latitude), with(LONGITUDE, 0.0))
+        geofence.place.id = id
+        geofence.radius = RADIUS.toInt()
+        return geofence
+    }
+
+    companion object {
+        private const val RADIUS = 250f
+    }
+}
@@ -0,0 +1,216 @@
+package org.tasks.location
+
+import android.os.Bundle
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.natpryce.makeiteasy.MakeItEasy.with
+import io.reactivex.functions.Cancellable
+import io.reactivex.observers.TestObserver
+import io.reactivex.schedulers.Schedulers
+import io.reactivex.schedulers.TestScheduler
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.Callback
+import org.tasks.R
+import org.tasks.data.LocationDao
+import org.tasks.data.Place
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import org.tasks.location.PlaceSearch.DEBOUNCE_MILLIS
+import org.tasks.makers.PlaceMaker.LATITUDE
+import org.tasks.makers.PlaceMaker.LONGITUDE
+import org.tasks.makers.PlaceMaker.NAME
+import org.tasks.makers.PlaceMaker.newPlace
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class PlaceSearchTest : InjectingTestCase() {
+    @Inject lateinit var locationDao: LocationDao
+
+    private val scheduler = TestScheduler()
+    private val provider = FakeSearchProvider()
+    private lateinit var search: PlaceSearch
+    private lateinit var results: TestObserver<List<PlaceSearchResult>>
+    private val errors = ArrayList<String>()
+
+    override fun setUp() {
+        super.setUp()
+        search = PlaceSearch(provider, locationDao, scheduler, Schedulers.trampoline())
+        results = search.results(Callback { errors.add(it) }).test()
+    }
+
+    @Test
+    fun onlySearchAfterTypingStops() {
+        type("c", "co", "cof", "coffee")
+        advance(DEBOUNCE_MILLIS - 1)
+
+        assertEquals(emptyList<String>(), provider.requests)
+
+        advance(1)
+
+        assertEquals(listOf("coffee"), provider.requests)
+    }
+
+    @Test
+    fun newQueryCancelsRequestInFlight() {
+        query("coffee")
+        advance(DEBOUNCE_MILLIS)
+        query("tea")
+        advance(DEBOUNCE_MILLIS + LATENCY)
+
+        assertEquals(listOf("coffee", "tea"), provider.requests)
+        assertEquals(listOf("coffee"), provider.cancelled)
+        assertEquals(listOf(listOf("tea")), names())
+    }
+
+    @Test
+    fun ignoreStaleResponse() {
+        provider.ignoreCancel = true
+        query("coffee")
+        advance(DEBOUNCE_MILLIS)
+        query("tea")
+        advance(DEBOUNCE_MILLIS + LATENCY)
+
+        assertEquals(listOf("coffee"), provider.cancelled)
+        assertEquals(listOf(listOf("tea")), names())
+    }
+
+    @Test
+    fun cachedQueryIsNotSentAgain() {
+        search("coffee")
+        search("tea")
+        search("coffee")
+
+        assertEquals(listOf("coffee", "tea"), provider.requests)
+        assertEquals(listOf(listOf("coffee"), listOf("tea"), listOf("coffee")), names())
+    }
+
+    @Test
+    fun savedPlacesBeforeRemoteResults() {
+        locationDao.insert(place("coffee shop", 45.0))
+        locationDao.insert(place("tea house", 45.0))
+        locationDao.insert(place("far away coffee", 0.0))
+
+        query("coffee", MapPosition(45.0, 45.0))
+        advance(DEBOUNCE_MILLIS)
+
+        assertEquals(listOf(listOf("coffee shop")), names())
+
+        advance(LATENCY)
+
+        assertEquals(listOf(listOf("coffee shop"), listOf("coffee shop", "coffee")), names())
+        assertEquals(listOf("coffee"), provider.requests)
+        assertTrue(PlaceSearch.isLocal(results.values().last()[0]))
+        assertFalse(PlaceSearch.isLocal(results.values().last()[1]))
+    }
+
+    @Test
+    fun emptyQueryClearsWithoutSearching() {
+        search("coffee")
+        query("")
+        advance(0)
+
+        assertEquals(listOf(listOf("coffee"), emptyList()), names())
+        assertEquals(listOf("coffee"), provider.requests)
+    }
+
+    @Test
+    fun errorsAreReported() {
+        provider.error = "offline"
+        search("coffee")
+        search("tea")
+
+        assertEquals(listOf("offline", "offline"), errors)
+        assertEquals(listOf("coffee", "tea"), provider.requests)
+        results.assertNoErrors()
+    }
+
+    @Test
+    fun keepSearchingAfterFailure() {
+        provider.exception = IllegalStateException("boom")
+        search("coffee")
+        provider.exception = null
+        search("tea")
+
+        assertEquals(listOf("boom"), errors)
+        assertEquals(listOf(listOf("tea")), names())
+        results.assertNoErrors()
+    }
+
+    private fun type(vararg queries: String) = queries.forEachIndexed { i, query ->
+        if (i > 0) {
+            advance(DEBOUNCE_MILLIS / 3)
+        }
+        query(query)
+    }
+
+    private fun search(query: String) {
+        query(query)
+        advance(DEBOUNCE_MILLIS + LATENCY)
+    }
+
+    private fun query(query: String, bias: MapPosition? = null) = search.query(query, bias)
+
+    private fun place(name: String, position: Double) =
+            newPlace(with(NAME, name), with(LATITUDE, position), with(LONGITUDE, position))
+
+    private fun advance(millis: Long) = scheduler.advanceTimeBy(millis, MILLISECONDS)
+
+    private fun names() = results.values().map { results -> results.map { it.name } }
+
+    /** Responds after [LATENCY] */
+    private inner class FakeSearchProvider : PlaceSearchProvider {
+        val requests = ArrayList<String>()
+        val cancelled = ArrayList<String>()
+        var ignoreCancel = false
+        var error: String? = null
+        var exception: RuntimeException? = null
+
+        override fun search(
+                query: String,
+                bias: MapPosition?,
+                onSuccess: Callback<List<PlaceSearchResult>>,
+                onError: Callback<String>): Cancellable {
+            exception?.let { throw it }
+            requests.add(query)
+            var done = false
+            val response = scheduler.scheduleDirect({
+                done = true
+                val message = error
+                if (message == null) {
+                    onSuccess.call(listOf(PlaceSearchResult(query, query, null)))
+                } else {
+                    onError.call(message)
+                }
+            }, LATENCY, MILLISECONDS)
+            return Cancellable {
+                if (!done) {
+                    cancelled.add(query)
+                    if (!ignoreCancel) {
+                        response.dispose()
+                    }
+                }
+            }
+        }
+
+        override fun fetch(
+                placeSearchResult: PlaceSearchResult,
+                onSuccess: Callback<Place>,
+                onError: Callback<String>) = onSuccess.call(placeSearchResult.place)
+
+        override fun restoreState(savedInstanceState: Bundle?) {}
+
+        override fun saveState(outState: Bundle?) {}
+
+        override fun getAttributionRes(dark: Boolean) = R.drawable.mapbox_logo_icon
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val LATENCY = 500L
+    }
+}
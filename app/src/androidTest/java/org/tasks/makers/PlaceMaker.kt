@@ -11,12 +11,14 @@ object PlaceMaker {
     val LATITUDE: Property<Place, Double> = Property.newProperty()
     val LONGITUDE: Property<Place, Double> = Property.newProperty()
     val UUID: Property<Place, String> = Property.newProperty()
+    val NAME: Property<Place, String?> = Property.newProperty()
 
     private val instantiator = Instantiator { lookup: PropertyLookup<Place> ->
         val place = Place()
         place.uid = lookup.valueOf(UUID, UUIDHelper.newUUID())
         place.latitude = lookup.valueOf(LATITUDE, 0.0)
         place.longitude = lookup.valueOf(LONGITUDE, 0.0)
+        place.name = lookup.valueOf(NAME, null as String?)
         place
     }
 
@@ -0,0 +1,39 @@
+package org.tasks.preferences
+
+import android.content.Context
+import android.content.ContextWrapper
+import android.content.SharedPreferences
+
+/** Counts reads from the [SharedPreferences] opened through this context */
+class CountingContext(base: Context) : ContextWrapper(base) {
+    var reads = 0
+
+    override fun getSharedPreferences(name: String, mode: Int): SharedPreferences =
+            CountingSharedPreferences(super.getSharedPreferences(name, mode))
+
+    private inner class CountingSharedPreferences(
+            private val delegate: SharedPreferences
+    ) : SharedPreferences by delegate {
+        override fun getAll(): MutableMap<String, *> = delegate.all.also { reads++ }
+
+        override fun getString(key: String?, defValue: String?) =
+                delegate.getString(key, defValue).also { reads++ }
+
+        override fun getStringSet(key: String?, defValues: MutableSet<String>?) =
+                delegate.getStringSet(key, defValues).also { reads++ }
+
+        override fun getInt(key: String?, defValue: Int) =
+                delegate.getInt(key, defValue).also { reads++ }
+
+        override fun getLong(key: String?, defValue: Long) =
+                delegate.getLong(key, defValue).also { reads++ }
+
+        override fun getFloat(key: String?, defValue: Float) =
+                delegate.getFloat(key, defValue).also { reads++ }
+
+        override fun getBoolean(key: String?, defValue: Boolean) =
+                delegate.getBoolean(key, defValue).also { reads++ }
+
+        override fun contains(key: String?) = delegate.contains(key).also { reads++ }
+    }
+}
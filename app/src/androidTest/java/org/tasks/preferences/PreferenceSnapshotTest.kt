@@ -0,0 +1,108 @@
+package org.tasks.preferences
+
+import android.content.Context
+import android.content.ContextWrapper
+import android.content.SharedPreferences
+import androidx.test.InstrumentationRegistry
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.core.SortHelper
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.R
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@RunWith(AndroidJUnit4::class)
+class PreferenceSnapshotTest {
+    private val context = CountingContext(ApplicationProvider.getApplicationContext<Context>())
+    private lateinit var preferences: Preferences
+
+    @Before
+    fun setUp() {
+        preferences = Preferences(context, "test_preferences")
+        preferences.clear()
+        preferences.setSortMode(SortHelper.SORT_AUTO)
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+    }
+
+    @Test
+    fun readPreferencesOnce() {
+        preferences.snapshot
+        context.reads = 0
+
+        repeat(1000) {
+            preferences.snapshot.showDescription()
+        }
+
+        assertEquals(0, context.reads)
+    }
+
+    @Test
+    fun changeWhileBuildingIsNotLost() {
+        val showDescription = context.getString(R.string.p_show_description)
+        val building = CountDownLatch(1)
+        val changed = CountDownLatch(1)
+        // pauses the first snapshot right after it reads the old value
+        val slowContext = object : ContextWrapper(context) {
+            override fun getSharedPreferences(name: String, mode: Int): SharedPreferences {
+                val delegate = super.getSharedPreferences(name, mode)
+                return object : SharedPreferences by delegate {
+                    override fun getBoolean(key: String?, defValue: Boolean) =
+                            delegate.getBoolean(key, defValue).also {
+                                if (key == showDescription && building.count > 0) {
+                                    building.countDown()
+                                    changed.await(500, TimeUnit.MILLISECONDS)
+                                }
+                            }
+                }
+            }
+        }
+        val slowPreferences = Preferences(slowContext, "test_preferences")
+        val reader = Thread { slowPreferences.snapshot }
+        reader.start()
+        building.await()
+
+        slowPreferences.setBoolean(R.string.p_show_description, false)
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+        changed.countDown()
+        reader.join()
+
+        assertFalse(slowPreferences.snapshot.showDescription())
+    }
+
+    @Test
+    fun changesReachSnapshot() {
+        assertTrue(preferences.snapshot.showDescription())
+
+        preferences.setBoolean(R.string.p_show_description, false)
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+
+        assertFalse(preferences.snapshot.showDescription())
+    }
+
+    @Test
+    fun sortModeChangesReachSnapshot() {
+        assertEquals(SortHelper.SORT_AUTO, preferences.snapshot.sortMode)
+
+        preferences.setSortMode(SortHelper.SORT_ALPHA)
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+
+        assertEquals(SortHelper.SORT_ALPHA, preferences.snapshot.sortMode)
+    }
+
+    @Test
+    fun clearResetsSnapshot() {
+        preferences.setBoolean(R.string.p_show_hidden_tasks, true)
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+        assertTrue(preferences.snapshot.showHidden())
+
+        preferences.clear()
+
+        assertFalse(preferences.snapshot.showHidden())
+    }
+}
@@ -0,0 +1,148 @@
+package org.tasks.tasklist
+
+import androidx.recyclerview.widget.DiffUtil
+import androidx.recyclerview.widget.ListUpdateCallback
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.adapter.TaskAdapter
+import com.todoroo.astrid.data.Task
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.data.TaskContainer
+import timber.log.Timber
+import java.util.*
+
+@RunWith(AndroidJUnit4::class)
+class KeyedDiffTest {
+    private val adapter = TaskAdapter()
+
+    @Test
+    fun noChanges() {
+        val recorder = diff(tasks(1, 2, 3), tasks(1, 2, 3))
+        assertTrue(recorder.operations.isEmpty())
+    }
+
+    @Test
+    fun insertAndRemove() {
+        val recorder = diff(tasks(1, 2, 3, 4), tasks(5, 1, 3, 6, 7))
+        assertEquals(listOf(5L, 1, 3, 6, 7), recorder.items)
+        assertEquals(0, recorder.moves)
+    }
+
+    @Test
+    fun singleMoveToEnd() {
+        val recorder = diff(tasks(1, 2, 3, 4), tasks(2, 3, 4, 1))
+        assertEquals(listOf("move 0 3"), recorder.operations)
+    }
+
+    @Test
+    fun singleMoveToStart() {
+        val recorder = diff(tasks(1, 2, 3, 4), tasks(4, 1, 2, 3))
+        assertEquals(listOf("move 3 0"), recorder.operations)
+    }
+
+    @Test
+    fun changedContents() {
+        val old = tasks(1, 2, 3)
+        val new = tasks(1, 2, 3).apply { this[1].task.title = "changed" }
+        assertEquals(listOf("change 1 1"), diff(old, new).operations)
+    }
+
+    @Test
+    fun changedIndent() {
+        val old = tasks(1, 2)
+        val new = tasks(1, 2).apply { this[1].indent = 1 }
+        assertEquals(listOf("change 1 1"), diff(old, new).operations)
+    }
+
+    @Test
+    fun placeholdersMatchByPosition() {
+        val old = tasks(1, 2) + listOf<TaskContainer?>(null, null)
+        val new = tasks(2, 1) + listOf<TaskContainer?>(null, null, null)
+        val recorder = diff(old, new)
+        assertEquals(listOf(2L, 1, -3, -4, -5), recorder.items)
+        assertEquals(1, recorder.moves)
+    }
+
+    @Test
+    fun randomLists() {
+        val random = Random(1)
+        repeat(500) {
+            val old = (1L..random.nextInt(40)).filter { random.nextInt(5) > 0 }.toMutableList()
+            val new = old.filter { random.nextInt(5) > 0 }.toMutableList()
+            repeat(random.nextInt(5)) { new.add(random.nextInt(new.size + 1), 100L + it) }
+            repeat(random.nextInt(3)) {
+                if (new.isNotEmpty()) {
+                    new.add(random.nextInt(new.size), new.removeAt(random.nextInt(new.size)))
+                }
+            }
+            assertEquals(new, diff(tasks(*old.toLongArray()), tasks(*new.toLongArray())).items)
+        }
+    }
+
+    @Test
+    fun movesInLongList() {
+        val old = (1L..5000L).toList()
+        val new = old.toMutableList().apply {
+            add(100, removeAt(4000))
+            add(4500, removeAt(10))
+        }
+        val oldTasks = tasks(*old.toLongArray())
+        val newTasks = tasks(*new.toLongArray())
+
+        var start = System.nanoTime()
+        val recorder = diff(oldTasks, newTasks)
+        val keyed = System.nanoTime() - start
+        start = System.nanoTime()
+        DiffUtil.calculateDiff(DiffCallback(oldTasks, newTasks, adapter), true)
+        val myers = System.nanoTime() - start
+        Timber.d("KeyedDiff: %sus, DiffUtil: %sus", keyed / 1000, myers / 1000)
+
+        assertEquals(new, recorder.items)
+        assertEquals(2, recorder.moves)
+    }
+
+    private fun diff(old: List<TaskContainer?>, new: List<TaskContainer?>): Recorder {
+        val recorder = Recorder(old.mapIndexed { i, task -> task?.id ?: -1L - i }, new)
+        KeyedDiff.calculate(DiffCallback(old, new, adapter)).dispatchUpdatesTo(recorder)
+        return recorder
+    }
+
+    private fun tasks(vararg ids: Long): List<TaskContainer> = ids.map { id ->
+        TaskContainer().apply { task = Task().apply { setId(id) } }
+    }
+
+    /** Applies updates to a list of keys, inserted items take their key from the new list */
+    private class Recorder(
+            old: List<Long>, private val new: List<TaskContainer?>) : ListUpdateCallback {
+        private val keys = old.toMutableList()
+        val operations = ArrayList<String>()
+        var moves = 0
+
+        val items: List<Long>
+            get() = keys.mapIndexed { i, key ->
+                if (key == Long.MIN_VALUE) new[i]?.id ?: -1L - i else key
+            }
+
+        override fun onInserted(position: Int, count: Int) {
+            operations.add("insert $position $count")
+            repeat(count) { keys.add(position, Long.MIN_VALUE) }
+        }
+
+        override fun onRemoved(position: Int, count: Int) {
+            operations.add("remove $position $count")
+            repeat(count) { keys.removeAt(position) }
+        }
+
+        override fun onMoved(fromPosition: Int, toPosition: Int) {
+            operations.add("move $fromPosition $toPosition")
+            moves++
+            keys.add(toPosition, keys.removeAt(fromPosition))
+        }
+
+        override fun onChanged(position: Int, count: Int, payload: Any?) {
+            operations.add("change $position $count")
+        }
+    }
+}
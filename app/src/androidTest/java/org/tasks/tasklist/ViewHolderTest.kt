@@ -0,0 +1,150 @@
+package org.tasks.tasklist
+
+import android.app.Activity
+import android.app.Application
+import android.content.Intent
+import android.content.pm.ActivityInfo
+import android.view.View
+import android.widget.FrameLayout
+import androidx.test.InstrumentationRegistry
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.api.Filter
+import com.todoroo.astrid.core.BuiltInFilterExposer
+import com.todoroo.astrid.data.Task
+import com.todoroo.astrid.service.TaskCompleter
+import dagger.Lazy
+import org.junit.Assert.assertEquals
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.R
+import org.tasks.billing.Inventory
+import org.tasks.data.TagData
+import org.tasks.data.TagDataDao
+import org.tasks.data.TaskContainer
+import org.tasks.dialogs.DialogBuilder
+import org.tasks.dialogs.Linkify
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import org.tasks.locale.Locale
+import org.tasks.preferences.CountingContext
+import org.tasks.preferences.Preferences
+import org.tasks.themes.ColorProvider
+import org.tasks.ui.CheckBoxProvider
+import org.tasks.ui.ChipListCache
+import org.tasks.ui.ChipProvider
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class ViewHolderTest : InjectingTestCase() {
+    @Inject lateinit var tagDataDao: TagDataDao
+    @Inject lateinit var inventory: Inventory
+    @Inject lateinit var locale: Locale
+    @Inject lateinit var taskCompleter: TaskCompleter
+    @Inject lateinit var chipListCache: Lazy<ChipListCache>
+
+    private val instrumentation = InstrumentationRegistry.getInstrumentation()
+    private val context = CountingContext(ApplicationProvider.getApplicationContext())
+    private lateinit var preferences: Preferences
+    private lateinit var viewHolder: ViewHolder
+
+    @Before
+    override fun setUp() {
+        super.setUp()
+        preferences = Preferences(context, "test_preferences")
+        preferences.clear()
+        preferences.setBoolean(R.string.p_linkify_task_list, true)
+        instrumentation.waitForIdleSync()
+        instrumentation.runOnMainSync {
+            val activity = newActivity()
+            val colorProvider = ColorProvider(activity, preferences)
+            val chipProvider = ChipProvider(
+                    activity, inventory, chipListCache.get(), preferences, colorProvider, locale)
+            viewHolder = ViewHolderFactory(
+                    activity,
+                    preferences,
+                    chipProvider,
+                    CheckBoxProvider(activity, colorProvider),
+                    taskCompleter,
+                    Linkify(activity, DialogBuilder(activity, locale)))
+                    .newViewHolder(FrameLayout(activity), Callbacks())
+        }
+    }
+
+    @Test
+    fun bindManyRowsWithoutReadingPreferences() {
+        val tags = (1..3).map { TagData("tag $it").apply { tagDataDao.createNew(this) }.remoteId!! }
+        val filter = BuiltInFilterExposer.getMyTasksFilter(context.resources)
+        val rows = (0 until ROWS).map { newRow(it, tags) }
+        awaitChips(rows.last(), filter)
+        context.reads = 0
+
+        instrumentation.runOnMainSync { rows.forEach { viewHolder.bindView(it, filter) } }
+
+        assertEquals(0, context.reads)
+        assertEquals(View.VISIBLE, viewHolder.chipGroup.visibility)
+        assertEquals(View.VISIBLE, viewHolder.description.visibility)
+    }
+
+    private fun newRow(index: Int, tags: List<String>) = TaskContainer().apply {
+        task = Task().apply {
+            setTitle("Task $index https://tasks.org")
+            setNotes("Notes $index")
+        }
+        this.tags = tags.take(index % tags.size + 1).joinToString(",")
+    }
+
+    /** Binds [row] until the chip list cache has loaded its tags */
+    private fun awaitChips(row: TaskContainer, filter: Filter) {
+        repeat(100) {
+            var visible = false
+            instrumentation.runOnMainSync {
+                viewHolder.bindView(row, filter)
+                visible = viewHolder.chipGroup.visibility == View.VISIBLE
+            }
+            if (visible) {
+                return
+            }
+            Thread.sleep(50)
+        }
+        fail("chips not loaded")
+    }
+
+    /** An activity attached to the application without being started */
+    private fun newActivity(): Activity =
+            instrumentation
+                    .newActivity(
+                            Activity::class.java,
+                            ApplicationProvider.getApplicationContext(),
+                            null,
+                            ApplicationProvider.getApplicationContext<Application>(),
+                            Intent(),
+                            ActivityInfo(),
+                            "",
+                            null,
+                            null,
+                            null)
+                    .apply { setTheme(R.style.Tasks) }
+
+    private class Callbacks : ViewHolder.ViewHolderCallbacks {
+        override fun onCompletedTask(task: TaskContainer, newState: Boolean) {}
+
+        override fun onClick(viewHolder: ViewHolder) {}
+
+        override fun onClick(filter: Filter) {}
+
+        override fun toggleSubtasks(task: TaskContainer, collapsed: Boolean) {}
+
+        override fun onLongPress(viewHolder: ViewHolder) = false
+
+        override fun onChangeDueDate(task: TaskContainer) {}
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val ROWS = 1000
+    }
+}
@@ -0,0 +1,168 @@
+package org.tasks.time
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.Measurement.Companion.measure
+import timber.log.Timber
+import java.util.*
+import java.util.concurrent.TimeUnit
+
+@RunWith(AndroidJUnit4::class)
+class DateMathTest {
+    private val defaultTimeZone = TimeZone.getDefault()
+
+    @Before
+    fun setUp() = setTimeZone("America/Chicago")
+
+    @After
+    fun tearDown() {
+        TimeZone.setDefault(defaultTimeZone)
+        DateMath.resetZone()
+    }
+
+    @Test
+    fun matchesDateTimeInChicago() = assertMatchesDateTime("America/Chicago")
+
+    @Test
+    fun matchesDateTimeInLondon() = assertMatchesDateTime("Europe/London")
+
+    @Test
+    fun matchesDateTimeWithHalfHourDST() = assertMatchesDateTime("Australia/Lord_Howe")
+
+    @Test
+    fun matchesDateTimeWithoutDST() = assertMatchesDateTime("Asia/Kolkata")
+
+    @Test
+    fun matchesDateTimeInUTC() = assertMatchesDateTime("UTC")
+
+    @Test
+    fun withMillisOfDayMovesForwardInGap() {
+        val start = DateTime(2015, 3, 8, 0, 0, 0).millis
+        assertEquals(
+                DateTime(2015, 3, 8, 3, 0, 0).millis,
+                DateMath.withMillisOfDay(start, TimeUnit.HOURS.toMillis(2).toInt()))
+    }
+
+    @Test
+    fun withMillisOfDayUsesStandardTimeInOverlap() {
+        val start = DateTime(2015, 11, 1, 0, 0, 0).millis
+        val result = DateMath.withMillisOfDay(start, TimeUnit.HOURS.toMillis(1).toInt())
+        assertEquals(1, DateTime(result).hourOfDay)
+        assertEquals(DateTime(2015, 11, 1, 0, 0, 0).millis + TimeUnit.HOURS.toMillis(2), result)
+    }
+
+    @Test
+    fun plusDaysAcrossDST() {
+        assertEquals(
+                DateTime(2015, 3, 9, 9, 30, 0).millis,
+                DateMath.plusDays(DateTime(2015, 3, 7, 9, 30, 0).millis, 2))
+        assertEquals(
+                DateTime(2015, 10, 31, 9, 30, 0).millis,
+                DateMath.plusDays(DateTime(2015, 11, 2, 9, 30, 0).millis, -2))
+    }
+
+    @Test
+    fun resetZone() {
+        val date = DateTime(2015, 10, 6, 14, 45, 15).millis
+        assertEquals(DateTime(2015, 10, 6, 0, 0, 0).millis, DateMath.startOfDay(date))
+        setTimeZone("Asia/Tokyo")
+        assertEquals(DateTime(2015, 10, 7, 0, 0, 0).millis, DateMath.startOfDay(date))
+    }
+
+    @Test
+    fun beforeEpoch() {
+        val date = DateTime(1969, 12, 31, 23, 59, 59, 999)
+        assertEquals(date.startOfDay().millis, DateMath.startOfDay(date.millis))
+        assertEquals(date.millisOfDay, DateMath.getMillisOfDay(date.millis))
+        assertEquals(date.dayOfWeek, DateMath.getDayOfWeek(date.millis))
+    }
+
+    @Test(expected = RuntimeException::class)
+    fun illegalMillisOfDay() {
+        DateMath.withMillisOfDay(DateTime().millis, DateTime.MAX_MILLIS_PER_DAY + 1)
+    }
+
+    @Test
+    fun computeReminders() {
+        val dueDates = LongArray(REMINDERS) {
+            DateTime(2015, 1, 1, 9, 0, 0).millis + it * TimeUnit.HOURS.toMillis(7)
+        }
+        val lastReminders = LongArray(REMINDERS) { dueDates[it] + TimeUnit.DAYS.toMillis(it % 3L) }
+        val defaultDueTime = TimeUnit.HOURS.toMillis(18).toInt()
+        val expected = LongArray(REMINDERS)
+        val actual = LongArray(REMINDERS)
+
+        DateMath.startOfDay(0) // load zone rules outside of the measurement
+        val dateTime = measure {
+            for (i in 0 until REMINDERS) {
+                var overdue = DateTime(dueDates[i]).plusDays(1).withMillisOfDay(defaultDueTime)
+                val last = DateTime(lastReminders[i])
+                if (!overdue.isAfter(last)) {
+                    overdue = last.withMillisOfDay(overdue.millisOfDay)
+                    if (!overdue.isAfter(last)) {
+                        overdue = overdue.plusDays(1)
+                    }
+                }
+                expected[i] = overdue.millis
+            }
+        }
+        val dateMath = measure {
+            for (i in 0 until REMINDERS) {
+                var overdue =
+                        DateMath.withMillisOfDay(DateMath.plusDays(dueDates[i], 1), defaultDueTime)
+                val last = lastReminders[i]
+                if (overdue <= last) {
+                    overdue = DateMath.withMillisOfDay(last, DateMath.getMillisOfDay(overdue))
+                    if (overdue <= last) {
+                        overdue = DateMath.plusDays(overdue, 1)
+                    }
+                }
+                actual[i] = overdue
+            }
+        }
+
+        Timber.d("DateTime: %sms, %s allocations", dateTime.millis, dateTime.allocations)
+        Timber.d("DateMath: %sms, %s allocations", dateMath.millis, dateMath.allocations)
+        assertTrue(expected.contentEquals(actual))
+        assertTrue(dateMath.allocations <= dateTime.allocations)
+    }
+
+    private fun assertMatchesDateTime(zone: String) {
+        setTimeZone(zone)
+        var date = DateTime(2015, 1, 1, 5, 7, 11, 13).millis
+        val end = DateTime(2016, 1, 1, 0, 0, 0).millis
+        while (date < end) {
+            val dateTime = DateTime(date)
+            // skip the hours where daylight savings transitions happen
+            if (dateTime.hourOfDay in 5..21) {
+                assertEquals(dateTime.startOfDay().millis, DateMath.startOfDay(date))
+                assertEquals(dateTime.endOfDay().millis, DateMath.endOfDay(date))
+                assertEquals(dateTime.startOfMinute().millis, DateMath.startOfMinute(date))
+                assertEquals(dateTime.endOfMinute().millis, DateMath.endOfMinute(date))
+                assertEquals(dateTime.millisOfDay, DateMath.getMillisOfDay(date))
+                assertEquals(dateTime.dayOfWeek, DateMath.getDayOfWeek(date))
+                assertEquals(dateTime.plusDays(1).millis, DateMath.plusDays(date, 1))
+                assertEquals(dateTime.plusDays(-1).millis, DateMath.plusDays(date, -1))
+                assertEquals(
+                        dateTime.withMillisOfDay(NOON).millis,
+                        DateMath.withMillisOfDay(date, NOON))
+            }
+            date += TimeUnit.MINUTES.toMillis(37)
+        }
+    }
+
+    private fun setTimeZone(zone: String) {
+        TimeZone.setDefault(TimeZone.getTimeZone(zone))
+        DateMath.resetZone()
+    }
+
+    companion object {
+        private const val REMINDERS = 10_000
+        private val NOON = TimeUnit.HOURS.toMillis(12).toInt()
+    }
+}
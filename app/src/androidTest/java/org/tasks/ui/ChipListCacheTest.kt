@@ -0,0 +1,129 @@
+package org.tasks.ui
+
+import androidx.test.InstrumentationRegistry
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.todoroo.astrid.api.TagFilter
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.tasks.LocalBroadcastManager
+import org.tasks.Measurement.Companion.measure
+import org.tasks.data.CaldavDao
+import org.tasks.data.GoogleTaskListDao
+import org.tasks.data.TagData
+import org.tasks.data.TagDataDao
+import org.tasks.injection.InjectingTestCase
+import org.tasks.injection.TestComponent
+import timber.log.Timber
+import java.util.*
+import javax.inject.Inject
+
+@RunWith(AndroidJUnit4::class)
+class ChipListCacheTest : InjectingTestCase() {
+    @Inject lateinit var googleTaskListDao: GoogleTaskListDao
+    @Inject lateinit var caldavDao: CaldavDao
+    @Inject lateinit var tagDataDao: TagDataDao
+    @Inject lateinit var localBroadcastManager: LocalBroadcastManager
+
+    private lateinit var cache: ChipListCache
+
+    @Test
+    fun resolveTagsSortedByName() {
+        val b = newTag("b")
+        val a = newTag("a")
+        createCache()
+
+        val tags = onMain { cache.getTags("${b.remoteId},missing,${a.remoteId}") }
+
+        assertEquals(listOf("a", "b"), tags.map { it.listingTitle })
+    }
+
+    @Test
+    fun internTagsUntilTagChanges() {
+        val tag = newTag("a")
+        createCache()
+        val generation = onMain { cache.generation }
+        val tags = onMain { cache.getTags(tag.remoteId!!) }
+        assertSame(tags, onMain { cache.getTags(tag.remoteId!!) })
+
+        tag.name = "b"
+        tagDataDao.update(tag)
+        awaitChange(generation)
+
+        val renamed = onMain { cache.getTags(tag.remoteId!!) }
+        assertNotSame(tags, renamed)
+        assertEquals("b", renamed.single().listingTitle)
+    }
+
+    @Test
+    fun bindManyRows() {
+        val uuids = (1..TAGS).map { newTag("tag $it").remoteId!! }
+        createCache()
+        val random = Random(1)
+        val rows = (1..ROWS).map {
+            (0..random.nextInt(3)).joinToString(",") { uuids[random.nextInt(uuids.size)] }
+        }
+        val byUuid = onMain { uuids.associateWith { cache.getTags(it).single() } }
+
+        val resolved = onMain {
+            measure {
+                repeat(PASSES) {
+                    rows.forEach { row ->
+                        row.split(",").toHashSet().mapNotNull { byUuid[it] }.sortedWith(ORDER_BY_NAME)
+                    }
+                }
+            }
+        }
+        val cached = onMain {
+            measure {
+                repeat(PASSES) {
+                    rows.forEach { cache.getTags(it) }
+                }
+            }
+        }
+        Timber.d(
+                "%s rows x %s: resolved %sms %s bytes, cached %sms %s bytes",
+                ROWS, PASSES, resolved.millis, resolved.bytes, cached.millis, cached.bytes)
+
+        assertTrue(cached.bytes < resolved.bytes)
+    }
+
+    private fun newTag(name: String) = TagData(name).apply { tagDataDao.createNew(this) }
+
+    private fun createCache() {
+        onMain {
+            cache = ChipListCache(googleTaskListDao, caldavDao, tagDataDao, localBroadcastManager)
+        }
+        awaitChange(0)
+    }
+
+    private fun awaitChange(generation: Int) {
+        repeat(100) {
+            if (onMain { cache.generation } != generation) {
+                return
+            }
+            Thread.sleep(50)
+        }
+        fail("cache not updated")
+    }
+
+    private fun <T> onMain(block: () -> T): T {
+        var result: T? = null
+        InstrumentationRegistry.getInstrumentation().runOnMainSync { result = block() }
+        @Suppress("UNCHECKED_CAST")
+        return result as T
+    }
+
+    override fun inject(component: TestComponent) = component.inject(this)
+
+    companion object {
+        private const val TAGS = 200
+        private const val ROWS = 10_000
+        private const val PASSES = 3
+        private val ORDER_BY_NAME = compareBy<TagFilter> { it.listingTitle }
+    }
+}
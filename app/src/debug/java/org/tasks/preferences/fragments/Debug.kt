@@ -8,6 +8,7 @@ import com.google.common.primitives.Ints
 import org.tasks.R
 import org.tasks.billing.BillingClient
 import org.tasks.billing.Inventory
+import org.tasks.caldav.HttpClientRegistry
 import org.tasks.injection.FragmentComponent
 import org.tasks.injection.InjectingPreferenceFragment
 import org.tasks.ui.Toaster
@@ -18,13 +19,13 @@ class Debug : InjectingPreferenceFragment() {
     @Inject lateinit var inventory: Inventory
     @Inject lateinit var billingClient: BillingClient
     @Inject lateinit var toaster: Toaster
+    @Inject lateinit var httpClients: HttpClientRegistry
 
     override fun getPreferenceXml() = R.xml.preferences_debug
 
     override fun setupPreferences(savedInstanceState: Bundle?) {
         for (pref in Ints.asList(
             R.string.p_leakcanary,
-            R.string.p_flipper,
             R.string.p_strict_mode_vm,
             R.string.p_strict_mode_thread
         )) {
@@ -35,8 +36,17 @@ class Debug : InjectingPreferenceFragment() {
                 }
         }
 
+        findPreference(R.string.p_flipper)
+                .setOnPreferenceChangeListener { _: Preference?, _: Any? ->
+                    // interceptors are only added when a client is created
+                    httpClients.invalidateAll()
+                    showRestartDialog()
+                    true
+                }
+
         findPreference(R.string.debug_reset_ssl).setOnPreferenceClickListener {
             resetCertificates(requireContext())
+            httpClients.invalidateAll()
             toaster.longToast("SSL certificates reset")
             false
         }
@@ -1,7 +1,9 @@
 package org.tasks.location;
 
 import static com.google.android.gms.location.Geofence.NEVER_EXPIRE;
+import static com.google.common.collect.Lists.newArrayList;
 
+import android.annotation.SuppressLint;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
@@ -10,65 +12,208 @@ import com.google.android.gms.location.GeofencingClient;
 import com.google.android.gms.location.GeofencingRequest;
 import com.google.android.gms.location.GeofencingRequest.Builder;
 import com.google.android.gms.location.LocationServices;
-import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import javax.inject.Inject;
 import org.tasks.data.LocationDao;
 import org.tasks.data.MergedGeofence;
 import org.tasks.data.Place;
+import org.tasks.injection.ApplicationScope;
 import org.tasks.injection.ForApplication;
 import org.tasks.preferences.PermissionChecker;
+import org.tasks.preferences.Preferences;
 import timber.log.Timber;
 
+@ApplicationScope
 public class GeofenceApi {
 
+  static final String RERANK_REQUEST_ID = "org.tasks.geofence.rerank";
+  private static final String P_LAST_LOCATION = "geofence_last_location";
+
   private final Context context;
   private final PermissionChecker permissionChecker;
   private final LocationDao locationDao;
+  private final Preferences preferences;
+  private final Executor executor = Executors.newSingleThreadExecutor();
+  private final Map<String, String> registered = new HashMap<>();
+  private @Nullable android.location.Location lastLocation;
+  private volatile boolean initialized;
 
   @Inject
   public GeofenceApi(
       @ForApplication Context context,
       PermissionChecker permissionChecker,
-      LocationDao locationDao) {
+      LocationDao locationDao,
+      Preferences preferences) {
     this.context = context;
     this.permissionChecker = permissionChecker;
     this.locationDao = locationDao;
+    this.preferences = preferences;
   }
 
+  /** Refresh the last known location, then re-rank and register places */
+  @SuppressLint("MissingPermission")
   public void registerAll() {
-    for (Place place : locationDao.getPlacesWithGeofences()) {
-      update(place);
+    if (!permissionChecker.canAccessLocation()) {
+      return;
     }
+    LocationServices.getFusedLocationProviderClient(context)
+        .getLastLocation()
+        .addOnCompleteListener(
+            executor,
+            task -> {
+              if (task.isSuccessful() && task.getResult() != null) {
+                setLastLocation(task.getResult());
+              }
+              register();
+            });
   }
 
   public void update(long taskId) {
-    update(locationDao.getPlaceForTask(taskId));
+    update();
   }
 
   public void update(String place) {
-    update(locationDao.getPlace(place));
+    update();
   }
 
   public void update(@Nullable Place place) {
-    if (place == null || !permissionChecker.canAccessLocation()) {
+    if (place != null) {
+      update();
+    }
+  }
+
+  private void update() {
+    if (initialized) {
+      executor.execute(this::register);
+    } else {
+      // rank against the last known location, not whatever order the places are stored in
+      registerAll();
+    }
+  }
+
+  /** Runs on {@link #executor} so ranking never races a location refresh */
+  private void register() {
+    if (!permissionChecker.canAccessLocation()) {
       return;
     }
 
     GeofencingClient client = LocationServices.getGeofencingClient(context);
-    MergedGeofence geofence = locationDao.getGeofencesByPlace(place.getUid());
-    if (geofence != null) {
-      Timber.d("Adding geofence for %s", geofence);
-      client.addGeofences(
-          new Builder().addGeofence(toGoogleGeofence(geofence)).build(),
-          PendingIntent.getBroadcast(
-              context,
-              0,
-              new Intent(context, GeofenceTransitionsIntentService.Broadcast.class),
-              PendingIntent.FLAG_UPDATE_CURRENT));
-    } else {
-      Timber.d("Removing geofence for %s", place);
-      client.removeGeofences(ImmutableList.of(Long.toString(place.getId())));
+    if (!initialized) {
+      // registrations from a previous process are unknown, start from scratch
+      client.removeGeofences(getPendingIntent());
+      registered.clear();
+      initialized = true;
+    }
+
+    android.location.Location lastLocation = getLastLocation();
+    List<MergedGeofence> geofences = locationDao.getMergedGeofences();
+    GeofenceBudget budget =
+        GeofenceBudget.select(geofences, lastLocation, GeofenceBudget.MAX_GEOFENCES);
+
+    Map<String, String> selected = new HashMap<>();
+    Builder request = new Builder();
+    int added = 0;
+    for (MergedGeofence geofence : budget.getSelected()) {
+      String key = getKey(geofence);
+      selected.put(geofence.getUid(), key);
+      if (!key.equals(registered.get(geofence.getUid()))) {
+        request.addGeofence(toGoogleGeofence(geofence));
+        added++;
+      }
+    }
+    if (budget.getRerankRadius() > 0 && lastLocation != null) {
+      String key =
+          lastLocation.getLatitude()
+              + ","
+              + lastLocation.getLongitude()
+              + ","
+              + budget.getRerankRadius();
+      selected.put(RERANK_REQUEST_ID, key);
+      if (!key.equals(registered.get(RERANK_REQUEST_ID))) {
+        request.addGeofence(
+            new com.google.android.gms.location.Geofence.Builder()
+                .setCircularRegion(
+                    lastLocation.getLatitude(),
+                    lastLocation.getLongitude(),
+                    budget.getRerankRadius())
+                .setRequestId(RERANK_REQUEST_ID)
+                .setTransitionTypes(
+                    com.google.android.gms.location.Geofence.GEOFENCE_TRANSITION_EXIT)
+                .setExpirationDuration(NEVER_EXPIRE)
+                .build());
+        added++;
+      }
     }
+
+    List<String> removed = newArrayList();
+    for (String uid : registered.keySet()) {
+      if (!selected.containsKey(uid)) {
+        removed.add(uid);
+      }
+    }
+    if (!removed.isEmpty()) {
+      Timber.d("Removing geofences %s", removed);
+      client.removeGeofences(removed);
+    }
+    if (added > 0) {
+      Timber.d(
+          "Adding %s geofences, %s of %s places selected",
+          added,
+          budget.getSelected().size(),
+          geofences.size());
+      client.addGeofences(request.build(), getPendingIntent());
+    }
+    registered.clear();
+    registered.putAll(selected);
+  }
+
+  private void setLastLocation(android.location.Location location) {
+    lastLocation = location;
+    preferences.setString(
+        P_LAST_LOCATION, location.getLatitude() + "," + location.getLongitude());
+  }
+
+  /** @return the last known location, restored from preferences in a new process */
+  private @Nullable android.location.Location getLastLocation() {
+    if (lastLocation == null) {
+      String value = preferences.getStringValue(P_LAST_LOCATION);
+      if (value != null) {
+        String[] latLng = value.split(",");
+        try {
+          android.location.Location location = new android.location.Location("");
+          location.setLatitude(Double.parseDouble(latLng[0]));
+          location.setLongitude(Double.parseDouble(latLng[1]));
+          lastLocation = location;
+        } catch (RuntimeException e) {
+          Timber.e(e);
+        }
+      }
+    }
+    return lastLocation;
+  }
+
+  private static String getKey(MergedGeofence geofence) {
+    return geofence.getLatitude()
+        + ","
+        + geofence.getLongitude()
+        + ","
+        + geofence.getRadius()
+        + ","
+        + geofence.getArrival()
+        + ","
+        + geofence.getDeparture();
+  }
+
+  private PendingIntent getPendingIntent() {
+    return PendingIntent.getBroadcast(
+        context,
+        0,
+        new Intent(context, GeofenceTransitionsIntentService.Broadcast.class),
+        PendingIntent.FLAG_UPDATE_CURRENT);
   }
 
   private com.google.android.gms.location.Geofence toGoogleGeofence(MergedGeofence geofence) {
@@ -28,6 +28,7 @@ public class GeofenceTransitionsIntentService extends InjectingJobIntentService
 
   @Inject LocationDao locationDao;
   @Inject Notifier notifier;
+  @Inject GeofenceApi geofenceApi;
 
   @Override
   protected void doWork(Intent intent) {
@@ -44,7 +45,11 @@ public class GeofenceTransitionsIntentService extends InjectingJobIntentService
     Timber.i("Received geofence transition: %s, %s", transitionType, triggeringGeofences);
     if (transitionType == GEOFENCE_TRANSITION_ENTER || transitionType == GEOFENCE_TRANSITION_EXIT) {
       for (com.google.android.gms.location.Geofence triggerGeofence : triggeringGeofences) {
-        triggerNotification(triggerGeofence, transitionType == GEOFENCE_TRANSITION_ENTER);
+        if (GeofenceApi.RERANK_REQUEST_ID.equals(triggerGeofence.getRequestId())) {
+          geofenceApi.registerAll();
+        } else {
+          triggerNotification(triggerGeofence, transitionType == GEOFENCE_TRANSITION_ENTER);
+        }
       }
     } else {
       Timber.w("invalid geofence transition type: %s", transitionType);
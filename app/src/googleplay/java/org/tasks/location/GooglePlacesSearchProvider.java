@@ -9,6 +9,7 @@ import android.os.Bundle;
 import androidx.annotation.Nullable;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.tasks.CancellationTokenSource;
 import com.google.android.libraries.places.api.Places;
 import com.google.android.libraries.places.api.model.AutocompletePrediction;
 import com.google.android.libraries.places.api.model.AutocompleteSessionToken;
@@ -19,6 +20,7 @@ import com.google.android.libraries.places.api.net.FetchPlaceResponse;
 import com.google.android.libraries.places.api.net.FindAutocompletePredictionsRequest;
 import com.google.android.libraries.places.api.net.FindAutocompletePredictionsRequest.Builder;
 import com.google.android.libraries.places.api.net.PlacesClient;
+import io.reactivex.functions.Cancellable;
 import java.util.ArrayList;
 import java.util.List;
 import org.tasks.Callback;
@@ -55,7 +57,7 @@ public class GooglePlacesSearchProvider implements PlaceSearchProvider {
   }
 
   @Override
-  public void search(
+  public Cancellable search(
       String query,
       @Nullable MapPosition bias,
       Callback<List<PlaceSearchResult>> onSuccess,
@@ -69,8 +71,12 @@ public class GooglePlacesSearchProvider implements PlaceSearchProvider {
     if (token == null) {
       token = AutocompleteSessionToken.newInstance();
     }
+    CancellationTokenSource cancellation = new CancellationTokenSource();
     Builder request =
-        FindAutocompletePredictionsRequest.builder().setSessionToken(token).setQuery(query);
+        FindAutocompletePredictionsRequest.builder()
+            .setSessionToken(token)
+            .setQuery(query)
+            .setCancellationToken(cancellation.getToken());
     if (bias != null) {
       request.setLocationBias(
           RectangularBounds.newInstance(
@@ -82,7 +88,13 @@ public class GooglePlacesSearchProvider implements PlaceSearchProvider {
         .findAutocompletePredictions(request.build())
         .addOnSuccessListener(
             response -> onSuccess.call(toSearchResults(response.getAutocompletePredictions())))
-        .addOnFailureListener(e -> onError.call(e.getMessage()));
+        .addOnFailureListener(
+            e -> {
+              if (!cancellation.getToken().isCancellationRequested()) {
+                onError.call(e.getMessage());
+              }
+            });
+    return cancellation::cancel;
   }
 
   @Override
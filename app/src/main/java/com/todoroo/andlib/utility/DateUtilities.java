@@ -17,6 +17,7 @@ import com.todoroo.astrid.data.Task;
 import org.tasks.BuildConfig;
 import org.tasks.R;
 import org.tasks.locale.Locale;
+import org.tasks.time.DateMath;
 import org.tasks.time.DateTime;
 import org.threeten.bp.format.DateTimeFormatter;
 import org.threeten.bp.format.FormatStyle;
@@ -94,7 +95,7 @@ public class DateUtilities {
     if (!isNullOrEmpty(day)) {
       if (Task.hasDueTime(date)) {
         String time = getTimeString(context, newDateTime(date));
-        return newDateTime().startOfDay().equals(newDateTime(date).startOfDay()) ? time : String.format("%s %s", day, time);
+        return DateMath.startOfDay(currentTimeMillis()) == DateMath.startOfDay(date) ? time : String.format("%s %s", day, time);
       } else {
         return day;
       }
@@ -140,22 +141,22 @@ public class DateUtilities {
   }
 
   private static @Nullable String getRelativeDay(Context context, long date, java.util.Locale locale, boolean abbreviated) {
-    DateTime startOfToday = newDateTime().startOfDay();
-    DateTime startOfDate = newDateTime(date).startOfDay();
+    long startOfToday = DateMath.startOfDay(currentTimeMillis());
+    long startOfDate = DateMath.startOfDay(date);
 
-    if (startOfToday.equals(startOfDate)) {
+    if (startOfToday == startOfDate) {
       return context.getString(R.string.today);
     }
 
-    if (startOfToday.plusDays(1).equals(startOfDate)) {
+    if (DateMath.plusDays(startOfToday, 1) == startOfDate) {
       return context.getString(abbreviated ? R.string.tmrw : R.string.tomorrow);
     }
 
-    if (startOfDate.plusDays(1).equals(startOfToday)) {
+    if (DateMath.plusDays(startOfDate, 1) == startOfToday) {
       return context.getString(abbreviated ? R.string.yest : R.string.yesterday);
     }
 
-    if (Math.abs(startOfToday.getMillis() - startOfDate.getMillis()) <= DateUtilities.ONE_DAY * 6) {
+    if (Math.abs(startOfToday - startOfDate) <= DateUtilities.ONE_DAY * 6) {
       DateTime dateTime = newDateTime(date);
       return abbreviated
           ? DateUtilities.getWeekdayShort(dateTime, locale)
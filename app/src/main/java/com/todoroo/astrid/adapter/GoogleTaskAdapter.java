@@ -29,17 +29,13 @@ public final class GoogleTaskAdapter extends GoogleTaskManualSortAdapter {
       if (googleTask.getIndent() == 0) {
         return;
       }
-      googleTaskDao.move(
-          googleTask, 0, newTasksOnTop ? 0 : googleTaskDao.getBottom(googleTask.getListId(), 0));
+      move(googleTask, 0);
     } else {
       long newParent = previous.hasParent() ? previous.getParent() : previous.getId();
       if (googleTask.getParent() == newParent) {
         return;
       }
-      googleTaskDao.move(
-          googleTask,
-          newParent,
-          newTasksOnTop ? 0 : googleTaskDao.getBottom(googleTask.getListId(), newParent));
+      move(googleTask, newParent);
     }
 
     taskDao.touch(task.getId());
@@ -48,4 +44,12 @@ public final class GoogleTaskAdapter extends GoogleTaskManualSortAdapter {
       googleTaskDao.validateSorting(task.getGoogleTaskList());
     }
   }
+
+  private void move(SubsetGoogleTask googleTask, long newParent) {
+    if (newTasksOnTop) {
+      googleTaskDao.moveToTop(googleTask, newParent);
+    } else {
+      googleTaskDao.moveToBottom(googleTask, newParent);
+    }
+  }
 }
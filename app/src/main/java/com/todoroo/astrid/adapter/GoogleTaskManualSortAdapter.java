@@ -73,31 +73,14 @@ public class GoogleTaskManualSortAdapter extends TaskAdapter {
     TaskContainer previous = to > 0 ? getTask(to - 1) : null;
 
     if (previous == null) {
-      googleTaskDao.move(googleTask, 0, 0);
-    } else if (to == getCount() || to <= from) {
-      if (indent == 0) {
-        googleTaskDao.move(googleTask, 0, previous.getPrimarySort() + 1);
-      } else if (previous.hasParent()) {
-        googleTaskDao.move(googleTask, previous.getParent(), previous.getSecondarySort() + 1);
-      } else {
-        googleTaskDao.move(googleTask, previous.getId(), 0);
-      }
+      googleTaskDao.moveToTop(googleTask, 0);
+    } else if (indent == 0) {
+      googleTaskDao.moveAfter(googleTask, 0, previous.getPrimarySort());
+    } else if (previous.hasParent()) {
+      googleTaskDao.moveAfter(
+          googleTask, previous.getParent(), previous.getGoogleTask().getOrder());
     } else {
-      if (indent == 0) {
-        googleTaskDao.move(
-            googleTask,
-            0,
-            task.hasParent() ? previous.getPrimarySort() + 1 : previous.getPrimarySort());
-      } else if (previous.hasParent()) {
-        googleTaskDao.move(
-            googleTask,
-            previous.getParent(),
-            task.getParent() == previous.getParent()
-                ? previous.getSecondarySort()
-                : previous.getSecondarySort() + 1);
-      } else {
-        googleTaskDao.move(googleTask, previous.getId(), 0);
-      }
+      googleTaskDao.moveToTop(googleTask, previous.getId());
     }
 
     taskDao.touch(task.getId());
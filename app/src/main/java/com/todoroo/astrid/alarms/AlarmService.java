@@ -97,6 +97,13 @@ public class AlarmService {
     }
   }
 
+  /** Schedules alarms after {@code from} and at or before {@code to} */
+  public void scheduleUpcomingAlarms(long from, long to) {
+    for (Alarm alarm : alarmDao.getActiveAlarms(from, to)) {
+      scheduleAlarm(alarm);
+    }
+  }
+
   public void cancelAlarms(long taskId) {
     for (Alarm alarm : getActiveAlarmsForTask(taskId)) {
       jobs.cancelAlarm(alarm.getId());
@@ -28,8 +28,9 @@ public class CustomFilter extends Filter {
   private long id;
   private String criterion;
 
-  public CustomFilter(org.tasks.data.Filter filter) {
-    super(filter.getTitle(), filter.getSql(), filter.getValuesAsMap());
+  /** @param sql compiled where clause, see {@link org.tasks.filters.FilterCompiler} */
+  public CustomFilter(org.tasks.data.Filter filter, String sql) {
+    super(filter.getTitle(), sql, filter.getValuesAsMap());
     id = filter.getId();
     criterion = filter.getCriterion();
     tint = filter.getColor();
@@ -57,7 +57,7 @@ public class GtasksFilter extends Filter {
                 + "   FROM google_tasks"
                 + "   LEFT JOIN google_tasks AS c ON c.gt_parent = google_tasks.gt_task"
                 + "   WHERE google_tasks.gt_parent = 0 GROUP BY google_tasks.gt_task"
-                + " UNION SELECT 1 as indent, c.*, 0 AS children, COUNT(s.gt_id) AS siblings, p.gt_order AS primary_sort, c.gt_order AS secondary_sort"
+                + " UNION SELECT 1 as indent, c.*, 0 AS children, COUNT(s.gt_id) AS siblings, p.gt_order AS primary_sort, SUM(s.gt_order < c.gt_order) AS secondary_sort"
                 + "   FROM google_tasks AS c"
                 + "   INNER JOIN google_tasks AS p ON c.gt_parent = p.gt_task"
                 + "   INNER JOIN tasks ON c.gt_parent = tasks._id"
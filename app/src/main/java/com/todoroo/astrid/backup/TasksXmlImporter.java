@@ -8,21 +8,32 @@ package com.todoroo.astrid.backup;
 
 import static org.tasks.data.Place.newPlace;
 
-import android.app.Activity;
 import android.app.ProgressDialog;
-import android.content.res.Resources;
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.net.Uri;
 import android.os.Handler;
 import android.text.TextUtils;
-import com.todoroo.andlib.utility.DialogUtilities;
+import androidx.annotation.Nullable;
+import com.google.common.io.CountingInputStream;
+import com.todoroo.astrid.dao.Database;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
+import com.todoroo.astrid.timers.TimerPlugin;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
 import org.tasks.LocalBroadcastManager;
 import org.tasks.R;
+import org.tasks.StartupLedger;
+import org.tasks.backup.TasksJsonImporter.ImportResult;
 import org.tasks.backup.XmlReader;
 import org.tasks.data.Alarm;
 import org.tasks.data.AlarmDao;
@@ -37,152 +48,208 @@ import org.tasks.data.TagData;
 import org.tasks.data.TagDataDao;
 import org.tasks.data.UserActivity;
 import org.tasks.data.UserActivityDao;
-import org.tasks.dialogs.DialogBuilder;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
 import timber.log.Timber;
 
+/**
+ * Imports legacy Astrid XML backups.
+ *
+ * <p>Tasks are read with a pull parser and written in chunks of {@link #CHUNK_SIZE}, each in its
+ * own transaction, so a backup that fails to parse part way through never leaves a task without
+ * its metadata. Tasks that were written before the failure are skipped when the backup is imported
+ * again.
+ */
 public class TasksXmlImporter {
 
+  static final int CHUNK_SIZE = 500;
+
   private static final String FORMAT2 = "2"; // $NON-NLS-1$
   private static final String FORMAT3 = "3"; // $NON-NLS-1$
+  private final Database database;
   private final TagDataDao tagDataDao;
   private final UserActivityDao userActivityDao;
-  private final DialogBuilder dialogBuilder;
   private final TaskDao taskDao;
   private final LocalBroadcastManager localBroadcastManager;
   private final AlarmDao alarmDao;
   private final TagDao tagDao;
   private final GoogleTaskDao googleTaskDao;
   private final LocationDao locationDao;
-  private Activity activity;
-  private Handler handler;
-  private int taskCount;
-  private int importCount = 0;
-  private int skipCount = 0;
-  private int errorCount = 0;
-  private ProgressDialog progressDialog;
-  private Uri input;
+  private final StartupLedger startupLedger;
+  private final TimerPlugin timerPlugin;
 
   @Inject
   public TasksXmlImporter(
+      Database database,
       TagDataDao tagDataDao,
       UserActivityDao userActivityDao,
-      DialogBuilder dialogBuilder,
       TaskDao taskDao,
       LocationDao locationDao,
       LocalBroadcastManager localBroadcastManager,
       AlarmDao alarmDao,
       TagDao tagDao,
-      GoogleTaskDao googleTaskDao) {
+      GoogleTaskDao googleTaskDao,
+      StartupLedger startupLedger,
+      TimerPlugin timerPlugin) {
+    this.database = database;
     this.tagDataDao = tagDataDao;
     this.userActivityDao = userActivityDao;
-    this.dialogBuilder = dialogBuilder;
     this.taskDao = taskDao;
     this.locationDao = locationDao;
     this.localBroadcastManager = localBroadcastManager;
     this.alarmDao = alarmDao;
     this.tagDao = tagDao;
     this.googleTaskDao = googleTaskDao;
+    this.startupLedger = startupLedger;
+    this.timerPlugin = timerPlugin;
   }
 
-  private void setProgressMessage(final String message) {
-    handler.post(() -> progressDialog.setMessage(message));
-  }
-
-  public void importTasks(Activity activity, Uri input, ProgressDialog progressDialog) {
-    this.activity = activity;
-    this.input = input;
-    this.progressDialog = progressDialog;
-
-    handler = new Handler();
-
-    new Thread(
-            () -> {
-              try {
-                performImport();
-              } catch (IOException | XmlPullParserException e) {
-                Timber.e(e);
-              }
-            })
-        .start();
-  }
-
-  // --- importers
-
-  // =============================================================== FORMAT2
-
-  private void performImport() throws IOException, XmlPullParserException {
-    XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
-    XmlPullParser xpp = factory.newPullParser();
-    InputStream inputStream = activity.getContentResolver().openInputStream(input);
-    InputStreamReader reader = new InputStreamReader(inputStream);
-    xpp.setInput(reader);
-
-    try {
+  public ImportResult importTasks(
+      Context context, Uri input, @Nullable ProgressDialog progressDialog) {
+    ImportResult result = new ImportResult();
+    try (AssetFileDescriptor descriptor =
+        context.getContentResolver().openAssetFileDescriptor(input, "r")) {
+      if (descriptor == null) {
+        throw new FileNotFoundException(input.toString());
+      }
+      CountingInputStream inputStream = new CountingInputStream(descriptor.createInputStream());
+      XmlPullParser xpp = XmlPullParserFactory.newInstance().newPullParser();
+      xpp.setInput(new InputStreamReader(inputStream));
+      Progress progress =
+          new Progress(context, progressDialog, inputStream, getLength(descriptor), result);
       while (xpp.next() != XmlPullParser.END_DOCUMENT) {
         String tag = xpp.getName();
         if (xpp.getEventType() == XmlPullParser.END_TAG) {
           // Ignore end tags
           continue;
         }
-        if (tag != null) {
-          // Process <astrid ... >
-          if (tag.equals(BackupConstants.ASTRID_TAG)) {
-            String format = xpp.getAttributeValue(null, BackupConstants.ASTRID_ATTR_FORMAT);
-            if (TextUtils.equals(format, FORMAT2)) {
-              new Format2TaskImporter(xpp);
-            } else if (TextUtils.equals(format, FORMAT3)) {
-              new Format3TaskImporter(xpp);
-            } else {
-              throw new UnsupportedOperationException(
-                  "Did not know how to import tasks with xml format '" + format + "'");
-            }
+        // Process <astrid ... >
+        if (tag != null && tag.equals(BackupConstants.ASTRID_TAG)) {
+          String format = xpp.getAttributeValue(null, BackupConstants.ASTRID_ATTR_FORMAT);
+          if (TextUtils.equals(format, FORMAT2) || TextUtils.equals(format, FORMAT3)) {
+            new Importer(xpp, format, progress, result).importTasks();
+          } else {
+            throw new UnsupportedOperationException(
+                "Did not know how to import tasks with xml format '" + format + "'");
           }
         }
       }
+    } catch (IOException | XmlPullParserException | RuntimeException e) {
+      // runs on a bare thread, return what was imported so the dialog can report it
+      Timber.e(e);
+      result.errorCount++;
     } finally {
-      reader.close();
-      inputStream.close();
+      startupLedger.invalidate();
+      timerPlugin.reload();
       localBroadcastManager.broadcastRefresh();
+    }
+    return result;
+  }
+
+  private static long getLength(AssetFileDescriptor descriptor) {
+    long length = descriptor.getLength();
+    return length == AssetFileDescriptor.UNKNOWN_LENGTH
+        ? descriptor.getParcelFileDescriptor().getStatSize()
+        : length;
+  }
+
+  /** Reports progress by bytes read, or by tasks read if the length is unknown */
+  private static class Progress {
+
+    private final Context context;
+    @Nullable private final ProgressDialog progressDialog;
+    private final Handler handler;
+    private final CountingInputStream inputStream;
+    private final long length;
+    private final ImportResult result;
+    private int percent = -1;
+
+    private Progress(
+        Context context,
+        @Nullable ProgressDialog progressDialog,
+        CountingInputStream inputStream,
+        long length,
+        ImportResult result) {
+      this.context = context;
+      this.progressDialog = progressDialog;
+      this.inputStream = inputStream;
+      this.length = length;
+      this.result = result;
+      handler = new Handler(context.getMainLooper());
+    }
+
+    private void onTaskRead() {
+      result.taskCount++;
+      if (length > 0) {
+        int percent = (int) (inputStream.getCount() * 100 / length);
+        if (percent > this.percent) {
+          this.percent = percent;
+          update(percent);
+        }
+      }
+    }
+
+    private void onChunkWritten() {
+      if (length <= 0) {
+        update(-1);
+      }
+    }
+
+    private void update(int percent) {
+      if (progressDialog == null) {
+        return;
+      }
+      String message = context.getString(R.string.import_progress_read, result.taskCount);
       handler.post(
           () -> {
-            if (progressDialog.isShowing()) {
-              DialogUtilities.dismissDialog(activity, progressDialog);
-              showSummary();
+            if (percent >= 0) {
+              progressDialog.setIndeterminate(false);
+              progressDialog.setProgress(percent);
             }
+            progressDialog.setMessage(message);
           });
     }
   }
 
-  private void showSummary() {
-    Resources r = activity.getResources();
-    dialogBuilder
-        .newDialog(R.string.import_summary_title)
-        .setMessage(
-            activity.getString(
-                R.string.import_summary_message,
-                "",
-                r.getQuantityString(R.plurals.Ntasks, taskCount, taskCount),
-                r.getQuantityString(R.plurals.Ntasks, importCount, importCount),
-                r.getQuantityString(R.plurals.Ntasks, skipCount, skipCount),
-                r.getQuantityString(R.plurals.Ntasks, errorCount, errorCount)))
-        .setPositiveButton(android.R.string.ok, (dialog, id) -> dialog.dismiss())
-        .show();
-  }
+  /** A task and the rows that belong to it, kept until its chunk is written */
+  private static class PendingTask {
 
-  // =============================================================== FORMAT3
+    private final Task task;
+    private final List<Alarm> alarms = new ArrayList<>();
+    private final List<Place> places = new ArrayList<>();
+    private final List<Geofence> geofences = new ArrayList<>();
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private final List<GoogleTask> googleTasks = new ArrayList<>();
+    private final List<UserActivity> comments = new ArrayList<>();
 
-  private class Format2TaskImporter {
+    private PendingTask(Task task) {
+      this.task = task;
+    }
+  }
 
-    XmlPullParser xpp;
-    Task currentTask;
+  private class Importer {
 
-    Format2TaskImporter() {}
+    private final XmlPullParser xpp;
+    private final boolean format2;
+    private final Progress progress;
+    private final ImportResult result;
+    private final Set<String> tagUids = new HashSet<>();
+    private final List<PendingTask> tasks = new ArrayList<>();
+    private final List<TagData> tagDatas = new ArrayList<>();
+    private PendingTask currentTask;
 
-    Format2TaskImporter(XmlPullParser xpp) throws XmlPullParserException, IOException {
+    private Importer(XmlPullParser xpp, String format, Progress progress, ImportResult result) {
       this.xpp = xpp;
+      this.progress = progress;
+      this.result = result;
+      format2 = FORMAT2.equals(format);
+    }
+
+    private void importTasks() throws XmlPullParserException, IOException {
+      for (TagData tagData : tagDataDao.getAll()) {
+        tagUids.add(tagData.getRemoteId());
+      }
 
       while (xpp.next() != XmlPullParser.END_DOCUMENT) {
         String tag = xpp.getName();
@@ -199,85 +266,72 @@ public class TasksXmlImporter {
               parseComment();
               break;
             case BackupConstants.METADATA_TAG:
-              parseMetadata(2);
+              parseMetadata();
+              break;
+            case BackupConstants.TAGDATA_TAG:
+              if (!format2) {
+                parseTagdata();
+              }
               break;
           }
         } catch (Exception e) {
-          errorCount++;
+          result.errorCount++;
           Timber.e(e);
         }
       }
-    }
 
-    void parseTask() {
-      taskCount++;
-      setProgressMessage(activity.getString(R.string.import_progress_read, taskCount));
-
-      currentTask = new Task(new XmlReader(xpp));
-
-      Task existingTask = taskDao.fetch(currentTask.getUuid());
+      flush();
+    }
 
-      if (existingTask == null) {
-        taskDao.createNew(currentTask);
-        importCount++;
-      } else {
-        skipCount++;
+    private void parseTask() {
+      if (tasks.size() >= CHUNK_SIZE) {
+        flush();
       }
+      // don't attach metadata to the previous task if this one can't be read
+      currentTask = null;
+      progress.onTaskRead();
+      currentTask = new PendingTask(new Task(new XmlReader(xpp)));
+      tasks.add(currentTask);
     }
 
     /** Imports a comment from the XML we're reading. taken from EditNoteActivity.addComment() */
-    void parseComment() {
-      if (!currentTask.isSaved()) {
+    private void parseComment() {
+      if (currentTask == null) {
         return;
       }
 
-      UserActivity userActivity = new UserActivity(new XmlReader(xpp));
-      userActivityDao.createNew(userActivity);
+      currentTask.comments.add(new UserActivity(new XmlReader(xpp)));
     }
 
-    void parseMetadata(int format) {
-      if (!currentTask.isSaved()) {
+    private void parseMetadata() {
+      if (currentTask == null) {
         return;
       }
       XmlReader xml = new XmlReader(xpp);
       String key = xml.readString("key");
       if ("alarm".equals(key)) {
         Alarm alarm = new Alarm();
-        alarm.setTask(currentTask.getId());
         alarm.setTime(xml.readLong("value"));
-        alarmDao.insert(alarm);
+        currentTask.alarms.add(alarm);
       } else if ("geofence".equals(key)) {
         Place place = newPlace();
         place.setName(xml.readString("value"));
         place.setLatitude(xml.readDouble("value2"));
         place.setLongitude(xml.readDouble("value3"));
-        locationDao.insert(place);
+        currentTask.places.add(place);
         Geofence geofence = new Geofence();
-        geofence.setTask(currentTask.getId());
         geofence.setPlace(place.getUid());
         geofence.setRadius(xml.readInteger("value4"));
         geofence.setArrival(true);
-        locationDao.insert(geofence);
+        currentTask.geofences.add(geofence);
       } else if ("tags-tag".equals(key)) {
         String name = xml.readString("value");
         String tagUid = xml.readString("value2");
-        if (tagDao.getTagByTaskAndTagUid(currentTask.getId(), tagUid) == null) {
-          tagDao.insert(new Tag(currentTask, name, tagUid));
-        }
-        // Construct the TagData from Metadata
-        // Fix for failed backup, Version before 4.6.10
-        if (format == 2) {
-          TagData tagData = tagDataDao.getByUuid(tagUid);
-          if (tagData == null) {
-            tagData = new TagData();
-            tagData.setRemoteId(tagUid);
-            tagData.setName(name);
-            tagDataDao.createNew(tagData);
-          }
+        if (!currentTask.tags.containsKey(tagUid)) {
+          currentTask.tags.put(tagUid, name);
         }
       } else if ("gtasks".equals(key)) {
         GoogleTask googleTask = new GoogleTask();
-        googleTask.setTask(currentTask.getId());
         googleTask.setRemoteId(xml.readString("value"));
         googleTask.setListId(xml.readString("value2"));
         googleTask.setParent(xml.readLong("value3"));
@@ -285,48 +339,93 @@ public class TasksXmlImporter {
         googleTask.setRemoteOrder(xml.readLong("value6"));
         googleTask.setLastSync(xml.readLong("value7"));
         googleTask.setDeleted(xml.readLong("deleted"));
-        googleTaskDao.insert(googleTask);
+        currentTask.googleTasks.add(googleTask);
       }
     }
-  }
-
-  private class Format3TaskImporter extends Format2TaskImporter {
 
-    Format3TaskImporter(XmlPullParser xpp) throws XmlPullParserException, IOException {
-      this.xpp = xpp;
-      while (xpp.next() != XmlPullParser.END_DOCUMENT) {
-        String tag = xpp.getName();
-        if (tag == null || xpp.getEventType() == XmlPullParser.END_TAG) {
-          continue;
-        }
+    private void parseTagdata() {
+      TagData tagData = new TagData(new XmlReader(xpp));
+      if (tagUids.add(tagData.getRemoteId())) {
+        tagDatas.add(tagData);
+      }
+    }
 
-        try {
-          switch (tag) {
-            case BackupConstants.TASK_TAG:
-              parseTask();
-              break;
-            case BackupConstants.METADATA_TAG:
-              parseMetadata(3);
-              break;
-            case BackupConstants.COMMENT_TAG:
-              parseComment();
-              break;
-            case BackupConstants.TAGDATA_TAG:
-              parseTagdata();
-              break;
-          }
-        } catch (Exception e) {
-          errorCount++;
-          Timber.e(e);
-        }
+    private void flush() {
+      if (tasks.isEmpty() && tagDatas.isEmpty()) {
+        return;
       }
+      int imported = database.runInTransaction(this::insert);
+      result.importCount += imported;
+      result.skipCount += tasks.size() - imported;
+      tasks.clear();
+      tagDatas.clear();
+      currentTask = null;
+      progress.onChunkWritten();
     }
 
-    private void parseTagdata() {
-      TagData tagData = new TagData(new XmlReader(xpp));
-      if (tagDataDao.getByUuid(tagData.getRemoteId()) == null) {
+    /** @return number of tasks inserted */
+    private int insert() {
+      for (TagData tagData : tagDatas) {
         tagDataDao.createNew(tagData);
       }
+      List<String> uuids = new ArrayList<>();
+      for (PendingTask pending : tasks) {
+        if (!Task.isUuidEmpty(pending.task.getUuid())) {
+          uuids.add(pending.task.getUuid());
+        }
+      }
+      Set<String> existing = new HashSet<>();
+      if (!uuids.isEmpty()) {
+        existing.addAll(taskDao.getRemoteIds(uuids));
+      }
+      List<Alarm> alarms = new ArrayList<>();
+      List<Geofence> geofences = new ArrayList<>();
+      List<Tag> tags = new ArrayList<>();
+      List<GoogleTask> googleTasks = new ArrayList<>();
+      int imported = 0;
+      for (PendingTask pending : tasks) {
+        Task task = pending.task;
+        if (!Task.isUuidEmpty(task.getUuid()) && !existing.add(task.getUuid())) {
+          continue;
+        }
+        taskDao.createNew(task);
+        imported++;
+        long taskId = task.getId();
+        for (Alarm alarm : pending.alarms) {
+          alarm.setTask(taskId);
+          alarms.add(alarm);
+        }
+        for (Place place : pending.places) {
+          locationDao.insert(place);
+        }
+        for (Geofence geofence : pending.geofences) {
+          geofence.setTask(taskId);
+          geofences.add(geofence);
+        }
+        for (Map.Entry<String, String> tag : pending.tags.entrySet()) {
+          tags.add(new Tag(task, tag.getValue(), tag.getKey()));
+          // Construct the TagData from Metadata
+          // Fix for failed backup, Version before 4.6.10
+          if (format2 && tagUids.add(tag.getKey())) {
+            TagData tagData = new TagData();
+            tagData.setRemoteId(tag.getKey());
+            tagData.setName(tag.getValue());
+            tagDataDao.createNew(tagData);
+          }
+        }
+        for (GoogleTask googleTask : pending.googleTasks) {
+          googleTask.setTask(taskId);
+          googleTasks.add(googleTask);
+        }
+        for (UserActivity comment : pending.comments) {
+          userActivityDao.createNew(comment);
+        }
+      }
+      alarmDao.insert(alarms);
+      locationDao.insert(geofences);
+      tagDao.insert(tags);
+      googleTaskDao.insert(googleTasks);
+      return imported;
     }
   }
 }
@@ -16,14 +16,17 @@ import java.util.List;
 import javax.inject.Inject;
 import org.tasks.data.FilterDao;
 import org.tasks.filters.AlphanumComparator;
+import org.tasks.filters.FilterCompiler;
 
 public final class CustomFilterExposer {
 
   private final FilterDao filterDao;
+  private final FilterCompiler filterCompiler;
 
   @Inject
-  public CustomFilterExposer(FilterDao filterDao) {
+  public CustomFilterExposer(FilterDao filterDao, FilterCompiler filterCompiler) {
     this.filterDao = filterDao;
+    this.filterCompiler = filterCompiler;
   }
 
   public List<Filter> getFilters() {
@@ -37,6 +40,8 @@ public final class CustomFilterExposer {
   }
 
   private Filter load(org.tasks.data.Filter savedFilter) {
-    return savedFilter == null ? null : new CustomFilter(savedFilter);
+    return savedFilter == null
+        ? null
+        : new CustomFilter(savedFilter, filterCompiler.getSql(savedFilter));
   }
 }
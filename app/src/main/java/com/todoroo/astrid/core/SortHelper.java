@@ -13,8 +13,7 @@ import static org.tasks.db.QueryUtils.showRecentlyCompleted;
 import com.todoroo.andlib.sql.Functions;
 import com.todoroo.andlib.sql.Order;
 import com.todoroo.astrid.data.Task;
-import org.tasks.R;
-import org.tasks.preferences.Preferences;
+import org.tasks.preferences.PreferenceSnapshot;
 
 /**
  * Helpers for sorting a list of tasks
@@ -36,7 +35,7 @@ public class SortHelper {
 
   /** Takes a SQL query, and if there isn't already an order, creates an order. */
   public static String adjustQueryForFlagsAndSort(
-      Preferences preferences, String originalSql, int sort) {
+      PreferenceSnapshot preferences, String originalSql, int sort) {
     // sort
     if (originalSql == null) {
       originalSql = "";
@@ -54,16 +53,16 @@ public class SortHelper {
   }
 
   public static String adjustQueryForFlags(
-          Preferences preferences, String originalSql) {
+          PreferenceSnapshot preferences, String originalSql) {
     String adjustedSql = originalSql;
 
     // flags
-    if (preferences.getBoolean(R.string.p_show_completed_tasks, false)) {
+    if (preferences.showCompleted()) {
       adjustedSql = showCompleted(adjustedSql);
-    } else if (preferences.getBoolean(R.string.p_temporarily_show_completed_tasks, false)) {
+    } else if (preferences.temporarilyShowCompleted()) {
       adjustedSql = showRecentlyCompleted(adjustedSql);
     }
-    if (preferences.getBoolean(R.string.p_show_hidden_tasks, false)) {
+    if (preferences.showHidden()) {
       adjustedSql = showHidden(adjustedSql);
     }
 
@@ -150,7 +149,7 @@ public class SortHelper {
     return select;
   }
 
-  public static Order orderForSortTypeRecursive(Preferences preferences) {
+  public static Order orderForSortTypeRecursive(PreferenceSnapshot preferences) {
     Order order;
     switch (preferences.getSortMode()) {
       case SORT_ALPHA:
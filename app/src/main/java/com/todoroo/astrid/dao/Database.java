@@ -14,6 +14,7 @@ import org.tasks.data.CaldavAccount;
 import org.tasks.data.CaldavCalendar;
 import org.tasks.data.CaldavDao;
 import org.tasks.data.CaldavTask;
+import org.tasks.data.CaldavVtodo;
 import org.tasks.data.DeletionDao;
 import org.tasks.data.Filter;
 import org.tasks.data.FilterDao;
@@ -55,10 +56,11 @@ import org.tasks.notifications.NotificationDao;
       GoogleTaskList.class,
       CaldavCalendar.class,
       CaldavTask.class,
+      CaldavVtodo.class,
       CaldavAccount.class,
       GoogleTaskAccount.class
     },
-    version = 73)
+    version = 77)
 public abstract class Database extends RoomDatabase {
 
   public static final String NAME = "database";
@@ -12,6 +12,7 @@ import static com.google.common.collect.Lists.transform;
 import static com.todoroo.andlib.sql.SqlConstants.COUNT;
 import static com.todoroo.andlib.utility.DateUtilities.now;
 import static org.tasks.db.DbUtils.batch;
+import static org.tasks.db.DbUtils.collect;
 
 import androidx.paging.DataSource;
 import androidx.room.Dao;
@@ -33,8 +34,12 @@ import com.todoroo.astrid.data.Task;
 import com.todoroo.astrid.helper.UUIDHelper;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import org.tasks.BuildConfig;
+import org.tasks.data.ActiveTimer;
 import org.tasks.data.Place;
 import org.tasks.data.SubtaskInfo;
 import org.tasks.data.TaskContainer;
@@ -60,13 +65,12 @@ public abstract class TaskDao {
     this.workManager = workManager;
   }
 
-  public List<Task> needsRefresh() {
-    return needsRefresh(now());
-  }
-
   @Query(
-      "SELECT * FROM tasks WHERE completed = 0 AND deleted = 0 AND (hideUntil > :now OR dueDate > :now)")
-  abstract List<Task> needsRefresh(long now);
+      "SELECT dueDate AS refresh FROM tasks WHERE completed = 0 AND deleted = 0 AND dueDate > :now "
+          + "UNION "
+          + "SELECT hideUntil FROM tasks WHERE completed = 0 AND deleted = 0 AND hideUntil > :now "
+          + "ORDER BY refresh ASC LIMIT :limit")
+  public abstract List<Long> getRefreshTimes(long now, int limit);
 
   @Query("SELECT * FROM tasks WHERE _id = :id LIMIT 1")
   public abstract Task fetch(long id);
@@ -74,8 +78,8 @@ public abstract class TaskDao {
   @Query("SELECT * FROM tasks WHERE _id IN (:taskIds)")
   public abstract List<Task> fetch(List<Long> taskIds);
 
-  @Query("SELECT COUNT(1) FROM tasks WHERE timerStart > 0 AND deleted = 0")
-  public abstract int activeTimers();
+  @Query("SELECT _id AS id, timerStart FROM tasks WHERE timerStart > 0 AND deleted = 0")
+  public abstract List<ActiveTimer> getActiveTimers();
 
   @Query("SELECT tasks.* FROM tasks INNER JOIN notification ON tasks._id = notification.task")
   public abstract List<Task> activeNotifications();
@@ -83,6 +87,9 @@ public abstract class TaskDao {
   @Query("SELECT * FROM tasks WHERE remoteId = :remoteId")
   public abstract Task fetch(String remoteId);
 
+  @Query("SELECT remoteId FROM tasks WHERE remoteId IN (:remoteIds)")
+  public abstract List<String> getRemoteIds(List<String> remoteIds);
+
   @Query("SELECT * FROM tasks WHERE completed = 0 AND deleted = 0")
   abstract List<Task> getActiveTasks();
 
@@ -97,6 +104,10 @@ public abstract class TaskDao {
   @Query("UPDATE tasks SET completed = :completionDate " + "WHERE remoteId = :remoteId")
   public abstract void setCompletionDate(String remoteId, long completionDate);
 
+  @Query(
+      "UPDATE tasks SET timerStart = :timerStart, elapsedSeconds = :elapsedSeconds, modified = :modified WHERE _id = :id")
+  public abstract void setTimer(long id, long timerStart, int elapsedSeconds, long modified);
+
   @Query("UPDATE tasks SET snoozeTime = :millis WHERE _id in (:taskIds)")
   public abstract void snooze(List<Long> taskIds, long millis);
 
@@ -120,6 +131,27 @@ public abstract class TaskDao {
           + "WHERE completed = 0 AND deleted = 0 AND (notificationFlags > 0 OR notifications > 0)")
   public abstract List<Task> getTasksWithReminders();
 
+  @Query(
+      "SELECT * FROM tasks "
+          + "WHERE completed = 0 AND deleted = 0 AND (notificationFlags > 0 OR notifications > 0) "
+          + "AND reminder_next = 0")
+  public abstract List<Task> getTasksWithoutNextReminder();
+
+  @Query(
+      "SELECT * FROM tasks "
+          + "WHERE reminder_next > :from AND reminder_next <= :to AND completed = 0 AND deleted = 0")
+  public abstract List<Task> getUpcomingReminders(long from, long to);
+
+  @Query("UPDATE tasks SET reminder_next = :time, reminder_type = :type WHERE _id = :id")
+  public abstract void setNextReminder(long id, long time, int type);
+
+  @Transaction
+  public void setNextReminders(List<Task> tasks) {
+    for (Task task : tasks) {
+      setNextReminder(task.getId(), task.reminderNext, task.reminderType);
+    }
+  }
+
   // --- SQL clause generators
 
   @Query("SELECT * FROM tasks")
@@ -141,6 +173,9 @@ public abstract class TaskDao {
           + "WHERE completed > 0 AND calendarUri IS NOT NULL AND calendarUri != ''")
   public abstract int clearCompletedCalendarEvents();
 
+  @Query("UPDATE tasks SET calendarUri = :calendarUri WHERE _id = :id")
+  public abstract void setCalendarUri(long id, String calendarUri);
+
   @Transaction
   public List<TaskContainer> fetchTasks(QueryCallback callback) {
     return fetchTasks(callback, getSubtaskInfo());
@@ -170,6 +205,33 @@ public abstract class TaskDao {
   @RawQuery
   abstract int count(SimpleSQLiteQuery query);
 
+  /**
+   * Marks every completed task matching queryTemplate as deleted with a single update
+   *
+   * @return ids of the deleted tasks
+   */
+  @Transaction
+  public List<Long> markCompletedDeleted(String queryTemplate, boolean withSubtasks) {
+    String where =
+        " WHERE completed > 0 AND deleted = 0 AND _id IN ("
+            + (withSubtasks
+                ? TaskListQuery.getRecursiveIdQuery(queryTemplate)
+                : TaskListQuery.getIdQuery(queryTemplate))
+            + ")";
+    List<Long> ids = getIds(new SimpleSQLiteQuery("SELECT _id FROM tasks" + where));
+    if (!ids.isEmpty()) {
+      long now = now();
+      database
+          .getOpenHelper()
+          .getWritableDatabase()
+          .execSQL("UPDATE tasks SET modified = ?, deleted = ?" + where, new Object[] {now, now});
+    }
+    return ids;
+  }
+
+  @RawQuery
+  abstract List<Long> getIds(SimpleSQLiteQuery query);
+
   @Query(
       "SELECT EXISTS(SELECT 1 FROM tasks WHERE parent > 0 AND deleted = 0) AS hasSubtasks,"
           + "EXISTS(SELECT 1 FROM google_tasks "
@@ -186,7 +248,7 @@ public abstract class TaskDao {
   }
 
   public void touch(List<Long> ids) {
-    touchInternal(ids);
+    batch(ids, this::touchInternal);
     workManager.sync(false);
   }
 
@@ -235,7 +297,7 @@ public abstract class TaskDao {
 
   public List<Long> findChildrenInList(List<Long> ids) {
     List<Long> result = new ArrayList<>(ids);
-    result.retainAll(getChildren(ids));
+    result.retainAll(new HashSet<>(collect(ids, this::getChildren)));
     return result;
   }
 
@@ -272,6 +334,45 @@ public abstract class TaskDao {
     }
   }
 
+  /**
+   * Sets the completion date of every task with one update per batch of ids, and queues a single
+   * {@link org.tasks.jobs.AfterSaveWork} for all of them instead of one per task.
+   */
+  public void setCompletionDate(List<Task> tasks, long completionDate) {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    List<Task> originals = updateCompletionDate(tasks, completionDate);
+    workManager.afterSave(tasks, originals);
+  }
+
+  /** @return original values for each task */
+  @Transaction
+  List<Task> updateCompletionDate(List<Task> tasks, long completionDate) {
+    List<Long> ids = transform(tasks, Task::getId);
+    Map<Long, Task> originals = new HashMap<>();
+    for (Task original : collect(ids, this::fetch)) {
+      originals.put(original.getId(), original);
+    }
+    long modified = now();
+    batch(ids, b -> setCompletionDateInternal(b, completionDate, modified));
+    List<Task> result = new ArrayList<>();
+    for (Task task : tasks) {
+      task.setCompletionDate(completionDate);
+      task.setModificationDate(modified);
+      result.add(originals.get(task.getId()));
+    }
+    return result;
+  }
+
+  @Query("UPDATE tasks SET completed = :completionDate, modified = :modified WHERE _id IN (:ids)")
+  abstract void setCompletionDateInternal(List<Long> ids, long completionDate, long modified);
+
+  /** Queues a single {@link org.tasks.jobs.AfterSaveWork} for tasks added with createNew */
+  public void afterCreate(List<Task> tasks) {
+    workManager.afterSave(tasks, Collections.nCopies(tasks.size(), null));
+  }
+
   @Insert
   abstract long insert(Task task);
 
@@ -290,13 +391,6 @@ public abstract class TaskDao {
     task.setId(insert);
   }
 
-  @Query(
-      "SELECT * FROM tasks "
-          + "WHERE completed = 0 AND deleted = 0 AND hideUntil < (strftime('%s','now')*1000) "
-          + "ORDER BY (CASE WHEN (dueDate=0) THEN (strftime('%s','now')*1000)*2 ELSE ((CASE WHEN (dueDate / 1000) % 60 > 0 THEN dueDate ELSE (dueDate + 43140000) END)) END) + 172800000 * importance ASC "
-          + "LIMIT 100")
-  public abstract List<Task> getAstrid2TaskProviderTasks();
-
   public int count(Filter filter) {
     SimpleSQLiteQuery query = getQuery(filter.sqlQuery, COUNT);
     long start = BuildConfig.DEBUG ? now() : 0;
@@ -44,7 +44,8 @@ import timber.log.Timber;
       @Index(name = "t_rid", value = "remoteId", unique = true),
       @Index(
           name = "active_and_visible",
-          value = {"completed", "deleted", "hideUntil"})
+          value = {"completed", "deleted", "hideUntil"}),
+      @Index(name = "reminder_next", value = "reminder_next")
     })
 public class Task implements Parcelable {
 
@@ -196,6 +197,13 @@ public class Task implements Parcelable {
   @ColumnInfo(name = "parent_uuid")
   public String parentUuid;
 
+  /** Time of the next reminder, maintained by ReminderService when the task is saved */
+  @ColumnInfo(name = "reminder_next")
+  public transient long reminderNext;
+
+  @ColumnInfo(name = "reminder_type")
+  public transient int reminderType;
+
   // --- due and hide until date management
   @Ignore private transient HashMap<String, Object> transitoryData = null;
 
@@ -252,6 +260,8 @@ public class Task implements Parcelable {
     collapsed = ParcelCompat.readBoolean(parcel);
     parent = parcel.readLong();
     parentUuid = parcel.readString();
+    reminderNext = parcel.readLong();
+    reminderType = parcel.readInt();
   }
 
   /**
@@ -685,6 +695,8 @@ public class Task implements Parcelable {
     ParcelCompat.writeBoolean(dest, collapsed);
     dest.writeLong(parent);
     dest.writeString(parentUuid);
+    dest.writeLong(reminderNext);
+    dest.writeInt(reminderType);
   }
 
   @Override
@@ -8,7 +8,6 @@ package com.todoroo.astrid.gcal;
 
 import static org.tasks.Strings.isNullOrEmpty;
 
-import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
 import android.net.Uri;
@@ -17,15 +16,16 @@ import android.text.format.Time;
 import com.todoroo.andlib.utility.DateUtilities;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
+import java.util.Collection;
 import java.util.TimeZone;
 import javax.inject.Inject;
 import org.tasks.R;
 import org.tasks.calendars.AndroidCalendarEvent;
+import org.tasks.calendars.CalendarEventBatch;
 import org.tasks.calendars.CalendarEventProvider;
 import org.tasks.injection.ForApplication;
 import org.tasks.preferences.PermissionChecker;
 import org.tasks.preferences.Preferences;
-import timber.log.Timber;
 
 public class GCalHelper {
 
@@ -36,7 +36,7 @@ public class GCalHelper {
   private final Preferences preferences;
   private final PermissionChecker permissionChecker;
   private final CalendarEventProvider calendarEventProvider;
-  private final ContentResolver cr;
+  private final Context context;
 
   @Inject
   public GCalHelper(
@@ -49,7 +49,7 @@ public class GCalHelper {
     this.preferences = preferences;
     this.permissionChecker = permissionChecker;
     this.calendarEventProvider = calendarEventProvider;
-    cr = context.getContentResolver();
+    this.context = context;
   }
 
   private String getTaskEventUri(Task task) {
@@ -92,39 +92,46 @@ public class GCalHelper {
       return null;
     }
 
+    CalendarEventBatch batch = calendarEventProvider.newBatch();
     String eventuri = getTaskEventUri(task);
 
     if (!isNullOrEmpty(eventuri) && deleteEventIfExists) {
-      calendarEventProvider.deleteEvent(task);
+      batch.delete(eventuri);
+      task.setCalendarUri("");
     }
 
-    try {
-      values.put(CalendarContract.Events.TITLE, task.getTitle());
-      values.put(CalendarContract.Events.DESCRIPTION, task.getNotes());
-      values.put(CalendarContract.Events.HAS_ALARM, 0);
-      boolean valuesContainCalendarId =
-          (values.containsKey(CalendarContract.Events.CALENDAR_ID)
-              && !isNullOrEmpty(values.getAsString(CalendarContract.Events.CALENDAR_ID)));
-      if (!valuesContainCalendarId) {
-        String calendarId = preferences.getDefaultCalendar();
-        if (!isNullOrEmpty(calendarId)) {
-          values.put(CalendarContract.Events.CALENDAR_ID, calendarId);
-        }
+    values.put(CalendarContract.Events.TITLE, task.getTitle());
+    values.put(CalendarContract.Events.DESCRIPTION, task.getNotes());
+    values.put(CalendarContract.Events.HAS_ALARM, 0);
+    boolean valuesContainCalendarId =
+        (values.containsKey(CalendarContract.Events.CALENDAR_ID)
+            && !isNullOrEmpty(values.getAsString(CalendarContract.Events.CALENDAR_ID)));
+    if (!valuesContainCalendarId) {
+      String calendarId = preferences.getDefaultCalendar();
+      if (!isNullOrEmpty(calendarId)) {
+        values.put(CalendarContract.Events.CALENDAR_ID, calendarId);
       }
+    }
 
-      createStartAndEndDate(task, values);
+    createStartAndEndDate(task, values);
 
-      //noinspection MissingPermission
-      Uri eventUri = cr.insert(CalendarContract.Events.CONTENT_URI, values);
-      cr.notifyChange(eventUri, null);
+    // applied with the delete, if there was an event
+    int insert = batch.insert(values);
+    batch.apply();
+    return batch.getInsertedUri(insert);
+  }
 
-      return eventUri;
-    } catch (Exception e) {
-      // won't work on emulator
-      Timber.e(e);
+  /** Update calendar event titles for tasks that were just completed */
+  public void markCompleted(Collection<Task> tasks) {
+    CalendarEventBatch batch = calendarEventProvider.newBatch();
+    for (Task task : tasks) {
+      ContentValues values = new ContentValues();
+      values.put(
+          CalendarContract.Events.TITLE,
+          context.getString(R.string.gcal_completed_title, task.getTitle()));
+      batch.update(task.getCalendarURI(), values);
     }
-
-    return null;
+    batch.apply();
   }
 
   public void rescheduleRepeatingTask(Task task) {
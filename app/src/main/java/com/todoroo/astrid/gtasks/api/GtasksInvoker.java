@@ -77,7 +77,13 @@ public class GtasksInvoker {
   }
 
   public @Nullable TaskLists allGtaskLists(@Nullable String pageToken) throws IOException {
-    return execute(service.tasklists().list().setMaxResults(100L).setPageToken(pageToken));
+    return execute(
+        service
+            .tasklists()
+            .list()
+            .setMaxResults(100L)
+            .setPageToken(pageToken)
+            .setFields("etag,items(id,title),nextPageToken"));
   }
 
   public @Nullable com.google.api.services.tasks.model.Tasks getAllGtasksFromListId(
@@ -91,7 +97,10 @@ public class GtasksInvoker {
             .setShowHidden(true)
             .setPageToken(pageToken)
             .setUpdatedMin(
-                GtasksApiUtilities.unixTimeToGtasksCompletionTime(lastSyncDate).toStringRfc3339()));
+                GtasksApiUtilities.unixTimeToGtasksCompletionTime(lastSyncDate).toStringRfc3339())
+            .setFields(
+                "items(id,title,notes,parent,position,due,completed,deleted,hidden,updated),"
+                    + "nextPageToken"));
   }
 
   public com.google.api.services.tasks.model.Tasks getAllPositions(
@@ -6,6 +6,8 @@
 
 package com.todoroo.astrid.provider;
 
+import static org.tasks.Strings.isNullOrEmpty;
+
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.UriMatcher;
@@ -14,18 +16,23 @@ import android.database.MatrixCursor;
 import android.net.Uri;
 import androidx.annotation.ColorRes;
 import androidx.annotation.NonNull;
-import com.google.common.base.Joiner;
-import com.todoroo.astrid.dao.TaskDao;
-import com.todoroo.astrid.data.Task;
+import androidx.annotation.Nullable;
+import com.google.common.collect.ImmutableSet;
+import com.todoroo.astrid.dao.Database;
 import dagger.Lazy;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.inject.Inject;
 import org.tasks.BuildConfig;
 import org.tasks.R;
-import org.tasks.data.TagDao;
 import org.tasks.data.TagData;
 import org.tasks.data.TagDataDao;
 import org.tasks.injection.ContentProviderComponent;
@@ -76,14 +83,27 @@ public class Astrid2TaskProvider extends InjectingContentProvider {
 
   private static final String TAG_SEPARATOR = "|";
 
+  private static final String LIMIT = "limit";
+  private static final int DEFAULT_LIMIT = 100;
+
+  private static final Set<String> KEYWORDS =
+      ImmutableSet.of(
+          "AND", "OR", "NOT", "IS", "NULL", "LIKE", "GLOB", "IN", "BETWEEN", "ASC", "DESC",
+          "COLLATE", "NOCASE");
+  private static final Pattern TOKEN =
+      Pattern.compile(
+          "\\s+|'(?:[^']|'')*'|\\d+(?:\\.\\d+)?|\\?|([()<>=!,+\\-*/%|]+)|([A-Za-z_][A-Za-z0-9_]*)");
+
+  /** MD5 of tag names, by name */
+  private static final Map<String, Long> tagIds = new ConcurrentHashMap<>();
+
   static {
     URI_MATCHER.addURI(AUTHORITY, "tasks", URI_TASKS);
     URI_MATCHER.addURI(AUTHORITY, "tags", URI_TAGS);
   }
 
   @Inject Lazy<TagDataDao> tagDataDao;
-  @Inject Lazy<TaskDao> taskDao;
-  @Inject Lazy<TagDao> tagDao;
+  @Inject Lazy<Database> database;
 
   public static void notifyDatabaseModification(Context context) {
     try {
@@ -124,33 +144,39 @@ public class Astrid2TaskProvider extends InjectingContentProvider {
    *
    * @return two-column cursor: tag id (string) and tag name
    */
-  private Cursor getTags() {
+  private Cursor getTags(@Nullable String[] projection) {
+    String[] columns = getProjection(projection, TAGS_FIELD_LIST);
     List<TagData> tags = tagDataDao.get().tagDataOrderedByName();
 
-    MatrixCursor ret = new MatrixCursor(TAGS_FIELD_LIST);
+    MatrixCursor ret = new MatrixCursor(columns, tags.size());
 
     for (TagData tag : tags) {
-      Object[] values = new Object[2];
-      values[0] = tagNameToLong(tag.getName());
-      values[1] = tag.getName();
-
+      Object[] values = new Object[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        values[i] = ID.equals(columns[i]) ? tagNameToLong(tag.getName()) : tag.getName();
+      }
       ret.addRow(values);
     }
 
     return ret;
   }
 
-  private long tagNameToLong(String tag) {
-    MessageDigest m;
-    try {
-      m = MessageDigest.getInstance("MD5");
-    } catch (NoSuchAlgorithmException e) {
-      Timber.e(e);
-      return -1;
+  private static long tagNameToLong(String tag) {
+    Long id = tagIds.get(tag);
+    if (id == null) {
+      MessageDigest m;
+      try {
+        m = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        Timber.e(e);
+        return -1;
+      }
+
+      m.update(tag.getBytes(), 0, tag.length());
+      id = new BigInteger(1, m.digest()).longValue();
+      tagIds.put(tag, id);
     }
-
-    m.update(tag.getBytes(), 0, tag.length());
-    return new BigInteger(1, m.digest()).longValue();
+    return id;
   }
 
   /**
@@ -168,24 +194,140 @@ public class Astrid2TaskProvider extends InjectingContentProvider {
    *
    * @return cursor as described above
    */
-  private Cursor getTasks() {
-    MatrixCursor ret = new MatrixCursor(TASK_FIELD_LIST);
-    List<Task> tasks = taskDao.get().getAstrid2TaskProviderTasks();
-    for (Task task : tasks) {
-      String taskTags = getTagsAsString(task.getId(), TAG_SEPARATOR);
-
-      Object[] values = new Object[7];
-      values[0] = task.getTitle();
-      values[1] = getPriorityColor(getContext(), task.getPriority());
-      values[2] = task.getDueDate();
-      values[3] = task.getDueDate();
-      values[4] = task.getPriority();
-      values[5] = task.getId();
-      values[6] = taskTags;
+  private Cursor getTasks(
+      Uri uri,
+      @Nullable String[] projection,
+      @Nullable String selection,
+      @Nullable String[] selectionArgs,
+      @Nullable String sortOrder) {
+    String[] columns = getProjection(projection, TASK_FIELD_LIST);
+    StringBuilder sql = new StringBuilder("SELECT ");
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        sql.append(',');
+      }
+      sql.append(columns[i]);
+    }
+    Context context = getContext();
+    sql.append(" FROM (SELECT tasks.title AS ")
+        .append(NAME)
+        .append(", CASE WHEN tasks.importance <= 0 THEN ")
+        .append(getPriorityColor(context, 0))
+        .append(" WHEN tasks.importance = 1 THEN ")
+        .append(getPriorityColor(context, 1))
+        .append(" WHEN tasks.importance = 2 THEN ")
+        .append(getPriorityColor(context, 2))
+        .append(" ELSE ")
+        .append(getPriorityColor(context, 3))
+        .append(" END AS ")
+        .append(IMPORTANCE_COLOR)
+        .append(", tasks.dueDate AS ")
+        .append(PREFERRED_DUE_DATE)
+        .append(", tasks.dueDate AS ")
+        .append(DEFINITE_DUE_DATE)
+        .append(", tasks.importance AS ")
+        .append(IMPORTANCE)
+        .append(", tasks._id AS ")
+        .append(IDENTIFIER)
+        .append(", COALESCE((SELECT group_concat(name, '")
+        .append(TAG_SEPARATOR)
+        .append("') FROM (SELECT tags.name FROM tags WHERE tags.task = tasks._id")
+        .append(" ORDER BY UPPER(tags.name) ASC)), '') AS ")
+        .append(TAGS_ID)
+        .append(", (CASE WHEN (tasks.dueDate=0) THEN (strftime('%s','now')*1000)*2")
+        .append(" ELSE ((CASE WHEN (tasks.dueDate / 1000) % 60 > 0 THEN tasks.dueDate")
+        .append(" ELSE (tasks.dueDate + 43140000) END)) END) + 172800000 * tasks.importance")
+        .append(" AS _sort")
+        .append(" FROM tasks WHERE tasks.completed = 0 AND tasks.deleted = 0")
+        .append(" AND tasks.hideUntil < (strftime('%s','now')*1000))");
+    if (!isNullOrEmpty(selection)) {
+      sql.append(" WHERE (").append(checkClause(selection)).append(')');
+    }
+    sql.append(" ORDER BY ")
+        .append(isNullOrEmpty(sortOrder) ? "_sort ASC" : checkClause(sortOrder))
+        .append(" LIMIT ")
+        .append(getLimit(uri));
+
+    Cursor cursor = database.get().query(sql.toString(), selectionArgs);
+    cursor.setNotificationUri(context.getContentResolver(), CONTENT_URI);
+    return cursor;
+  }
 
-      ret.addRow(values);
+  private static String[] getProjection(@Nullable String[] projection, String[] columns) {
+    if (projection == null || projection.length == 0) {
+      return columns;
+    }
+    for (String column : projection) {
+      boolean found = false;
+      for (String c : columns) {
+        found |= c.equals(column);
+      }
+      if (!found) {
+        throw new IllegalArgumentException("Unknown column: " + column);
+      }
+    }
+    return projection;
+  }
+
+  private static int getLimit(Uri uri) {
+    String limit = uri.getQueryParameter(LIMIT);
+    if (isNullOrEmpty(limit)) {
+      return DEFAULT_LIMIT;
+    }
+    try {
+      return Math.max(0, Integer.parseInt(limit));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid limit: " + limit);
     }
-    return ret;
+  }
+
+  /**
+   * Selection and sort order come from other apps, only allow literals, operators, balanced
+   * parentheses and the columns in {@link #TASK_FIELD_LIST}
+   */
+  static String checkClause(String clause) {
+    Matcher matcher = TOKEN.matcher(clause);
+    int position = 0;
+    int depth = 0;
+    while (position < clause.length()) {
+      if (!matcher.find(position) || matcher.start() != position) {
+        throw new IllegalArgumentException("Invalid clause: " + clause);
+      }
+      String operator = matcher.group(1);
+      if (operator != null) {
+        if (operator.contains("--") || operator.contains("/*")) {
+          throw new IllegalArgumentException("Invalid clause: " + clause);
+        }
+        for (int i = 0; i < operator.length(); i++) {
+          char c = operator.charAt(i);
+          if (c == '(') {
+            depth++;
+          } else if (c == ')' && --depth < 0) {
+            throw new IllegalArgumentException("Invalid clause: " + clause);
+          }
+        }
+      }
+      String identifier = matcher.group(2);
+      if (identifier != null
+          && !KEYWORDS.contains(identifier.toUpperCase(Locale.US))
+          && !isTaskColumn(identifier)) {
+        throw new IllegalArgumentException("Invalid clause: " + clause);
+      }
+      position = matcher.end();
+    }
+    if (depth != 0) {
+      throw new IllegalArgumentException("Invalid clause: " + clause);
+    }
+    return clause;
+  }
+
+  private static boolean isTaskColumn(String identifier) {
+    for (String column : TASK_FIELD_LIST) {
+      if (column.equals(identifier)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private static int getPriorityColor(Context context, int priority) {
@@ -213,9 +355,9 @@ public class Astrid2TaskProvider extends InjectingContentProvider {
       String sortOrder) {
     switch (URI_MATCHER.match(uri)) {
       case URI_TASKS:
-        return getTasks();
+        return getTasks(uri, projection, selection, selectionArgs, sortOrder);
       case URI_TAGS:
-        return getTags();
+        return getTags(projection);
       default:
         throw new IllegalStateException("Unrecognized URI:" + uri);
     }
@@ -226,13 +368,4 @@ public class Astrid2TaskProvider extends InjectingContentProvider {
       @NonNull Uri uri, ContentValues values, String selection, String[] selectionArgs) {
     throw new UnsupportedOperationException("not supported");
   }
-
-  /**
-   * Return tags as a list of strings separated by given separator
-   *
-   * @return empty string if no tags, otherwise string
-   */
-  private String getTagsAsString(long taskId, String separator) {
-    return Joiner.on(separator).join(tagDao.get().getTagNames(taskId));
-  }
 }
@@ -6,12 +6,11 @@
 
 package com.todoroo.astrid.reminders;
 
-import static com.google.common.collect.Lists.transform;
-
 import androidx.annotation.Nullable;
 import com.todoroo.andlib.utility.DateUtilities;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
+import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
 import org.tasks.injection.ApplicationScope;
@@ -19,7 +18,7 @@ import org.tasks.jobs.NotificationQueue;
 import org.tasks.jobs.ReminderEntry;
 import org.tasks.preferences.Preferences;
 import org.tasks.reminders.Random;
-import org.tasks.time.DateTime;
+import org.tasks.time.DateMath;
 
 @ApplicationScope
 public final class ReminderService {
@@ -52,24 +51,63 @@ public final class ReminderService {
   }
 
   public void scheduleAllAlarms(List<Long> taskIds) {
-    jobs.add(transform(taskDao.fetch(taskIds), this::getReminderEntry));
+    scheduleAlarms(taskDao.fetch(taskIds));
   }
 
+  /** Recalculate reminders for every task, e.g. after reminder preferences change */
   public void scheduleAllAlarms() {
-    jobs.add(transform(taskDao.getTasksWithReminders(), this::getReminderEntry));
+    scheduleAlarms(taskDao.getTasksWithReminders());
+  }
+
+  /**
+   * Schedule reminders calculated when tasks were saved, this only reads tasks with a reminder
+   * after {@code from} and at or before {@code to}
+   */
+  public void scheduleUpcomingAlarms(long from, long to) {
+    scheduleAlarms(taskDao.getTasksWithoutNextReminder());
+    List<ReminderEntry> entries = new ArrayList<>();
+    for (Task task : taskDao.getUpcomingReminders(from, to)) {
+      entries.add(new ReminderEntry(task.getId(), task.reminderNext, task.reminderType));
+    }
+    jobs.add(entries);
   }
 
   public void scheduleAlarm(Task task) {
-    ReminderEntry reminder = getReminderEntry(task);
+    ReminderEntry reminder = updateNextReminder(task);
+    if (task != null && task.isSaved()) {
+      taskDao.setNextReminder(task.getId(), task.reminderNext, task.reminderType);
+    }
     if (reminder != null) {
       jobs.add(reminder);
     }
   }
 
+  private void scheduleAlarms(List<Task> tasks) {
+    List<ReminderEntry> entries = new ArrayList<>();
+    List<Task> saved = new ArrayList<>();
+    for (Task task : tasks) {
+      entries.add(updateNextReminder(task));
+      if (task != null && task.isSaved()) {
+        saved.add(task);
+      }
+    }
+    taskDao.setNextReminders(saved);
+    jobs.add(entries);
+  }
+
   public void cancelReminder(long taskId) {
     jobs.cancelReminder(taskId);
   }
 
+  private @Nullable ReminderEntry updateNextReminder(Task task) {
+    ReminderEntry reminder = getReminderEntry(task);
+    if (task != null) {
+      task.reminderNext = reminder == null ? NO_ALARM : reminder.getTime();
+      task.reminderType = reminder == null ? 0 : reminder.getType();
+    }
+    return reminder;
+  }
+
   private @Nullable ReminderEntry getReminderEntry(Task task) {
     if (task == null || !task.isSaved()) {
       return null;
@@ -121,22 +159,20 @@ public final class ReminderService {
   private long calculateNextOverdueReminder(Task task) {
     // Uses getNowValue() instead of DateUtilities.now()
     if (task.hasDueDate() && task.isNotifyAfterDeadline()) {
-      DateTime overdueDate = new DateTime(task.getDueDate()).plusDays(1);
+      long overdueDate = DateMath.plusDays(task.getDueDate(), 1);
       if (!task.hasDueTime()) {
-        overdueDate = overdueDate.withMillisOfDay(preferences.getDefaultDueTime());
+        overdueDate = DateMath.withMillisOfDay(overdueDate, preferences.getDefaultDueTime());
       }
 
-      DateTime lastReminder = new DateTime(task.getReminderLast());
+      long lastReminder = task.getReminderLast();
 
-      if (overdueDate.isAfter(lastReminder)) {
-        return overdueDate.getMillis();
+      if (overdueDate > lastReminder) {
+        return overdueDate;
       }
 
-      overdueDate = lastReminder.withMillisOfDay(overdueDate.getMillisOfDay());
+      overdueDate = DateMath.withMillisOfDay(lastReminder, DateMath.getMillisOfDay(overdueDate));
 
-      return overdueDate.isAfter(lastReminder)
-          ? overdueDate.getMillis()
-          : overdueDate.plusDays(1).getMillis();
+      return overdueDate > lastReminder ? overdueDate : DateMath.plusDays(overdueDate, 1);
     }
     return NO_ALARM;
   }
@@ -160,8 +196,7 @@ public final class ReminderService {
       if (task.hasDueTime()) {
         dueDateAlarm = dueDate;
       } else {
-        dueDateAlarm =
-            new DateTime(dueDate).withMillisOfDay(preferences.getDefaultDueTime()).getMillis();
+        dueDateAlarm = DateMath.withMillisOfDay(dueDate, preferences.getDefaultDueTime());
       }
 
       return lastReminder < dueDateAlarm ? dueDateAlarm : NO_ALARM;
@@ -10,8 +10,10 @@ import static org.tasks.date.DateTimeUtils.newDate;
 import static org.tasks.date.DateTimeUtils.newDateTime;
 import static org.tasks.date.DateTimeUtils.newDateUtc;
 
+import android.util.LruCache;
 import com.google.ical.iter.RecurrenceIterator;
 import com.google.ical.iter.RecurrenceIteratorFactory;
+import com.google.ical.values.DateTimeValue;
 import com.google.ical.values.DateTimeValueImpl;
 import com.google.ical.values.DateValue;
 import com.google.ical.values.DateValueImpl;
@@ -24,12 +26,14 @@ import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
 import com.todoroo.astrid.gcal.GCalHelper;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.TimeZone;
 import javax.inject.Inject;
 import org.tasks.LocalBroadcastManager;
+import org.tasks.time.DateMath;
 import org.tasks.time.DateTime;
 import timber.log.Timber;
 
@@ -37,6 +41,9 @@ public class RepeatTaskHelper {
 
   private static final Comparator<WeekdayNum> weekdayCompare =
       (object1, object2) -> object1.wday.javaDayNum - object2.wday.javaDayNum;
+  private static final int CACHE_SIZE = 64;
+  /** Parsed rules keyed by recurrence string. Cached rules are shared and must not be modified */
+  private static final LruCache<String, RRule> rules = new LruCache<>(CACHE_SIZE);
   private final GCalHelper gcalHelper;
   private final TaskDao taskDao;
   private final LocalBroadcastManager localBroadcastManager;
@@ -56,13 +63,13 @@ public class RepeatTaskHelper {
 
   private static boolean repeatFinished(long newDueDate, long repeatUntil) {
     return repeatUntil > 0
-        && newDateTime(newDueDate).startOfDay().isAfter(newDateTime(repeatUntil).startOfDay());
+        && DateMath.startOfDay(newDueDate) > DateMath.startOfDay(repeatUntil);
   }
 
   /** Compute next due date */
   static long computeNextDueDate(Task task, String recurrence, boolean repeatAfterCompletion)
       throws ParseException {
-    RRule rrule = initRRule(recurrence);
+    RRule rrule = getRule(recurrence);
 
     // initialize startDateAsDV
     DateTime original = setUpStartDate(task, repeatAfterCompletion, rrule.getFreq());
@@ -83,19 +90,17 @@ public class RepeatTaskHelper {
 
   private static long handleWeeklyRepeatAfterComplete(
       RRule rrule, DateTime original, boolean hasDueTime) {
-    List<WeekdayNum> byDay = rrule.getByDay();
-    long newDate = original.getMillis();
-    newDate += DateUtilities.ONE_WEEK * (rrule.getInterval() - 1);
-    DateTime date = new DateTime(newDate);
+    List<WeekdayNum> byDay = new ArrayList<>(rrule.getByDay());
+    long time = original.getMillis();
+    time += DateUtilities.ONE_WEEK * (rrule.getInterval() - 1);
 
     Collections.sort(byDay, weekdayCompare);
-    WeekdayNum next = findNextWeekday(byDay, date);
+    WeekdayNum next = findNextWeekday(byDay, DateMath.getDayOfWeek(time));
 
     do {
-      date = date.plusDays(1);
-    } while (date.getDayOfWeek() != next.wday.javaDayNum);
+      time = DateMath.plusDays(time, 1);
+    } while (DateMath.getDayOfWeek(time) != next.wday.javaDayNum);
 
-    long time = date.getMillis();
     if (hasDueTime) {
       return Task.createDueDate(Task.URGENCY_SPECIFIC_DAY_TIME, time);
     } else {
@@ -120,10 +125,10 @@ public class RepeatTaskHelper {
     }
   }
 
-  private static WeekdayNum findNextWeekday(List<WeekdayNum> byDay, DateTime date) {
+  private static WeekdayNum findNextWeekday(List<WeekdayNum> byDay, int dayOfWeek) {
     WeekdayNum next = byDay.get(0);
     for (WeekdayNum weekday : byDay) {
-      if (weekday.wday.javaDayNum > date.getDayOfWeek()) {
+      if (weekday.wday.javaDayNum > dayOfWeek) {
         return weekday;
       }
     }
@@ -131,6 +136,87 @@ public class RepeatTaskHelper {
   }
 
   private static long invokeRecurrence(RRule rrule, DateTime original, DateValue startDateAsDV) {
+    if (isSimple(rrule, startDateAsDV)) {
+      return nextSimpleOccurrence(rrule, original, startDateAsDV);
+    }
+    return iterateRecurrence(rrule, original, startDateAsDV);
+  }
+
+  /**
+   * A rule with only FREQ and INTERVAL, where the next occurrence is always one interval after
+   * the start date and doesn't need a {@link RecurrenceIterator}
+   */
+  private static boolean isSimple(RRule rrule, DateValue startDateAsDV) {
+    switch (rrule.getFreq()) {
+      case DAILY:
+      case WEEKLY:
+        break;
+      case MONTHLY:
+        // the iterator skips months that are too short
+        if (startDateAsDV.day() > 28) {
+          return false;
+        }
+        break;
+      case YEARLY:
+        if (startDateAsDV.month() == 2 && startDateAsDV.day() == 29) {
+          return false;
+        }
+        break;
+      default:
+        return false;
+    }
+    return rrule.getInterval() > 0
+        && rrule.getCount() != 1
+        && rrule.getUntil() == null
+        && rrule.getByDay().isEmpty()
+        && rrule.getByMonth().length == 0
+        && rrule.getByMonthDay().length == 0
+        && rrule.getByYearDay().length == 0
+        && rrule.getByWeekNo().length == 0
+        && rrule.getBySetPos().length == 0
+        && rrule.getByHour().length == 0
+        && rrule.getByMinute().length == 0
+        && rrule.getBySecond().length == 0;
+  }
+
+  private static long nextSimpleOccurrence(
+      RRule rrule, DateTime original, DateValue startDateAsDV) {
+    int interval = rrule.getInterval();
+    // start from noon so that adding days isn't affected by daylight savings
+    DateTime next =
+        new DateTime(startDateAsDV.year(), startDateAsDV.month(), startDateAsDV.day(), 12, 0);
+    switch (rrule.getFreq()) {
+      case DAILY:
+        next = next.plusDays(interval);
+        break;
+      case WEEKLY:
+        next = next.plusDays(7 * interval);
+        break;
+      case MONTHLY:
+        next = next.plusMonths(interval);
+        break;
+      default:
+        next = next.plusMonths(12 * interval);
+        break;
+    }
+    if (startDateAsDV instanceof DateTimeValue) {
+      return Task.createDueDate(
+          Task.URGENCY_SPECIFIC_DAY_TIME,
+          new DateTime(
+                  next.getYear(),
+                  next.getMonthOfYear(),
+                  next.getDayOfMonth(),
+                  original.getHourOfDay(),
+                  original.getMinuteOfHour())
+              .getMillis());
+    } else {
+      return Task.createDueDate(
+          Task.URGENCY_SPECIFIC_DAY,
+          newDate(next.getYear(), next.getMonthOfYear(), next.getDayOfMonth()).getMillis());
+    }
+  }
+
+  static long iterateRecurrence(RRule rrule, DateTime original, DateValue startDateAsDV) {
     long newDueDate = -1;
     RecurrenceIterator iterator =
         RecurrenceIteratorFactory.createRecurrenceIterator(
@@ -184,6 +270,16 @@ public class RepeatTaskHelper {
     return newDueDate;
   }
 
+  /** @return shared rule for recurrence, copy it before making changes */
+  static RRule getRule(String recurrence) throws ParseException {
+    RRule rrule = rules.get(recurrence);
+    if (rrule == null) {
+      rrule = initRRule(recurrence);
+      rules.put(recurrence, rrule);
+    }
+    return rrule;
+  }
+
   /** Initialize RRule instance */
   private static RRule initRRule(String recurrence) throws ParseException {
     RRule rrule = new RRule(recurrence);
@@ -198,7 +294,7 @@ public class RepeatTaskHelper {
   }
 
   /** Set up repeat start date */
-  private static DateTime setUpStartDate(
+  static DateTime setUpStartDate(
       Task task, boolean repeatAfterCompletion, Frequency frequency) {
     if (repeatAfterCompletion) {
       DateTime startDate =
@@ -217,7 +313,7 @@ public class RepeatTaskHelper {
     }
   }
 
-  private static DateValue setUpStartDateAsDV(Task task, DateTime startDate) {
+  static DateValue setUpStartDateAsDV(Task task, DateTime startDate) {
     if (task.hasDueTime()) {
       return new DateTimeValueImpl(
           startDate.getYear(),
@@ -257,7 +353,11 @@ public class RepeatTaskHelper {
       long newDueDate;
       RRule rrule;
       try {
-        rrule = initRRule(task.getRecurrenceWithoutFrom());
+        rrule = getRule(task.getRecurrenceWithoutFrom());
+        if (rrule.getCount() > 1) {
+          // count is decremented below, don't modify the shared rule
+          rrule = initRRule(task.getRecurrenceWithoutFrom());
+        }
         newDueDate = computeNextDueDate(task, recurrence, repeatAfterCompletion);
         if (newDueDate == -1) {
           return;
@@ -1,14 +1,15 @@
 package com.todoroo.astrid.service;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.todoroo.andlib.utility.DateUtilities.now;
+import static org.tasks.db.DbUtils.collect;
 
-import com.google.common.collect.Iterables;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.inject.Inject;
 import org.tasks.data.GoogleTaskDao;
 import timber.log.Timber;
@@ -33,26 +34,32 @@ public class TaskCompleter {
     }
   }
 
+  /**
+   * Completes or uncompletes item and its subtasks. The item is saved in full, so other changes
+   * callers made to it are kept, and the subtasks are updated with a single update.
+   */
   public void setComplete(Task item, boolean completed) {
     long completionDate = completed ? now() : 0L;
-    setComplete(Collections.singletonList(item), completionDate);
-    List<Task> tasks = new ArrayList<>(googleTaskDao.getChildTasks(item.getId()));
-    List<Long> caldavChildren = taskDao.getChildren(item.getId());
-    if (!caldavChildren.isEmpty()) {
-      tasks.addAll(taskDao.fetch(caldavChildren));
+    List<Task> children = getChildren(Collections.singletonList(item.getId()), completed);
+    item.setCompletionDate(completionDate);
+    if (!children.isEmpty()) {
+      item.suppressRefresh();
     }
-    setComplete(
-        newArrayList(Iterables.filter(tasks, t -> t.isCompleted() != completed)), completionDate);
+    taskDao.save(item);
+    taskDao.setCompletionDate(children, completionDate);
   }
 
-  private void setComplete(List<Task> tasks, long completionDate) {
-    for (int i = 0; i < tasks.size(); i++) {
-      Task task = tasks.get(i);
-      task.setCompletionDate(completionDate);
-      if (i < tasks.size() - 1) {
-        task.suppressRefresh();
+  /** @return subtasks of ids that are not already in the requested state */
+  private List<Task> getChildren(List<Long> ids, boolean completed) {
+    Set<Long> children = new HashSet<>(collect(ids, googleTaskDao::getChildren));
+    children.addAll(collect(ids, taskDao::getChildren));
+    children.removeAll(new HashSet<>(ids));
+    List<Task> result = new ArrayList<>();
+    for (Task child : collect(children, taskDao::fetch)) {
+      if (child.isCompleted() != completed) {
+        result.add(child);
       }
-      taskDao.save(task);
     }
+    return result;
   }
 }
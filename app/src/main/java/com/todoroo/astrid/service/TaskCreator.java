@@ -94,7 +94,7 @@ public class TaskCreator {
     createTags(task);
 
     if (task.hasTransitory(GoogleTask.KEY)) {
-      googleTaskDao.insertAndShift(
+      googleTaskDao.insert(
           new GoogleTask(task.getId(), task.getTransitory(GoogleTask.KEY)),
           preferences.addGoogleTasksToTop());
     } else if (task.hasTransitory(CaldavTask.KEY)) {
@@ -102,7 +102,7 @@ public class TaskCreator {
     } else {
       Filter remoteList = defaultFilterProvider.getDefaultRemoteList();
       if (remoteList instanceof GtasksFilter) {
-        googleTaskDao.insertAndShift(
+        googleTaskDao.insert(
             new GoogleTask(task.getId(), ((GtasksFilter) remoteList).getRemoteId()),
             preferences.addGoogleTasksToTop());
       } else if (remoteList instanceof CaldavFilter) {
@@ -8,7 +8,6 @@ import com.google.common.collect.ImmutableList;
 import com.todoroo.astrid.api.Filter;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -20,7 +19,7 @@ import org.tasks.data.DeletionDao;
 import org.tasks.data.GoogleTaskAccount;
 import org.tasks.data.GoogleTaskDao;
 import org.tasks.data.GoogleTaskList;
-import org.tasks.data.TaskContainer;
+import org.tasks.data.TaskListQuery;
 import org.tasks.jobs.WorkManager;
 import org.tasks.preferences.Preferences;
 
@@ -30,8 +29,8 @@ public class TaskDeleter {
   private final TaskDao taskDao;
   private final LocalBroadcastManager localBroadcastManager;
   private final GoogleTaskDao googleTaskDao;
-  private final Preferences preferences;
   private final DeletionDao deletionDao;
+  private final Preferences preferences;
 
   @Inject
   public TaskDeleter(
@@ -50,9 +49,7 @@ public class TaskDeleter {
   }
 
   public int purgeDeleted() {
-    List<Long> deleted = deletionDao.getDeleted();
-    deletionDao.delete(deleted);
-    return deleted.size();
+    return deletionDao.purgeDeleted();
   }
 
   public void markDeleted(Task item) {
@@ -61,13 +58,22 @@ public class TaskDeleter {
 
   public List<Task> markDeleted(List<Long> taskIds) {
     Set<Long> ids = new HashSet<>(taskIds);
-    ids.addAll(collect(taskIds, googleTaskDao::getChildren));
-    ids.addAll(collect(taskIds, taskDao::getChildren));
+    ids.addAll(getChildren(taskIds));
     deletionDao.markDeleted(ids);
+    afterMarkDeleted(ids);
+    return collect(ids, taskDao::fetch);
+  }
+
+  private Set<Long> getChildren(List<Long> taskIds) {
+    Set<Long> children = new HashSet<>(collect(taskIds, googleTaskDao::getChildren));
+    children.addAll(collect(taskIds, taskDao::getChildren));
+    return children;
+  }
+
+  private void afterMarkDeleted(Set<Long> ids) {
     workManager.cleanup(ids);
     workManager.sync(false);
     localBroadcastManager.broadcastRefresh();
-    return collect(ids, taskDao::fetch);
   }
 
   public void delete(Task task) {
@@ -84,17 +90,25 @@ public class TaskDeleter {
     localBroadcastManager.broadcastRefresh();
   }
 
+  /**
+   * Marks completed tasks in filter as deleted, only their ids are loaded. When subtasks are
+   * listed, completed subtasks of matching tasks are cleared too, even if they don't match filter
+   */
   public int clearCompleted(Filter filter) {
-    List<Long> completed = new ArrayList<>();
-    Filter deleteFilter = new Filter(null, null);
-    deleteFilter.setFilterQueryOverride(
-        removeOrder(showHiddenAndCompleted(filter.getOriginalSqlQuery())));
-    for (TaskContainer task : taskDao.fetchTasks(preferences, deleteFilter)) {
-      if (task.isCompleted()) {
-        completed.add(task.getId());
-      }
+    List<Long> completed =
+        taskDao.markCompletedDeleted(
+            removeOrder(showHiddenAndCompleted(filter.getOriginalSqlQuery())),
+            TaskListQuery.showsSubtasks(
+                preferences.getSnapshot(), filter, taskDao.getSubtaskInfo()));
+    if (completed.isEmpty()) {
+      return 0;
     }
-    markDeleted(completed);
+    Set<Long> ids = new HashSet<>(completed);
+    Set<Long> children = getChildren(completed);
+    children.removeAll(ids);
+    deletionDao.markDeleted(children);
+    ids.addAll(children);
+    afterMarkDeleted(ids);
     return completed.size();
   }
 
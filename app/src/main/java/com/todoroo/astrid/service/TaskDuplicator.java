@@ -1,13 +1,19 @@
 package com.todoroo.astrid.service;
 
-import static com.google.common.collect.Lists.transform;
 import static com.todoroo.andlib.utility.DateUtilities.now;
+import static org.tasks.Strings.isNullOrEmpty;
+import static org.tasks.db.DbUtils.collect;
 
+import com.todoroo.astrid.dao.Database;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
 import com.todoroo.astrid.gcal.GCalHelper;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
 import org.tasks.LocalBroadcastManager;
 import org.tasks.data.Alarm;
@@ -20,16 +26,14 @@ import org.tasks.data.GoogleTaskDao;
 import org.tasks.data.LocationDao;
 import org.tasks.data.Tag;
 import org.tasks.data.TagDao;
-import org.tasks.data.TagData;
-import org.tasks.data.TagDataDao;
 import org.tasks.preferences.Preferences;
 
 public class TaskDuplicator {
 
+  private final Database database;
   private final GCalHelper gcalHelper;
   private final TaskDao taskDao;
   private final TagDao tagDao;
-  private final TagDataDao tagDataDao;
   private final GoogleTaskDao googleTaskDao;
   private final CaldavDao caldavDao;
   private final LocationDao locationDao;
@@ -39,21 +43,21 @@ public class TaskDuplicator {
 
   @Inject
   public TaskDuplicator(
+      Database database,
       GCalHelper gcalHelper,
       TaskDao taskDao,
       LocalBroadcastManager localBroadcastManager,
       TagDao tagDao,
-      TagDataDao tagDataDao,
       GoogleTaskDao googleTaskDao,
       CaldavDao caldavDao,
       LocationDao locationDao,
       AlarmDao alarmDao,
       Preferences preferences) {
+    this.database = database;
     this.gcalHelper = gcalHelper;
     this.taskDao = taskDao;
     this.localBroadcastManager = localBroadcastManager;
     this.tagDao = tagDao;
-    this.tagDataDao = tagDataDao;
     this.googleTaskDao = googleTaskDao;
     this.caldavDao = caldavDao;
     this.locationDao = locationDao;
@@ -61,56 +65,102 @@ public class TaskDuplicator {
     this.preferences = preferences;
   }
 
+  /**
+   * Copies tasks and their tags, lists, locations and alarms in a single transaction. Calendar
+   * events are created after the transaction commits, so a rolled back copy doesn't leave events
+   * behind and the transaction isn't held open during calendar provider calls.
+   */
   public List<Task> duplicate(List<Long> taskIds) {
-    List<Task> result = new ArrayList<>();
-    for (Task task : taskDao.fetch(taskIds)) {
-      result.add(clone(task));
+    List<Task> clones = collect(taskIds, taskDao::fetch);
+    if (clones.isEmpty()) {
+      return clones;
     }
+    long now = now();
+    for (Task clone : clones) {
+      clone.setCreationDate(now);
+      clone.setModificationDate(now);
+      clone.setCompletionDate(0L);
+      clone.setCalendarUri("");
+      clone.setUuid(null);
+      clone.suppressSync();
+      clone.suppressRefresh();
+    }
+    database.runInTransaction(() -> insert(clones));
+    createCalendarEvents(clones);
+    taskDao.afterCreate(clones);
     localBroadcastManager.broadcastRefresh();
-    return result;
+    return clones;
   }
 
-  private Task clone(Task clone) {
-    long originalId = clone.getId();
-    clone.setCreationDate(now());
-    clone.setModificationDate(now());
-    clone.setCompletionDate(0L);
-    clone.setCalendarUri("");
-    clone.setUuid(null);
-    clone.suppressSync();
-    clone.suppressRefresh();
-    taskDao.createNew(clone);
-
-    List<TagData> tags = tagDataDao.getTagDataForTask(originalId);
-    if (!tags.isEmpty()) {
-      tagDao.insert(transform(tags, td -> new Tag(clone, td)));
+  private void createCalendarEvents(List<Task> clones) {
+    List<Task> created = new ArrayList<>();
+    for (Task clone : clones) {
+      gcalHelper.createTaskEventIfEnabled(clone);
+      if (!isNullOrEmpty(clone.getCalendarURI())) {
+        created.add(clone);
+      }
     }
-
-    GoogleTask googleTask = googleTaskDao.getByTaskId(originalId);
-    if (googleTask != null) {
-      googleTaskDao.insertAndShift(
-          new GoogleTask(clone.getId(), googleTask.getListId()), preferences.addGoogleTasksToTop());
+    if (!created.isEmpty()) {
+      database.runInTransaction(
+          () -> {
+            for (Task task : created) {
+              taskDao.setCalendarUri(task.getId(), task.getCalendarURI());
+            }
+          });
     }
+  }
 
-    CaldavTask caldavTask = caldavDao.getTask(originalId);
-    if (caldavTask != null) {
-      caldavDao.insert(new CaldavTask(clone.getId(), caldavTask.getCalendar()));
+  private void insert(List<Task> clones) {
+    Map<Long, Task> byOriginalId = new LinkedHashMap<>();
+    for (Task clone : clones) {
+      byOriginalId.put(clone.getId(), clone);
+      taskDao.createNew(clone);
     }
+    List<Long> ids = new ArrayList<>(byOriginalId.keySet());
 
-    for (Geofence g : locationDao.getGeofencesForTask(originalId)) {
-      locationDao.insert(
-          new Geofence(clone.getId(), g.getPlace(), g.isArrival(), g.isDeparture(), g.getRadius()));
+    List<Tag> tags = new ArrayList<>();
+    for (Tag tag : collect(ids, tagDao::getTagsForTasks)) {
+      tags.add(new Tag(byOriginalId.get(tag.getTask()), tag.getName(), tag.getTagUid()));
     }
+    tagDao.insert(tags);
 
-    List<Alarm> alarms = alarmDao.getAlarms(originalId);
-    if (!alarms.isEmpty()) {
-      alarmDao.insert(transform(alarms, a -> new Alarm(clone.getId(), a.getTime())));
+    List<GoogleTask> googleTasks = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+    for (GoogleTask googleTask : collect(ids, googleTaskDao::getByTaskIds)) {
+      if (seen.add(googleTask.getTask())) {
+        googleTasks.add(
+            new GoogleTask(byOriginalId.get(googleTask.getTask()).getId(), googleTask.getListId()));
+      }
     }
+    googleTaskDao.insert(googleTasks, preferences.addGoogleTasksToTop());
 
-    gcalHelper.createTaskEventIfEnabled(clone);
+    List<CaldavTask> caldavTasks = new ArrayList<>();
+    seen.clear();
+    for (CaldavTask caldavTask : collect(ids, caldavDao::getTasks)) {
+      if (seen.add(caldavTask.getTask())) {
+        caldavTasks.add(
+            new CaldavTask(
+                byOriginalId.get(caldavTask.getTask()).getId(), caldavTask.getCalendar()));
+      }
+    }
+    caldavDao.insert(caldavTasks);
 
-    taskDao.save(clone, null); // TODO: delete me
+    List<Geofence> geofences = new ArrayList<>();
+    for (Geofence g : collect(ids, locationDao::getGeofencesForTasks)) {
+      geofences.add(
+          new Geofence(
+              byOriginalId.get(g.getTask()).getId(),
+              g.getPlace(),
+              g.isArrival(),
+              g.isDeparture(),
+              g.getRadius()));
+    }
+    locationDao.insert(geofences);
 
-    return clone;
+    List<Alarm> alarms = new ArrayList<>();
+    for (Alarm alarm : collect(ids, alarmDao::getAlarms)) {
+      alarms.add(new Alarm(byOriginalId.get(alarm.getTask()).getId(), alarm.getTime()));
+    }
+    alarmDao.insert(alarms);
   }
 }
@@ -6,14 +6,19 @@ import static com.google.common.collect.Lists.transform;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.todoroo.andlib.utility.DateUtilities.now;
 import static java.util.Collections.emptyList;
+import static org.tasks.data.GoogleTaskDao.ORDER_GAP;
+import static org.tasks.db.DbUtils.batch;
+import static org.tasks.db.DbUtils.collect;
 
 import androidx.annotation.Nullable;
 import com.todoroo.astrid.api.CaldavFilter;
 import com.todoroo.astrid.api.Filter;
 import com.todoroo.astrid.api.GtasksFilter;
+import com.todoroo.astrid.dao.Database;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import javax.inject.Inject;
@@ -26,6 +31,7 @@ import org.tasks.data.GoogleTaskListDao;
 import org.tasks.preferences.Preferences;
 
 public class TaskMover {
+  private final Database database;
   private final TaskDao taskDao;
   private final CaldavDao caldavDao;
   private final GoogleTaskDao googleTaskDao;
@@ -35,12 +41,14 @@ public class TaskMover {
 
   @Inject
   public TaskMover(
+      Database database,
       TaskDao taskDao,
       CaldavDao caldavDao,
       GoogleTaskDao googleTaskDao,
       GoogleTaskListDao googleTaskListDao,
       Preferences preferences,
       LocalBroadcastManager localBroadcastManager) {
+    this.database = database;
     this.taskDao = taskDao;
     this.caldavDao = caldavDao;
     this.googleTaskDao = googleTaskDao;
@@ -64,31 +72,44 @@ public class TaskMover {
     return null;
   }
 
-  public void move(List<Long> tasks, Filter selectedList) {
-    tasks = new ArrayList<>(tasks);
-    tasks.removeAll(googleTaskDao.findChildrenInList(tasks));
-    tasks.removeAll(taskDao.findChildrenInList(tasks));
-    taskDao.setParent(0, null, tasks);
-    for (Task task : taskDao.fetch(tasks)) {
-      performMove(task, selectedList);
+  /** Moves tasks in a single transaction, followed by one sync and refresh */
+  public void move(List<Long> ids, Filter selectedList) {
+    List<Long> tasks = new ArrayList<>(ids);
+    database.runInTransaction(() -> moveInTransaction(tasks, selectedList));
+    taskDao.touch(tasks);
+    localBroadcastManager.broadcastRefresh();
+  }
+
+  private void moveInTransaction(List<Long> tasks, Filter selectedList) {
+    tasks.removeAll(new HashSet<>(googleTaskDao.findChildrenInList(tasks)));
+    tasks.removeAll(new HashSet<>(taskDao.findChildrenInList(tasks)));
+    batch(tasks, b -> taskDao.setParent(0, null, b));
+    Map<Long, GoogleTask> googleTasks = newHashMap();
+    for (GoogleTask googleTask : collect(tasks, googleTaskDao::getByTaskIds)) {
+      googleTasks.put(googleTask.getTask(), googleTask);
+    }
+    Map<Long, CaldavTask> caldavTasks = newHashMap();
+    for (CaldavTask caldavTask : collect(tasks, caldavDao::getTasks)) {
+      caldavTasks.put(caldavTask.getTask(), caldavTask);
+    }
+    for (Task task : collect(tasks, taskDao::fetch)) {
+      performMove(task, googleTasks.get(task.getId()), caldavTasks.get(task.getId()), selectedList);
     }
     if (selectedList instanceof CaldavFilter) {
       caldavDao.updateParents((((CaldavFilter) selectedList).getUuid()));
     }
-    taskDao.touch(tasks);
-    localBroadcastManager.broadcastRefresh();
   }
 
-  private void performMove(Task task, @Nullable Filter selectedList) {
-    long id = task.getId();
-
-    GoogleTask googleTask = googleTaskDao.getByTaskId(id);
+  private void performMove(
+      Task task,
+      @Nullable GoogleTask googleTask,
+      @Nullable CaldavTask caldavTask,
+      @Nullable Filter selectedList) {
     if (googleTask != null) {
       moveGoogleTask(task, googleTask, selectedList);
       return;
     }
 
-    CaldavTask caldavTask = caldavDao.getTask(id);
     if (caldavTask != null) {
       moveCaldavTask(task, caldavTask, selectedList);
       return;
@@ -110,7 +131,7 @@ public class TaskMover {
 
     if (selected instanceof GtasksFilter) {
       String listId = ((GtasksFilter) selected).getRemoteId();
-      googleTaskDao.insertAndShift(new GoogleTask(id, listId), preferences.addGoogleTasksToTop());
+      googleTaskDao.insert(new GoogleTask(id, listId), preferences.addGoogleTasksToTop());
       if (!children.isEmpty()) {
         googleTaskDao.insert(
             transform(
@@ -160,7 +181,7 @@ public class TaskMover {
       String listId = ((CaldavFilter) selected).getUuid();
       CaldavTask newParent =
           new CaldavTask(id1, listId, caldavTask.getRemoteId(), caldavTask.getObject());
-      newParent.setVtodo(caldavTask.getVtodo());
+      newParent.setVtodo(caldavDao.getVtodo(caldavTask));
       caldavDao.insert(newParent);
       caldavDao.insert(
           transform(
@@ -168,7 +189,7 @@ public class TaskMover {
               child -> {
                 CaldavTask newChild =
                     new CaldavTask(child.getTask(), listId, child.getRemoteId(), child.getObject());
-                newChild.setVtodo(child.getVtodo());
+                newChild.setVtodo(caldavDao.getVtodo(child));
                 newChild.setRemoteParent(child.getRemoteParent());
                 return newChild;
               }));
@@ -199,11 +220,11 @@ public class TaskMover {
   private void moveToGoogleTasks(long id, List<Long> children, GtasksFilter filter) {
     taskDao.setParent(0, null, children);
     String listId = filter.getRemoteId();
-    googleTaskDao.insertAndShift(new GoogleTask(id, listId), preferences.addGoogleTasksToTop());
+    googleTaskDao.insert(new GoogleTask(id, listId), preferences.addGoogleTasksToTop());
     List<GoogleTask> newChildren = new ArrayList<>();
     for (int i = 0; i < children.size(); i++) {
       GoogleTask newChild = new GoogleTask(children.get(i), listId);
-      newChild.setOrder(i);
+      newChild.setOrder(i * ORDER_GAP);
       newChild.setParent(id);
       newChildren.add(newChild);
     }
@@ -211,7 +211,8 @@ public class Upgrader {
         continue;
       }
 
-      at.bitfire.ical4android.Task remoteTask = iCalendar.Companion.fromVtodo(task.getVtodo());
+      at.bitfire.ical4android.Task remoteTask =
+          iCalendar.Companion.fromVtodo(caldavDao.getVtodo(task));
       if (remoteTask == null) {
         continue;
       }
@@ -231,7 +232,8 @@ public class Upgrader {
     List<CaldavTask> updated = new ArrayList<>();
 
     for (CaldavTask task : transform(caldavDao.getTasks(), CaldavTaskContainer::getCaldavTask)) {
-      at.bitfire.ical4android.Task remoteTask = iCalendar.Companion.fromVtodo(task.getVtodo());
+      at.bitfire.ical4android.Task remoteTask =
+          iCalendar.Companion.fromVtodo(caldavDao.getVtodo(task));
       if (remoteTask == null) {
         continue;
       }
@@ -249,7 +251,7 @@ public class Upgrader {
     List<Long> tasksWithTags = caldavDao.getTasksWithTags();
     for (CaldavTaskContainer container : caldavDao.getTasks()) {
       at.bitfire.ical4android.Task remoteTask =
-          iCalendar.Companion.fromVtodo(container.getVtodo());
+          iCalendar.Companion.fromVtodo(caldavDao.getVtodo(container.getCaldavTask()));
       if (remoteTask != null) {
         tagDao.insert(container.getTask(), iCal.getTags(remoteTask.getCategories()));
       }
@@ -0,0 +1,68 @@
+package com.todoroo.astrid.timers;
+
+import com.todoroo.astrid.dao.TaskDao;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Inject;
+import org.tasks.data.ActiveTimer;
+import org.tasks.injection.ApplicationScope;
+
+/** In-memory registry of running timers, loaded once and kept in sync by {@link TimerPlugin} */
+@ApplicationScope
+public class ActiveTimers {
+
+  private final TaskDao taskDao;
+  private final Map<Long, Long> timers = new HashMap<>();
+  private boolean loaded;
+
+  @Inject
+  ActiveTimers(TaskDao taskDao) {
+    this.taskDao = taskDao;
+  }
+
+  private void load() {
+    if (loaded) {
+      return;
+    }
+    timers.clear();
+    for (ActiveTimer timer : taskDao.getActiveTimers()) {
+      timers.put(timer.id, timer.timerStart);
+    }
+    loaded = true;
+  }
+
+  public synchronized void invalidate() {
+    loaded = false;
+  }
+
+  synchronized void update(long taskId, long timerStart) {
+    load();
+    if (timerStart > 0) {
+      timers.put(taskId, timerStart);
+    } else {
+      timers.remove(taskId);
+    }
+  }
+
+  public synchronized void remove(long taskId) {
+    load();
+    timers.remove(taskId);
+  }
+
+  public synchronized int count() {
+    load();
+    return timers.size();
+  }
+
+  /** @return start of the longest running timer, or 0 if no timers are running */
+  public synchronized long getEarliestStart() {
+    load();
+    long earliest = 0;
+    for (long start : timers.values()) {
+      if (earliest == 0 || start < earliest) {
+        earliest = start;
+      }
+    }
+    return earliest;
+  }
+}
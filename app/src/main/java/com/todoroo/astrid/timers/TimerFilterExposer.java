@@ -10,7 +10,6 @@ import android.content.Context;
 import com.todoroo.andlib.sql.Criterion;
 import com.todoroo.andlib.sql.QueryTemplate;
 import com.todoroo.astrid.api.Filter;
-import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
 import javax.inject.Inject;
 import org.jetbrains.annotations.Nullable;
@@ -24,13 +23,13 @@ import org.tasks.injection.ForApplication;
  */
 public final class TimerFilterExposer {
 
-  private final TaskDao taskDao;
+  private final ActiveTimers activeTimers;
   private final Context context;
 
   @Inject
-  public TimerFilterExposer(@ForApplication Context context, TaskDao taskDao) {
+  public TimerFilterExposer(@ForApplication Context context, ActiveTimers activeTimers) {
     this.context = context;
-    this.taskDao = taskDao;
+    this.activeTimers = activeTimers;
   }
 
   static Filter createFilter(Context context) {
@@ -44,6 +43,6 @@ public final class TimerFilterExposer {
   }
 
   public @Nullable Filter getFilters() {
-    return taskDao.activeTimers() == 0 ? null : createFilter(context);
+    return activeTimers.count() == 0 ? null : createFilter(context);
   }
 }
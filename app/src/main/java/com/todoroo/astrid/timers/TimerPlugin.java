@@ -6,8 +6,7 @@
 
 package com.todoroo.astrid.timers;
 
-import static org.tasks.time.DateTimeUtils.currentTimeMillis;
-
+import android.annotation.SuppressLint;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
@@ -20,26 +19,53 @@ import com.todoroo.astrid.data.Task;
 import com.todoroo.astrid.utility.Constants;
 import io.reactivex.Completable;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
+import org.tasks.LocalBroadcastManager;
 import org.tasks.R;
+import org.tasks.injection.ApplicationScope;
 import org.tasks.injection.ForApplication;
 import org.tasks.intents.TaskIntents;
 import org.tasks.notifications.NotificationManager;
 
+@ApplicationScope
 public class TimerPlugin {
 
+  private static final long UPDATE_INTERVAL_MILLIS = 1000;
+
   private final Context context;
   private final NotificationManager notificationManager;
   private final TaskDao taskDao;
+  private final ActiveTimers activeTimers;
+  private final LocalBroadcastManager localBroadcastManager;
+  private final Map<Long, TimerUpdate> pending = new LinkedHashMap<>();
+  private final Subject<Boolean> updates = PublishSubject.<Boolean>create().toSerialized();
 
+  @SuppressLint("CheckResult")
   @Inject
   public TimerPlugin(
       @ForApplication Context context,
       NotificationManager notificationManager,
-      TaskDao taskDao) {
+      TaskDao taskDao,
+      ActiveTimers activeTimers,
+      LocalBroadcastManager localBroadcastManager) {
     this.context = context;
     this.notificationManager = notificationManager;
     this.taskDao = taskDao;
+    this.activeTimers = activeTimers;
+    this.localBroadcastManager = localBroadcastManager;
+
+    //noinspection ResultOfMethodCallIgnored
+    updates
+        .throttleLatest(UPDATE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, Schedulers.io(), true)
+        .observeOn(Schedulers.io())
+        .subscribe(b -> flush());
   }
 
   public void startTimer(Task task) {
@@ -72,17 +98,60 @@ public class TimerPlugin {
       }
     }
 
-    Completable.fromAction(
-            () -> {
-              taskDao.save(task);
-              updateNotifications();
-            })
-        .subscribeOn(Schedulers.io())
-        .subscribe();
+    if (task.isNew()) {
+      Completable.fromAction(
+              () -> {
+                taskDao.save(task);
+                activeTimers.update(task.getId(), task.getTimerStart());
+                updates.onNext(true);
+              })
+          .subscribeOn(Schedulers.io())
+          .subscribe();
+      return;
+    }
+
+    synchronized (pending) {
+      pending.put(
+          task.getId(),
+          new TimerUpdate(task.getId(), task.getTimerStart(), task.getElapsedSeconds()));
+    }
+    updates.onNext(true);
+  }
+
+  /** Remove deleted tasks from the registry and refresh the ongoing notification */
+  public void onDeleted(long[] tasks) {
+    for (long task : tasks) {
+      activeTimers.remove(task);
+    }
+    updates.onNext(true);
+  }
+
+  /** Reload the registry after tasks were replaced outside of this plugin, e.g. by a restore */
+  public void reload() {
+    activeTimers.invalidate();
+    updates.onNext(true);
+  }
+
+  private void flush() {
+    List<TimerUpdate> timers;
+    synchronized (pending) {
+      timers = new ArrayList<>(pending.values());
+      pending.clear();
+    }
+    long now = DateUtilities.now();
+    for (TimerUpdate timer : timers) {
+      activeTimers.update(timer.taskId, timer.timerStart);
+      taskDao.setTimer(timer.taskId, timer.timerStart, timer.elapsedSeconds, now);
+    }
+    if (!timers.isEmpty()) {
+      // setTimer bypasses AfterSaveWork, refresh lists, chips and widgets here
+      localBroadcastManager.broadcastRefresh();
+    }
+    updateNotifications();
   }
 
   public void updateNotifications() {
-    int count = taskDao.activeTimers();
+    int count = activeTimers.count();
     if (count == 0) {
       notificationManager.cancel(Constants.NOTIFICATION_TIMER);
     } else {
@@ -102,11 +171,27 @@ public class TimerPlugin {
               .setContentIntent(pendingIntent)
               .setContentTitle(appName)
               .setContentText(text)
-              .setWhen(currentTimeMillis())
+              .setWhen(activeTimers.getEarliestStart())
+              .setUsesChronometer(true)
+              .setOnlyAlertOnce(true)
               .setSmallIcon(R.drawable.ic_timer_white_24dp)
               .setAutoCancel(false)
               .setOngoing(true);
       notificationManager.notify(Constants.NOTIFICATION_TIMER, builder, false, false, false);
     }
   }
+
+  /** Timer fields captured when toggled, written without touching the rest of the task */
+  private static class TimerUpdate {
+
+    private final long taskId;
+    private final long timerStart;
+    private final int elapsedSeconds;
+
+    private TimerUpdate(long taskId, long timerStart, int elapsedSeconds) {
+      this.taskId = taskId;
+      this.timerStart = timerStart;
+      this.elapsedSeconds = elapsedSeconds;
+    }
+  }
 }
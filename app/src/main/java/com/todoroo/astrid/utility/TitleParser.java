@@ -18,6 +18,8 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -26,6 +28,191 @@ import timber.log.Timber;
 
 public class TitleParser {
 
+  private static final Pattern TAG_PATTERN = Pattern.compile("(\\s|^)#(\\(.*\\)|[^\\s]+)");
+  private static final Pattern CONTEXT_PATTERN = Pattern.compile("(\\s|^)@(\\(.*\\)|[^\\s]+)");
+
+  private static final Pattern[] PRIORITY_PATTERNS =
+      compile(
+          "()((^|[^\\w!])!+|(^|[^\\w!])!\\d)($|[^\\w!])",
+          "()(?i)((\\s?bang){1,})$",
+          "(?i)(\\spriority\\s?(\\d)$)",
+          "(?i)(\\sbang\\s?(\\d)$)",
+          "(?i)()(\\shigh(est)?|\\slow(est)?|\\stop|\\sleast) ?priority$");
+  private static final String[] PRIORITY_KEYWORDS = {"!", "bang", "priority", "bang", "priority"};
+
+  private static final Pattern[] DAY_OF_WEEK_PATTERNS =
+      compile(
+          "(?i)(\\(|\\b)today(\\)|\\b)",
+          "(?i)(\\(|\\b)tomorrow(\\)|\\b)",
+          "(?i)(\\(|\\b)mon(day(\\)|\\b)|(\\)|\\.))",
+          "(?i)(\\(|\\b)tue(sday(\\)|\\b)|(\\)|\\.))",
+          "(?i)(\\(|\\b)wed(nesday(\\)|\\b)|(\\)|\\.))",
+          "(?i)(\\(|\\b)thu(rsday(\\)|\\b)|(\\)|\\.))",
+          "(?i)(\\(|\\b)fri(day(\\)|\\b)|(\\)|\\.))",
+          "(?i)(\\(|\\b)sat(urday(\\)|\\b)|(\\)|\\.))",
+          "(?i)(\\(|\\b)sun(day(\\)|\\b)|(\\)|\\.))");
+  private static final String[] DAY_OF_WEEK_KEYWORDS = {
+    "today", "tomorrow", "mon", "tue", "wed", "thu", "fri", "sat", "sun"
+  };
+
+  // m.group(2) = "month"
+  // m.group(5) = "day"
+  private static final Pattern[] DATE_PATTERNS =
+      compile(
+          "(?i)(\\(|\\b)(jan(\\.|uary))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(feb(\\.|ruary))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(mar(\\.|ch))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(apr(\\.|il))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(may())(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(jun(\\.|e))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(jul(\\.|y))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(aug(\\.|ust))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(sep(\\.|tember))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(oct(\\.|ober))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(nov(\\.|ember))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
+          "(?i)(\\(|\\b)(dec(\\.|ember))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)");
+  private static final String[] MONTH_KEYWORDS = {
+    "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+  };
+
+  // for dates in the format MM/DD
+  private static final Pattern NUMERIC_DATE_PATTERN =
+      Pattern.compile(
+          "(?i)(\\(|\\b)(1[0-2]|0?[1-9])(\\/|-)(3[0-1]|[0-2]?[0-9])(\\/|-)?(\\d{4}|\\d{2})?(\\)|\\b)");
+
+  private static final Pattern[] TIME_PATTERNS =
+      compile(
+          // [time] am/pm
+          "(?i)(\\b)([01]?\\d):?([0-5]\\d)? ?([ap]\\.?m?\\.?)\\b",
+          // army time
+          "(?i)\\b(([0-2]?[0-9]):([0-5][0-9]))(\\b)",
+          // [int] o'clock
+          "(?i)\\b(([01]?\\d)() ?o'? ?clock) ?([ap]\\.?m\\.?)?\\b",
+          // at [int]
+          "(?i)(\\bat) ([01]?\\d)()($|\\D($|\\D))"
+
+          // m.group(2) holds the hour
+          // m.group(3) holds the minutes
+          // m.group(4) holds am/pm
+          );
+  private static final String[] TIME_KEYWORDS = {"", ":", "clock", "at"};
+
+  private static final Pattern INTERVAL_PATTERN = Pattern.compile("(?i)\\bevery (\\w*)\\b");
+  private static final Map<String, Integer> WORDS_TO_NUM = new HashMap<>();
+
+  // applied in the iteration order of the maps they used to be stored in, since the first or last
+  // match wins
+  private static final Pattern[] DAY_TIME_PATTERNS;
+  private static final String[] DAY_TIME_KEYWORDS;
+  private static final int[] DAY_TIME_HOURS;
+  private static final Pattern[] REPEAT_PATTERNS;
+  private static final Frequency[] REPEAT_FREQUENCIES;
+  private static final Pattern[] REPEAT_INTERVAL_ONE_PATTERNS;
+  private static final String[] REPEAT_INTERVAL_ONE_KEYWORDS;
+  private static final Frequency[] REPEAT_INTERVAL_ONE_FREQUENCIES;
+
+  static {
+    HashMap<String, Integer> dayTimes = new HashMap<>();
+    dayTimes.put("(?i)\\bbreakfast\\b", 8);
+    dayTimes.put("(?i)\\blunch\\b", 12);
+    dayTimes.put("(?i)\\bsupper\\b", 18);
+    dayTimes.put("(?i)\\bdinner\\b", 18);
+    dayTimes.put("(?i)\\bbrunch\\b", 10);
+    dayTimes.put("(?i)\\bmorning\\b", 8);
+    dayTimes.put("(?i)\\bafternoon\\b", 15);
+    dayTimes.put("(?i)\\bevening\\b", 19);
+    dayTimes.put("(?i)\\bnight\\b", 19);
+    dayTimes.put("(?i)\\bmidnight\\b", 0);
+    dayTimes.put("(?i)\\bnoon\\b", 12);
+    DAY_TIME_PATTERNS = new Pattern[dayTimes.size()];
+    DAY_TIME_KEYWORDS = new String[dayTimes.size()];
+    DAY_TIME_HOURS = new int[dayTimes.size()];
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : dayTimes.entrySet()) {
+      String regex = entry.getKey();
+      DAY_TIME_PATTERNS[i] = Pattern.compile(regex);
+      DAY_TIME_KEYWORDS[i] = regex.substring("(?i)\\b".length(), regex.length() - 2);
+      DAY_TIME_HOURS[i] = entry.getValue();
+      i++;
+    }
+
+    HashMap<String, Frequency> repeatTimes = new HashMap<>();
+    repeatTimes.put("(?i)\\bevery ?\\w{0,6} days?\\b", Frequency.DAILY);
+    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?nights?\\b", Frequency.DAILY);
+    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?mornings?\\b", Frequency.DAILY);
+    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?evenings?\\b", Frequency.DAILY);
+    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?afternoons?\\b", Frequency.DAILY);
+    repeatTimes.put("(?i)\\bevery \\w{0,6} ?weeks?\\b", Frequency.WEEKLY);
+    repeatTimes.put(
+        "(?i)\\bevery \\w{0,6} ?(mon|tues|wednes|thurs|fri|satur|sun)days?\\b", Frequency.WEEKLY);
+    repeatTimes.put("(?i)\\bevery \\w{0,6} ?months?\\b", Frequency.MONTHLY);
+    repeatTimes.put("(?i)\\bevery \\w{0,6} ?years?\\b", Frequency.YEARLY);
+    REPEAT_PATTERNS = new Pattern[repeatTimes.size()];
+    REPEAT_FREQUENCIES = new Frequency[repeatTimes.size()];
+    i = 0;
+    for (Map.Entry<String, Frequency> entry : repeatTimes.entrySet()) {
+      REPEAT_PATTERNS[i] = Pattern.compile(entry.getKey());
+      REPEAT_FREQUENCIES[i] = entry.getValue();
+      i++;
+    }
+
+    // pre-determined intervals of 1
+    HashMap<String, Frequency> repeatTimesIntervalOne = new HashMap<>();
+    repeatTimesIntervalOne.put("(?i)\\bdaily\\b", Frequency.DAILY);
+    repeatTimesIntervalOne.put("(?i)\\beveryday\\b", Frequency.DAILY);
+    repeatTimesIntervalOne.put("(?i)\\bweekly\\b", Frequency.WEEKLY);
+    repeatTimesIntervalOne.put("(?i)\\bmonthly\\b", Frequency.MONTHLY);
+    repeatTimesIntervalOne.put("(?i)\\byearly\\b", Frequency.YEARLY);
+    REPEAT_INTERVAL_ONE_PATTERNS = new Pattern[repeatTimesIntervalOne.size()];
+    REPEAT_INTERVAL_ONE_KEYWORDS = new String[repeatTimesIntervalOne.size()];
+    REPEAT_INTERVAL_ONE_FREQUENCIES = new Frequency[repeatTimesIntervalOne.size()];
+    i = 0;
+    for (Map.Entry<String, Frequency> entry : repeatTimesIntervalOne.entrySet()) {
+      String regex = entry.getKey();
+      REPEAT_INTERVAL_ONE_PATTERNS[i] = Pattern.compile(regex);
+      REPEAT_INTERVAL_ONE_KEYWORDS[i] = regex.substring("(?i)\\b".length(), regex.length() - 2);
+      REPEAT_INTERVAL_ONE_FREQUENCIES[i] = entry.getValue();
+      i++;
+    }
+
+    String[] words =
+        new String[] {
+          "one", "two", "three", "four", "five", "six",
+          "seven", "eight", "nine", "ten", "eleven", "twelve"
+        };
+    for (i = 0; i < words.length; i++) {
+      WORDS_TO_NUM.put(words[i], i + 1);
+      WORDS_TO_NUM.put(Integer.toString(i + 1), i + 1);
+    }
+    WORDS_TO_NUM.put("other", 2);
+  }
+
+  private static Pattern[] compile(String... regexes) {
+    Pattern[] patterns = new Pattern[regexes.length];
+    for (int i = 0; i < regexes.length; i++) {
+      patterns[i] = Pattern.compile(regexes[i]);
+    }
+    return patterns;
+  }
+
+  /**
+   * Lower case copy of the title, used to skip patterns whose keyword doesn't appear in it. The
+   * patterns only match ASCII case insensitively, so a root locale lower case is enough.
+   */
+  private static String toKeywords(String inputText) {
+    return inputText.toLowerCase(Locale.ROOT);
+  }
+
+  private static boolean hasDigit(String inputText) {
+    for (int i = 0; i < inputText.length(); i++) {
+      char c = inputText.charAt(i);
+      if (c >= '0' && c <= '9') {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public static void parse(TagDataDao tagDataDao, Task task, ArrayList<String> tags) {
     repeatHelper(task);
     listHelper(
@@ -48,13 +235,15 @@ public class TitleParser {
 
   public static void listHelper(TagDataDao tagDataDao, Task task, ArrayList<String> tags) {
     String inputText = task.getTitle();
-    Pattern tagPattern = Pattern.compile("(\\s|^)#(\\(.*\\)|[^\\s]+)");
-    Pattern contextPattern = Pattern.compile("(\\s|^)@(\\(.*\\)|[^\\s]+)");
+    if (inputText.indexOf('#') < 0 && inputText.indexOf('@') < 0) {
+      task.setTitle(inputText.trim());
+      return;
+    }
 
     Set<String> addedTags = new HashSet<>();
 
     while (true) {
-      Matcher m = tagPattern.matcher(inputText);
+      Matcher m = TAG_PATTERN.matcher(inputText);
       if (m.find()) {
         String tag = TitleParser.trimParenthesis(m.group(2));
         String tagWithCase = tagDataDao.getTagWithCase(tag);
@@ -63,7 +252,7 @@ public class TitleParser {
         }
         addedTags.add(tagWithCase);
       } else {
-        m = contextPattern.matcher(inputText);
+        m = CONTEXT_PATTERN.matcher(inputText);
         if (m.find()) {
           String tag = TitleParser.trimParenthesis(m.group(2));
           String tagWithCase = tagDataDao.getTagWithCase(tag);
@@ -111,22 +300,18 @@ public class TitleParser {
   // priorityHelper parses the string and sets the Task's importance
   private static void priorityHelper(Task task) {
     String inputText = task.getTitle();
-    String[] importanceStrings = {
-      "()((^|[^\\w!])!+|(^|[^\\w!])!\\d)($|[^\\w!])",
-      "()(?i)((\\s?bang){1,})$",
-      "(?i)(\\spriority\\s?(\\d)$)",
-      "(?i)(\\sbang\\s?(\\d)$)",
-      "(?i)()(\\shigh(est)?|\\slow(est)?|\\stop|\\sleast) ?priority$"
-    };
-    for (String importanceString : importanceStrings) {
-      Pattern importancePattern = Pattern.compile(importanceString);
+    String keywords = toKeywords(inputText);
+    for (int i = 0; i < PRIORITY_PATTERNS.length; i++) {
+      if (!keywords.contains(PRIORITY_KEYWORDS[i])) {
+        continue;
+      }
       while (true) {
-        Matcher m = importancePattern.matcher(inputText);
+        Matcher m = PRIORITY_PATTERNS[i].matcher(inputText);
         if (m.find()) {
           task.setPriority(strToPriority(m.group(2).trim()));
           int start = m.start() == 0 ? 0 : m.start() + 1;
           inputText = inputText.substring(0, start) + inputText.substring(m.end());
-
+          keywords = toKeywords(inputText);
         } else {
           break;
         }
@@ -177,49 +362,27 @@ public class TitleParser {
     String inputText = task.getTitle();
     Calendar cal = null;
     boolean containsSpecificTime = false;
-    String[] daysOfWeek = {
-      "(?i)(\\(|\\b)today(\\)|\\b)",
-      "(?i)(\\(|\\b)tomorrow(\\)|\\b)",
-      "(?i)(\\(|\\b)mon(day(\\)|\\b)|(\\)|\\.))",
-      "(?i)(\\(|\\b)tue(sday(\\)|\\b)|(\\)|\\.))",
-      "(?i)(\\(|\\b)wed(nesday(\\)|\\b)|(\\)|\\.))",
-      "(?i)(\\(|\\b)thu(rsday(\\)|\\b)|(\\)|\\.))",
-      "(?i)(\\(|\\b)fri(day(\\)|\\b)|(\\)|\\.))",
-      "(?i)(\\(|\\b)sat(urday(\\)|\\b)|(\\)|\\.))",
-      "(?i)(\\(|\\b)sun(day(\\)|\\b)|(\\)|\\.))"
-    };
-
-    for (String date : daysOfWeek) {
-      Pattern pattern = Pattern.compile(date);
-      Matcher m = pattern.matcher(inputText);
+    String keywords = toKeywords(inputText);
+    for (int i = 0; i < DAY_OF_WEEK_PATTERNS.length; i++) {
+      if (!keywords.contains(DAY_OF_WEEK_KEYWORDS[i])) {
+        continue;
+      }
+      Matcher m = DAY_OF_WEEK_PATTERNS[i].matcher(inputText);
       if (m.find()) {
         String toParse = stripParens(m.group(0));
         cal = AstridChronic.parse(toParse).getBeginCalendar();
         inputText = removeIfParenthetical(m, inputText);
+        keywords = toKeywords(inputText);
         // then put it into task
       }
     }
 
-    String[] dates = {
-      "(?i)(\\(|\\b)(jan(\\.|uary))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(feb(\\.|ruary))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(mar(\\.|ch))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(apr(\\.|il))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(may())(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(jun(\\.|e))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(jul(\\.|y))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(aug(\\.|ust))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(sep(\\.|tember))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(oct(\\.|ober))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(nov(\\.|ember))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)",
-      "(?i)(\\(|\\b)(dec(\\.|ember))(\\s(3[0-1]|[0-2]?[0-9])),?( (\\d{4}|\\d{2}))?(\\)|\\b)"
-    };
-
-    // m.group(2) = "month"
-    // m.group(5) = "day"
-    for (String date : dates) {
-      Pattern pattern = Pattern.compile(date);
-      Matcher m = pattern.matcher(inputText);
+    boolean hasDigit = hasDigit(inputText);
+    for (int i = 0; hasDigit && i < DATE_PATTERNS.length; i++) {
+      if (!keywords.contains(MONTH_KEYWORDS[i])) {
+        continue;
+      }
+      Matcher m = DATE_PATTERNS[i].matcher(inputText);
 
       if (m.find()) {
         Calendar dateCal = Chronic.parse(m.group(2)).getBeginCalendar();
@@ -241,15 +404,15 @@ public class TitleParser {
           cal.set(Calendar.YEAR, dateCal.get(Calendar.YEAR));
         }
         inputText = removeIfParenthetical(m, inputText);
+        keywords = toKeywords(inputText);
       }
     }
 
-    // for dates in the format MM/DD
-    Pattern p =
-        Pattern.compile(
-            "(?i)(\\(|\\b)(1[0-2]|0?[1-9])(\\/|-)(3[0-1]|[0-2]?[0-9])(\\/|-)?(\\d{4}|\\d{2})?(\\)|\\b)");
-    Matcher match = p.matcher(inputText);
-    if (match.find()) {
+    Matcher match =
+        hasDigit && (inputText.indexOf('/') >= 0 || inputText.indexOf('-') >= 0)
+            ? NUMERIC_DATE_PATTERN.matcher(inputText)
+            : null;
+    if (match != null && match.find()) {
       Calendar dCal = Calendar.getInstance();
       setCalendarToDefaultTime(dCal);
       dCal.set(Calendar.MONTH, Integer.parseInt(match.group(2).trim()) - 1);
@@ -270,28 +433,17 @@ public class TitleParser {
         cal.set(Calendar.YEAR, dCal.get(Calendar.YEAR));
       }
       inputText = removeIfParenthetical(match, inputText);
+      keywords = toKeywords(inputText);
     }
 
-    HashMap<String, Integer> dayTimes = new HashMap<>();
-    dayTimes.put("(?i)\\bbreakfast\\b", 8);
-    dayTimes.put("(?i)\\blunch\\b", 12);
-    dayTimes.put("(?i)\\bsupper\\b", 18);
-    dayTimes.put("(?i)\\bdinner\\b", 18);
-    dayTimes.put("(?i)\\bbrunch\\b", 10);
-    dayTimes.put("(?i)\\bmorning\\b", 8);
-    dayTimes.put("(?i)\\bafternoon\\b", 15);
-    dayTimes.put("(?i)\\bevening\\b", 19);
-    dayTimes.put("(?i)\\bnight\\b", 19);
-    dayTimes.put("(?i)\\bmidnight\\b", 0);
-    dayTimes.put("(?i)\\bnoon\\b", 12);
-
-    Set<String> keys = dayTimes.keySet();
-    for (String dayTime : keys) {
-      Pattern pattern = Pattern.compile(dayTime);
-      Matcher m = pattern.matcher(inputText);
+    for (int i = 0; i < DAY_TIME_PATTERNS.length; i++) {
+      if (!keywords.contains(DAY_TIME_KEYWORDS[i])) {
+        continue;
+      }
+      Matcher m = DAY_TIME_PATTERNS[i].matcher(inputText);
       if (m.find()) {
         containsSpecificTime = true;
-        int timeHour = dayTimes.get(dayTime);
+        int timeHour = DAY_TIME_HOURS[i];
         Calendar dayTimesCal = Calendar.getInstance();
         setCalendarToDefaultTime(dayTimesCal);
         dayTimesCal.set(Calendar.HOUR, timeHour);
@@ -304,24 +456,11 @@ public class TitleParser {
       }
     }
 
-    String[] times = {
-      // [time] am/pm
-      "(?i)(\\b)([01]?\\d):?([0-5]\\d)? ?([ap]\\.?m?\\.?)\\b",
-      // army time
-      "(?i)\\b(([0-2]?[0-9]):([0-5][0-9]))(\\b)",
-      // [int] o'clock
-      "(?i)\\b(([01]?\\d)() ?o'? ?clock) ?([ap]\\.?m\\.?)?\\b",
-      // at [int]
-      "(?i)(\\bat) ([01]?\\d)()($|\\D($|\\D))"
-
-      // m.group(2) holds the hour
-      // m.group(3) holds the minutes
-      // m.group(4) holds am/pm
-    };
-
-    for (String time : times) {
-      Pattern pattern = Pattern.compile(time);
-      Matcher m = pattern.matcher(inputText);
+    for (int i = 0; hasDigit && i < TIME_PATTERNS.length; i++) {
+      if (!keywords.contains(TIME_KEYWORDS[i])) {
+        continue;
+      }
+      Matcher m = TIME_PATTERNS[i].matcher(inputText);
       if (m.find()) {
         containsSpecificTime = true;
         Calendar today = Calendar.getInstance();
@@ -386,45 +525,28 @@ public class TitleParser {
   // Parses through the text and sets the frequency of the task.
   private static void repeatHelper(Task task) {
     String inputText = task.getTitle();
-    HashMap<String, Frequency> repeatTimes = new HashMap<>();
-    repeatTimes.put("(?i)\\bevery ?\\w{0,6} days?\\b", Frequency.DAILY);
-    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?nights?\\b", Frequency.DAILY);
-    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?mornings?\\b", Frequency.DAILY);
-    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?evenings?\\b", Frequency.DAILY);
-    repeatTimes.put("(?i)\\bevery ?\\w{0,6} ?afternoons?\\b", Frequency.DAILY);
-    repeatTimes.put("(?i)\\bevery \\w{0,6} ?weeks?\\b", Frequency.WEEKLY);
-    repeatTimes.put(
-        "(?i)\\bevery \\w{0,6} ?(mon|tues|wednes|thurs|fri|satur|sun)days?\\b", Frequency.WEEKLY);
-    repeatTimes.put("(?i)\\bevery \\w{0,6} ?months?\\b", Frequency.MONTHLY);
-    repeatTimes.put("(?i)\\bevery \\w{0,6} ?years?\\b", Frequency.YEARLY);
-
-    HashMap<String, Frequency> repeatTimesIntervalOne = new HashMap<>();
-    // pre-determined intervals of 1
-    repeatTimesIntervalOne.put("(?i)\\bdaily\\b", Frequency.DAILY);
-    repeatTimesIntervalOne.put("(?i)\\beveryday\\b", Frequency.DAILY);
-    repeatTimesIntervalOne.put("(?i)\\bweekly\\b", Frequency.WEEKLY);
-    repeatTimesIntervalOne.put("(?i)\\bmonthly\\b", Frequency.MONTHLY);
-    repeatTimesIntervalOne.put("(?i)\\byearly\\b", Frequency.YEARLY);
-
-    Set<String> keys = repeatTimes.keySet();
-    for (String repeatTime : keys) {
-      Pattern pattern = Pattern.compile(repeatTime);
-      Matcher m = pattern.matcher(inputText);
-      if (m.find()) {
-        Frequency rtime = repeatTimes.get(repeatTime);
-        RRule rrule = new RRule();
-        rrule.setFreq(rtime);
-        rrule.setInterval(findInterval(inputText));
-        task.setRecurrence(rrule.toIcal());
-        return;
+    String keywords = toKeywords(inputText);
+    if (keywords.contains("every")) {
+      for (int i = 0; i < REPEAT_PATTERNS.length; i++) {
+        Matcher m = REPEAT_PATTERNS[i].matcher(inputText);
+        if (m.find()) {
+          Frequency rtime = REPEAT_FREQUENCIES[i];
+          RRule rrule = new RRule();
+          rrule.setFreq(rtime);
+          rrule.setInterval(findInterval(inputText));
+          task.setRecurrence(rrule.toIcal());
+          return;
+        }
       }
     }
 
-    for (String repeatTimeIntervalOne : repeatTimesIntervalOne.keySet()) {
-      Pattern pattern = Pattern.compile(repeatTimeIntervalOne);
-      Matcher m = pattern.matcher(inputText);
+    for (int i = 0; i < REPEAT_INTERVAL_ONE_PATTERNS.length; i++) {
+      if (!keywords.contains(REPEAT_INTERVAL_ONE_KEYWORDS[i])) {
+        continue;
+      }
+      Matcher m = REPEAT_INTERVAL_ONE_PATTERNS[i].matcher(inputText);
       if (m.find()) {
-        Frequency rtime = repeatTimesIntervalOne.get(repeatTimeIntervalOne);
+        Frequency rtime = REPEAT_INTERVAL_ONE_FREQUENCIES[i];
         RRule rrule = new RRule();
         rrule.setFreq(rtime);
         rrule.setInterval(1);
@@ -437,25 +559,12 @@ public class TitleParser {
 
   // helper method for repeatHelper.
   private static int findInterval(String inputText) {
-    HashMap<String, Integer> wordsToNum = new HashMap<>();
-    String[] words =
-        new String[] {
-          "one", "two", "three", "four", "five", "six",
-          "seven", "eight", "nine", "ten", "eleven", "twelve"
-        };
-    for (int i = 0; i < words.length; i++) {
-      wordsToNum.put(words[i], i + 1);
-      wordsToNum.put(Integer.toString(i + 1), i + 1);
-    }
-    wordsToNum.put("other", 2);
-
-    Pattern pattern = Pattern.compile("(?i)\\bevery (\\w*)\\b");
     int interval = 1;
-    Matcher m = pattern.matcher(inputText);
+    Matcher m = INTERVAL_PATTERN.matcher(inputText);
     if (m.find() && m.group(1) != null) {
       String intervalStr = m.group(1);
-      if (wordsToNum.containsKey(intervalStr)) {
-        interval = wordsToNum.get(intervalStr);
+      if (WORDS_TO_NUM.containsKey(intervalStr)) {
+        interval = WORDS_TO_NUM.get(intervalStr);
       } else {
         try {
           interval = Integer.parseInt(intervalStr);
@@ -0,0 +1,154 @@
+package org.tasks;
+
+import static com.todoroo.andlib.utility.AndroidUtilities.atLeastNougat;
+import static com.todoroo.andlib.utility.DateUtilities.ONE_MINUTE;
+import static org.tasks.time.DateTimeUtils.currentTimeMillis;
+import static org.tasks.time.DateTimeUtils.printTimestamp;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.provider.Settings;
+import com.google.common.base.Joiner;
+import com.google.common.io.FileWriteMode;
+import com.google.common.io.Files;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.inject.Inject;
+import org.tasks.injection.ApplicationScope;
+import org.tasks.injection.ForApplication;
+import org.tasks.preferences.Preferences;
+import org.tasks.time.DateTime;
+import timber.log.Timber;
+
+/**
+ * Remembers which startup steps already ran and with what inputs, so a process start only repeats
+ * the steps whose inputs changed. Also times each step and appends a line per start to {@link
+ * #REPORT} in the files directory.
+ */
+@ApplicationScope
+public class StartupLedger {
+
+  /** Something a startup step depends on, the step runs again when it changes */
+  public enum Input {
+    /** App was installed or updated */
+    VERSION,
+    /** Device rebooted, clearing alarms, geofences and notifications */
+    BOOT,
+    /** Date changed */
+    DAY
+  }
+
+  static final String REPORT = "startup.log";
+
+  private static final String PREFIX = "startup_ledger_";
+  private static final String GENERATION = PREFIX + "generation";
+  private static final int REPORT_LINES = 100;
+  /** Trim the report once it is roughly twice as long as the lines it keeps */
+  private static final long MAX_REPORT_BYTES = REPORT_LINES * 2 * 160;
+
+  private final Context context;
+  private final Preferences preferences;
+  private final long processStart;
+  private final List<String> trace = new ArrayList<>();
+
+  @Inject
+  public StartupLedger(@ForApplication Context context, Preferences preferences) {
+    this.context = context;
+    this.preferences = preferences;
+    processStart =
+        atLeastNougat() ? Process.getStartElapsedRealtime() : SystemClock.elapsedRealtime();
+  }
+
+  /** Run every step on the next start, e.g. after restoring a backup */
+  public void invalidate() {
+    preferences.setInt(GENERATION, preferences.getInt(GENERATION, 0) + 1);
+  }
+
+  /** Run a step that must run on every start and record how long it took */
+  public void trace(String step, Runnable runnable) {
+    long start = SystemClock.elapsedRealtime();
+    runnable.run();
+    record(step + "=" + (SystemClock.elapsedRealtime() - start) + "ms");
+  }
+
+  /** Run a step if any of its inputs changed since it last completed */
+  public void run(String step, Runnable runnable, Input... inputs) {
+    String key = PREFIX + step;
+    String token = getToken(inputs);
+    if (token.equals(preferences.getStringValue(key))) {
+      record(step + "=skipped");
+      return;
+    }
+    trace(step, runnable);
+    preferences.setString(key, token);
+  }
+
+  /** Log the steps recorded since the process started and append them to the report */
+  public void report() {
+    String line;
+    synchronized (trace) {
+      line =
+          printTimestamp(currentTimeMillis())
+              + " total="
+              + (SystemClock.elapsedRealtime() - processStart)
+              + "ms "
+              + Joiner.on(' ').join(trace);
+      trace.clear();
+    }
+    Timber.i("Startup: %s", line);
+    File file = new File(context.getFilesDir(), REPORT);
+    try {
+      Files.asCharSink(file, StandardCharsets.UTF_8, FileWriteMode.APPEND)
+          .write(line + System.lineSeparator());
+      if (file.length() > MAX_REPORT_BYTES) {
+        List<String> lines = Files.readLines(file, StandardCharsets.UTF_8);
+        Files.asCharSink(file, StandardCharsets.UTF_8)
+            .writeLines(lines.subList(Math.max(0, lines.size() - REPORT_LINES), lines.size()));
+      }
+    } catch (IOException e) {
+      Timber.e(e);
+    }
+  }
+
+  private void record(String entry) {
+    synchronized (trace) {
+      trace.add(entry);
+    }
+  }
+
+  private String getToken(Input... inputs) {
+    StringBuilder token = new StringBuilder().append(preferences.getInt(GENERATION, 0));
+    for (Input input : inputs) {
+      token.append(':');
+      switch (input) {
+        case VERSION:
+          token.append(BuildConfig.VERSION_CODE);
+          break;
+        case BOOT:
+          token.append(getBootId());
+          break;
+        case DAY:
+          token.append(new DateTime().startOfDay().getMillis());
+          break;
+      }
+    }
+    return token.toString();
+  }
+
+  @SuppressLint("InlinedApi")
+  private long getBootId() {
+    if (atLeastNougat()) {
+      int bootCount =
+          Settings.Global.getInt(context.getContentResolver(), Settings.Global.BOOT_COUNT, -1);
+      if (bootCount >= 0) {
+        return bootCount;
+      }
+    }
+    return (currentTimeMillis() - SystemClock.elapsedRealtime()) / ONE_MINUTE;
+  }
+}
@@ -1,8 +1,13 @@
 package org.tasks;
 
+import static org.tasks.StartupLedger.Input.BOOT;
+import static org.tasks.StartupLedger.Input.DAY;
+import static org.tasks.StartupLedger.Input.VERSION;
+
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.core.app.JobIntentService;
@@ -10,6 +15,7 @@ import androidx.work.Configuration;
 import com.jakewharton.processphoenix.ProcessPhoenix;
 import com.jakewharton.threetenabp.AndroidThreeTen;
 import com.todoroo.astrid.service.Upgrader;
+import com.todoroo.astrid.timers.TimerPlugin;
 import dagger.Lazy;
 import io.reactivex.Completable;
 import io.reactivex.schedulers.Schedulers;
@@ -29,6 +35,7 @@ import org.tasks.scheduling.CalendarNotificationIntentService;
 import org.tasks.scheduling.NotificationSchedulerIntentService;
 import org.tasks.scheduling.RefreshScheduler;
 import org.tasks.themes.ThemeBase;
+import org.tasks.time.DateMath;
 import org.tasks.widget.AppWidgetManager;
 import timber.log.Timber;
 
@@ -45,6 +52,8 @@ public class Tasks extends InjectingApplication implements Configuration.Provide
   @Inject Lazy<GeofenceApi> geofenceApi;
   @Inject Lazy<BillingClient> billingClient;
   @Inject Lazy<AppWidgetManager> appWidgetManager;
+  @Inject Lazy<TimerPlugin> timerPlugin;
+  @Inject StartupLedger startupLedger;
 
   @Override
   public void onCreate() {
@@ -54,18 +63,22 @@ public class Tasks extends InjectingApplication implements Configuration.Provide
       return;
     }
 
-    buildSetup.setup();
+    startupLedger.trace("setup", buildSetup::setup);
 
-    upgrade();
+    startupLedger.trace("upgrade", this::upgrade);
 
-    AndroidThreeTen.init(this);
+    startupLedger.trace("threeten", () -> AndroidThreeTen.init(this));
 
     preferences.setSyncOngoing(false);
 
-    ThemeBase.getThemeBase(preferences, inventory, null).setDefaultNightMode();
+    startupLedger.trace(
+        "theme", () -> ThemeBase.getThemeBase(preferences, inventory, null).setDefaultNightMode());
 
     localBroadcastManager.registerRefreshReceiver(new RefreshBroadcastReceiver());
 
+    registerReceiver(
+        new TimeZoneChangedReceiver(), new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED));
+
     Completable.fromAction(this::doInBackground).subscribeOn(Schedulers.io()).subscribe();
   }
 
@@ -83,17 +96,28 @@ public class Tasks extends InjectingApplication implements Configuration.Provide
   }
 
   private void doInBackground() {
-    NotificationSchedulerIntentService.enqueueWork(context, false);
-    CalendarNotificationIntentService.enqueueWork(context);
-    refreshScheduler.get().scheduleAll();
-    workManager.get().updateBackgroundSync();
-    workManager.get().scheduleMidnightRefresh();
-    workManager.get().scheduleBackup();
-    workManager.get().scheduleConfigRefresh();
-    geofenceApi.get().registerAll();
-    FileHelper.delete(context, preferences.getCacheDirectory());
-    billingClient.get().queryPurchases();
-    appWidgetManager.get().reconfigureWidgets();
+    // notification queue, timers and geofence selection are kept in memory
+    startupLedger.trace(
+        "notifications",
+        () -> NotificationSchedulerIntentService.enqueueWork(context, false, false));
+    startupLedger.trace(
+        "calendar_notifications", () -> CalendarNotificationIntentService.enqueueWork(context));
+    startupLedger.run("refresh", () -> refreshScheduler.get().scheduleAll(), VERSION);
+    startupLedger.run("background_sync", () -> workManager.get().updateBackgroundSync(), VERSION);
+    startupLedger.run(
+        "midnight_refresh", () -> workManager.get().scheduleMidnightRefresh(), VERSION, DAY);
+    startupLedger.run("backup", () -> workManager.get().scheduleBackup(), VERSION, DAY);
+    startupLedger.run("remote_config", () -> workManager.get().scheduleConfigRefresh(), VERSION);
+    startupLedger.trace("geofences", () -> geofenceApi.get().registerAll());
+    startupLedger.run(
+        "cache",
+        () -> FileHelper.delete(context, preferences.getCacheDirectory()),
+        VERSION,
+        BOOT);
+    startupLedger.run("purchases", () -> billingClient.get().queryPurchases(), VERSION, DAY);
+    startupLedger.trace("widgets", () -> appWidgetManager.get().reconfigureWidgets());
+    startupLedger.trace("timers", () -> timerPlugin.get().updateNotifications());
+    startupLedger.report();
   }
 
   @Override
@@ -119,4 +143,11 @@ public class Tasks extends InjectingApplication implements Configuration.Provide
           intent);
     }
   }
+
+  private static class TimeZoneChangedReceiver extends BroadcastReceiver {
+    @Override
+    public void onReceive(Context context, Intent intent) {
+      DateMath.resetZone();
+    }
+  }
 }
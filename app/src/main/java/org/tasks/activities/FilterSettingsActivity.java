@@ -15,7 +15,6 @@ import static org.tasks.Strings.isNullOrEmpty;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Bundle;
 import android.view.MenuItem;
@@ -33,23 +32,16 @@ import com.google.android.material.button.MaterialButtonToggleGroup;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.android.material.textfield.TextInputLayout;
-import com.todoroo.andlib.data.Property.CountProperty;
-import com.todoroo.andlib.sql.Query;
-import com.todoroo.andlib.sql.UnaryCriterion;
 import com.todoroo.andlib.utility.AndroidUtilities;
 import com.todoroo.astrid.activity.MainActivity;
 import com.todoroo.astrid.activity.TaskListFragment;
 import com.todoroo.astrid.api.CustomFilter;
 import com.todoroo.astrid.api.CustomFilterCriterion;
 import com.todoroo.astrid.api.MultipleSelectCriterion;
-import com.todoroo.astrid.api.PermaSql;
 import com.todoroo.astrid.api.TextInputCriterion;
 import com.todoroo.astrid.core.CriterionInstance;
 import com.todoroo.astrid.core.CustomFilterAdapter;
 import com.todoroo.astrid.core.CustomFilterItemTouchHelper;
-import com.todoroo.astrid.dao.Database;
-import com.todoroo.astrid.dao.TaskDao.TaskCriteria;
-import com.todoroo.astrid.data.Task;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +50,8 @@ import javax.inject.Inject;
 import org.tasks.R;
 import org.tasks.data.FilterDao;
 import org.tasks.dialogs.AlertDialogBuilder;
+import org.tasks.filters.CriterionCounter;
+import org.tasks.filters.FilterCompiler;
 import org.tasks.filters.FilterCriteriaProvider;
 import org.tasks.injection.ActivityComponent;
 import org.tasks.locale.Locale;
@@ -69,8 +63,9 @@ public class FilterSettingsActivity extends BaseListSettingsActivity {
   public static final String EXTRA_CRITERIA = "extra_criteria";
   @Inject FilterDao filterDao;
   @Inject Locale locale;
-  @Inject Database database;
   @Inject FilterCriteriaProvider filterCriteriaProvider;
+  @Inject CriterionCounter criterionCounter;
+  @Inject FilterCompiler filterCompiler;
   private List<CriterionInstance> criteria;
 
   @BindView(R.id.name)
@@ -136,6 +131,13 @@ public class FilterSettingsActivity extends BaseListSettingsActivity {
     updateTheme();
   }
 
+  @Override
+  protected void onDestroy() {
+    super.onDestroy();
+
+    criterionCounter.close();
+  }
+
   private void onDelete(int index) {
     criteria.remove(index);
     updateList();
@@ -305,7 +307,7 @@ public class FilterSettingsActivity extends BaseListSettingsActivity {
       setResult(
           RESULT_OK,
           new Intent(TaskListFragment.ACTION_RELOAD)
-              .putExtra(MainActivity.OPEN_FILTER, new CustomFilter(f)));
+              .putExtra(MainActivity.OPEN_FILTER, new CustomFilter(f, filterCompiler.getSql(f))));
     }
 
     finish();
@@ -366,52 +368,7 @@ public class FilterSettingsActivity extends BaseListSettingsActivity {
   }
 
   private void updateList() {
-    int max = 0, last = -1;
-
-    StringBuilder sql =
-        new StringBuilder(Query.select(new CountProperty()).from(Task.TABLE).toString())
-            .append(" WHERE ");
-
-    for (CriterionInstance instance : criteria) {
-      String value = instance.getValueFromCriterion();
-      if (value == null && instance.criterion.sql != null && instance.criterion.sql.contains("?")) {
-        value = "";
-      }
-
-      switch (instance.type) {
-        case CriterionInstance.TYPE_ADD:
-          sql.append("OR ");
-          break;
-        case CriterionInstance.TYPE_SUBTRACT:
-          sql.append("AND NOT ");
-          break;
-        case CriterionInstance.TYPE_INTERSECT:
-          sql.append("AND ");
-          break;
-      }
-
-      // special code for all tasks universe
-      if (instance.type == CriterionInstance.TYPE_UNIVERSE || instance.criterion.sql == null) {
-        sql.append(TaskCriteria.activeAndVisible()).append(' ');
-      } else {
-        String subSql = instance.criterion.sql.replace("?", UnaryCriterion.sanitize(value));
-        subSql = PermaSql.replacePlaceholdersForQuery(subSql);
-        sql.append(Task.ID).append(" IN (").append(subSql).append(") ");
-      }
-
-      try (Cursor cursor = database.query(sql.toString(), null)) {
-        cursor.moveToNext();
-        instance.start = last == -1 ? cursor.getInt(0) : last;
-        instance.end = cursor.getInt(0);
-        last = instance.end;
-        max = Math.max(max, last);
-      }
-    }
-
-    for (CriterionInstance instance : criteria) {
-      instance.max = max;
-    }
-
+    criterionCounter.update(criteria);
     adapter.submitList(criteria);
   }
 
@@ -424,31 +381,7 @@ public class FilterSettingsActivity extends BaseListSettingsActivity {
   }
 
   private String getSql() {
-    StringBuilder sql = new StringBuilder(" WHERE ");
-    for (CriterionInstance instance : criteria) {
-      String value = getValue(instance);
-
-      switch (instance.type) {
-        case CriterionInstance.TYPE_ADD:
-          sql.append("OR ");
-          break;
-        case CriterionInstance.TYPE_SUBTRACT:
-          sql.append("AND NOT ");
-          break;
-        case CriterionInstance.TYPE_INTERSECT:
-          sql.append("AND ");
-          break;
-      }
-
-      // special code for all tasks universe
-      if (instance.type == CriterionInstance.TYPE_UNIVERSE || instance.criterion.sql == null) {
-        sql.append(TaskCriteria.activeAndVisible()).append(' ');
-      } else {
-        String subSql = instance.criterion.sql.replace("?", UnaryCriterion.sanitize(value));
-        sql.append(Task.ID).append(" IN (").append(subSql).append(") ");
-      }
-    }
-    return sql.toString();
+    return filterCompiler.compile(criteria).getSql();
   }
 
   private Map<String, Object> getValues() {
@@ -199,7 +199,7 @@ public class TasksJsonExporter {
               googleTaskDao.getAllByTaskId(taskId),
               userActivityDao.getCommentsForTask(task.getUuid()),
               taskAttachmentDao.getAttachments(task.getUuid()),
-              caldavDao.getTasks(taskId)));
+              caldavDao.getTasksWithVtodo(taskId)));
     }
 
     Map<String, Object> data = new HashMap<>();
@@ -15,6 +15,7 @@ import com.google.gson.JsonObject;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
 import com.todoroo.astrid.service.Upgrader;
+import com.todoroo.astrid.timers.TimerPlugin;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -23,6 +24,7 @@ import java.util.Map.Entry;
 import javax.inject.Inject;
 import org.tasks.LocalBroadcastManager;
 import org.tasks.R;
+import org.tasks.StartupLedger;
 import org.tasks.data.Alarm;
 import org.tasks.data.AlarmDao;
 import org.tasks.data.CaldavAccount;
@@ -64,6 +66,8 @@ public class TasksJsonImporter {
   private final TaskAttachmentDao taskAttachmentDao;
   private final CaldavDao caldavDao;
   private final Preferences preferences;
+  private final StartupLedger startupLedger;
+  private final TimerPlugin timerPlugin;
   private final LocationDao locationDao;
 
   private final ImportResult result = new ImportResult();
@@ -82,7 +86,9 @@ public class TasksJsonImporter {
       FilterDao filterDao,
       TaskAttachmentDao taskAttachmentDao,
       CaldavDao caldavDao,
-      Preferences preferences) {
+      Preferences preferences,
+      StartupLedger startupLedger,
+      TimerPlugin timerPlugin) {
     this.tagDataDao = tagDataDao;
     this.userActivityDao = userActivityDao;
     this.taskDao = taskDao;
@@ -96,6 +102,8 @@ public class TasksJsonImporter {
     this.taskAttachmentDao = taskAttachmentDao;
     this.caldavDao = caldavDao;
     this.preferences = preferences;
+    this.startupLedger = startupLedger;
+    this.timerPlugin = timerPlugin;
   }
 
   private void setProgressMessage(
@@ -266,6 +274,8 @@ public class TasksJsonImporter {
       Timber.e(e);
     }
 
+    startupLedger.invalidate();
+    timerPlugin.reload();
     localBroadcastManager.broadcastRefresh();
     return result;
   }
@@ -278,6 +288,7 @@ public class TasksJsonImporter {
     public int taskCount;
     public int importCount;
     public int skipCount;
+    public int errorCount;
   }
 
   static class LegacyLocation {
@@ -49,6 +49,7 @@ public abstract class BaseCaldavAccountSettingsActivity extends ThemedInjectingA
   @Inject DialogBuilder dialogBuilder;
   @Inject TaskDeleter taskDeleter;
   @Inject Inventory inventory;
+  @Inject protected HttpClientRegistry httpClients;
 
   protected CaldavAccount caldavAccount;
 
@@ -353,6 +354,7 @@ public abstract class BaseCaldavAccountSettingsActivity extends ThemedInjectingA
   }
 
   protected void removeAccount() {
+    httpClients.invalidate(caldavAccount);
     taskDeleter.delete(caldavAccount);
     setResult(RESULT_OK);
     finish();
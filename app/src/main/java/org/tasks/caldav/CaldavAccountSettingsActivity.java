@@ -60,6 +60,7 @@ public class CaldavAccountSettingsActivity extends BaseCaldavAccountSettingsActi
   private void updateAccount(String principal) {
     hideProgressIndicator();
 
+    httpClients.invalidate(caldavAccount);
     caldavAccount.setName(getNewName());
     caldavAccount.setUrl(principal);
     caldavAccount.setUsername(getNewUsername());
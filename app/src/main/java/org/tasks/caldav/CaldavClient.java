@@ -5,9 +5,6 @@ import static at.bitfire.dav4jvm.XmlUtils.NS_CARDDAV;
 import static at.bitfire.dav4jvm.XmlUtils.NS_WEBDAV;
 import static org.tasks.Strings.isNullOrEmpty;
 
-import android.content.Context;
-import at.bitfire.cert4android.CustomCertManager;
-import at.bitfire.cert4android.CustomCertManager.CustomHostnameVerifier;
 import at.bitfire.dav4jvm.BasicDigestAuthHandler;
 import at.bitfire.dav4jvm.DavResource;
 import at.bitfire.dav4jvm.Property.Name;
@@ -33,18 +30,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import okhttp3.OkHttpClient.Builder;
-import okhttp3.internal.tls.OkHostnameVerifier;
-import org.tasks.DebugNetworkInterceptor;
 import org.tasks.R;
 import org.tasks.data.CaldavAccount;
 import org.tasks.data.CaldavCalendar;
-import org.tasks.injection.ForApplication;
-import org.tasks.preferences.Preferences;
 import org.tasks.security.KeyStoreEncryption;
 import org.tasks.ui.DisplayableException;
 import org.xmlpull.v1.XmlPullParserException;
@@ -55,69 +45,53 @@ import timber.log.Timber;
 public class CaldavClient {
 
   private final KeyStoreEncryption encryption;
-  private final Preferences preferences;
-  private final DebugNetworkInterceptor interceptor;
+  private final HttpClientRegistry clients;
   private final OkHttpClient httpClient;
   private final HttpUrl httpUrl;
-  private final Context context;
-  private final BasicDigestAuthHandler basicDigestAuthHandler;
+  private final String username;
+  private final String password;
   private boolean foreground;
 
   @Inject
-  CaldavClient(
-      @ForApplication Context context,
-      KeyStoreEncryption encryption,
-      Preferences preferences,
-      DebugNetworkInterceptor interceptor) {
-    this.context = context;
+  CaldavClient(KeyStoreEncryption encryption, HttpClientRegistry clients) {
     this.encryption = encryption;
-    this.preferences = preferences;
-    this.interceptor = interceptor;
+    this.clients = clients;
     httpClient = null;
     httpUrl = null;
-    basicDigestAuthHandler = null;
+    username = null;
+    password = null;
   }
 
   private CaldavClient(
-      Context context,
       KeyStoreEncryption encryption,
-      Preferences preferences,
-      DebugNetworkInterceptor interceptor,
+      HttpClientRegistry clients,
       String url,
       String username,
       String password,
       boolean foreground)
       throws NoSuchAlgorithmException, KeyManagementException {
-    this.context = context;
     this.encryption = encryption;
-    this.preferences = preferences;
-    this.interceptor = interceptor;
-
-    CustomCertManager customCertManager = new CustomCertManager(context);
-    customCertManager.setAppInForeground(foreground);
-    CustomHostnameVerifier hostnameVerifier =
-        customCertManager.hostnameVerifier(OkHostnameVerifier.INSTANCE);
-    SSLContext sslContext = SSLContext.getInstance("TLS");
-    sslContext.init(null, new TrustManager[] {customCertManager}, null);
+    this.clients = clients;
+    this.username = username;
+    this.password = password;
 
-    basicDigestAuthHandler = new BasicDigestAuthHandler(null, username, password);
-    Builder builder =
-        new OkHttpClient()
-            .newBuilder()
-            .addNetworkInterceptor(basicDigestAuthHandler)
-            .authenticator(basicDigestAuthHandler)
-            .cookieJar(new MemoryCookieStore())
-            .followRedirects(false)
-            .followSslRedirects(true)
-            .sslSocketFactory(sslContext.getSocketFactory(), customCertManager)
-            .hostnameVerifier(hostnameVerifier)
-            .connectTimeout(15, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(120, TimeUnit.SECONDS);
-    if (preferences.isFlipperEnabled()) {
-      interceptor.add(builder);
-    }
-    httpClient = builder.build();
+    httpClient =
+        clients.get(
+            HttpClientRegistry.TYPE_CALDAV,
+            url,
+            username,
+            password,
+            foreground,
+            builder -> {
+              BasicDigestAuthHandler basicDigestAuthHandler =
+                  new BasicDigestAuthHandler(null, username, password);
+              builder
+                  .addNetworkInterceptor(basicDigestAuthHandler)
+                  .authenticator(basicDigestAuthHandler)
+                  .connectTimeout(15, TimeUnit.SECONDS)
+                  .writeTimeout(30, TimeUnit.SECONDS)
+                  .readTimeout(120, TimeUnit.SECONDS);
+            });
     httpUrl = HttpUrl.parse(url);
   }
 
@@ -133,8 +107,7 @@ public class CaldavClient {
 
   CaldavClient forUrl(String url, String username, String password)
       throws KeyManagementException, NoSuchAlgorithmException {
-    return new CaldavClient(
-        context, encryption, preferences, interceptor, url, username, password, foreground);
+    return new CaldavClient(encryption, clients, url, username, password, foreground);
   }
 
   private String tryFindPrincipal(String link) throws DavException, IOException {
@@ -193,8 +166,8 @@ public class CaldavClient {
     }
     return forUrl(
             (isNullOrEmpty(principal) ? this.httpUrl : httpUrl.resolve(principal)).toString(),
-            basicDigestAuthHandler.getUsername(),
-            basicDigestAuthHandler.getPassword())
+            username,
+            password)
         .findHomeset();
   }
 
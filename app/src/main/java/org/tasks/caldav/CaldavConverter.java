@@ -6,6 +6,7 @@ import static com.todoroo.astrid.data.Task.URGENCY_SPECIFIC_DAY_TIME;
 import static org.tasks.Strings.isNullOrEmpty;
 import static org.tasks.date.DateTimeUtils.newDateTime;
 
+import androidx.annotation.Nullable;
 import at.bitfire.ical4android.DateUtils;
 import com.todoroo.astrid.data.Task;
 import com.todoroo.astrid.data.Task.Priority;
@@ -103,11 +104,12 @@ public class CaldavConverter {
     return remotePriority > 5 ? Math.min(9, remotePriority) : 9;
   }
 
-  public static at.bitfire.ical4android.Task toCaldav(CaldavTask caldavTask, Task task) {
+  public static at.bitfire.ical4android.Task toCaldav(
+      @Nullable String vtodo, CaldavTask caldavTask, Task task) {
     at.bitfire.ical4android.Task remote = null;
     try {
-      if (!isNullOrEmpty(caldavTask.getVtodo())) {
-        remote = iCalendar.Companion.fromVtodo(caldavTask.getVtodo());
+      if (!isNullOrEmpty(vtodo)) {
+        remote = iCalendar.Companion.fromVtodo(vtodo);
       }
     } catch (Exception e) {
       Timber.e(e);
@@ -74,6 +74,7 @@ public class CaldavSynchronizer {
   private final Firebase firebase;
   private final CaldavClient client;
   private final iCalendar iCal;
+  private final HttpClientRegistry httpClients;
   private final Context context;
 
   @Inject
@@ -86,7 +87,8 @@ public class CaldavSynchronizer {
       Inventory inventory,
       Firebase firebase,
       CaldavClient client,
-      iCalendar iCal) {
+      iCalendar iCal,
+      HttpClientRegistry httpClients) {
     this.context = context;
     this.caldavDao = caldavDao;
     this.taskDao = taskDao;
@@ -96,6 +98,7 @@ public class CaldavSynchronizer {
     this.firebase = firebase;
     this.client = client;
     this.iCal = iCal;
+    this.httpClients = httpClients;
   }
 
   public void sync(CaldavAccount account) {
@@ -109,8 +112,11 @@ public class CaldavSynchronizer {
     }
     try {
       synchronize(account);
+    } catch (SSLException e) {
+      // certificate may have been rejected, start over with a fresh trust manager next time
+      httpClients.invalidate(account);
+      setError(account, e.getMessage());
     } catch (SocketTimeoutException
-        | SSLException
         | ConnectException
         | UnknownHostException
         | UnauthorizedException
@@ -313,7 +319,7 @@ public class CaldavSynchronizer {
       return;
     }
 
-    byte[] data = iCal.toVtodo(caldavTask, task);
+    byte[] data = iCal.toVtodo(caldavTask, task, caldavDao.getVtodo(caldavTask));
     RequestBody requestBody = RequestBody.create(DavCalendar.Companion.getMIME_ICALENDAR(), data);
 
     try {
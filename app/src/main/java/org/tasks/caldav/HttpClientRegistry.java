@@ -0,0 +1,243 @@
+package org.tasks.caldav;
+
+import android.content.Context;
+import androidx.annotation.Nullable;
+import at.bitfire.cert4android.CustomCertManager;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.OkHttpClient.Builder;
+import okhttp3.Protocol;
+import okhttp3.internal.tls.OkHostnameVerifier;
+import org.tasks.DebugNetworkInterceptor;
+import org.tasks.data.CaldavAccount;
+import org.tasks.injection.ApplicationScope;
+import org.tasks.injection.ForApplication;
+import org.tasks.preferences.Preferences;
+import timber.log.Timber;
+
+/**
+ * Long-lived HTTP clients for CalDAV and EteSync accounts. Clients for the same server and user
+ * share a cookie store, certificate manager and TLS session cache across syncs, and all clients
+ * share a single connection pool.
+ *
+ * <p>A client lives until its credentials change, its account is edited or removed, a sync fails
+ * with an {@link javax.net.ssl.SSLException}, or {@link #invalidateAll()} is called because
+ * trusted certificates or the debug network interceptor changed.
+ */
+@ApplicationScope
+public class HttpClientRegistry {
+
+  public static final String TYPE_CALDAV = "caldav";
+  public static final String TYPE_ETESYNC = "etesync";
+
+  private static final int MAX_IDLE_CONNECTIONS = 5;
+  private static final long KEEP_ALIVE_MINUTES = 5;
+
+  public interface Configurator {
+    void configure(Builder builder);
+  }
+
+  private final Context context;
+  private final Preferences preferences;
+  private final DebugNetworkInterceptor interceptor;
+  private final ConnectionPool connectionPool =
+      new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+  private final AtomicLong connectionsOpened = new AtomicLong();
+  private final AtomicLong connectionsAcquired = new AtomicLong();
+  private final Map<String, Client> clients = new HashMap<>();
+  private final OkHttpClient base;
+  private int hits;
+  private int misses;
+
+  @Inject
+  public HttpClientRegistry(
+      @ForApplication Context context,
+      Preferences preferences,
+      DebugNetworkInterceptor interceptor) {
+    this.context = context;
+    this.preferences = preferences;
+    this.interceptor = interceptor;
+    base =
+        new OkHttpClient.Builder()
+            .connectionPool(connectionPool)
+            .eventListener(
+                new EventListener() {
+                  @Override
+                  public void connectEnd(
+                      Call call,
+                      InetSocketAddress inetSocketAddress,
+                      Proxy proxy,
+                      @Nullable Protocol protocol) {
+                    connectionsOpened.incrementAndGet();
+                  }
+
+                  @Override
+                  public void connectionAcquired(Call call, Connection connection) {
+                    connectionsAcquired.incrementAndGet();
+                  }
+                })
+            .followRedirects(false)
+            .followSslRedirects(true)
+            .build();
+  }
+
+  /**
+   * @param secret password or token, a different value replaces the cached client
+   * @param configurator applies authentication and timeouts to a newly created client
+   */
+  public synchronized OkHttpClient get(
+      String type,
+      String url,
+      @Nullable String username,
+      @Nullable String secret,
+      boolean foreground,
+      Configurator configurator)
+      throws NoSuchAlgorithmException, KeyManagementException {
+    String origin = getOrigin(url);
+    String key = type + ":" + username + "@" + origin + (foreground ? "#foreground" : "");
+    Client client = clients.get(key);
+    if (client != null) {
+      if (Objects.equals(client.secret, secret)) {
+        hits++;
+        return client.httpClient;
+      }
+      Timber.d("Credentials changed for %s", key);
+      client.close();
+    }
+    misses++;
+    client = new Client(origin, username, secret, foreground, configurator);
+    clients.put(key, client);
+    return client.httpClient;
+  }
+
+  public synchronized void invalidate(CaldavAccount account) {
+    String origin = getOrigin(account.getUrl());
+    Iterator<Client> iterator = clients.values().iterator();
+    while (iterator.hasNext()) {
+      Client client = iterator.next();
+      if (client.origin.equals(origin) && Objects.equals(client.username, account.getUsername())) {
+        client.close();
+        iterator.remove();
+      }
+    }
+  }
+
+  /** Drop all clients and pooled connections after trusted certificates or interceptors change */
+  public synchronized void invalidateAll() {
+    for (Client client : clients.values()) {
+      client.close();
+    }
+    clients.clear();
+    connectionPool.evictAll();
+  }
+
+  public synchronized int getClientCount() {
+    return clients.size();
+  }
+
+  public synchronized int getHits() {
+    return hits;
+  }
+
+  public synchronized int getMisses() {
+    return misses;
+  }
+
+  public long getConnectionsOpened() {
+    return connectionsOpened.get();
+  }
+
+  /** @return number of requests that were served by an existing connection */
+  public long getConnectionsReused() {
+    return Math.max(0, connectionsAcquired.get() - connectionsOpened.get());
+  }
+
+  public int getConnectionCount() {
+    return connectionPool.connectionCount();
+  }
+
+  public int getIdleConnectionCount() {
+    return connectionPool.idleConnectionCount();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "HttpClientRegistry{clients="
+        + clients.size()
+        + ", hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", opened="
+        + getConnectionsOpened()
+        + ", reused="
+        + getConnectionsReused()
+        + ", pooled="
+        + getConnectionCount()
+        + ", idle="
+        + getIdleConnectionCount()
+        + '}';
+  }
+
+  private static String getOrigin(@Nullable String url) {
+    HttpUrl httpUrl = url == null ? null : HttpUrl.parse(url);
+    return httpUrl == null ? String.valueOf(url) : httpUrl.resolve("/").toString();
+  }
+
+  private class Client {
+    final String origin;
+    final String username;
+    final String secret;
+    final CustomCertManager certManager;
+    final OkHttpClient httpClient;
+
+    Client(
+        String origin,
+        @Nullable String username,
+        @Nullable String secret,
+        boolean foreground,
+        Configurator configurator)
+        throws NoSuchAlgorithmException, KeyManagementException {
+      this.origin = origin;
+      this.username = username;
+      this.secret = secret;
+
+      certManager = new CustomCertManager(context);
+      certManager.setAppInForeground(foreground);
+      SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(null, new TrustManager[] {certManager}, null);
+
+      Builder builder =
+          base.newBuilder()
+              .cookieJar(new MemoryCookieStore())
+              .sslSocketFactory(sslContext.getSocketFactory(), certManager)
+              .hostnameVerifier(certManager.hostnameVerifier(OkHostnameVerifier.INSTANCE));
+      configurator.configure(builder);
+      if (preferences.isFlipperEnabled()) {
+        interceptor.add(builder);
+      }
+      httpClient = builder.build();
+    }
+
+    void close() {
+      certManager.close();
+    }
+  }
+}
@@ -18,7 +18,6 @@ import net.fortuna.ical4j.model.property.RelatedTo
 import org.tasks.Strings.isNullOrEmpty
 import org.tasks.caldav.GeoUtils.equalish
 import org.tasks.caldav.GeoUtils.toGeo
-import org.tasks.caldav.GeoUtils.toLikeString
 import org.tasks.data.*
 import org.tasks.jobs.WorkManager
 import org.tasks.location.GeofenceApi
@@ -80,8 +79,8 @@ class iCalendar @Inject constructor(
 
     fun setPlace(taskId: Long, geo: Geo) {
         var place: Place? = locationDao.findPlace(
-                geo.latitude.toLikeString(),
-                geo.longitude.toLikeString())
+                geo.latitude.toDouble(),
+                geo.longitude.toDouble())
         if (place == null) {
             place = Place.newPlace(geo)
             place.id = locationDao.insert(place)
@@ -116,8 +115,9 @@ class iCalendar @Inject constructor(
         return tags
     }
 
-    fun toVtodo(caldavTask: CaldavTask, task: com.todoroo.astrid.data.Task): ByteArray {
-        val remoteModel = CaldavConverter.toCaldav(caldavTask, task)
+    fun toVtodo(
+            caldavTask: CaldavTask, task: com.todoroo.astrid.data.Task, vtodo: String?): ByteArray {
+        val remoteModel = CaldavConverter.toCaldav(vtodo, caldavTask, task)
         val categories = remoteModel.categories
         categories.clear()
         categories.addAll(Lists.transform(tagDataDao.getTagDataForTask(task.getId())) { obj: TagData? -> obj!!.name })
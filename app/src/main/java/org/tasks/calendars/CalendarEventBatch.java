@@ -0,0 +1,160 @@
+package org.tasks.calendars;
+
+import static org.tasks.Strings.isNullOrEmpty;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.ContentResolver;
+import android.content.ContentUris;
+import android.content.ContentValues;
+import android.net.Uri;
+import android.provider.CalendarContract;
+import androidx.annotation.Nullable;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.List;
+import org.tasks.preferences.PermissionChecker;
+import timber.log.Timber;
+
+/**
+ * Collects inserts, updates and deletes of calendar events and applies them with {@link
+ * ContentResolver#applyBatch}.
+ *
+ * <p>Events are deleted by id with one operation per {@link #MAX_ARGS} events instead of one
+ * provider call per event. If a batch fails its operations are retried one at a time, so one bad
+ * event uri doesn't prevent the others from being applied.
+ */
+public class CalendarEventBatch {
+
+  private static final int BATCH_SIZE = 100;
+  private static final int MAX_ARGS = 500;
+
+  private final ContentResolver contentResolver;
+  private final PermissionChecker permissionChecker;
+  private final List<Long> deletedIds = new ArrayList<>();
+  private final List<ContentProviderOperation> operations = new ArrayList<>();
+  private final List<Uri> results = new ArrayList<>();
+  private int offset;
+
+  CalendarEventBatch(ContentResolver contentResolver, PermissionChecker permissionChecker) {
+    this.contentResolver = contentResolver;
+    this.permissionChecker = permissionChecker;
+  }
+
+  public void delete(@Nullable String eventUri) {
+    if (isNullOrEmpty(eventUri)) {
+      return;
+    }
+    Uri uri = Uri.parse(eventUri);
+    long id = getEventId(uri);
+    if (id > 0) {
+      deletedIds.add(id);
+    } else {
+      operations.add(ContentProviderOperation.newDelete(uri).build());
+    }
+  }
+
+  public void update(@Nullable String eventUri, ContentValues values) {
+    if (!isNullOrEmpty(eventUri)) {
+      operations.add(
+          ContentProviderOperation.newUpdate(Uri.parse(eventUri)).withValues(values).build());
+    }
+  }
+
+  /** @return index for {@link #getInsertedUri(int)} */
+  public int insert(ContentValues values) {
+    operations.add(
+        ContentProviderOperation.newInsert(CalendarContract.Events.CONTENT_URI)
+            .withValues(values)
+            .build());
+    return operations.size() - 1;
+  }
+
+  public boolean isEmpty() {
+    return deletedIds.isEmpty() && operations.isEmpty();
+  }
+
+  /** @return number of operations applied */
+  public int apply() {
+    if (isEmpty() || !permissionChecker.canAccessCalendars()) {
+      return 0;
+    }
+    List<ContentProviderOperation> batch = new ArrayList<>();
+    for (List<Long> ids : Iterables.partition(deletedIds, MAX_ARGS)) {
+      batch.add(
+          ContentProviderOperation.newDelete(CalendarContract.Events.CONTENT_URI)
+              .withSelection(
+                  CalendarContract.Events._ID + " IN (" + Joiner.on(",").join(ids) + ")", null)
+              .build());
+    }
+    offset = batch.size();
+    batch.addAll(operations);
+    deletedIds.clear();
+    operations.clear();
+    results.clear();
+
+    int applied = 0;
+    for (List<ContentProviderOperation> chunk : Iterables.partition(batch, BATCH_SIZE)) {
+      applied += apply(new ArrayList<>(chunk));
+    }
+    return applied;
+  }
+
+  /** @return uri of an event inserted by the last call to {@link #apply()} */
+  @Nullable
+  public Uri getInsertedUri(int index) {
+    int position = offset + index;
+    return position < results.size() ? results.get(position) : null;
+  }
+
+  private int apply(ArrayList<ContentProviderOperation> chunk) {
+    if (applyBatch(chunk)) {
+      return chunk.size();
+    }
+    if (chunk.size() == 1) {
+      results.add(null);
+      return 0;
+    }
+    int applied = 0;
+    for (ContentProviderOperation operation : chunk) {
+      ArrayList<ContentProviderOperation> single = new ArrayList<>();
+      single.add(operation);
+      if (applyBatch(single)) {
+        applied++;
+      } else {
+        results.add(null);
+      }
+    }
+    return applied;
+  }
+
+  private boolean applyBatch(ArrayList<ContentProviderOperation> operations) {
+    try {
+      //noinspection MissingPermission
+      ContentProviderResult[] batchResults =
+          contentResolver.applyBatch(CalendarContract.AUTHORITY, operations);
+      for (ContentProviderResult result : batchResults) {
+        results.add(result.uri);
+      }
+      return true;
+    } catch (Exception e) {
+      Timber.e(e);
+      return false;
+    }
+  }
+
+  private static long getEventId(Uri uri) {
+    String path = uri.getPath();
+    if (!CalendarContract.AUTHORITY.equals(uri.getAuthority())
+        || path == null
+        || !path.startsWith(CalendarContract.Events.CONTENT_URI.getPath() + "/")) {
+      return -1;
+    }
+    try {
+      return ContentUris.parseId(uri);
+    } catch (NumberFormatException | UnsupportedOperationException e) {
+      return -1;
+    }
+  }
+}
@@ -1,7 +1,6 @@
 package org.tasks.calendars;
 
 import static android.provider.BaseColumns._ID;
-import static org.tasks.Strings.isNullOrEmpty;
 
 import android.content.ContentResolver;
 import android.content.Context;
@@ -58,28 +57,23 @@ public class CalendarEventProvider {
     return events.isEmpty() ? null : events.get(0);
   }
 
+  public CalendarEventBatch newBatch() {
+    return new CalendarEventBatch(contentResolver, permissionChecker);
+  }
+
   public void deleteEvents(List<String> calendarUris) {
+    CalendarEventBatch batch = newBatch();
     for (String uri : calendarUris) {
-      deleteEvent(uri);
+      batch.delete(uri);
     }
+    batch.apply();
   }
 
   public void deleteEvent(Task task) {
-    String uri = task.getCalendarURI();
+    CalendarEventBatch batch = newBatch();
+    batch.delete(task.getCalendarURI());
     task.setCalendarUri("");
-    deleteEvent(uri);
-  }
-
-  private void deleteEvent(String eventUri) {
-    if (!isNullOrEmpty(eventUri)) {
-      deleteEvent(Uri.parse(eventUri));
-    }
-  }
-
-  private void deleteEvent(Uri eventUri) {
-    if (getEvent(eventUri) != null) {
-      contentResolver.delete(eventUri, null, null);
-    }
+    batch.apply();
   }
 
   public List<AndroidCalendarEvent> getEventsBetween(long start, long end) {
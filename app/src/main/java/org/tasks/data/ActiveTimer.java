@@ -0,0 +1,6 @@
+package org.tasks.data;
+
+public class ActiveTimer {
+  public long id;
+  public long timerStart;
+}
@@ -3,9 +3,10 @@ package org.tasks.data
 import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.Ignore
+import androidx.room.Index
 import androidx.room.PrimaryKey
 
-@Entity(tableName = "alarms")
+@Entity(tableName = "alarms", indices = [Index(name = "alarm_time", value = ["time"])])
 class Alarm {
     @PrimaryKey(autoGenerate = true)
     @ColumnInfo(name = "_id")
@@ -17,9 +17,18 @@ interface AlarmDao {
             + "ORDER BY time ASC")
     fun getActiveAlarms(taskId: Long): List<Alarm>
 
+    @Query("SELECT alarms.* FROM alarms INNER JOIN tasks ON tasks._id = alarms.task "
+            + "WHERE alarms.time > :from AND alarms.time <= :to "
+            + "AND tasks.completed = 0 AND tasks.deleted = 0 AND tasks.lastNotified < alarms.time "
+            + "ORDER BY time ASC")
+    fun getActiveAlarms(from: Long, to: Long): List<Alarm>
+
     @Query("SELECT * FROM alarms WHERE task = :taskId ORDER BY time ASC")
     fun getAlarms(taskId: Long): List<Alarm>
 
+    @Query("SELECT * FROM alarms WHERE task IN (:taskIds) ORDER BY time ASC")
+    fun getAlarms(taskIds: List<Long>): List<Alarm>
+
     @Delete
     fun delete(alarm: Alarm)
 
@@ -42,14 +42,31 @@ abstract class CaldavDao {
     @Update
     abstract fun update(caldavCalendar: CaldavCalendar)
 
-    @Insert
-    abstract fun insert(caldavTask: CaldavTask): Long
+    @Transaction
+    open fun insert(caldavTask: CaldavTask): Long {
+        val id = insertInternal(caldavTask)
+        caldavTask.vtodo?.let { insert(CaldavVtodo(id, it)) }
+        return id
+    }
 
     @Insert
-    abstract fun insert(tasks: Iterable<CaldavTask>)
+    abstract fun insertInternal(caldavTask: CaldavTask): Long
+
+    @Transaction
+    open fun insert(tasks: Iterable<CaldavTask>) {
+        for (task in tasks) {
+            insert(task)
+        }
+    }
+
+    @Transaction
+    open fun update(caldavTask: CaldavTask) {
+        updateInternal(caldavTask)
+        caldavTask.vtodo?.let { insert(CaldavVtodo(caldavTask.id, it)) }
+    }
 
     @Update
-    abstract fun update(caldavTask: CaldavTask)
+    abstract fun updateInternal(caldavTask: CaldavTask)
 
     fun update(caldavTask: SubsetCaldav) {
         update(caldavTask.id, caldavTask.remoteParent)
@@ -58,11 +75,41 @@ abstract class CaldavDao {
     @Query("UPDATE caldav_tasks SET cd_remote_parent = :remoteParent WHERE cd_id = :id")
     abstract fun update(id: Long, remoteParent: String)
 
-    @Update
-    abstract fun update(tasks: Iterable<CaldavTask>)
+    @Transaction
+    open fun update(tasks: Iterable<CaldavTask>) {
+        for (task in tasks) {
+            update(task)
+        }
+    }
+
+    @Transaction
+    open fun delete(caldavTask: CaldavTask) {
+        deleteVtodo(caldavTask.id)
+        deleteInternal(caldavTask)
+    }
 
     @Delete
-    abstract fun delete(caldavTask: CaldavTask)
+    abstract fun deleteInternal(caldavTask: CaldavTask)
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    abstract fun insert(vtodo: CaldavVtodo)
+
+    @Query("SELECT * FROM caldav_vtodos WHERE cdv_id = :id")
+    abstract fun getVtodoInternal(id: Long): CaldavVtodo?
+
+    @Query("DELETE FROM caldav_vtodos WHERE cdv_id = :id")
+    abstract fun deleteVtodo(id: Long)
+
+    /** Loads the raw VTODO for [caldavTask] on demand, it is not part of the caldav_tasks row */
+    fun getVtodo(caldavTask: CaldavTask): String? {
+        if (caldavTask.vtodo == null && caldavTask.id > 0) {
+            caldavTask.vtodo = getVtodoInternal(caldavTask.id)?.vtodo
+        }
+        return caldavTask.vtodo
+    }
+
+    @Query("SELECT COUNT(*) AS count, IFNULL(SUM(cdv_size), 0) AS size, IFNULL(SUM(LENGTH(cdv_data)), 0) AS stored FROM caldav_vtodos")
+    abstract fun getVtodoStats(): VtodoStats
 
     @Query("SELECT * FROM caldav_tasks WHERE cd_deleted > 0 AND cd_calendar = :calendar")
     abstract fun getDeleted(calendar: String): List<CaldavTask>
@@ -85,12 +132,15 @@ abstract class CaldavDao {
     @Query("SELECT * FROM caldav_tasks WHERE cd_task = :taskId")
     abstract fun getTasks(taskId: Long): List<CaldavTask>
 
+    fun getTasksWithVtodo(taskId: Long): List<CaldavTask> = getTasks(taskId).onEach { getVtodo(it) }
+
     @Query("SELECT * FROM caldav_tasks WHERE cd_task in (:taskIds) AND cd_deleted = 0")
     abstract fun getTasks(taskIds: List<Long>): List<CaldavTask>
 
     @Query("SELECT task.*, caldav_task.* FROM tasks AS task "
             + "INNER JOIN caldav_tasks AS caldav_task ON _id = cd_task "
-            + "WHERE cd_deleted = 0 AND cd_vtodo IS NOT NULL AND cd_vtodo != ''")
+            + "INNER JOIN caldav_vtodos ON cdv_id = cd_id "
+            + "WHERE cd_deleted = 0")
     abstract fun getTasks(): List<CaldavTaskContainer>
 
     @Query("SELECT task.*, caldav_task.* FROM tasks AS task "
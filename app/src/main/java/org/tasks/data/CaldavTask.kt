@@ -34,7 +34,7 @@ class CaldavTask {
     @ColumnInfo(name = "cd_deleted")
     var deleted: Long = 0
 
-    @ColumnInfo(name = "cd_vtodo")
+    @Ignore
     var vtodo: String? = null
 
     @ColumnInfo(name = "cd_remote_parent")
@@ -13,9 +13,6 @@ class CaldavTaskContainer {
     val isDeleted: Boolean
         get() = task.isDeleted
 
-    val vtodo: String?
-        get() = caldavTask.vtodo
-
     override fun toString(): String {
         return "CaldavTaskContainer{task=$task, caldavTask=$caldavTask}"
     }
@@ -0,0 +1,78 @@
+package org.tasks.data
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Ignore
+import androidx.room.PrimaryKey
+import java.io.ByteArrayOutputStream
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+
+@Entity(tableName = "caldav_vtodos")
+class CaldavVtodo {
+    @PrimaryKey
+    @ColumnInfo(name = "cdv_id")
+    var id: Long = 0
+
+    @ColumnInfo(name = "cdv_data", typeAffinity = ColumnInfo.BLOB)
+    var data: ByteArray? = null
+
+    @ColumnInfo(name = "cdv_size")
+    var size: Int = 0
+
+    constructor()
+
+    @Ignore
+    constructor(id: Long, vtodo: String) {
+        this.id = id
+        val bytes = vtodo.toByteArray()
+        data = compress(bytes)
+        size = bytes.size
+    }
+
+    val vtodo: String?
+        get() = data?.let { String(decompress(it, size)) }
+
+    override fun toString(): String {
+        return "CaldavVtodo(id=$id, size=$size, compressed=${data?.size})"
+    }
+
+    companion object {
+        @JvmStatic
+        fun compress(input: ByteArray): ByteArray {
+            val deflater = Deflater(Deflater.BEST_COMPRESSION)
+            try {
+                deflater.setInput(input)
+                deflater.finish()
+                val os = ByteArrayOutputStream(input.size / 2 + 16)
+                val buffer = ByteArray(4096)
+                while (!deflater.finished()) {
+                    os.write(buffer, 0, deflater.deflate(buffer))
+                }
+                return os.toByteArray()
+            } finally {
+                deflater.end()
+            }
+        }
+
+        @JvmStatic
+        fun decompress(input: ByteArray, size: Int): ByteArray {
+            val inflater = Inflater()
+            try {
+                inflater.setInput(input)
+                val os = ByteArrayOutputStream(size.coerceAtLeast(32))
+                val buffer = ByteArray(4096)
+                while (!inflater.finished()) {
+                    val count = inflater.inflate(buffer)
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break
+                    }
+                    os.write(buffer, 0, count)
+                }
+                return os.toByteArray()
+            } finally {
+                inflater.end()
+            }
+        }
+    }
+}
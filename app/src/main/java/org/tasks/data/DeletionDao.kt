@@ -9,8 +9,41 @@ import java.util.*
 
 @Dao
 abstract class DeletionDao {
-    @Query("SELECT _id FROM tasks WHERE deleted > 0")
-    abstract fun getDeleted(): List<Long>
+    @Query("DELETE FROM caldav_vtodos WHERE cdv_id IN (SELECT cd_id FROM caldav_tasks WHERE cd_task IN ($DELETED))")
+    abstract fun purgeCaldavVtodos()
+
+    @Query("DELETE FROM caldav_tasks WHERE cd_task IN ($DELETED)")
+    abstract fun purgeCaldavTasks()
+
+    @Query("DELETE FROM google_tasks WHERE gt_task IN ($DELETED)")
+    abstract fun purgeGoogleTasks()
+
+    @Query("DELETE FROM tags WHERE task IN ($DELETED)")
+    abstract fun purgeTags()
+
+    @Query("DELETE FROM geofences WHERE task IN ($DELETED)")
+    abstract fun purgeGeofences()
+
+    @Query("DELETE FROM alarms WHERE task IN ($DELETED)")
+    abstract fun purgeAlarms()
+
+    @Query("DELETE FROM tasks WHERE deleted > 0")
+    abstract fun purgeTasks(): Int
+
+    /** Deletes tasks marked as deleted and their metadata without loading their ids */
+    @Transaction
+    open fun purgeDeleted(): Int {
+        purgeAlarms()
+        purgeGeofences()
+        purgeTags()
+        purgeGoogleTasks()
+        purgeCaldavVtodos()
+        purgeCaldavTasks()
+        return purgeTasks()
+    }
+
+    @Query("DELETE FROM caldav_vtodos WHERE cdv_id IN (SELECT cd_id FROM caldav_tasks WHERE cd_task IN(:ids))")
+    abstract fun deleteCaldavVtodos(ids: List<Long>)
 
     @Query("DELETE FROM caldav_tasks WHERE cd_task IN(:ids)")
     abstract fun deleteCaldavTasks(ids: List<Long>)
@@ -37,6 +70,7 @@ abstract class DeletionDao {
             deleteGeofences(it)
             deleteTags(it)
             deleteGoogleTasks(it)
+            deleteCaldavVtodos(it)
             deleteCaldavTasks(it)
             deleteTasks(it)
         }
@@ -110,4 +144,8 @@ abstract class DeletionDao {
         deleteCaldavAccount(caldavAccount)
         return deleted
     }
-}
\ No newline at end of file
+
+    companion object {
+        private const val DELETED = "SELECT _id FROM tasks WHERE deleted > 0"
+    }
+}
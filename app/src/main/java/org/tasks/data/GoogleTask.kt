@@ -7,7 +7,7 @@ import com.todoroo.andlib.data.Table
 @Entity(tableName = "google_tasks",
         indices = [
             Index(name = "gt_task", value = ["gt_task"]),
-            Index(name = "gt_list_parent", value = ["gt_list_id", "gt_parent"])])
+            Index(name = "gt_list_parent_order", value = ["gt_list_id", "gt_parent", "gt_order"])])
 class GoogleTask {
     @PrimaryKey(autoGenerate = true)
     @ColumnInfo(name = "gt_id")
@@ -1,5 +1,7 @@
 package org.tasks.data;
 
+import static org.tasks.db.DbUtils.collect;
+
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -8,12 +10,26 @@ import androidx.room.RoomWarnings;
 import androidx.room.Transaction;
 import androidx.room.Update;
 import com.todoroo.astrid.data.Task;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import timber.log.Timber;
 
 @Dao
 public abstract class GoogleTaskDao {
 
+  /**
+   * Space left between the orders of new tasks. Moving a task only rewrites the moved task unless
+   * the gap between its new neighbors has been used up.
+   */
+  public static final long ORDER_GAP = 1 << 16;
+
+  /** Respaced siblings are left at least this far apart */
+  private static final long MIN_GAP = 32;
+
   @Insert
   public abstract void insert(GoogleTask task);
 
@@ -21,58 +37,96 @@ public abstract class GoogleTaskDao {
   public abstract void insert(Iterable<GoogleTask> tasks);
 
   @Transaction
-  public void insertAndShift(GoogleTask task, boolean top) {
-    if (top) {
-      task.setOrder(0);
-      shiftDown(task.getListId(), task.getParent(), 0);
-    } else {
-      task.setOrder(getBottom(task.getListId(), task.getParent()));
-    }
+  public void insert(GoogleTask task, boolean top) {
+    task.setOrder(
+        top
+            ? getTop(task.getListId(), task.getParent())
+            : getBottom(task.getListId(), task.getParent()));
     insert(task);
   }
 
-  @Query(
-      "UPDATE google_tasks SET gt_order = gt_order + 1 WHERE gt_list_id = :listId AND gt_parent = :parent AND gt_order >= :position")
-  abstract void shiftDown(String listId, long parent, long position);
-
-  @Query(
-      "UPDATE google_tasks SET gt_order = gt_order - 1 WHERE gt_list_id = :listId AND gt_parent = :parent AND gt_order > :from AND gt_order <= :to")
-  abstract void shiftUp(String listId, long parent, long from, long to);
+  /** Inserts tasks at the top or bottom of their lists in order, with one query per list */
+  @Transaction
+  public void insert(List<GoogleTask> tasks, boolean top) {
+    Map<String, Long> orders = new HashMap<>();
+    for (GoogleTask task : tasks) {
+      String key = task.getListId() + "/" + task.getParent();
+      Long previous = orders.get(key);
+      long order;
+      if (previous == null) {
+        order =
+            top
+                ? getTop(task.getListId(), task.getParent())
+                : getBottom(task.getListId(), task.getParent());
+      } else {
+        order = top ? previous - ORDER_GAP : previous + ORDER_GAP;
+      }
+      task.setOrder(order);
+      orders.put(key, order);
+    }
+    insert(tasks);
+  }
 
-  @Query(
-      "UPDATE google_tasks SET gt_order = gt_order + 1 WHERE gt_list_id = :listId AND gt_parent = :parent AND gt_order < :from AND gt_order >= :to")
-  abstract void shiftDown(String listId, long parent, long from, long to);
+  @Transaction
+  public void moveToTop(SubsetGoogleTask task, long newParent) {
+    move(task, newParent, getTop(task.getListId(), newParent));
+  }
 
-  @Query(
-      "UPDATE google_tasks SET gt_order = gt_order - 1 WHERE gt_list_id = :listId AND gt_parent = :parent AND gt_order >= :position")
-  abstract void shiftUp(String listId, long parent, long position);
+  @Transaction
+  public void moveToBottom(SubsetGoogleTask task, long newParent) {
+    move(task, newParent, getBottom(task.getListId(), newParent));
+  }
 
+  /** Moves task under newParent, directly after the sibling ordered at {@code previous} */
   @Transaction
-  public void move(SubsetGoogleTask task, long newParent, long newPosition) {
-    long previousParent = task.getParent();
-    long previousPosition = task.getOrder();
+  public void moveAfter(SubsetGoogleTask task, long newParent, long previous) {
+    move(task, newParent, getOrderAfter(task.getListId(), newParent, task.getId(), previous));
+  }
+
+  private void move(SubsetGoogleTask task, long newParent, long newOrder) {
+    task.setParent(newParent);
+    task.setOrder(newOrder);
+    update(task);
+  }
 
-    if (newParent == previousParent) {
-      if (previousPosition < newPosition) {
-        shiftUp(task.getListId(), newParent, previousPosition, newPosition);
+  private long getOrderAfter(String listId, long parent, long id, long previous) {
+    // start with the next sibling, then respace a growing number of siblings until they fit
+    for (int respace = 0; ; respace = Math.max(respace * 2, 8)) {
+      List<SubsetGoogleTask> following =
+          getSiblingsAfter(listId, parent, id, previous, respace + 1);
+      long gap;
+      if (following.size() <= respace) {
+        gap = ORDER_GAP;
       } else {
-        shiftDown(task.getListId(), newParent, previousPosition, newPosition);
+        gap = (following.get(respace).getOrder() - previous) / (respace + 2);
+        if (gap < (respace == 0 ? 1 : MIN_GAP)) {
+          continue;
+        }
+      }
+      for (int i = 0; i < Math.min(respace, following.size()); i++) {
+        setOrder(following.get(i).getId(), previous + gap * (i + 2));
       }
-    } else {
-      shiftUp(task.getListId(), previousParent, previousPosition);
-      shiftDown(task.getListId(), newParent, newPosition);
+      return previous + gap;
     }
-    task.setParent(newParent);
-    task.setOrder(newPosition);
-    update(task);
   }
 
+  @Query(
+      "SELECT gt_id, gt_parent, gt_list_id, gt_order FROM google_tasks WHERE gt_list_id = :listId AND gt_parent = :parent AND gt_id != :id AND gt_order > :order ORDER BY gt_order ASC LIMIT :limit")
+  abstract List<SubsetGoogleTask> getSiblingsAfter(
+      String listId, long parent, long id, long order, int limit);
+
+  @Query("UPDATE google_tasks SET gt_order = :order WHERE gt_id = :id")
+  abstract void setOrder(long id, long order);
+
   @Query("UPDATE google_task_accounts SET gta_collapsed = :collapsed WHERE gta_id = :id")
   public abstract void setCollapsed(long id, boolean collapsed);
 
   @Query("SELECT * FROM google_tasks WHERE gt_task = :taskId AND gt_deleted = 0 LIMIT 1")
   public abstract GoogleTask getByTaskId(long taskId);
 
+  @Query("SELECT * FROM google_tasks WHERE gt_task IN (:taskIds) AND gt_deleted = 0")
+  public abstract List<GoogleTask> getByTaskIds(List<Long> taskIds);
+
   @Update
   public abstract void update(GoogleTask googleTask);
 
@@ -92,6 +146,9 @@ public abstract class GoogleTaskDao {
   @Query("SELECT * FROM google_tasks WHERE gt_remote_id = :remoteId LIMIT 1")
   public abstract GoogleTask getByRemoteId(String remoteId);
 
+  @Query("SELECT * FROM google_tasks WHERE gt_remote_id IN (:remoteIds)")
+  public abstract List<GoogleTask> getByRemoteId(List<String> remoteIds);
+
   @Query("SELECT * FROM google_tasks WHERE gt_task = :taskId AND gt_deleted > 0")
   public abstract List<GoogleTask> getDeletedByTaskId(long taskId);
 
@@ -107,15 +164,34 @@ public abstract class GoogleTaskDao {
   @Query("SELECT tasks.* FROM tasks JOIN google_tasks ON tasks._id = gt_task WHERE gt_parent = :taskId")
   public abstract List<Task> getChildTasks(long taskId);
 
-  @Query("SELECT gt_task FROM google_tasks WHERE gt_task IN (:taskIds) AND gt_parent IN (:taskIds) AND gt_deleted = 0")
-  public abstract List<Long> findChildrenInList(List<Long> taskIds);
+  public List<Long> findChildrenInList(List<Long> taskIds) {
+    Set<Long> children = new HashSet<>(collect(taskIds, this::getActiveChildren));
+    List<Long> result = new ArrayList<>();
+    for (Long id : taskIds) {
+      if (children.contains(id)) {
+        result.add(id);
+      }
+    }
+    return result;
+  }
+
+  @Query("SELECT gt_task FROM google_tasks WHERE gt_parent IN (:ids) AND gt_deleted = 0")
+  abstract List<Long> getActiveChildren(List<Long> ids);
 
   @Query("SELECT * FROM google_tasks WHERE gt_parent = :id AND gt_deleted = 0")
   public abstract List<GoogleTask> getChildren(Long id);
 
   @Query(
-      "SELECT IFNULL(MAX(gt_order), -1) + 1 FROM google_tasks WHERE gt_list_id = :listId AND gt_parent = :parent")
-  public abstract long getBottom(String listId, long parent);
+      "SELECT IFNULL(MIN(gt_order) - "
+          + ORDER_GAP
+          + ", 0) FROM google_tasks WHERE gt_list_id = :listId AND gt_parent = :parent")
+  abstract long getTop(String listId, long parent);
+
+  @Query(
+      "SELECT IFNULL(MAX(gt_order) + "
+          + ORDER_GAP
+          + ", 0) FROM google_tasks WHERE gt_list_id = :listId AND gt_parent = :parent")
+  abstract long getBottom(String listId, long parent);
 
   @Query(
       "SELECT gt_remote_id FROM google_tasks JOIN tasks ON tasks._id = gt_task WHERE deleted = 0 AND gt_list_id = :listId AND gt_parent = :parent AND gt_order < :order AND gt_remote_id IS NOT NULL AND gt_remote_id != '' ORDER BY gt_order DESC")
@@ -160,45 +236,62 @@ public abstract class GoogleTaskDao {
   public void reposition(String listId) {
     updateParents(listId);
 
-    List<GoogleTask> orderedTasks = getByRemoteOrder(listId);
-    int subtasks = 0;
-    int parent = 0;
-    for (int i = 0; i < orderedTasks.size(); i++) {
-      GoogleTask task = orderedTasks.get(i);
+    List<GoogleTask> parents = new ArrayList<>();
+    List<GoogleTask> subtasks = new ArrayList<>();
+    for (GoogleTask task : getByRemoteOrder(listId)) {
       if (task.getParent() > 0) {
-        if (task.getOrder() != subtasks && !task.isMoved()) {
-          task.setOrder(subtasks);
-          update(task);
-        }
-        subtasks++;
+        subtasks.add(task);
       } else {
-        subtasks = 0;
-        if (task.getOrder() != parent && !task.isMoved()) {
-          task.setOrder(parent);
-          update(task);
+        reposition(subtasks);
+        subtasks.clear();
+        parents.add(task);
+      }
+    }
+    reposition(subtasks);
+    reposition(parents);
+  }
+
+  /** Renumbers siblings only if their local order doesn't match their remote order */
+  private void reposition(List<GoogleTask> siblings) {
+    long previous = Long.MIN_VALUE;
+    boolean sorted = true;
+    for (GoogleTask task : siblings) {
+      if (!task.isMoved()) {
+        if (task.getOrder() <= previous) {
+          sorted = false;
+          break;
         }
-        parent++;
+        previous = task.getOrder();
+      }
+    }
+    if (sorted) {
+      return;
+    }
+    for (int i = 0; i < siblings.size(); i++) {
+      GoogleTask task = siblings.get(i);
+      long order = i * ORDER_GAP;
+      if (task.getOrder() != order && !task.isMoved()) {
+        task.setOrder(order);
+        setOrder(task.getId(), order);
       }
     }
   }
 
   public void validateSorting(String listId) {
-    List<GoogleTask> orderedTasks = getByLocalOrder(listId);
-    int subtasks = 0;
-    int parent = 0;
-    for (int i = 0; i < orderedTasks.size(); i++) {
-      GoogleTask task = orderedTasks.get(i);
+    long parent = Long.MIN_VALUE;
+    long subtask = Long.MIN_VALUE;
+    for (GoogleTask task : getByLocalOrder(listId)) {
       if (task.getParent() > 0) {
-        if (task.getOrder() != subtasks) {
-          Timber.e("Subtask violation expected %s but was %s", subtasks, task.getOrder());
+        if (task.getOrder() <= subtask) {
+          Timber.e("Subtask violation %s after %s", task.getOrder(), subtask);
         }
-        subtasks++;
+        subtask = task.getOrder();
       } else {
-        subtasks = 0;
-        if (task.getOrder() != parent) {
-          Timber.e("Parent violation expected %s but was %s", parent, task.getOrder());
+        subtask = Long.MIN_VALUE;
+        if (task.getOrder() <= parent) {
+          Timber.e("Parent violation %s after %s", task.getOrder(), parent);
         }
-        parent++;
+        parent = task.getOrder();
       }
     }
   }
@@ -30,10 +30,16 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.fortuna.ical4j.model.property.Geo;
 import org.tasks.R;
+import org.tasks.location.GeoHash;
 import org.tasks.location.MapPosition;
 import org.tasks.themes.CustomIcons;
 
-@Entity(tableName = TABLE_NAME, indices = @Index(name = "place_uid", value = "uid", unique = true))
+@Entity(
+    tableName = TABLE_NAME,
+    indices = {
+      @Index(name = "place_uid", value = "uid", unique = true),
+      @Index(name = "place_geohash", value = "place_geohash")
+    })
 public class Place implements Serializable, Parcelable {
 
   public static final String KEY = "place";
@@ -89,6 +95,9 @@ public class Place implements Serializable, Parcelable {
   @ColumnInfo(name = "place_icon")
   private int icon = -1;
 
+  @ColumnInfo(name = "place_geohash")
+  private transient String geohash;
+
   public Place() {}
 
   @Ignore
@@ -103,6 +112,7 @@ public class Place implements Serializable, Parcelable {
     longitude = o.longitude;
     color = o.color;
     icon = o.icon;
+    geohash = o.geohash;
   }
 
   @Ignore
@@ -205,6 +215,7 @@ public class Place implements Serializable, Parcelable {
 
   public void setLatitude(double latitude) {
     this.latitude = latitude;
+    geohash = null;
   }
 
   public double getLongitude() {
@@ -213,6 +224,18 @@ public class Place implements Serializable, Parcelable {
 
   public void setLongitude(double longitude) {
     this.longitude = longitude;
+    geohash = null;
+  }
+
+  public String getGeohash() {
+    if (geohash == null) {
+      geohash = GeoHash.encode(latitude, longitude);
+    }
+    return geohash;
+  }
+
+  public void setGeohash(String geohash) {
+    this.geohash = geohash;
   }
 
   public String getAddress() {
@@ -30,15 +30,18 @@ public abstract class TagDao {
   @Query("DELETE FROM tags WHERE task = :taskId AND tag_uid in (:tagUids)")
   public abstract void deleteTags(long taskId, List<String> tagUids);
 
-  @Query("SELECT name FROM tags WHERE task = :taskId ORDER BY UPPER(name) ASC")
-  public abstract List<String> getTagNames(long taskId);
-
   @Query("SELECT * FROM tags WHERE tag_uid = :tagUid")
   public abstract List<Tag> getByTagUid(String tagUid);
 
   @Query("SELECT * FROM tags WHERE task = :taskId")
   public abstract List<Tag> getTagsForTask(long taskId);
 
+  @Query(
+      "SELECT tags.* FROM tags "
+          + "INNER JOIN tagdata ON tagdata.remoteId = tags.tag_uid "
+          + "WHERE tags.task IN (:taskIds)")
+  public abstract List<Tag> getTagsForTasks(List<Long> taskIds);
+
   @Query("SELECT * FROM tags WHERE task = :taskId AND tag_uid = :tagUid")
   public abstract Tag getTagByTaskAndTagUid(long taskId, String tagUid);
 
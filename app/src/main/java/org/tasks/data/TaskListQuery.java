@@ -23,6 +23,7 @@ import com.todoroo.astrid.dao.TaskDao.TaskCriteria;
 import com.todoroo.astrid.data.Task;
 import java.util.ArrayList;
 import java.util.List;
+import org.tasks.preferences.PreferenceSnapshot;
 import org.tasks.preferences.Preferences;
 
 public class TaskListQuery {
@@ -74,19 +75,53 @@ public class TaskListQuery {
       Preferences preferences,
       com.todoroo.astrid.api.Filter filter,
       SubtaskInfo subtasks) {
-    if (filter.supportSubtasks()
-        && subtasks.usesSubtasks()
-        && preferences.showSubtasks()
-        && !(preferences.isManualSort() && filter.supportsManualSort())) {
-      return getRecursiveQuery(filter, preferences, subtasks);
+    PreferenceSnapshot snapshot = preferences.getSnapshot();
+    if (showsSubtasks(snapshot, filter, subtasks)) {
+      return getRecursiveQuery(filter, snapshot, subtasks);
     } else {
-      return getNonRecursiveQuery(filter, preferences);
+      return getNonRecursiveQuery(filter, snapshot);
     }
   }
 
+  /** @return true if tasks matching filter are listed with their subtasks */
+  public static boolean showsSubtasks(
+      PreferenceSnapshot snapshot, Filter filter, SubtaskInfo subtasks) {
+    return filter.supportSubtasks()
+        && subtasks.usesSubtasks()
+        && snapshot.showSubtasks()
+        && !(snapshot.isManualSort() && filter.supportsManualSort());
+  }
+
+  /** @return query for the ids of tasks matching queryTemplate, for use as a subquery */
+  public static String getIdQuery(String queryTemplate) {
+    return Query.select(Task.ID)
+        .withQueryTemplate(
+            PermaSql.replacePlaceholdersForQuery(
+                Join.left(Tag.TABLE.as(TAGS_METADATA_JOIN), JOIN_TAGS).toString()
+                    + JOINS
+                    + queryTemplate))
+        .from(Task.TABLE)
+        .toString();
+  }
+
+  /**
+   * @return query for the ids of tasks matching queryTemplate and all of their local, CalDAV and
+   *     Google Tasks subtasks, for use as a subquery
+   */
+  public static String getRecursiveIdQuery(String queryTemplate) {
+    return "WITH RECURSIVE subtree (task) AS ("
+        + getIdQuery(queryTemplate)
+        + " UNION SELECT tasks._id FROM subtree"
+        + " LEFT JOIN google_tasks ON google_tasks.gt_parent = subtree.task"
+        + " AND google_tasks.gt_deleted = 0"
+        + " INNER JOIN tasks ON tasks.parent = subtree.task OR tasks._id = google_tasks.gt_task"
+        + " WHERE tasks.deleted = 0"
+        + ") SELECT task FROM subtree";
+  }
+
   private static List<String> getRecursiveQuery(
       com.todoroo.astrid.api.Filter filter,
-      Preferences preferences,
+      PreferenceSnapshot preferences,
       SubtaskInfo subtasks) {
     List<Field> fields = new ArrayList<>(FIELDS);
     fields.add(TAG_QUERY);
@@ -180,7 +215,7 @@ public class TaskListQuery {
             .toString());
   }
 
-  private static List<String> getNonRecursiveQuery(Filter filter, Preferences preferences) {
+  private static List<String> getNonRecursiveQuery(Filter filter, PreferenceSnapshot preferences) {
     List<Field> fields = new ArrayList<>(FIELDS);
     fields.add(TAGS);
 
@@ -0,0 +1,11 @@
+package org.tasks.data
+
+class VtodoStats {
+    var count = 0
+    var size = 0L
+    var stored = 0L
+
+    override fun toString(): String {
+        return "VtodoStats(count=$count, size=$size, stored=$stored, saved=${size - stored})"
+    }
+}
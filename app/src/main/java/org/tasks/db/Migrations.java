@@ -1,9 +1,13 @@
 package org.tasks.db;
 
+import android.database.Cursor;
 import android.database.sqlite.SQLiteException;
 import androidx.annotation.NonNull;
 import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
+import org.tasks.data.CaldavVtodo;
+import org.tasks.data.GoogleTaskDao;
+import org.tasks.location.GeoHash;
 import timber.log.Timber;
 
 public class Migrations {
@@ -411,6 +415,82 @@ public class Migrations {
         }
       };
 
+  private static final Migration MIGRATION_73_74 =
+      new Migration(73, 74) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+          database.execSQL(
+              "CREATE TABLE IF NOT EXISTS `caldav_vtodos` (`cdv_id` INTEGER NOT NULL, `cdv_data` BLOB, `cdv_size` INTEGER NOT NULL, PRIMARY KEY(`cdv_id`))");
+          long size = 0;
+          long stored = 0;
+          try (Cursor cursor =
+              database.query(
+                  "SELECT `cd_id`, `cd_vtodo` FROM `caldav_tasks` WHERE `cd_vtodo` IS NOT NULL AND `cd_vtodo` != ''")) {
+            while (cursor.moveToNext()) {
+              CaldavVtodo vtodo = new CaldavVtodo(cursor.getLong(0), cursor.getString(1));
+              database.execSQL(
+                  "INSERT INTO `caldav_vtodos` (`cdv_id`, `cdv_data`, `cdv_size`) VALUES (?, ?, ?)",
+                  new Object[] {vtodo.getId(), vtodo.getData(), vtodo.getSize()});
+              size += vtodo.getSize();
+              stored += vtodo.getData().length;
+            }
+          }
+          Timber.i("Compressed vtodos: %s bytes -> %s bytes", size, stored);
+          database.execSQL("ALTER TABLE `caldav_tasks` RENAME TO `caldav_tasks-temp`");
+          database.execSQL(
+              "CREATE TABLE IF NOT EXISTS `caldav_tasks` (`cd_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `cd_task` INTEGER NOT NULL, `cd_calendar` TEXT, `cd_object` TEXT, `cd_remote_id` TEXT, `cd_etag` TEXT, `cd_last_sync` INTEGER NOT NULL, `cd_deleted` INTEGER NOT NULL, `cd_remote_parent` TEXT)");
+          database.execSQL(
+              "INSERT INTO `caldav_tasks` (`cd_id`, `cd_task`, `cd_calendar`, `cd_object`, `cd_remote_id`, `cd_etag`, `cd_last_sync`, `cd_deleted`, `cd_remote_parent`) "
+                  + "SELECT `cd_id`, `cd_task`, `cd_calendar`, `cd_object`, `cd_remote_id`, `cd_etag`, `cd_last_sync`, `cd_deleted`, `cd_remote_parent` FROM `caldav_tasks-temp`");
+          database.execSQL("DROP TABLE `caldav_tasks-temp`");
+          database.execSQL("CREATE INDEX `cd_task` ON `caldav_tasks` (`cd_task`)");
+        }
+      };
+
+  private static final Migration MIGRATION_74_75 =
+      new Migration(74, 75) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+          database.execSQL("ALTER TABLE `places` ADD COLUMN `place_geohash` TEXT");
+          try (Cursor cursor =
+              database.query("SELECT `place_id`, `latitude`, `longitude` FROM `places`")) {
+            while (cursor.moveToNext()) {
+              database.execSQL(
+                  "UPDATE `places` SET `place_geohash` = ? WHERE `place_id` = ?",
+                  new Object[] {
+                    GeoHash.encode(cursor.getDouble(1), cursor.getDouble(2)), cursor.getLong(0)
+                  });
+            }
+          }
+          database.execSQL("CREATE INDEX `place_geohash` ON `places` (`place_geohash`)");
+        }
+      };
+
+  private static final Migration MIGRATION_75_76 =
+      new Migration(75, 76) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+          database.execSQL(
+              "ALTER TABLE `tasks` ADD COLUMN `reminder_next` INTEGER NOT NULL DEFAULT 0");
+          database.execSQL(
+              "ALTER TABLE `tasks` ADD COLUMN `reminder_type` INTEGER NOT NULL DEFAULT 0");
+          database.execSQL("CREATE INDEX `reminder_next` ON `tasks` (`reminder_next`)");
+          database.execSQL("CREATE INDEX `alarm_time` ON `alarms` (`time`)");
+        }
+      };
+
+  private static final Migration MIGRATION_76_77 =
+      new Migration(76, 77) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+          database.execSQL(
+              "UPDATE `google_tasks` SET `gt_order` = `gt_order` * " + GoogleTaskDao.ORDER_GAP);
+          database.execSQL("DROP INDEX `gt_list_parent`");
+          database.execSQL(
+              "CREATE INDEX `gt_list_parent_order` ON `google_tasks` (`gt_list_id`, `gt_parent`, `gt_order`)");
+        }
+      };
+
   public static final Migration[] MIGRATIONS =
       new Migration[] {
         MIGRATION_35_36,
@@ -441,7 +521,11 @@ public class Migrations {
         MIGRATION_69_70,
         MIGRATION_70_71,
         MIGRATION_71_72,
-        MIGRATION_72_73
+        MIGRATION_72_73,
+        MIGRATION_73_74,
+        MIGRATION_74_75,
+        MIGRATION_75_76,
+        MIGRATION_76_77
       };
 
   private static Migration NOOP(int from, int to) {
@@ -8,6 +8,7 @@ import android.content.res.Resources;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
+import com.google.common.base.Supplier;
 import com.todoroo.andlib.utility.DialogUtilities;
 import com.todoroo.astrid.backup.TasksXmlImporter;
 import javax.inject.Inject;
@@ -45,29 +46,21 @@ public class ImportTasksDialog extends InjectingDialogFragment {
     Uri data = arguments.getParcelable(EXTRA_URI);
     String extension = arguments.getString(EXTRA_EXTENSION);
     ProgressDialog progressDialog = dialogBuilder.newProgressDialog();
-    progressDialog.setProgressStyle(ProgressDialog.STYLE_SPINNER);
+    // legacy xml backups report progress by bytes read
+    progressDialog.setProgressStyle(
+        "xml".equals(extension) ? ProgressDialog.STYLE_HORIZONTAL : ProgressDialog.STYLE_SPINNER);
     progressDialog.setCancelable(false);
     progressDialog.setIndeterminate(true);
     progressDialog.show();
     setCancelable(false);
     switch (extension) {
       case "json":
-        Handler handler = new Handler();
-        new Thread(
-                () -> {
-                  ImportResult result =
-                      jsonImporter.importTasks(getActivity(), data, progressDialog);
-                  handler.post(() -> {
-                    if (progressDialog.isShowing()) {
-                      DialogUtilities.dismissDialog((Activity) context, progressDialog);
-                    }
-                    showSummary(result);
-                  });
-                })
-            .start();
+        importInBackground(
+            progressDialog, () -> jsonImporter.importTasks(getActivity(), data, progressDialog));
         break;
       case "xml":
-        xmlImporter.importTasks(getActivity(), data, progressDialog);
+        importInBackground(
+            progressDialog, () -> xmlImporter.importTasks(getActivity(), data, progressDialog));
         break;
       default:
         throw new RuntimeException("Invalid extension: " + extension);
@@ -75,6 +68,21 @@ public class ImportTasksDialog extends InjectingDialogFragment {
     return progressDialog;
   }
 
+  private void importInBackground(ProgressDialog progressDialog, Supplier<ImportResult> importer) {
+    Handler handler = new Handler();
+    new Thread(
+            () -> {
+              ImportResult result = importer.get();
+              handler.post(() -> {
+                if (progressDialog.isShowing()) {
+                  DialogUtilities.dismissDialog((Activity) context, progressDialog);
+                }
+                showSummary(result);
+              });
+            })
+        .start();
+  }
+
   private void showSummary(ImportResult result) {
     Resources r = context.getResources();
     dialogBuilder
@@ -86,7 +94,7 @@ public class ImportTasksDialog extends InjectingDialogFragment {
                 r.getQuantityString(R.plurals.Ntasks, result.taskCount, result.taskCount),
                 r.getQuantityString(R.plurals.Ntasks, result.importCount, result.importCount),
                 r.getQuantityString(R.plurals.Ntasks, result.skipCount, result.skipCount),
-                r.getQuantityString(R.plurals.Ntasks, 0, 0)))
+                r.getQuantityString(R.plurals.Ntasks, result.errorCount, result.errorCount)))
         .setPositiveButton(android.R.string.ok, (dialog, id) -> dialog.dismiss())
         .show();
   }
@@ -0,0 +1,155 @@
+package org.tasks.etesync;
+
+import androidx.annotation.Nullable;
+import com.etesync.journalmanager.Crypto;
+import com.etesync.journalmanager.Crypto.CryptoManager;
+import com.etesync.journalmanager.Exceptions.IntegrityException;
+import com.etesync.journalmanager.Exceptions.VersionTooNewException;
+import com.etesync.journalmanager.JournalManager.Journal;
+import com.etesync.journalmanager.UserInfoManager.UserInfo;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import javax.inject.Inject;
+import org.tasks.injection.ApplicationScope;
+import timber.log.Timber;
+
+/**
+ * Keeps journal crypto managers and the decrypted user info key pair in memory, so key derivation
+ * happens once per account and journal instead of on every sync
+ */
+@ApplicationScope
+public class CryptoCache {
+
+  private static final String USER_INFO = "userInfo";
+  private static final String PREFETCH = "#prefetch";
+
+  private final Map<String, CachedCrypto> journals = new HashMap<>();
+  private final Map<String, CachedKeyPair> keyPairs = new HashMap<>();
+
+  @Inject
+  public CryptoCache() {}
+
+  synchronized CryptoManager getCrypto(
+      String username, String encryptionPassword, @Nullable UserInfo userInfo, Journal journal)
+      throws VersionTooNewException, IntegrityException {
+    return getCrypto(
+        username + ":" + journal.getUid(), username, encryptionPassword, userInfo, journal);
+  }
+
+  /**
+   * CryptoManager makes no thread-safety guarantees, so journal pages prefetched on another thread
+   * are verified with a separate instance
+   */
+  synchronized CryptoManager getPrefetchCrypto(
+      String username, String encryptionPassword, @Nullable UserInfo userInfo, Journal journal)
+      throws VersionTooNewException, IntegrityException {
+    return getCrypto(
+        username + ":" + journal.getUid() + PREFETCH,
+        username,
+        encryptionPassword,
+        userInfo,
+        journal);
+  }
+
+  private CryptoManager getCrypto(
+      String key,
+      String username,
+      String encryptionPassword,
+      @Nullable UserInfo userInfo,
+      Journal journal)
+      throws VersionTooNewException, IntegrityException {
+    CachedCrypto cached = journals.get(key);
+    if (cached != null && cached.matches(encryptionPassword, journal)) {
+      return cached.crypto;
+    }
+    CryptoManager crypto;
+    if (journal.getKey() == null) {
+      crypto = new CryptoManager(journal.getVersion(), encryptionPassword, journal.getUid());
+    } else {
+      if (userInfo == null) {
+        throw new RuntimeException("Missing userInfo");
+      }
+      crypto =
+          new CryptoManager(
+              journal.getVersion(),
+              getKeyPair(username, encryptionPassword, userInfo),
+              journal.getKey());
+    }
+    journals.put(key, new CachedCrypto(encryptionPassword, journal, crypto));
+    return crypto;
+  }
+
+  private Crypto.AsymmetricKeyPair getKeyPair(
+      String username, String encryptionPassword, UserInfo userInfo)
+      throws VersionTooNewException, IntegrityException {
+    CachedKeyPair cached = keyPairs.get(username);
+    if (cached != null && cached.matches(encryptionPassword, userInfo)) {
+      return cached.keyPair;
+    }
+    Timber.d("Decrypting key pair for %s", username);
+    CryptoManager cryptoManager =
+        new CryptoManager(userInfo.getVersion(), encryptionPassword, USER_INFO);
+    Crypto.AsymmetricKeyPair keyPair =
+        new Crypto.AsymmetricKeyPair(userInfo.getContent(cryptoManager), userInfo.getPubkey());
+    keyPairs.put(username, new CachedKeyPair(encryptionPassword, userInfo, keyPair));
+    return keyPair;
+  }
+
+  public synchronized void invalidate(String username) {
+    keyPairs.remove(username);
+    String prefix = username + ":";
+    Iterator<String> iterator = journals.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().startsWith(prefix)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return journals.size();
+  }
+
+  private static class CachedCrypto {
+    final String encryptionPassword;
+    final int version;
+    final byte[] journalKey;
+    final CryptoManager crypto;
+
+    CachedCrypto(String encryptionPassword, Journal journal, CryptoManager crypto) {
+      this.encryptionPassword = encryptionPassword;
+      this.version = journal.getVersion();
+      this.journalKey = journal.getKey();
+      this.crypto = crypto;
+    }
+
+    boolean matches(String encryptionPassword, Journal journal) {
+      return Objects.equals(this.encryptionPassword, encryptionPassword)
+          && version == journal.getVersion()
+          && Arrays.equals(journalKey, journal.getKey());
+    }
+  }
+
+  private static class CachedKeyPair {
+    final String encryptionPassword;
+    final int version;
+    final byte[] pubkey;
+    final Crypto.AsymmetricKeyPair keyPair;
+
+    CachedKeyPair(String encryptionPassword, UserInfo userInfo, Crypto.AsymmetricKeyPair keyPair) {
+      this.encryptionPassword = encryptionPassword;
+      this.version = userInfo.getVersion();
+      this.pubkey = userInfo.getPubkey();
+      this.keyPair = keyPair;
+    }
+
+    boolean matches(String encryptionPassword, UserInfo userInfo) {
+      return Objects.equals(this.encryptionPassword, encryptionPassword)
+          && version == userInfo.getVersion()
+          && Arrays.equals(pubkey, userInfo.getPubkey());
+    }
+  }
+}
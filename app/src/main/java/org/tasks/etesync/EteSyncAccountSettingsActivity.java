@@ -36,6 +36,7 @@ public class EteSyncAccountSettingsActivity extends BaseCaldavAccountSettingsAct
   @Inject @ForApplication Context context;
   @Inject PlayServices playServices;
   @Inject EteSyncClient eteSyncClient;
+  @Inject CryptoCache cryptoCache;
 
   private AddEteSyncAccountViewModel addAccountViewModel;
   private UpdateEteSyncAccountViewModel updateAccountViewModel;
@@ -84,6 +85,7 @@ public class EteSyncAccountSettingsActivity extends BaseCaldavAccountSettingsAct
   }
 
   private void updateAccount(Pair<UserInfo, String> userInfoAndToken) {
+    httpClients.invalidate(caldavAccount);
     caldavAccount.setError("");
     applyTo(caldavAccount, userInfoAndToken);
   }
@@ -207,9 +209,12 @@ public class EteSyncAccountSettingsActivity extends BaseCaldavAccountSettingsAct
   @Override
   protected void removeAccount() {
     if (caldavAccount != null) {
-      Completable.fromAction(() -> eteSyncClient.forAccount(caldavAccount).invalidateToken())
+      CaldavAccount account = caldavAccount;
+      Completable.fromAction(() -> eteSyncClient.forAccount(account).invalidateToken())
+          .doFinally(() -> httpClients.invalidate(account))
           .subscribeOn(Schedulers.io())
           .subscribe();
+      cryptoCache.invalidate(account.getUsername());
     }
     super.removeAccount();
   }
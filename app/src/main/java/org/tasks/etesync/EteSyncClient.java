@@ -3,13 +3,9 @@ package org.tasks.etesync;
 import static com.google.common.collect.Lists.partition;
 import static com.google.common.collect.Lists.transform;
 
-import android.content.Context;
 import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
-import at.bitfire.cert4android.CustomCertManager;
-import at.bitfire.cert4android.CustomCertManager.CustomHostnameVerifier;
 import com.etesync.journalmanager.Constants;
-import com.etesync.journalmanager.Crypto;
 import com.etesync.journalmanager.Crypto.CryptoManager;
 import com.etesync.journalmanager.Exceptions;
 import com.etesync.journalmanager.Exceptions.HttpException;
@@ -33,19 +29,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import okhttp3.OkHttpClient.Builder;
-import okhttp3.internal.tls.OkHostnameVerifier;
 import org.tasks.Callback;
-import org.tasks.DebugNetworkInterceptor;
-import org.tasks.caldav.MemoryCookieStore;
+import org.tasks.caldav.HttpClientRegistry;
 import org.tasks.data.CaldavAccount;
 import org.tasks.data.CaldavCalendar;
-import org.tasks.injection.ForApplication;
-import org.tasks.preferences.Preferences;
 import org.tasks.security.KeyStoreEncryption;
 import timber.log.Timber;
 
@@ -56,27 +45,27 @@ public class EteSyncClient {
   private static final int MAX_PUSH = 30;
 
   private final KeyStoreEncryption encryption;
-  private final Preferences preferences;
-  private final DebugNetworkInterceptor interceptor;
+  private final HttpClientRegistry clients;
+  private final CryptoCache cryptoCache;
+  private final JournalPager journalPager;
   private final String username;
   private final String token;
   private final String encryptionPassword;
   private final OkHttpClient httpClient;
   private final HttpUrl httpUrl;
-  private final Context context;
   private final JournalManager journalManager;
   private boolean foreground;
 
   @Inject
   public EteSyncClient(
-      @ForApplication Context context,
       KeyStoreEncryption encryption,
-      Preferences preferences,
-      DebugNetworkInterceptor interceptor) {
-    this.context = context;
+      HttpClientRegistry clients,
+      CryptoCache cryptoCache,
+      JournalPager journalPager) {
     this.encryption = encryption;
-    this.preferences = preferences;
-    this.interceptor = interceptor;
+    this.clients = clients;
+    this.cryptoCache = cryptoCache;
+    this.journalPager = journalPager;
     username = null;
     token = null;
     encryptionPassword = null;
@@ -86,46 +75,36 @@ public class EteSyncClient {
   }
 
   private EteSyncClient(
-      Context context,
       KeyStoreEncryption encryption,
-      Preferences preferences,
-      DebugNetworkInterceptor interceptor,
+      HttpClientRegistry clients,
+      CryptoCache cryptoCache,
+      JournalPager journalPager,
       String url,
       String username,
       String encryptionPassword,
       String token,
       boolean foreground)
       throws NoSuchAlgorithmException, KeyManagementException {
-    this.context = context;
     this.encryption = encryption;
-    this.preferences = preferences;
-    this.interceptor = interceptor;
+    this.clients = clients;
+    this.cryptoCache = cryptoCache;
+    this.journalPager = journalPager;
     this.username = username;
     this.encryptionPassword = encryptionPassword;
     this.token = token;
     this.foreground = foreground;
 
-    CustomCertManager customCertManager = new CustomCertManager(context);
-    customCertManager.setAppInForeground(foreground);
-    CustomHostnameVerifier hostnameVerifier =
-        customCertManager.hostnameVerifier(OkHostnameVerifier.INSTANCE);
-    SSLContext sslContext = SSLContext.getInstance("TLS");
-    sslContext.init(null, new TrustManager[] {customCertManager}, null);
-
-    Builder builder =
-        new OkHttpClient()
-            .newBuilder()
-            .addNetworkInterceptor(new TokenAuthenticator(null, token))
-            .cookieJar(new MemoryCookieStore())
-            .followRedirects(false)
-            .followSslRedirects(true)
-            .sslSocketFactory(sslContext.getSocketFactory(), customCertManager)
-            .hostnameVerifier(hostnameVerifier)
-            .readTimeout(30, TimeUnit.SECONDS);
-    if (preferences.isFlipperEnabled()) {
-      interceptor.add(builder);
-    }
-    httpClient = builder.build();
+    httpClient =
+        clients.get(
+            HttpClientRegistry.TYPE_ETESYNC,
+            url,
+            username,
+            token,
+            foreground,
+            builder ->
+                builder
+                    .addNetworkInterceptor(new TokenAuthenticator(null, token))
+                    .readTimeout(30, TimeUnit.SECONDS));
     httpUrl = HttpUrl.parse(url);
     journalManager = new JournalManager(httpClient, httpUrl);
   }
@@ -142,10 +121,10 @@ public class EteSyncClient {
   EteSyncClient forUrl(String url, String username, String encryptionPassword, String token)
       throws KeyManagementException, NoSuchAlgorithmException {
     return new EteSyncClient(
-        context,
         encryption,
-        preferences,
-        interceptor,
+        clients,
+        cryptoCache,
+        journalPager,
         url,
         username,
         encryptionPassword,
@@ -164,16 +143,7 @@ public class EteSyncClient {
 
   CryptoManager getCrypto(UserInfo userInfo, Journal journal)
       throws VersionTooNewException, IntegrityException {
-    if (journal.getKey() == null) {
-      return new CryptoManager(journal.getVersion(), encryptionPassword, journal.getUid());
-    }
-    if (userInfo == null) {
-      throw new RuntimeException("Missing userInfo");
-    }
-    CryptoManager cryptoManager = new CryptoManager(userInfo.getVersion(), encryptionPassword, "userInfo");
-    Crypto.AsymmetricKeyPair keyPair =
-        new Crypto.AsymmetricKeyPair(userInfo.getContent(cryptoManager), userInfo.getPubkey());
-    return new CryptoManager(journal.getVersion(), keyPair, journal.getKey());
+    return cryptoCache.getCrypto(username, encryptionPassword, userInfo, journal);
   }
 
   private @Nullable CollectionInfo convertJournalToCollection(UserInfo userInfo, Journal journal) {
@@ -216,12 +186,18 @@ public class EteSyncClient {
     JournalEntryManager journalEntryManager =
         new JournalEntryManager(httpClient, httpUrl, journal.getUid());
     CryptoManager crypto = getCrypto(userInfo, journal);
-    List<Entry> journalEntries;
-    do {
-      journalEntries = journalEntryManager.list(crypto, calendar.getCtag(), MAX_FETCH);
-      callback.call(
-          transform(journalEntries, e -> Pair.create(e, SyncEntry.fromJournalEntry(crypto, e))));
-    } while (journalEntries.size() >= MAX_FETCH);
+    CryptoManager prefetchCrypto =
+        cryptoCache.getPrefetchCrypto(username, encryptionPassword, userInfo, journal);
+    journalPager.<Entry>fetch(
+        calendar.getCtag(),
+        MAX_FETCH,
+        last -> journalEntryManager.list(prefetchCrypto, last, MAX_FETCH),
+        last -> journalEntryManager.list(crypto, last, MAX_FETCH),
+        Entry::getUid,
+        journalEntries ->
+            callback.call(
+                transform(
+                    journalEntries, e -> Pair.create(e, SyncEntry.fromJournalEntry(crypto, e)))));
   }
 
   void pushEntries(Journal journal, List<Entry> entries, String remoteCtag) throws HttpException {
@@ -178,14 +178,14 @@ public class EteSynchronizer {
 
     List<SyncEntry> changes = new ArrayList<>();
     for (CaldavTask task : caldavDao.getDeleted(caldavCalendar.getUuid())) {
-      String vtodo = task.getVtodo();
+      String vtodo = caldavDao.getVtodo(task);
       if (!isNullOrEmpty(vtodo)) {
         changes.add(new SyncEntry(vtodo, Actions.DELETE));
       }
     }
 
     for (CaldavTaskContainer task : localChanges.values()) {
-      String vtodo = task.getVtodo();
+      String vtodo = caldavDao.getVtodo(task.getCaldavTask());
       boolean existingTask = !isNullOrEmpty(vtodo);
 
       if (task.isDeleted()) {
@@ -195,7 +195,7 @@ public class EteSynchronizer {
       } else {
         changes.add(
             new SyncEntry(
-                new String(iCal.toVtodo(task.getCaldavTask(), task.getTask())),
+                new String(iCal.toVtodo(task.getCaldavTask(), task.getTask(), vtodo)),
                 existingTask ? Actions.CHANGE : Actions.ADD));
       }
     }
@@ -0,0 +1,83 @@
+package org.tasks.etesync;
+
+import androidx.annotation.Nullable;
+import com.etesync.journalmanager.Exceptions;
+import com.etesync.journalmanager.Exceptions.IntegrityException;
+import com.google.common.base.Function;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.inject.Inject;
+import org.tasks.Callback;
+import org.tasks.injection.ApplicationScope;
+
+/**
+ * Pages through journal entries, fetching the next page on a shared background thread while the
+ * current page is applied. Pages are delivered in order on the calling thread, and the prefetch
+ * is cancelled if the callback throws.
+ */
+@ApplicationScope
+public class JournalPager {
+
+  interface PageLoader<T> {
+    List<T> load(@Nullable String last) throws IntegrityException, Exceptions.HttpException;
+  }
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @Inject
+  public JournalPager() {}
+
+  <T> void fetch(
+      @Nullable String start,
+      int pageSize,
+      PageLoader<T> prefetch,
+      PageLoader<T> loader,
+      Function<T, String> getUid,
+      Callback<List<T>> callback)
+      throws IntegrityException, Exceptions.HttpException {
+    List<T> page = loader.load(start);
+    while (true) {
+      Future<List<T>> next = null;
+      if (page.size() >= pageSize) {
+        String last = getUid.apply(page.get(page.size() - 1));
+        next = executor.submit(() -> prefetch.load(last));
+      }
+      try {
+        callback.call(page);
+      } catch (RuntimeException e) {
+        if (next != null) {
+          next.cancel(true);
+        }
+        throw e;
+      }
+      if (next == null) {
+        return;
+      }
+      page = await(next);
+    }
+  }
+
+  private static <T> List<T> await(Future<List<T>> future)
+      throws IntegrityException, Exceptions.HttpException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IntegrityException) {
+        throw (IntegrityException) cause;
+      } else if (cause instanceof Exceptions.HttpException) {
+        throw (Exceptions.HttpException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+}
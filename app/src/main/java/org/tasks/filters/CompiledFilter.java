@@ -0,0 +1,42 @@
+package org.tasks.filters;
+
+import com.todoroo.astrid.api.PermaSql;
+import java.util.List;
+
+/** Output of {@link FilterCompiler} */
+public class CompiledFilter {
+
+  private final String sql;
+  private final String selection;
+  private final List<String> args;
+
+  CompiledFilter(String sql, String selection, List<String> args) {
+    this.sql = sql;
+    this.selection = selection;
+    this.args = args;
+  }
+
+  /** @return where clause with values inlined, suitable for storing in a filter */
+  public String getSql() {
+    return sql;
+  }
+
+  /** @return where clause with a placeholder for each of {@link #getArgs()} */
+  public String getSelection() {
+    return selection;
+  }
+
+  /** @return bind arguments for {@link #getSelection()} with date placeholders resolved */
+  public Object[] getArgs() {
+    Object[] result = new Object[args.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = PermaSql.replacePlaceholdersForQuery(args.get(i));
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "CompiledFilter{selection='" + selection + "', args=" + args + '}';
+  }
+}
@@ -0,0 +1,144 @@
+package org.tasks.filters;
+
+import android.database.Cursor;
+import androidx.room.InvalidationTracker;
+import com.todoroo.andlib.sql.Query;
+import com.todoroo.astrid.core.CriterionInstance;
+import com.todoroo.astrid.dao.Database;
+import com.todoroo.astrid.data.Task;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.inject.Inject;
+import org.tasks.data.CaldavTask;
+import org.tasks.data.GoogleTask;
+import org.tasks.data.Tag;
+
+/**
+ * Live counts for the custom filter editor.
+ *
+ * <p>Each criterion is evaluated once into the set of matching task ids, and the running counts
+ * are computed by combining those sets in memory with the same precedence as {@link
+ * FilterCompiler}. Sets are cached until one of the tables criteria can read from changes, so
+ * editing, reordering or toggling a criterion doesn't hit the database.
+ */
+public class CriterionCounter {
+
+  private final Database database;
+  private final FilterCompiler filterCompiler;
+  private final Map<String, BitSet> sets = new HashMap<>();
+  private final InvalidationTracker.Observer observer =
+      new InvalidationTracker.Observer(
+          Task.TABLE.name(), Tag.TABLE.name(), GoogleTask.TABLE.name(), CaldavTask.TABLE.name()) {
+        @Override
+        public void onInvalidated(Set<String> tables) {
+          invalidate();
+        }
+      };
+  private boolean observing;
+  private int version;
+
+  @Inject
+  public CriterionCounter(Database database, FilterCompiler filterCompiler) {
+    this.database = database;
+    this.filterCompiler = filterCompiler;
+  }
+
+  /** Sets start, end and max on each criterion */
+  public void update(List<CriterionInstance> criteria) {
+    observe();
+    BitSet union = new BitSet();
+    BitSet group = null;
+    int max = 0, last = -1;
+    for (CriterionInstance instance : criteria) {
+      BitSet set = getSet(instance);
+      if (group == null || instance.type == CriterionInstance.TYPE_ADD) {
+        if (group != null) {
+          union.or(group);
+        }
+        group = (BitSet) set.clone();
+      } else if (instance.type == CriterionInstance.TYPE_SUBTRACT) {
+        group.andNot(set);
+      } else {
+        group.and(set);
+      }
+      BitSet result = (BitSet) union.clone();
+      result.or(group);
+      instance.start = last == -1 ? result.cardinality() : last;
+      instance.end = result.cardinality();
+      last = instance.end;
+      max = Math.max(max, last);
+    }
+
+    for (CriterionInstance instance : criteria) {
+      instance.max = max;
+    }
+  }
+
+  public synchronized void invalidate() {
+    version++;
+    sets.clear();
+  }
+
+  public void close() {
+    if (observing) {
+      database.getInvalidationTracker().removeObserver(observer);
+      observing = false;
+    }
+  }
+
+  synchronized int size() {
+    return sets.size();
+  }
+
+  private void observe() {
+    if (!observing) {
+      database.getInvalidationTracker().addObserver(observer);
+      observing = true;
+    }
+  }
+
+  private BitSet getSet(CriterionInstance instance) {
+    int version;
+    String key = getKey(instance);
+    synchronized (this) {
+      BitSet set = sets.get(key);
+      if (set != null) {
+        return set;
+      }
+      version = this.version;
+    }
+    BitSet set = query(instance);
+    synchronized (this) {
+      if (version == this.version) {
+        sets.put(key, set);
+      }
+    }
+    return set;
+  }
+
+  private BitSet query(CriterionInstance instance) {
+    CompiledFilter filter = filterCompiler.compile(instance);
+    BitSet set = new BitSet();
+    try (Cursor cursor =
+        database.query(
+            Query.select(Task.ID).from(Task.TABLE) + filter.getSelection(), filter.getArgs())) {
+      while (cursor.moveToNext()) {
+        set.set((int) cursor.getLong(0));
+      }
+    }
+    return set;
+  }
+
+  private static String getKey(CriterionInstance instance) {
+    return instance.type == CriterionInstance.TYPE_UNIVERSE
+        ? FilterCriteriaProvider.IDENTIFIER_UNIVERSE
+        : instance.criterion.identifier
+            + "|"
+            + instance.getValueFromCriterion()
+            + "|"
+            + instance.criterion.sql;
+  }
+}
@@ -0,0 +1,320 @@
+package org.tasks.filters;
+
+import static org.tasks.Strings.isNullOrEmpty;
+
+import androidx.annotation.Nullable;
+import com.google.common.base.Splitter;
+import com.todoroo.andlib.sql.UnaryCriterion;
+import com.todoroo.andlib.utility.AndroidUtilities;
+import com.todoroo.astrid.core.CriterionInstance;
+import com.todoroo.astrid.dao.TaskDao.TaskCriteria;
+import com.todoroo.astrid.data.Task;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+import org.tasks.data.CaldavTask;
+import org.tasks.data.Filter;
+import org.tasks.data.GoogleTask;
+import org.tasks.data.Tag;
+import org.tasks.injection.ApplicationScope;
+
+/**
+ * Compiles custom filter criteria into a single where clause.
+ *
+ * <p>Criteria used to be stored as one {@code tasks._id IN (SELECT ...)} subquery per criterion,
+ * each repeating the active and visible check. Criteria on the tasks table become direct
+ * predicates, criteria on other tables become a subquery against that table only, and the active
+ * and visible check is applied once. The original precedence is kept: adds start a new group that
+ * is OR'ed together, intersects and subtracts are AND'ed into the current group. Compiled filters
+ * are kept in a small LRU cache keyed by the serialized criteria.
+ */
+@ApplicationScope
+public class FilterCompiler {
+
+  private static final int CACHE_SIZE = 32;
+
+  private final Map<String, CompiledFilter> cache =
+      new LinkedHashMap<String, CompiledFilter>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledFilter> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      };
+
+  @Inject
+  public FilterCompiler() {}
+
+  /** @return compiled criteria, or the stored sql if the criteria can't be compiled */
+  public String getSql(Filter filter) {
+    return getSql(filter.getCriterion(), filter.getSql());
+  }
+
+  /** @return compiled criteria, or the stored sql if the criteria can't be compiled */
+  public String getSql(@Nullable String criterion, String sql) {
+    CompiledFilter compiled = compile(criterion);
+    return compiled == null ? sql : compiled.getSql();
+  }
+
+  public CompiledFilter compile(List<CriterionInstance> criteria) {
+    String key = CriterionInstance.serialize(criteria);
+    synchronized (cache) {
+      CompiledFilter compiled = cache.get(key);
+      if (compiled == null) {
+        List<Term> terms = new ArrayList<>();
+        for (CriterionInstance instance : criteria) {
+          terms.add(
+              new Term(
+                  instance.criterion.identifier,
+                  instance.getValueFromCriterion(),
+                  instance.type,
+                  instance.criterion.sql));
+        }
+        compiled = compileTerms(terms);
+        cache.put(key, compiled);
+      }
+      return compiled;
+    }
+  }
+
+  /** @return where clause matching active and visible tasks that match this criterion */
+  CompiledFilter compile(CriterionInstance instance) {
+    return compileTerms(
+        Collections.singletonList(
+            new Term(
+                instance.criterion.identifier,
+                instance.getValueFromCriterion(),
+                instance.type == CriterionInstance.TYPE_UNIVERSE
+                    ? CriterionInstance.TYPE_UNIVERSE
+                    : CriterionInstance.TYPE_INTERSECT,
+                instance.criterion.sql)));
+  }
+
+  /** @param criterion serialized criteria, see {@link CriterionInstance#serialize(List)} */
+  public @Nullable CompiledFilter compile(@Nullable String criterion) {
+    if (isNullOrEmpty(criterion)) {
+      return null;
+    }
+    synchronized (cache) {
+      CompiledFilter compiled = cache.get(criterion);
+      if (compiled == null) {
+        List<Term> terms = parse(criterion);
+        if (terms == null) {
+          return null;
+        }
+        compiled = compileTerms(terms);
+        cache.put(criterion, compiled);
+      }
+      return compiled;
+    }
+  }
+
+  private static @Nullable List<Term> parse(String criterion) {
+    List<Term> terms = new ArrayList<>();
+    for (String row : criterion.split("\n")) {
+      List<String> split = Splitter.on(AndroidUtilities.SERIALIZATION_SEPARATOR).splitToList(row);
+      if (split.size() != 4 && split.size() != 5) {
+        return null;
+      }
+      int type;
+      try {
+        type = Integer.parseInt(split.get(3));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      terms.add(
+          new Term(
+              unescape(split.get(0)),
+              unescape(split.get(1)),
+              type,
+              split.size() == 5 ? unescape(split.get(4)) : null));
+    }
+    return terms;
+  }
+
+  private static String unescape(String item) {
+    return item.replace(AndroidUtilities.SEPARATOR_ESCAPE, AndroidUtilities.SERIALIZATION_SEPARATOR);
+  }
+
+  private static CompiledFilter compileTerms(List<Term> terms) {
+    List<List<Predicate>> groups = new ArrayList<>();
+    List<Predicate> group = null;
+    for (Term term : terms) {
+      if (group == null || term.type == CriterionInstance.TYPE_ADD) {
+        group = new ArrayList<>();
+        groups.add(group);
+      }
+      Predicate predicate = term.isUniverse() ? Predicate.TRUE : getPredicate(term);
+      if (term.type == CriterionInstance.TYPE_SUBTRACT) {
+        predicate = predicate.not();
+      }
+      if (predicate != Predicate.TRUE) {
+        group.add(predicate);
+      }
+    }
+
+    boolean matchesAll = false;
+    Iterator<List<Predicate>> iterator = groups.iterator();
+    while (iterator.hasNext()) {
+      List<Predicate> predicates = iterator.next();
+      if (predicates.contains(Predicate.FALSE)) {
+        iterator.remove();
+      } else if (predicates.isEmpty()) {
+        matchesAll = true;
+      }
+    }
+
+    Builder builder = new Builder();
+    builder.append(" WHERE ").append(TaskCriteria.activeAndVisible().toString());
+    if (matchesAll) {
+      builder.append(" ");
+      return builder.build();
+    }
+    if (groups.isEmpty()) {
+      builder.append(" AND 0");
+    } else if (groups.size() == 1) {
+      for (Predicate predicate : groups.get(0)) {
+        builder.append(" AND ").append(predicate);
+      }
+    } else {
+      builder.append(" AND (");
+      for (int i = 0; i < groups.size(); i++) {
+        if (i > 0) {
+          builder.append(" OR ");
+        }
+        List<Predicate> predicates = groups.get(i);
+        builder.append("(");
+        for (int j = 0; j < predicates.size(); j++) {
+          if (j > 0) {
+            builder.append(" AND ");
+          }
+          builder.append(predicates.get(j));
+        }
+        builder.append(")");
+      }
+      builder.append(")");
+    }
+    builder.append(" ");
+    return builder.build();
+  }
+
+  private static Predicate getPredicate(Term term) {
+    String value = term.value;
+    switch (term.identifier) {
+      case FilterCriteriaProvider.IDENTIFIER_TITLE:
+        return new Predicate(Task.TITLE + " LIKE ?", true, "%" + value + "%");
+      case FilterCriteriaProvider.IDENTIFIER_IMPORTANCE:
+        return new Predicate(Task.IMPORTANCE + "<=?", true, value);
+      case FilterCriteriaProvider.IDENTIFIER_DUEDATE:
+        return "0".equals(value)
+            ? new Predicate(Task.DUE_DATE + "<=?", true, value)
+            : new Predicate(
+                "(" + Task.DUE_DATE + ">0 AND " + Task.DUE_DATE + "<=?)", true, value);
+      case FilterCriteriaProvider.IDENTIFIER_TAG_IS:
+        return semiJoin(Tag.TASK + " FROM " + Tag.TABLE + " WHERE " + Tag.NAME + "=?", value);
+      case FilterCriteriaProvider.IDENTIFIER_TAG_CONTAINS:
+        return semiJoin(
+            Tag.TASK + " FROM " + Tag.TABLE + " WHERE " + Tag.NAME + " LIKE ?",
+            "%" + value + "%");
+      case FilterCriteriaProvider.IDENTIFIER_GTASKS:
+        return semiJoin(
+            GoogleTask.TASK + " FROM " + GoogleTask.TABLE + " WHERE " + GoogleTask.LIST + "=?",
+            value);
+      case FilterCriteriaProvider.IDENTIFIER_CALDAV:
+        return semiJoin(
+            CaldavTask.TASK + " FROM " + CaldavTask.TABLE + " WHERE " + CaldavTask.CALENDAR + "=?",
+            value);
+      default:
+        String sql = term.sql == null ? "" : term.sql;
+        return new Predicate(
+            Task.ID + " IN (" + sql.replace("?", UnaryCriterion.sanitize(value)) + ")", false);
+    }
+  }
+
+  private static Predicate semiJoin(String select, String value) {
+    return new Predicate(Task.ID + " IN (SELECT " + select + ")", false, value);
+  }
+
+  private static class Term {
+    final String identifier;
+    final String value;
+    final int type;
+    final String sql;
+
+    Term(String identifier, @Nullable String value, int type, @Nullable String sql) {
+      this.identifier = identifier;
+      this.value = value == null ? "" : value;
+      this.type = type;
+      this.sql = sql;
+    }
+
+    boolean isUniverse() {
+      return type == CriterionInstance.TYPE_UNIVERSE
+          || FilterCriteriaProvider.IDENTIFIER_UNIVERSE.equals(identifier);
+    }
+  }
+
+  private static class Predicate {
+    static final Predicate TRUE = new Predicate("1", false);
+    static final Predicate FALSE = new Predicate("0", false);
+
+    /** sql with a '?' for each arg */
+    final String sql;
+    /** true if the predicate can evaluate to NULL */
+    final boolean nullable;
+
+    final List<String> args;
+
+    Predicate(String sql, boolean nullable, String... args) {
+      this.sql = sql;
+      this.nullable = nullable;
+      this.args = args.length == 0 ? Collections.emptyList() : Arrays.asList(args);
+    }
+
+    /** NOT IN treats a task that doesn't match as excluded, so NULL must count as false */
+    Predicate not() {
+      if (this == TRUE) {
+        return FALSE;
+      }
+      String[] values = args.toArray(new String[0]);
+      return nullable
+          ? new Predicate("NOT IFNULL(" + sql + ",0)", false, values)
+          : new Predicate("NOT " + sql, false, values);
+    }
+  }
+
+  private static class Builder {
+    private final StringBuilder sql = new StringBuilder();
+    private final StringBuilder selection = new StringBuilder();
+    private final List<String> args = new ArrayList<>();
+
+    Builder append(String text) {
+      sql.append(text);
+      selection.append(text);
+      return this;
+    }
+
+    Builder append(Predicate predicate) {
+      selection.append(predicate.sql);
+      args.addAll(predicate.args);
+      int arg = 0;
+      for (int i = 0; i < predicate.sql.length(); i++) {
+        char c = predicate.sql.charAt(i);
+        if (c == '?' && arg < predicate.args.size()) {
+          sql.append('\'').append(UnaryCriterion.sanitize(predicate.args.get(arg++))).append('\'');
+        } else {
+          sql.append(c);
+        }
+      }
+      return this;
+    }
+
+    CompiledFilter build() {
+      return new CompiledFilter(sql.toString(), selection.toString(), new ArrayList<>(args));
+    }
+  }
+}
@@ -35,14 +35,14 @@ import org.tasks.injection.ForApplication;
 
 public class FilterCriteriaProvider {
 
-  private static final String IDENTIFIER_UNIVERSE = "active";
-  private static final String IDENTIFIER_TITLE = "title";
-  private static final String IDENTIFIER_IMPORTANCE = "importance";
-  private static final String IDENTIFIER_DUEDATE = "dueDate";
-  private static final String IDENTIFIER_GTASKS = "gtaskslist";
-  private static final String IDENTIFIER_CALDAV = "caldavlist";
-  private static final String IDENTIFIER_TAG_IS = "tag_is";
-  private static final String IDENTIFIER_TAG_CONTAINS = "tag_contains";
+  static final String IDENTIFIER_UNIVERSE = "active";
+  static final String IDENTIFIER_TITLE = "title";
+  static final String IDENTIFIER_IMPORTANCE = "importance";
+  static final String IDENTIFIER_DUEDATE = "dueDate";
+  static final String IDENTIFIER_GTASKS = "gtaskslist";
+  static final String IDENTIFIER_CALDAV = "caldavlist";
+  static final String IDENTIFIER_TAG_IS = "tag_is";
+  static final String IDENTIFIER_TAG_CONTAINS = "tag_contains";
 
   private final Context context;
   private final TagDataDao tagDataDao;
@@ -1,8 +1,8 @@
 package org.tasks.gtasks;
 
+import static com.google.common.collect.Lists.partition;
 import static com.google.common.collect.Lists.transform;
 import static org.tasks.Strings.isNullOrEmpty;
-import static org.tasks.date.DateTimeUtils.newDateTime;
 
 import android.content.Context;
 import androidx.annotation.Nullable;
@@ -30,7 +30,12 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 import javax.net.ssl.SSLException;
 import org.tasks.LocalBroadcastManager;
@@ -46,7 +51,7 @@ import org.tasks.injection.ForApplication;
 import org.tasks.preferences.DefaultFilterProvider;
 import org.tasks.preferences.PermissionChecker;
 import org.tasks.preferences.Preferences;
-import org.tasks.time.DateTime;
+import org.tasks.time.DateMath;
 import timber.log.Timber;
 
 public class GoogleTaskSynchronizer {
@@ -55,6 +60,9 @@ public class GoogleTaskSynchronizer {
   private static final int MAX_TITLE_LENGTH = 1024;
   private static final int MAX_DESCRIPTION_LENGTH = 8192;
 
+  private static final int PAGE_SIZE = 100;
+  private static final ConcurrentHashMap<String, Object> LOCKS = new ConcurrentHashMap<>();
+
   private static final Comparator<com.google.api.services.tasks.model.Task> PARENTS_FIRST =
       (o1, o2) -> {
         if (isNullOrEmpty(o1.getParent())) {
@@ -116,14 +124,13 @@ public class GoogleTaskSynchronizer {
 
   static void mergeDates(long remoteDueDate, Task local) {
     if (remoteDueDate > 0 && local.hasDueTime()) {
-      DateTime oldDate = newDateTime(local.getDueDate());
-      DateTime newDate =
-          newDateTime(remoteDueDate)
-              .withHourOfDay(oldDate.getHourOfDay())
-              .withMinuteOfHour(oldDate.getMinuteOfHour())
-              .withSecondOfMinute(oldDate.getSecondOfMinute());
+      // time of day from the local due date, to the second
+      int time = DateMath.getMillisOfDay(local.getDueDate()) / 1000 * 1000;
+      long newDate =
+          DateMath.withMillisOfDay(
+              remoteDueDate, time + DateMath.getMillisOfDay(remoteDueDate) % 1000);
       local.setDueDateAdjustingHideUntil(
-          Task.createDueDate(Task.URGENCY_SPECIFIC_DAY_TIME, newDate.getMillis()));
+          Task.createDueDate(Task.URGENCY_SPECIFIC_DAY_TIME, newDate));
     } else {
       local.setDueDateAdjustingHideUntil(remoteDueDate);
     }
@@ -380,45 +387,91 @@ public class GoogleTaskSynchronizer {
     taskDao.save(task);
   }
 
-  private synchronized void fetchAndApplyRemoteChanges(
-      GtasksInvoker gtasksInvoker, GoogleTaskList list) throws IOException {
-    String listId = list.getRemoteId();
-    long lastSyncDate = list.getLastSync();
-    List<com.google.api.services.tasks.model.Task> tasks = new ArrayList<>();
-    String nextPageToken = null;
-    do {
-      Tasks taskList;
-      try {
-        taskList =
-            gtasksInvoker.getAllGtasksFromListId(listId, lastSyncDate + 1000L, nextPageToken);
-      } catch (HttpNotFoundException e) {
-        firebase.reportException(e);
-        return;
+  void fetchAndApplyRemoteChanges(GtasksInvoker gtasksInvoker, GoogleTaskList list)
+      throws IOException {
+    synchronized (getLock(list.getAccount())) {
+      String listId = list.getRemoteId();
+      long lastSyncDate = list.getLastSync();
+      List<com.google.api.services.tasks.model.Task> tasks = new ArrayList<>();
+      String nextPageToken = null;
+      do {
+        Tasks taskList;
+        try {
+          taskList =
+              gtasksInvoker.getAllGtasksFromListId(listId, lastSyncDate + 1000L, nextPageToken);
+        } catch (HttpNotFoundException e) {
+          firebase.reportException(e);
+          return;
+        }
+        if (taskList == null) {
+          break;
+        }
+        List<com.google.api.services.tasks.model.Task> items = taskList.getItems();
+        if (items != null) {
+          for (com.google.api.services.tasks.model.Task item : items) {
+            com.google.api.client.util.DateTime updated = item.getUpdated();
+            if (updated != null) {
+              lastSyncDate = Math.max(lastSyncDate, updated.getValue());
+            }
+          }
+          tasks.addAll(items);
+        }
+        nextPageToken = taskList.getNextPageToken();
+      } while (!isNullOrEmpty(nextPageToken));
+
+      Collections.sort(tasks, PARENTS_FIRST);
+
+      for (List<com.google.api.services.tasks.model.Task> page : partition(tasks, PAGE_SIZE)) {
+        applyRemoteChanges(listId, page);
       }
-      if (taskList == null) {
-        break;
+      list.setLastSync(lastSyncDate);
+      googleTaskListDao.insertOrReplace(list);
+    }
+  }
+
+  private void applyRemoteChanges(
+      String listId, List<com.google.api.services.tasks.model.Task> page) {
+    // look up the whole page and its parents up front instead of querying for every task
+    Set<String> remoteIds = new HashSet<>();
+    for (com.google.api.services.tasks.model.Task gtask : page) {
+      remoteIds.add(gtask.getId());
+      if (!isNullOrEmpty(gtask.getParent())) {
+        remoteIds.add(gtask.getParent());
       }
-      List<com.google.api.services.tasks.model.Task> items = taskList.getItems();
-      if (items != null) {
-        tasks.addAll(items);
+    }
+    Map<String, GoogleTask> googleTasks = new HashMap<>();
+    for (GoogleTask googleTask : googleTaskDao.getByRemoteId(new ArrayList<>(remoteIds))) {
+      if (!googleTasks.containsKey(googleTask.getRemoteId())) {
+        googleTasks.put(googleTask.getRemoteId(), googleTask);
       }
-      nextPageToken = taskList.getNextPageToken();
-    } while (!isNullOrEmpty(nextPageToken));
-
-    Collections.sort(tasks, PARENTS_FIRST);
+    }
+    List<Long> taskIds = new ArrayList<>();
+    for (com.google.api.services.tasks.model.Task gtask : page) {
+      GoogleTask googleTask = googleTasks.get(gtask.getId());
+      if (googleTask != null && googleTask.getTask() > 0) {
+        taskIds.add(googleTask.getTask());
+      }
+    }
+    Map<Long, Task> localTasks = new HashMap<>();
+    Map<Long, Task> originals = new HashMap<>();
+    if (!taskIds.isEmpty()) {
+      // second copy is compared against the changes when saving
+      for (Task task : taskDao.fetch(taskIds)) {
+        localTasks.put(task.getId(), task);
+      }
+      for (Task task : taskDao.fetch(taskIds)) {
+        originals.put(task.getId(), task);
+      }
+    }
 
-    for (com.google.api.services.tasks.model.Task gtask : tasks) {
+    for (com.google.api.services.tasks.model.Task gtask : page) {
       String remoteId = gtask.getId();
-      GoogleTask googleTask = googleTaskDao.getByRemoteId(remoteId);
+      GoogleTask googleTask = googleTasks.get(remoteId);
       Task task = null;
       if (googleTask == null) {
         googleTask = new GoogleTask(0, "");
       } else if (googleTask.getTask() > 0) {
-        task = taskDao.fetch(googleTask.getTask());
-      }
-      com.google.api.client.util.DateTime updated = gtask.getUpdated();
-      if (updated != null) {
-        lastSyncDate = Math.max(lastSyncDate, updated.getValue());
+        task = localTasks.get(googleTask.getTask());
       }
       Boolean isDeleted = gtask.getDeleted();
       Boolean isHidden = gtask.getHidden();
@@ -438,12 +491,11 @@ public class GoogleTaskSynchronizer {
           continue;
         }
       } else {
+        GoogleTask parent =
+            isNullOrEmpty(gtask.getParent()) ? null : googleTasks.get(gtask.getParent());
         googleTask.setRemoteOrder(Long.parseLong(gtask.getPosition()));
         googleTask.setRemoteParent(gtask.getParent());
-        googleTask.setParent(
-            isNullOrEmpty(gtask.getParent())
-                ? 0
-                : googleTaskDao.getTask(gtask.getParent()));
+        googleTask.setParent(parent == null ? 0 : parent.getTask());
         googleTask.setRemoteId(gtask.getId());
       }
 
@@ -460,10 +512,28 @@ public class GoogleTaskSynchronizer {
       task.setNotes(getTruncatedValue(task.getNotes(), gtask.getNotes(), MAX_DESCRIPTION_LENGTH));
       googleTask.setListId(listId);
       googleTask.setLastSync(DateUtilities.now() + 1000L);
-      write(task, googleTask);
+      write(task, originals.get(task.getId()), googleTask);
+      // children later in this page are resolved from the map
+      if (remoteId.equals(googleTask.getRemoteId())) {
+        googleTasks.put(remoteId, googleTask);
+      } else {
+        googleTasks.remove(remoteId);
+      }
+    }
+  }
+
+  /** Accounts are synchronized in parallel, but only one sync at a time for each account */
+  private static Object getLock(@Nullable String account) {
+    String key = account == null ? "" : account;
+    Object lock = LOCKS.get(key);
+    if (lock == null) {
+      Object newLock = new Object();
+      lock = LOCKS.putIfAbsent(key, newLock);
+      if (lock == null) {
+        lock = newLock;
+      }
     }
-    list.setLastSync(lastSyncDate);
-    googleTaskListDao.insertOrReplace(list);
+    return lock;
   }
 
   static String truncate(@Nullable String string, int max) {
@@ -479,14 +549,15 @@ public class GoogleTaskSynchronizer {
         : currentValue;
   }
 
-  private void write(Task task, GoogleTask googleTask) {
+  private void write(Task task, @Nullable Task original, GoogleTask googleTask) {
     if (!(isNullOrEmpty(task.getTitle()) && isNullOrEmpty(task.getNotes()))) {
       task.suppressSync();
       task.suppressRefresh();
       if (task.isNew()) {
         taskDao.createNew(task);
+        original = task;
       }
-      taskDao.save(task);
+      taskDao.save(task, original);
       googleTask.setTask(task.getId());
       if (googleTask.getId() == 0) {
         googleTaskDao.insert(googleTask);
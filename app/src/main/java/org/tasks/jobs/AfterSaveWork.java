@@ -1,29 +1,28 @@
 package org.tasks.jobs;
 
 import static com.todoroo.astrid.dao.TaskDao.TRANS_SUPPRESS_REFRESH;
-import static org.tasks.Strings.isNullOrEmpty;
 
-import android.content.ContentResolver;
-import android.content.ContentValues;
 import android.content.Context;
-import android.net.Uri;
-import android.provider.CalendarContract;
 import androidx.annotation.NonNull;
 import androidx.work.Data;
 import androidx.work.Data.Builder;
 import androidx.work.WorkerParameters;
+import com.google.common.primitives.Longs;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.SyncFlags;
 import com.todoroo.astrid.data.Task;
+import com.todoroo.astrid.gcal.GCalHelper;
 import com.todoroo.astrid.reminders.ReminderService;
 import com.todoroo.astrid.repeats.RepeatTaskHelper;
 import com.todoroo.astrid.timers.TimerPlugin;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.inject.Inject;
 import org.tasks.LocalBroadcastManager;
-import org.tasks.R;
 import org.tasks.data.CaldavAccount;
 import org.tasks.data.CaldavDao;
-import org.tasks.injection.ForApplication;
 import org.tasks.injection.InjectingWorker;
 import org.tasks.injection.JobComponent;
 import org.tasks.location.GeofenceApi;
@@ -32,17 +31,23 @@ import org.tasks.scheduling.RefreshScheduler;
 import org.tasks.sync.SyncAdapters;
 import timber.log.Timber;
 
+/** Handles side effects of saving one or more tasks, with a single sync and refresh at the end */
 public class AfterSaveWork extends InjectingWorker {
 
+  /** Keeps input data for a batch of tasks under {@link Data#MAX_DATA_BYTES} */
+  static final int MAX_TASKS = 200;
+
   private static final String EXTRA_ID = "extra_id";
   private static final String EXTRA_ORIG_COMPLETED = "extra_was_completed";
   private static final String EXTRA_ORIG_DELETED = "extra_was_deleted";
+  private static final String EXTRA_IDS = "extra_ids";
+  private static final String EXTRA_ORIG_COMPLETED_DATES = "extra_orig_completed_dates";
+  private static final String EXTRA_ORIG_DELETED_DATES = "extra_orig_deleted_dates";
   private static final String EXTRA_PUSH_GTASKS = "extra_push_gtasks";
   private static final String EXTRA_PUSH_CALDAV = "extra_push_caldav";
   private static final String EXTRA_SUPPRESS_REFRESH = "extra_suppress_refresh";
 
   @Inject RepeatTaskHelper repeatTaskHelper;
-  @Inject @ForApplication Context context;
   @Inject NotificationManager notificationManager;
   @Inject GeofenceApi geofenceApi;
   @Inject TimerPlugin timerPlugin;
@@ -53,45 +58,95 @@ public class AfterSaveWork extends InjectingWorker {
   @Inject SyncAdapters syncAdapters;
   @Inject WorkManager workManager;
   @Inject CaldavDao caldavDao;
+  @Inject GCalHelper gcalHelper;
 
   public AfterSaveWork(@NonNull Context context, @NonNull WorkerParameters workerParams) {
     super(context, workerParams);
   }
 
-  static Data getInputData(Task current, Task original) {
-    boolean suppress = current.checkTransitory(SyncFlags.SUPPRESS_SYNC);
-    boolean forceCaldav = current.checkTransitory(SyncFlags.FORCE_CALDAV_SYNC);
-    Builder builder =
-        new Builder()
-            .putLong(EXTRA_ID, current.getId())
-            .putBoolean(EXTRA_PUSH_GTASKS, !suppress && !current.googleTaskUpToDate(original))
-            .putBoolean(
-                EXTRA_PUSH_CALDAV, !suppress && (!current.caldavUpToDate(original) || forceCaldav))
-            .putBoolean(EXTRA_SUPPRESS_REFRESH, current.checkTransitory(TRANS_SUPPRESS_REFRESH));
-    if (original != null) {
-      builder
-          .putLong(EXTRA_ORIG_COMPLETED, original.getCompletionDate())
-          .putLong(EXTRA_ORIG_DELETED, original.getDeletionDate());
+  /**
+   * @param current at most {@link #MAX_TASKS} saved tasks
+   * @param original original values for each task in current, or null for new tasks
+   */
+  static Data getInputData(List<Task> current, List<Task> original) {
+    int size = current.size();
+    long[] ids = new long[size];
+    long[] completed = new long[size];
+    long[] deleted = new long[size];
+    boolean pushGtasks = false;
+    boolean pushCaldav = false;
+    boolean suppressRefresh = true;
+    for (int i = 0; i < size; i++) {
+      Task task = current.get(i);
+      Task orig = original.get(i);
+      boolean suppress = task.checkTransitory(SyncFlags.SUPPRESS_SYNC);
+      boolean forceCaldav = task.checkTransitory(SyncFlags.FORCE_CALDAV_SYNC);
+      ids[i] = task.getId();
+      if (orig != null) {
+        completed[i] = orig.getCompletionDate();
+        deleted[i] = orig.getDeletionDate();
+      }
+      pushGtasks |= !suppress && !task.googleTaskUpToDate(orig);
+      pushCaldav |= !suppress && (!task.caldavUpToDate(orig) || forceCaldav);
+      suppressRefresh &= task.checkTransitory(TRANS_SUPPRESS_REFRESH);
     }
-    return builder.build();
+    return new Builder()
+        .putLongArray(EXTRA_IDS, ids)
+        .putLongArray(EXTRA_ORIG_COMPLETED_DATES, completed)
+        .putLongArray(EXTRA_ORIG_DELETED_DATES, deleted)
+        .putBoolean(EXTRA_PUSH_GTASKS, pushGtasks)
+        .putBoolean(EXTRA_PUSH_CALDAV, pushCaldav)
+        .putBoolean(EXTRA_SUPPRESS_REFRESH, suppressRefresh)
+        .build();
   }
 
   @Override
   protected Result run() {
     Data data = getInputData();
-    long taskId = data.getLong(EXTRA_ID, -1);
-    Task task = taskDao.fetch(taskId);
-    if (task == null) {
+    long[] ids = data.getLongArray(EXTRA_IDS);
+    long[] completed = data.getLongArray(EXTRA_ORIG_COMPLETED_DATES);
+    long[] deleted = data.getLongArray(EXTRA_ORIG_DELETED_DATES);
+    if (ids == null) {
+      // queued before tasks were saved in batches
+      ids = new long[] {data.getLong(EXTRA_ID, -1)};
+      completed = new long[] {data.getLong(EXTRA_ORIG_COMPLETED, 0)};
+      deleted = new long[] {data.getLong(EXTRA_ORIG_DELETED, 0)};
+    }
+    Map<Long, Task> tasks = new HashMap<>();
+    for (Task task : taskDao.fetch(Longs.asList(ids))) {
+      tasks.put(task.getId(), task);
+    }
+    if (tasks.isEmpty()) {
       Timber.e("Missing saved task");
       return Result.failure();
     }
+    for (int i = 0; i < ids.length; i++) {
+      Task task = tasks.get(ids[i]);
+      if (task == null) {
+        Timber.e("Missing saved task");
+      } else {
+        afterSave(task, completed[i], deleted[i]);
+      }
+    }
+
+    if ((data.getBoolean(EXTRA_PUSH_GTASKS, false) && syncAdapters.isGoogleTaskSyncEnabled())
+        || (data.getBoolean(EXTRA_PUSH_CALDAV, false) && syncAdapters.isCaldavSyncEnabled())) {
+      workManager.sync(false);
+    }
+
+    if (!data.getBoolean(EXTRA_SUPPRESS_REFRESH, false)) {
+      localBroadcastManager.broadcastRefresh();
+    }
+
+    return Result.success();
+  }
 
+  private void afterSave(Task task, long originalCompletionDate, long originalDeletionDate) {
+    long taskId = task.getId();
     reminderService.scheduleAlarm(task);
 
-    boolean completionDateModified =
-        !task.getCompletionDate().equals(data.getLong(EXTRA_ORIG_COMPLETED, 0));
-    boolean deletionDateModified =
-        !task.getDeletionDate().equals(data.getLong(EXTRA_ORIG_DELETED, 0));
+    boolean completionDateModified = !task.getCompletionDate().equals(originalCompletionDate);
+    boolean deletionDateModified = !task.getDeletionDate().equals(originalDeletionDate);
 
     boolean justCompleted = completionDateModified && task.isCompleted();
     boolean justDeleted = deletionDateModified && task.isDeleted();
@@ -104,7 +159,7 @@ public class AfterSaveWork extends InjectingWorker {
     }
 
     if (justCompleted) {
-      updateCalendarTitle(task);
+      gcalHelper.markCompleted(Collections.singletonList(task));
       CaldavAccount account = caldavDao.getAccountForTask(taskId);
       if (account == null || !account.isSuppressRepeatingTasks()) {
         repeatTaskHelper.handleRepeat(task);
@@ -114,34 +169,7 @@ public class AfterSaveWork extends InjectingWorker {
       }
     }
 
-    if ((data.getBoolean(EXTRA_PUSH_GTASKS, false) && syncAdapters.isGoogleTaskSyncEnabled())
-        || (data.getBoolean(EXTRA_PUSH_CALDAV, false) && syncAdapters.isCaldavSyncEnabled())) {
-      workManager.sync(false);
-    }
-
     refreshScheduler.scheduleRefresh(task);
-    if (!data.getBoolean(EXTRA_SUPPRESS_REFRESH, false)) {
-      localBroadcastManager.broadcastRefresh();
-    }
-
-    return Result.success();
-  }
-
-  private void updateCalendarTitle(Task task) {
-    String calendarUri = task.getCalendarURI();
-    if (!isNullOrEmpty(calendarUri)) {
-      try {
-        // change title of calendar event
-        ContentResolver cr = context.getContentResolver();
-        ContentValues values = new ContentValues();
-        values.put(
-            CalendarContract.Events.TITLE,
-            context.getString(R.string.gcal_completed_title, task.getTitle()));
-        cr.update(Uri.parse(calendarUri), values, null, null);
-      } catch (Exception e) {
-        Timber.e(e);
-      }
-    }
   }
 
   @Override
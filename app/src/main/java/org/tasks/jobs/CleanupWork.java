@@ -63,7 +63,7 @@ public class CleanupWork extends InjectingWorker {
         userActivityDao.delete(comment);
       }
     }
-    timerPlugin.updateNotifications();
+    timerPlugin.onDeleted(tasks);
     return Result.success();
   }
 
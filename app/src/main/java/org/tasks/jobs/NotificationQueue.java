@@ -11,6 +11,7 @@ import com.google.common.primitives.Ints;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.tasks.injection.ApplicationScope;
 import org.tasks.preferences.Preferences;
@@ -19,10 +20,14 @@ import org.tasks.time.DateTime;
 @ApplicationScope
 public class NotificationQueue {
 
+  /** How far ahead reminders and alarms are kept in the queue */
+  public static final long HORIZON = TimeUnit.DAYS.toMillis(1);
+
   private final TreeMultimap<Long, NotificationQueueEntry> jobs =
       TreeMultimap.create(Ordering.natural(), (l, r) -> Ints.compare(l.hashCode(), r.hashCode()));
   private final Preferences preferences;
   private final WorkManager workManager;
+  private long horizon = Long.MAX_VALUE;
 
   @Inject
   public NotificationQueue(Preferences preferences, WorkManager workManager) {
@@ -37,7 +42,9 @@ public class NotificationQueue {
   public synchronized <T extends NotificationQueueEntry> void add(Iterable<T> entries) {
     long originalFirstTime = firstTime();
     for (T entry : filter(entries, notNull())) {
-      jobs.put(entry.getTime(), entry);
+      if (entry.getTime() <= horizon) {
+        jobs.put(entry.getTime(), entry);
+      }
     }
     if (originalFirstTime != firstTime()) {
       scheduleNext(true);
@@ -45,10 +52,30 @@ public class NotificationQueue {
   }
 
   public synchronized void clear() {
+    clear(Long.MAX_VALUE);
+  }
+
+  /**
+   * @param horizon entries after this time are dropped by {@link #add(Iterable)}, they are added
+   *     when the horizon is extended
+   */
+  public synchronized void clear(long horizon) {
     jobs.clear();
+    this.horizon = horizon;
     workManager.cancelNotifications();
   }
 
+  /** @return the previous horizon, entries after it and up to the new horizon should be added */
+  public synchronized long extendHorizon(long horizon) {
+    long previous = this.horizon;
+    this.horizon = Math.max(previous, horizon);
+    return previous;
+  }
+
+  public synchronized long getHorizon() {
+    return horizon;
+  }
+
   public synchronized void cancelAlarm(long alarmId) {
     cancel(AlarmEntry.class, alarmId);
   }
@@ -0,0 +1,45 @@
+package org.tasks.jobs;
+
+import static com.todoroo.andlib.utility.DateUtilities.now;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.WorkerParameters;
+import com.todoroo.astrid.alarms.AlarmService;
+import com.todoroo.astrid.reminders.ReminderService;
+import javax.inject.Inject;
+import org.tasks.injection.JobComponent;
+
+/** Adds reminders and alarms that moved inside the notification horizon */
+public class ReminderHorizonWork extends RepeatingWorker {
+
+  @Inject NotificationQueue notificationQueue;
+  @Inject ReminderService reminderService;
+  @Inject AlarmService alarmService;
+  @Inject WorkManager workManager;
+
+  public ReminderHorizonWork(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+    super(context, workerParams);
+  }
+
+  @Override
+  protected Result run() {
+    long horizon = now() + NotificationQueue.HORIZON;
+    long previous = notificationQueue.extendHorizon(horizon);
+    if (previous < horizon) {
+      reminderService.scheduleUpcomingAlarms(previous, horizon);
+      alarmService.scheduleUpcomingAlarms(previous, horizon);
+    }
+    return Result.success();
+  }
+
+  @Override
+  protected void scheduleNext() {
+    workManager.scheduleReminderHorizon(notificationQueue.getHorizon());
+  }
+
+  @Override
+  protected void inject(JobComponent component) {
+    component.inject(this);
+  }
+}
@@ -11,6 +11,7 @@ import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.tasks.LocalBroadcastManager;
 import org.tasks.caldav.CaldavSynchronizer;
+import org.tasks.caldav.HttpClientRegistry;
 import org.tasks.data.CaldavAccount;
 import org.tasks.data.CaldavDao;
 import org.tasks.data.GoogleTaskAccount;
@@ -21,6 +22,7 @@ import org.tasks.injection.InjectingWorker;
 import org.tasks.injection.JobComponent;
 import org.tasks.preferences.Preferences;
 import org.tasks.sync.SyncAdapters;
+import timber.log.Timber;
 
 public class SyncWork extends InjectingWorker {
 
@@ -34,6 +36,7 @@ public class SyncWork extends InjectingWorker {
   @Inject CaldavDao caldavDao;
   @Inject GoogleTaskListDao googleTaskListDao;
   @Inject SyncAdapters syncAdapters;
+  @Inject HttpClientRegistry httpClients;
 
   public SyncWork(@NonNull Context context, @NonNull WorkerParameters workerParams) {
     super(context, workerParams);
@@ -85,6 +88,7 @@ public class SyncWork extends InjectingWorker {
 
     executor.shutdown();
     executor.awaitTermination(15, TimeUnit.MINUTES);
+    Timber.d("%s", httpClients);
   }
 
   @Override
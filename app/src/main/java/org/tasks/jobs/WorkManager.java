@@ -33,6 +33,8 @@ import com.google.common.primitives.Longs;
 import com.todoroo.astrid.data.Task;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.schedulers.Schedulers;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
@@ -57,6 +59,7 @@ public class WorkManager {
   private static final String TAG_SYNC = "tag_sync";
   private static final String TAG_BACKGROUND_SYNC = "tag_background_sync";
   private static final String TAG_REMOTE_CONFIG = "tag_remote_config";
+  private static final String TAG_REMINDER_HORIZON = "tag_reminder_horizon";
 
   private final Context context;
   private final Preferences preferences;
@@ -80,10 +83,19 @@ public class WorkManager {
   }
 
   public void afterSave(Task current, Task original) {
-    workManager.enqueue(
-        new OneTimeWorkRequest.Builder(AfterSaveWork.class)
-            .setInputData(AfterSaveWork.getInputData(current, original))
-            .build());
+    afterSave(Collections.singletonList(current), Collections.singletonList(original));
+  }
+
+  /** @param originals original values for each task in tasks, or null for new tasks */
+  public void afterSave(List<Task> tasks, List<Task> originals) {
+    for (int i = 0; i < tasks.size(); i += AfterSaveWork.MAX_TASKS) {
+      int end = Math.min(i + AfterSaveWork.MAX_TASKS, tasks.size());
+      workManager.enqueue(
+          new OneTimeWorkRequest.Builder(AfterSaveWork.class)
+              .setInputData(
+                  AfterSaveWork.getInputData(tasks.subList(i, end), originals.subList(i, end)))
+              .build());
+    }
   }
 
   public void cleanup(Iterable<Long> ids) {
@@ -188,6 +200,14 @@ public class WorkManager {
     enqueueUnique(TAG_MIDNIGHT_REFRESH, MidnightRefreshWork.class, midnight());
   }
 
+  /** Extend the notification horizon halfway before it is reached */
+  public void scheduleReminderHorizon(long horizon) {
+    if (horizon != Long.MAX_VALUE) {
+      enqueueUnique(
+          TAG_REMINDER_HORIZON, ReminderHorizonWork.class, horizon - NotificationQueue.HORIZON / 2);
+    }
+  }
+
   @SuppressWarnings("WeakerAccess")
   public void scheduleNotification(long time) {
     time = Math.max(now(), time);
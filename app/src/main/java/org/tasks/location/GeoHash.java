@@ -0,0 +1,105 @@
+package org.tasks.location;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class GeoHash {
+
+  public static final int MAX_PRECISION = 12;
+
+  private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+  private static final double METERS_PER_DEGREE = 111_320;
+
+  public static String encode(double latitude, double longitude) {
+    return encode(latitude, longitude, MAX_PRECISION);
+  }
+
+  public static String encode(double latitude, double longitude, int precision) {
+    double minLat = -90, maxLat = 90;
+    double minLng = -180, maxLng = 180;
+    StringBuilder hash = new StringBuilder(precision);
+    boolean even = true;
+    int bit = 0;
+    int ch = 0;
+    while (hash.length() < precision) {
+      if (even) {
+        double mid = (minLng + maxLng) / 2;
+        if (longitude >= mid) {
+          ch = (ch << 1) | 1;
+          minLng = mid;
+        } else {
+          ch <<= 1;
+          maxLng = mid;
+        }
+      } else {
+        double mid = (minLat + maxLat) / 2;
+        if (latitude >= mid) {
+          ch = (ch << 1) | 1;
+          minLat = mid;
+        } else {
+          ch <<= 1;
+          maxLat = mid;
+        }
+      }
+      even = !even;
+      if (++bit == 5) {
+        hash.append(BASE32[ch]);
+        bit = 0;
+        ch = 0;
+      }
+    }
+    return hash.toString();
+  }
+
+  static double latitudeSpan(int precision) {
+    return 180 / Math.pow(2, (5 * precision) / 2);
+  }
+
+  static double longitudeSpan(int precision) {
+    return 360 / Math.pow(2, (5 * precision + 1) / 2);
+  }
+
+  /** @return longest prefix length whose cells are at least radius meters across at latitude */
+  public static int precisionFor(double latitude, double radius) {
+    double cos = Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+    for (int precision = MAX_PRECISION; precision > 1; precision--) {
+      double height = latitudeSpan(precision) * METERS_PER_DEGREE;
+      double width = longitudeSpan(precision) * METERS_PER_DEGREE * cos;
+      if (height >= radius && width >= radius) {
+        return precision;
+      }
+    }
+    return 1;
+  }
+
+  /**
+   * @return the cell containing the point plus its neighbors, which together contain every point
+   *     within radius meters
+   */
+  public static Set<String> cover(double latitude, double longitude, double radius) {
+    int precision = precisionFor(latitude, radius);
+    double latSpan = latitudeSpan(precision);
+    double lngSpan = longitudeSpan(precision);
+    Set<String> cells = new LinkedHashSet<>();
+    for (int dLat = -1; dLat <= 1; dLat++) {
+      double lat = latitude + dLat * latSpan;
+      if (lat > 90 || lat < -90) {
+        continue;
+      }
+      for (int dLng = -1; dLng <= 1; dLng++) {
+        cells.add(encode(lat, wrapLongitude(longitude + dLng * lngSpan), precision));
+      }
+    }
+    return cells;
+  }
+
+  private static double wrapLongitude(double longitude) {
+    if (longitude >= 180) {
+      return longitude - 360;
+    }
+    if (longitude < -180) {
+      return longitude + 360;
+    }
+    return longitude;
+  }
+}
@@ -0,0 +1,90 @@
+package org.tasks.location;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import org.tasks.data.MergedGeofence;
+
+/** Picks the geofences to register when there are more places than the platform allows */
+public class GeofenceBudget {
+
+  /** Play Services allows at most 100 geofences per app */
+  public static final int MAX_GEOFENCES = 100;
+
+  /** Smallest re-rank radius, so tiny movements don't trigger a re-rank */
+  static final float MIN_RERANK_RADIUS = 1000;
+
+  private final List<MergedGeofence> selected;
+  private final float rerankRadius;
+
+  private GeofenceBudget(List<MergedGeofence> selected, float rerankRadius) {
+    this.selected = selected;
+    this.rerankRadius = rerankRadius;
+  }
+
+  /**
+   * @param location last known location, or null if unknown. Without a location there is no way
+   *     to tell which places matter, so the oldest places are selected and no re-rank is set up
+   * @param budget maximum number of platform geofences to use
+   */
+  public static GeofenceBudget select(
+      List<MergedGeofence> geofences, @Nullable android.location.Location location, int budget) {
+    if (geofences.size() <= budget) {
+      return new GeofenceBudget(geofences, 0);
+    }
+    if (location == null) {
+      List<MergedGeofence> byId = newArrayList(geofences);
+      Collections.sort(byId, (l, r) -> Long.compare(l.getPlace().getId(), r.getPlace().getId()));
+      return new GeofenceBudget(byId.subList(0, budget), 0);
+    }
+    // reserve one slot for the re-rank boundary
+    int limit = budget - 1;
+    double latitude = location.getLatitude();
+    double longitude = location.getLongitude();
+    List<Ranked> ranked = newArrayList();
+    for (MergedGeofence geofence : geofences) {
+      ranked.add(new Ranked(geofence, distance(latitude, longitude, geofence)));
+    }
+    Collections.sort(ranked, (l, r) -> Float.compare(l.distance, r.distance));
+    List<MergedGeofence> selected = newArrayList();
+    for (int i = 0; i < limit; i++) {
+      selected.add(ranked.get(i).geofence);
+    }
+    // leaving this radius may bring an unregistered place closer than a registered one
+    Ranked nearestExcluded = ranked.get(limit);
+    float radius = Math.max(MIN_RERANK_RADIUS, nearestExcluded.distance - nearestExcluded.radius());
+    return new GeofenceBudget(selected, radius);
+  }
+
+  private static float distance(double latitude, double longitude, MergedGeofence geofence) {
+    float[] results = new float[1];
+    android.location.Location.distanceBetween(
+        latitude, longitude, geofence.getLatitude(), geofence.getLongitude(), results);
+    return results[0];
+  }
+
+  public List<MergedGeofence> getSelected() {
+    return selected;
+  }
+
+  /** @return radius around the current location that triggers a re-rank, or 0 if not needed */
+  public float getRerankRadius() {
+    return rerankRadius;
+  }
+
+  private static class Ranked {
+    final MergedGeofence geofence;
+    final float distance;
+
+    Ranked(MergedGeofence geofence, float distance) {
+      this.geofence = geofence;
+      this.distance = distance;
+    }
+
+    float radius() {
+      return geofence.getRadius();
+    }
+  }
+}
@@ -40,16 +40,13 @@ import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.schedulers.Schedulers;
-import io.reactivex.subjects.PublishSubject;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.tasks.Event;
 import org.tasks.R;
 import org.tasks.activities.PlaceSettingsActivity;
 import org.tasks.billing.Inventory;
-import org.tasks.caldav.GeoUtils;
 import org.tasks.data.LocationDao;
 import org.tasks.data.Place;
 import org.tasks.data.PlaceUsage;
@@ -79,7 +76,6 @@ public class LocationPickerActivity extends InjectingAppCompatActivity
   public static final String EXTRA_PLACE = "extra_place";
   private static final String EXTRA_MAP_POSITION = "extra_map_position";
   private static final String EXTRA_APPBAR_OFFSET = "extra_appbar_offset";
-  private static final int SEARCH_DEBOUNCE_TIMEOUT = 300;
 
   @BindView(R.id.toolbar)
   Toolbar toolbar;
@@ -124,7 +120,6 @@ public class LocationPickerActivity extends InjectingAppCompatActivity
   private List<PlaceUsage> places = Collections.emptyList();
   private int offset;
   private MenuItem search;
-  private final PublishSubject<String> searchSubject = PublishSubject.create();
   private PlaceSearchViewModel viewModel;
 
   @Override
@@ -134,7 +129,7 @@ public class LocationPickerActivity extends InjectingAppCompatActivity
     ButterKnife.bind(this);
 
     viewModel = new ViewModelProvider(this).get(PlaceSearchViewModel.class);
-    viewModel.setSearchProvider(searchProvider);
+    viewModel.setSearchProvider(searchProvider, locationDao);
 
     Configuration configuration = getResources().getConfiguration();
     if (configuration.orientation == Configuration.ORIENTATION_LANDSCAPE
@@ -330,9 +325,7 @@ public class LocationPickerActivity extends InjectingAppCompatActivity
     }
     if (place.getId() <= 0) {
       org.tasks.data.Place existing =
-          locationDao.findPlace(
-              GeoUtils.INSTANCE.toLikeString(place.getLatitude()),
-              GeoUtils.INSTANCE.toLikeString(place.getLongitude()));
+          locationDao.findPlace(place.getLatitude(), place.getLongitude());
       if (existing == null) {
         place.setId(locationDao.insert(place));
       } else {
@@ -350,12 +343,7 @@ public class LocationPickerActivity extends InjectingAppCompatActivity
 
     viewModel.observe(this, searchAdapter::submitList, this::returnPlace, this::handleError);
 
-    disposables =
-        new CompositeDisposable(
-            searchSubject
-                .debounce(SEARCH_DEBOUNCE_TIMEOUT, TimeUnit.MILLISECONDS)
-                .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(query -> viewModel.query(query, mapPosition)));
+    disposables = new CompositeDisposable();
   }
 
   private void handleError(Event<String> error) {
@@ -449,7 +437,7 @@ public class LocationPickerActivity extends InjectingAppCompatActivity
 
   @Override
   public boolean onQueryTextChange(String query) {
-    searchSubject.onNext(query);
+    viewModel.query(query, mapPosition);
     return true;
   }
 
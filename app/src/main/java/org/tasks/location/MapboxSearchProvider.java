@@ -10,6 +10,7 @@ import com.mapbox.api.geocoding.v5.models.CarmenFeature;
 import com.mapbox.api.geocoding.v5.models.GeocodingResponse;
 import com.mapbox.geojson.Point;
 import com.mapbox.mapboxsdk.Mapbox;
+import io.reactivex.functions.Cancellable;
 import java.util.ArrayList;
 import java.util.List;
 import org.tasks.Callback;
@@ -39,7 +40,7 @@ public class MapboxSearchProvider implements PlaceSearchProvider {
   }
 
   @Override
-  public void search(
+  public Cancellable search(
       String query,
       @Nullable MapPosition bias,
       Callback<List<PlaceSearchResult>> onSuccess,
@@ -53,27 +54,28 @@ public class MapboxSearchProvider implements PlaceSearchProvider {
       }
     }
 
-    builder
-        .query(query)
-        .build()
-        .enqueueCall(
-            new retrofit2.Callback<GeocodingResponse>() {
-              @Override
-              public void onResponse(
-                  Call<GeocodingResponse> call, Response<GeocodingResponse> response) {
-                List<PlaceSearchResult> results = new ArrayList<>();
-                results.clear();
-                for (CarmenFeature feature : response.body().features()) {
-                  results.add(toSearchResult(feature));
-                }
-                onSuccess.call(results);
-              }
+    MapboxGeocoding geocoding = builder.query(query).build();
+    geocoding.enqueueCall(
+        new retrofit2.Callback<GeocodingResponse>() {
+          @Override
+          public void onResponse(
+              Call<GeocodingResponse> call, Response<GeocodingResponse> response) {
+            List<PlaceSearchResult> results = new ArrayList<>();
+            results.clear();
+            for (CarmenFeature feature : response.body().features()) {
+              results.add(toSearchResult(feature));
+            }
+            onSuccess.call(results);
+          }
 
-              @Override
-              public void onFailure(Call<GeocodingResponse> call, Throwable t) {
-                onError.call(t.getMessage());
-              }
-            });
+          @Override
+          public void onFailure(Call<GeocodingResponse> call, Throwable t) {
+            if (!call.isCanceled()) {
+              onError.call(t.getMessage());
+            }
+          }
+        });
+    return geocoding::cancelCall;
   }
 
   @Override
@@ -0,0 +1,182 @@
+package org.tasks.location;
+
+import static org.tasks.Strings.isNullOrEmpty;
+
+import android.util.LruCache;
+import androidx.annotation.Nullable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.subjects.PublishSubject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.tasks.Callback;
+import org.tasks.data.LocationDao;
+import org.tasks.data.Place;
+import timber.log.Timber;
+
+/**
+ * Search as you type.
+ *
+ * <p>Queries are debounced and each new query disposes the search in flight, cancelling its
+ * provider request so a late response can't replace newer results. Saved places that match are
+ * returned before the provider responds, and merged results are kept in a small LRU cache. A
+ * failed search is reported and ends only that query, later queries are still searched.
+ */
+class PlaceSearch {
+
+  static final long DEBOUNCE_MILLIS = 300;
+  static final double LOCAL_RADIUS = 50_000;
+  private static final int CACHE_SIZE = 32;
+
+  private final PlaceSearchProvider searchProvider;
+  private final LocationDao locationDao;
+  private final Scheduler scheduler;
+  private final Scheduler ioScheduler;
+  private final PublishSubject<Query> queries = PublishSubject.create();
+  private final LruCache<String, List<PlaceSearchResult>> cache = new LruCache<>(CACHE_SIZE);
+
+  PlaceSearch(
+      PlaceSearchProvider searchProvider,
+      LocationDao locationDao,
+      Scheduler scheduler,
+      Scheduler ioScheduler) {
+    this.searchProvider = searchProvider;
+    this.locationDao = locationDao;
+    this.scheduler = scheduler;
+    this.ioScheduler = ioScheduler;
+  }
+
+  void query(String query, @Nullable MapPosition bias) {
+    queries.onNext(new Query(query, bias));
+  }
+
+  /** @return results for the latest query, saved places first */
+  Observable<List<PlaceSearchResult>> results(Callback<String> onError) {
+    return queries
+        .debounce(
+            query ->
+                Observable.timer(
+                    isNullOrEmpty(query.text) ? 0 : DEBOUNCE_MILLIS,
+                    TimeUnit.MILLISECONDS,
+                    scheduler))
+        .switchMap(
+            query ->
+                search(query, onError)
+                    .onErrorResumeNext(
+                        (Throwable e) -> {
+                          Timber.e(e);
+                          onError.call(e.getMessage());
+                          return Observable.empty();
+                        }));
+  }
+
+  private Observable<List<PlaceSearchResult>> search(Query query, Callback<String> onError) {
+    if (isNullOrEmpty(query.text)) {
+      return Observable.just(Collections.emptyList());
+    }
+    String key = query.getKey();
+    List<PlaceSearchResult> cached = cache.get(key);
+    if (cached != null) {
+      return Observable.just(cached);
+    }
+    return Single.fromCallable(() -> searchLocal(query))
+        .subscribeOn(ioScheduler)
+        .flatMapObservable(
+            local -> {
+              Observable<List<PlaceSearchResult>> remote =
+                  searchRemote(query, onError)
+                      .map(results -> merge(local, results))
+                      .doOnSuccess(results -> cache.put(key, results))
+                      .toObservable();
+              return local.isEmpty() ? remote : remote.startWith(local);
+            });
+  }
+
+  private Maybe<List<PlaceSearchResult>> searchRemote(Query query, Callback<String> onError) {
+    return Maybe.create(
+        emitter ->
+            emitter.setCancellable(
+                searchProvider.search(
+                    query.text,
+                    query.bias,
+                    emitter::onSuccess,
+                    message -> {
+                      if (!emitter.isDisposed()) {
+                        onError.call(message);
+                        emitter.onComplete();
+                      }
+                    })));
+  }
+
+  private List<PlaceSearchResult> searchLocal(Query query) {
+    List<Place> places =
+        query.bias == null
+            ? locationDao.getPlaces()
+            : locationDao.getPlacesNear(
+                query.bias.getLatitude(), query.bias.getLongitude(), LOCAL_RADIUS);
+    String text = query.text.toLowerCase(Locale.getDefault());
+    List<PlaceSearchResult> results = new ArrayList<>();
+    for (Place place : places) {
+      if (contains(place.getName(), text) || contains(place.getAddress(), text)) {
+        results.add(
+            new PlaceSearchResult(
+                place.getUid(), place.getName(), place.getDisplayAddress(), place));
+      }
+    }
+    return results;
+  }
+
+  private static boolean contains(@Nullable String value, String text) {
+    return value != null && value.toLowerCase(Locale.getDefault()).contains(text);
+  }
+
+  private static List<PlaceSearchResult> merge(
+      List<PlaceSearchResult> local, List<PlaceSearchResult> remote) {
+    if (local.isEmpty()) {
+      return remote;
+    }
+    List<PlaceSearchResult> results = new ArrayList<>(local);
+    for (PlaceSearchResult result : remote) {
+      if (!containsPlace(local, result)) {
+        results.add(result);
+      }
+    }
+    return results;
+  }
+
+  private static boolean containsPlace(List<PlaceSearchResult> local, PlaceSearchResult result) {
+    for (PlaceSearchResult saved : local) {
+      if (Objects.equals(saved.getName(), result.getName())
+          && Objects.equals(saved.getAddress(), result.getAddress())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Places found locally are already saved and don't need to be fetched */
+  static boolean isLocal(PlaceSearchResult result) {
+    Place place = result.getPlace();
+    return place != null && place.getId() > 0;
+  }
+
+  private static class Query {
+    private final String text;
+    @Nullable private final MapPosition bias;
+
+    private Query(String text, @Nullable MapPosition bias) {
+      this.text = text;
+      this.bias = bias;
+    }
+
+    private String getKey() {
+      return bias == null ? text : text + '@' + bias.getLatitude() + ',' + bias.getLongitude();
+    }
+  }
+}
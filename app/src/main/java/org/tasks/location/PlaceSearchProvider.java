@@ -3,6 +3,7 @@ package org.tasks.location;
 import android.os.Bundle;
 import androidx.annotation.DrawableRes;
 import androidx.annotation.Nullable;
+import io.reactivex.functions.Cancellable;
 import java.util.List;
 import org.tasks.Callback;
 import org.tasks.data.Place;
@@ -14,7 +15,8 @@ public interface PlaceSearchProvider {
 
   @DrawableRes int getAttributionRes(boolean dark);
 
-  void search(
+  /** @return cancels the request, callbacks are not called once it is cancelled */
+  Cancellable search(
       String query,
       @Nullable MapPosition bias,
       Callback<List<PlaceSearchResult>> onSuccess,
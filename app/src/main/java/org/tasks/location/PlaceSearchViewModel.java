@@ -1,7 +1,6 @@
 package org.tasks.location;
 
 import static com.todoroo.andlib.utility.AndroidUtilities.assertMainThread;
-import static org.tasks.Strings.isNullOrEmpty;
 
 import android.os.Bundle;
 import androidx.annotation.Nullable;
@@ -9,21 +8,34 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
-import java.util.Collections;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.schedulers.Schedulers;
 import java.util.List;
 import org.tasks.Event;
+import org.tasks.data.LocationDao;
 import org.tasks.data.Place;
+import timber.log.Timber;
 
 @SuppressWarnings({"WeakerAccess", "RedundantSuppression"})
 public class PlaceSearchViewModel extends ViewModel {
   private PlaceSearchProvider searchProvider;
+  private PlaceSearch search;
 
   private final MutableLiveData<List<PlaceSearchResult>> searchResults = new MutableLiveData<>();
   private final MutableLiveData<Event<String>> error = new MutableLiveData<>();
   private final MutableLiveData<Place> selection = new MutableLiveData<>();
+  private final CompositeDisposable disposables = new CompositeDisposable();
 
-  void setSearchProvider(PlaceSearchProvider searchProvider) {
+  void setSearchProvider(PlaceSearchProvider searchProvider, LocationDao locationDao) {
     this.searchProvider = searchProvider;
+    search = new PlaceSearch(searchProvider, locationDao, Schedulers.computation(), Schedulers.io());
+    disposables.clear();
+    disposables.add(
+        search
+            .results(message -> error.postValue(new Event<>(message)))
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(searchResults::setValue, Timber::e));
   }
 
   void observe(
@@ -47,18 +59,23 @@ public class PlaceSearchViewModel extends ViewModel {
   public void query(String query, @Nullable MapPosition bias) {
     assertMainThread();
 
-    if (isNullOrEmpty(query)) {
-      searchResults.postValue(Collections.emptyList());
-    } else {
-      searchProvider.search(query, bias, searchResults::setValue, this::setError);
-    }
+    search.query(query, bias);
   }
 
   public void fetch(PlaceSearchResult result) {
-    searchProvider.fetch(result, selection::setValue, this::setError);
+    if (PlaceSearch.isLocal(result)) {
+      selection.setValue(result.getPlace());
+    } else {
+      searchProvider.fetch(result, selection::setValue, this::setError);
+    }
   }
 
   private void setError(String message) {
     error.setValue(new Event<>(message));
   }
+
+  @Override
+  protected void onCleared() {
+    disposables.dispose();
+  }
 }
@@ -45,6 +45,7 @@ import org.tasks.data.Place;
 import org.tasks.injection.ApplicationScope;
 import org.tasks.injection.ForApplication;
 import org.tasks.intents.TaskIntents;
+import org.tasks.preferences.PreferenceSnapshot;
 import org.tasks.preferences.Preferences;
 import org.tasks.receivers.CompleteTaskReceiver;
 import org.tasks.reminders.NotificationActivity;
@@ -130,7 +131,7 @@ public class NotificationManager {
       }
     }
 
-    if (preferences.bundleNotifications() && notifications.size() > 1) {
+    if (preferences.getSnapshot().bundleNotifications() && notifications.size() > 1) {
       updateSummary(false, false, false, Collections.emptyList());
       createNotifications(notifications, false, false, false, true);
     } else {
@@ -151,7 +152,7 @@ public class NotificationManager {
           newArrayList(concat(existingNotifications, newNotifications));
       createNotifications(notifications, alert, nonstop, fiveTimes, false);
       cancelSummaryNotification();
-    } else if (preferences.bundleNotifications()) {
+    } else if (preferences.getSnapshot().bundleNotifications()) {
       updateSummary(false, false, false, Collections.emptyList());
 
       if (existingNotifications.size() == 1) {
@@ -204,16 +205,17 @@ public class NotificationManager {
       boolean alert,
       boolean nonstop,
       boolean fiveTimes) {
-    if (!preferences.getBoolean(R.string.p_rmd_enabled, true)) {
+    PreferenceSnapshot snapshot = preferences.getSnapshot();
+    if (!snapshot.remindersEnabled()) {
       return;
     }
-    builder.setLocalOnly(!preferences.getBoolean(R.string.p_wearable_notifications, true));
+    builder.setLocalOnly(!snapshot.wearableNotifications());
     if (preOreo()) {
       if (alert) {
         builder
-            .setSound(preferences.getRingtone())
+            .setSound(snapshot.getRingtone())
             .setPriority(NotificationCompat.PRIORITY_HIGH)
-            .setDefaults(preferences.getNotificationDefaults());
+            .setDefaults(snapshot.getNotificationDefaults());
       } else {
         builder.setDefaults(0).setTicker(null);
       }
@@ -224,7 +226,7 @@ public class NotificationManager {
       notification.flags |= FLAG_INSISTENT;
       ringTimes = 1;
     }
-    if (preferences.usePersistentReminders()) {
+    if (snapshot.usePersistentReminders()) {
       notification.flags |= FLAG_NO_CLEAR;
     }
     Intent deleteIntent = new Intent(context, NotificationClearedReceiver.class);
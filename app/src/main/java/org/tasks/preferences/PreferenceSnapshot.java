@@ -0,0 +1,150 @@
+package org.tasks.preferences;
+
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import org.tasks.R;
+
+/**
+ * Immutable copy of the preferences read while binding rows, building queries and posting
+ * notifications. {@link Preferences} replaces its snapshot whenever a preference changes, so
+ * callers should fetch {@link Preferences#getSnapshot()} again instead of holding on to one.
+ */
+public class PreferenceSnapshot {
+
+  private final int sortMode;
+  private final boolean reverseSort;
+  private final boolean manualSort;
+  private final boolean showSubtasks;
+  private final boolean showCompleted;
+  private final boolean temporarilyShowCompleted;
+  private final boolean showHidden;
+  private final int fontSize;
+  private final int rowPadding;
+  private final boolean fullTaskTitle;
+  private final boolean showDescription;
+  private final boolean showFullDescription;
+  private final boolean linkifyTaskList;
+  private final boolean showListIndicators;
+  private final int chipStyle;
+  private final int chipAppearance;
+  private final boolean remindersEnabled;
+  private final boolean wearableNotifications;
+  private final boolean bundleNotifications;
+  private final boolean persistentReminders;
+  private final int notificationDefaults;
+  @Nullable private final Uri ringtone;
+
+  PreferenceSnapshot(Preferences preferences) {
+    sortMode = preferences.getSortMode();
+    reverseSort = preferences.isReverseSort();
+    manualSort = preferences.isManualSort();
+    showSubtasks = preferences.showSubtasks();
+    showCompleted = preferences.getBoolean(R.string.p_show_completed_tasks, false);
+    temporarilyShowCompleted =
+        preferences.getBoolean(R.string.p_temporarily_show_completed_tasks, false);
+    showHidden = preferences.getBoolean(R.string.p_show_hidden_tasks, false);
+    fontSize = preferences.getFontSize();
+    rowPadding = preferences.getInt(R.string.p_rowPadding, 16);
+    fullTaskTitle = preferences.getBoolean(R.string.p_fullTaskTitle, false);
+    showDescription = preferences.getBoolean(R.string.p_show_description, true);
+    showFullDescription = preferences.getBoolean(R.string.p_show_full_description, false);
+    linkifyTaskList = preferences.getBoolean(R.string.p_linkify_task_list, false);
+    showListIndicators = preferences.getBoolean(R.string.p_show_list_indicators, true);
+    chipStyle = preferences.getIntegerFromString(R.string.p_chip_style, 0);
+    chipAppearance = preferences.getIntegerFromString(R.string.p_chip_appearance, 0);
+    remindersEnabled = preferences.getBoolean(R.string.p_rmd_enabled, true);
+    wearableNotifications = preferences.getBoolean(R.string.p_wearable_notifications, true);
+    bundleNotifications = preferences.bundleNotifications();
+    persistentReminders = preferences.usePersistentReminders();
+    notificationDefaults = preferences.getNotificationDefaults();
+    ringtone = preferences.getRingtone();
+  }
+
+  public int getSortMode() {
+    return sortMode;
+  }
+
+  public boolean isReverseSort() {
+    return reverseSort;
+  }
+
+  public boolean isManualSort() {
+    return manualSort;
+  }
+
+  public boolean showSubtasks() {
+    return showSubtasks;
+  }
+
+  public boolean showCompleted() {
+    return showCompleted;
+  }
+
+  public boolean temporarilyShowCompleted() {
+    return temporarilyShowCompleted;
+  }
+
+  public boolean showHidden() {
+    return showHidden;
+  }
+
+  public int getFontSize() {
+    return fontSize;
+  }
+
+  public int getRowPadding() {
+    return rowPadding;
+  }
+
+  public boolean showFullTaskTitle() {
+    return fullTaskTitle;
+  }
+
+  public boolean showDescription() {
+    return showDescription;
+  }
+
+  public boolean showFullDescription() {
+    return showFullDescription;
+  }
+
+  public boolean linkifyTaskList() {
+    return linkifyTaskList;
+  }
+
+  public boolean showListIndicators() {
+    return showListIndicators;
+  }
+
+  public int getChipStyle() {
+    return chipStyle;
+  }
+
+  public int getChipAppearance() {
+    return chipAppearance;
+  }
+
+  public boolean remindersEnabled() {
+    return remindersEnabled;
+  }
+
+  public boolean wearableNotifications() {
+    return wearableNotifications;
+  }
+
+  public boolean bundleNotifications() {
+    return bundleNotifications;
+  }
+
+  public boolean usePersistentReminders() {
+    return persistentReminders;
+  }
+
+  public int getNotificationDefaults() {
+    return notificationDefaults;
+  }
+
+  public @Nullable Uri getRingtone() {
+    return ringtone;
+  }
+}
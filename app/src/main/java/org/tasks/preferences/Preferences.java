@@ -12,6 +12,7 @@ import android.content.ContentResolver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.SharedPreferences.OnSharedPreferenceChangeListener;
 import android.content.pm.PackageManager;
 import android.media.RingtoneManager;
 import android.net.Uri;
@@ -48,6 +49,10 @@ public class Preferences {
   private final Context context;
   private final SharedPreferences prefs;
   private final SharedPreferences publicPrefs;
+  // SharedPreferences only keeps a weak reference to its listeners
+  private final OnSharedPreferenceChangeListener listener =
+      (sharedPreferences, key) -> onChanged();
+  private volatile PreferenceSnapshot snapshot;
 
   public Preferences(Context context) {
     this(context, getSharedPreferencesName(context));
@@ -58,12 +63,34 @@ public class Preferences {
     prefs = context.getSharedPreferences(name, Context.MODE_PRIVATE);
     publicPrefs =
         context.getSharedPreferences(AstridApiConstants.PUBLIC_PREFS, Context.MODE_PRIVATE);
+    prefs.registerOnSharedPreferenceChangeListener(listener);
+    publicPrefs.registerOnSharedPreferenceChangeListener(listener);
   }
 
   private static String getSharedPreferencesName(Context context) {
     return context.getPackageName() + "_preferences";
   }
 
+  /** @return preferences read on hot paths, without touching {@link SharedPreferences} */
+  public PreferenceSnapshot getSnapshot() {
+    PreferenceSnapshot snapshot = this.snapshot;
+    if (snapshot == null) {
+      synchronized (this) {
+        snapshot = this.snapshot;
+        if (snapshot == null) {
+          snapshot = new PreferenceSnapshot(this);
+          this.snapshot = snapshot;
+        }
+      }
+    }
+    return snapshot;
+  }
+
+  /** Waits for a snapshot being built, so one read before this change can't be kept */
+  private synchronized void onChanged() {
+    snapshot = null;
+  }
+
   public boolean addGoogleTasksToTop() {
     return getBoolean(R.string.p_google_tasks_add_to_top, true);
   }
@@ -199,6 +226,8 @@ public class Preferences {
 
   public void clear() {
     prefs.edit().clear().apply();
+    // listeners aren't notified of clear() before API 30
+    onChanged();
   }
 
   public void setDefaults() {
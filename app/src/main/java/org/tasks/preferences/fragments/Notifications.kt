@@ -167,7 +167,7 @@ class Notifications : InjectingPreferenceFragment() {
     }
 
     private fun rescheduleNotifications(cancelExisting: Boolean): Boolean {
-        NotificationSchedulerIntentService.enqueueWork(context, cancelExisting)
+        NotificationSchedulerIntentService.enqueueWork(context, cancelExisting, true)
         return true
     }
 
@@ -1,6 +1,7 @@
 package org.tasks.scheduling;
 
 import static com.todoroo.andlib.utility.AndroidUtilities.atLeastOreo;
+import static com.todoroo.andlib.utility.DateUtilities.now;
 import static org.tasks.notifications.NotificationManager.NOTIFICATION_CHANNEL_DEFAULT;
 import static org.tasks.notifications.NotificationManager.NOTIFICATION_CHANNEL_MISCELLANEOUS;
 import static org.tasks.notifications.NotificationManager.NOTIFICATION_CHANNEL_TASKER;
@@ -20,6 +21,7 @@ import org.tasks.injection.ForApplication;
 import org.tasks.injection.InjectingJobIntentService;
 import org.tasks.injection.ServiceComponent;
 import org.tasks.jobs.NotificationQueue;
+import org.tasks.jobs.WorkManager;
 import org.tasks.notifications.NotificationManager;
 import timber.log.Timber;
 
@@ -27,15 +29,23 @@ public class NotificationSchedulerIntentService extends InjectingJobIntentServic
 
   private static final String EXTRA_CANCEL_EXISTING_NOTIFICATIONS =
       "extra_cancel_existing_notifications";
+  private static final String EXTRA_RECALCULATE_REMINDERS = "extra_recalculate_reminders";
   @Inject @ForApplication Context context;
   @Inject AlarmService alarmService;
   @Inject ReminderService reminderService;
   @Inject NotificationQueue notificationQueue;
   @Inject NotificationManager notificationManager;
+  @Inject WorkManager workManager;
 
-  public static void enqueueWork(Context context, boolean cancelNotifications) {
+  /**
+   * @param recalculateReminders recalculate reminders for every task instead of using the
+   *     reminder times stored when tasks were saved
+   */
+  public static void enqueueWork(
+      Context context, boolean cancelNotifications, boolean recalculateReminders) {
     Intent intent = new Intent(context, NotificationSchedulerIntentService.class);
     intent.putExtra(EXTRA_CANCEL_EXISTING_NOTIFICATIONS, cancelNotifications);
+    intent.putExtra(EXTRA_RECALCULATE_REMINDERS, recalculateReminders);
     JobIntentService.enqueueWork(
         context,
         NotificationSchedulerIntentService.class,
@@ -49,14 +59,20 @@ public class NotificationSchedulerIntentService extends InjectingJobIntentServic
 
     createNotificationChannels();
 
-    notificationQueue.clear();
+    long horizon = now() + NotificationQueue.HORIZON;
+    notificationQueue.clear(horizon);
 
     boolean cancelExistingNotifications =
         intent.getBooleanExtra(EXTRA_CANCEL_EXISTING_NOTIFICATIONS, false);
 
     notificationManager.restoreNotifications(cancelExistingNotifications);
-    reminderService.scheduleAllAlarms();
-    alarmService.scheduleAllAlarms();
+    if (intent.getBooleanExtra(EXTRA_RECALCULATE_REMINDERS, false)) {
+      reminderService.scheduleAllAlarms();
+    } else {
+      reminderService.scheduleUpcomingAlarms(0, horizon);
+    }
+    alarmService.scheduleUpcomingAlarms(0, horizon);
+    workManager.scheduleReminderHorizon(horizon);
   }
 
   private void createNotificationChannels() {
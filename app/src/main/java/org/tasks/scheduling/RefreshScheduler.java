@@ -3,25 +3,29 @@ package org.tasks.scheduling;
 import static com.todoroo.andlib.utility.DateUtilities.ONE_MINUTE;
 import static org.tasks.time.DateTimeUtils.currentTimeMillis;
 
-import com.google.common.collect.ImmutableList;
 import com.todoroo.astrid.dao.TaskDao;
 import com.todoroo.astrid.data.Task;
+import java.util.Arrays;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import javax.inject.Inject;
 import org.tasks.R;
 import org.tasks.injection.ApplicationScope;
 import org.tasks.jobs.WorkManager;
 import org.tasks.preferences.Preferences;
+import timber.log.Timber;
 
 @ApplicationScope
 public class RefreshScheduler {
 
+  private static final int MAX_JOBS = 500;
+
   private final Preferences preferences;
   private final WorkManager workManager;
   private final TaskDao taskDao;
-  private final SortedSet<Long> jobs = new TreeSet<>();
+  private final long[] jobs = new long[MAX_JOBS];
+  private int size;
+  private boolean truncated;
+  private boolean loaded;
 
   @Inject
   RefreshScheduler(Preferences preferences, WorkManager workManager, TaskDao taskDao) {
@@ -31,9 +35,18 @@ public class RefreshScheduler {
   }
 
   public synchronized void scheduleAll() {
-    for (Task task : taskDao.needsRefresh()) {
-      scheduleRefresh(task);
+    load(currentTimeMillis());
+    scheduleNext();
+  }
+
+  private void load(long now) {
+    List<Long> refreshTimes = taskDao.getRefreshTimes(now, MAX_JOBS);
+    size = 0;
+    for (Long timestamp : refreshTimes) {
+      add(timestamp);
     }
+    truncated = refreshTimes.size() == MAX_JOBS;
+    loaded = true;
   }
 
   public synchronized void scheduleRefresh(Task task) {
@@ -48,23 +61,79 @@ public class RefreshScheduler {
     }
   }
 
-  private void scheduleRefresh(Long timestamp) {
-    long now = currentTimeMillis();
-    if (now < timestamp) {
-      SortedSet<Long> upcoming = jobs.tailSet(now);
-      boolean reschedule = upcoming.isEmpty() || timestamp < upcoming.first();
-      jobs.add(timestamp);
-      if (reschedule) {
-        scheduleNext();
+  private void scheduleRefresh(long timestamp) {
+    if (!loaded) {
+      load(currentTimeMillis());
+    }
+    if (currentTimeMillis() < timestamp && add(timestamp) == 0) {
+      scheduleNext();
+    }
+  }
+
+  /** @return insertion index, or -1 if the timestamp was already pending or past the horizon */
+  private int add(long timestamp) {
+    int index = Arrays.binarySearch(jobs, 0, size, timestamp);
+    if (index >= 0) {
+      return -1;
+    }
+    index = -(index + 1);
+    if (size == MAX_JOBS) {
+      truncated = true;
+      if (index == size) {
+        return -1;
       }
+      size--;
     }
+    System.arraycopy(jobs, index, jobs, index + 1, size - index);
+    jobs[index] = timestamp;
+    size++;
+    return index;
   }
 
   public synchronized void scheduleNext() {
-    List<Long> lapsed = ImmutableList.copyOf(jobs.headSet(currentTimeMillis() + 1));
-    jobs.removeAll(lapsed);
-    if (!jobs.isEmpty()) {
-      workManager.scheduleRefresh(jobs.first());
+    long now = currentTimeMillis();
+    if (!loaded) {
+      load(now);
+    }
+    prune(now);
+    if (size == 0 && truncated) {
+      load(now);
     }
+    if (size > 0) {
+      workManager.scheduleRefresh(jobs[0]);
+    }
+    Timber.v("%s", this);
+  }
+
+  private void prune(long now) {
+    int index = Arrays.binarySearch(jobs, 0, size, now + 1);
+    int lapsed = index >= 0 ? index : -(index + 1);
+    if (lapsed > 0) {
+      System.arraycopy(jobs, lapsed, jobs, 0, size - lapsed);
+      size -= lapsed;
+    }
+  }
+
+  /** @return number of pending refreshes */
+  public synchronized int getPendingCount() {
+    return size;
+  }
+
+  /** @return latest pending refresh, or 0 if nothing is pending */
+  public synchronized long getHorizon() {
+    return size == 0 ? 0 : jobs[size - 1];
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "RefreshScheduler{pending="
+        + size
+        + ", next="
+        + (size == 0 ? 0 : jobs[0])
+        + ", horizon="
+        + getHorizon()
+        + ", truncated="
+        + truncated
+        + '}';
   }
 }
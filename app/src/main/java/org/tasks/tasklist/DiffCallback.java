@@ -27,15 +27,32 @@ class DiffCallback extends DiffUtil.Callback {
     return newList.size();
   }
 
+  long getOldKey(int position) {
+    return getKey(oldList, position);
+  }
+
+  long getNewKey(int position) {
+    return getKey(newList, position);
+  }
+
   @Override
   public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-    return oldList.get(oldItemPosition).getId() == newList.get(newItemPosition).getId();
+    return getOldKey(oldItemPosition) == getNewKey(newItemPosition);
   }
 
   @Override
   public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
     TaskContainer oldItem = oldList.get(oldItemPosition);
     TaskContainer newItem = newList.get(newItemPosition);
+    if (oldItem == null || newItem == null) {
+      return oldItem == newItem;
+    }
     return oldItem.equals(newItem) && oldItem.getIndent() == adapter.getIndent(newItem);
   }
+
+  /** Paged lists have null placeholders, which are matched by position */
+  private static long getKey(List<TaskContainer> list, int position) {
+    TaskContainer task = list.get(position);
+    return task == null ? -1 - position : task.getId();
+  }
 }
@@ -11,8 +11,6 @@ import android.graphics.Canvas;
 import android.os.Parcelable;
 import androidx.annotation.NonNull;
 import androidx.core.util.Pair;
-import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.DiffUtil.DiffResult;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
@@ -31,15 +29,13 @@ import org.tasks.data.TaskContainer;
 
 public class DragAndDropRecyclerAdapter extends TaskListRecyclerAdapter {
 
-  private static final int LONG_LIST_SIZE = 500;
-
   private final TaskAdapter adapter;
   private final TaskListFragment taskList;
   private final RecyclerView recyclerView;
   private List<TaskContainer> list;
   private final PublishSubject<List<TaskContainer>> publishSubject = PublishSubject.create();
   private final CompositeDisposable disposables = new CompositeDisposable();
-  private final Queue<Pair<List<TaskContainer>, DiffResult>> updates = new LinkedList<>();
+  private final Queue<Pair<List<TaskContainer>, KeyedDiff>> updates = new LinkedList<>();
   private boolean dragging;
 
   public DragAndDropRecyclerAdapter(
@@ -56,7 +52,7 @@ public class DragAndDropRecyclerAdapter extends TaskListRecyclerAdapter {
     this.taskList = taskList;
     this.list = list;
     new ItemTouchHelper(new ItemTouchHelperCallback()).attachToRecyclerView(recyclerView);
-    Pair<List<TaskContainer>, DiffResult> initial = Pair.create(list, null);
+    Pair<List<TaskContainer>, KeyedDiff> initial = Pair.create(list, null);
     disposables.add(
         publishSubject
             .observeOn(Schedulers.computation())
@@ -81,17 +77,16 @@ public class DragAndDropRecyclerAdapter extends TaskListRecyclerAdapter {
     publishSubject.onNext(list);
   }
 
-  private Pair<List<TaskContainer>, DiffResult> calculateDiff(
-      Pair<List<TaskContainer>, DiffResult> last, List<TaskContainer> next) {
+  private Pair<List<TaskContainer>, KeyedDiff> calculateDiff(
+      Pair<List<TaskContainer>, KeyedDiff> last, List<TaskContainer> next) {
     assertNotMainThread();
 
-    DiffCallback cb = new DiffCallback(last.first, next, adapter);
-    DiffResult result = DiffUtil.calculateDiff(cb, next.size() < LONG_LIST_SIZE);
+    KeyedDiff result = KeyedDiff.calculate(new DiffCallback(last.first, next, adapter));
 
     return Pair.create(next, result);
   }
 
-  private void applyDiff(Pair<List<TaskContainer>, DiffResult> update) {
+  private void applyDiff(Pair<List<TaskContainer>, KeyedDiff> update) {
     assertMainThread();
 
     updates.add(update);
@@ -106,7 +101,7 @@ public class DragAndDropRecyclerAdapter extends TaskListRecyclerAdapter {
 
     Parcelable recyclerViewState = recyclerView.getLayoutManager().onSaveInstanceState();
 
-    Pair<List<TaskContainer>, DiffResult> update = updates.poll();
+    Pair<List<TaskContainer>, KeyedDiff> update = updates.poll();
     while (update != null) {
       list = update.first;
       update.second.dispatchUpdatesTo((ListUpdateCallback) this);
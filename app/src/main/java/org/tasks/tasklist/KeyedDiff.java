@@ -0,0 +1,220 @@
+package org.tasks.tasklist;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diff between two lists of items with unique keys.
+ *
+ * <p>{@link androidx.recyclerview.widget.DiffUtil} runs in O(N·D) and gets slow enough on long
+ * lists that move detection had to be turned off. Since every item has a key, old and new
+ * positions can be matched with a map instead. Items in the longest increasing subsequence of old
+ * positions stay where they are and every other matched item gets a single move, so this runs in
+ * O(N log N) and detects moves at any size.
+ */
+class KeyedDiff {
+
+  private static final int INSERT = 0;
+  private static final int REMOVE = 1;
+  private static final int MOVE = 2;
+  private static final int CHANGE = 3;
+
+  /** operation, then two arguments */
+  private int[] operations = new int[48];
+
+  private int size;
+
+  private KeyedDiff() {}
+
+  static KeyedDiff calculate(DiffCallback callback) {
+    KeyedDiff diff = new KeyedDiff();
+    diff.calculateDiff(callback);
+    return diff;
+  }
+
+  void dispatchUpdatesTo(ListUpdateCallback callback) {
+    for (int i = 0; i < size; i += 3) {
+      int a = operations[i + 1];
+      int b = operations[i + 2];
+      switch (operations[i]) {
+        case INSERT:
+          callback.onInserted(a, b);
+          break;
+        case REMOVE:
+          callback.onRemoved(a, b);
+          break;
+        case MOVE:
+          callback.onMoved(a, b);
+          break;
+        case CHANGE:
+          callback.onChanged(a, b, null);
+          break;
+      }
+    }
+  }
+
+  private void calculateDiff(DiffCallback callback) {
+    int oldSize = callback.getOldListSize();
+    int newSize = callback.getNewListSize();
+
+    Map<Long, Integer> oldPositions = new HashMap<>(oldSize * 2);
+    for (int i = oldSize - 1; i >= 0; i--) {
+      oldPositions.put(callback.getOldKey(i), i);
+    }
+    // old position for each new position, -1 if inserted
+    int[] sources = new int[newSize];
+    // new position for each old position, -1 if removed
+    int[] targets = new int[oldSize];
+    Arrays.fill(targets, -1);
+    for (int i = 0; i < newSize; i++) {
+      Integer source = oldPositions.get(callback.getNewKey(i));
+      if (source == null || targets[source] != -1) {
+        sources[i] = -1;
+      } else {
+        sources[i] = source;
+        targets[source] = i;
+      }
+    }
+
+    boolean[] stays = longestIncreasingSubsequence(sources);
+
+    for (int i = oldSize - 1; i >= 0; ) {
+      if (targets[i] != -1) {
+        i--;
+        continue;
+      }
+      int end = i;
+      while (i >= 0 && targets[i] == -1) {
+        i--;
+      }
+      add(REMOVE, i + 1, end - i);
+    }
+
+    // Working from the end, each item is placed in front of the item that follows it in the new
+    // list. Remaining items are still in their old order, placed items are grouped in front of
+    // the next item that stayed. Both trees are indexed by old position, with placed items
+    // counted at the old position of the item they are grouped with.
+    Tree remaining = new Tree(oldSize + 1);
+    Tree placed = new Tree(oldSize + 1);
+    for (int i = 0; i < oldSize; i++) {
+      if (targets[i] != -1) {
+        remaining.add(i, 1);
+      }
+    }
+    int anchor = oldSize;
+    int insertPosition = -1;
+    int insertCount = 0;
+    for (int i = newSize - 1; i >= 0; i--) {
+      int source = sources[i];
+      if (source != -1 && stays[i]) {
+        remaining.add(source, -1);
+        placed.add(source, 1);
+        anchor = source;
+        continue;
+      }
+      int target = remaining.count(anchor) + placed.count(anchor);
+      if (source == -1) {
+        if (insertCount > 0 && insertPosition != target) {
+          add(INSERT, insertPosition, insertCount);
+          insertCount = 0;
+        }
+        insertPosition = target;
+        insertCount++;
+      } else {
+        if (insertCount > 0) {
+          add(INSERT, insertPosition, insertCount);
+          insertCount = 0;
+        }
+        int from = remaining.count(source) + placed.count(source);
+        int to = from < target ? target - 1 : target;
+        if (from != to) {
+          add(MOVE, from, to);
+        }
+        remaining.add(source, -1);
+      }
+      placed.add(anchor, 1);
+    }
+    if (insertCount > 0) {
+      add(INSERT, insertPosition, insertCount);
+    }
+
+    for (int i = 0; i < newSize; ) {
+      if (sources[i] == -1 || callback.areContentsTheSame(sources[i], i)) {
+        i++;
+        continue;
+      }
+      int start = i;
+      while (i < newSize && sources[i] != -1 && !callback.areContentsTheSame(sources[i], i)) {
+        i++;
+      }
+      add(CHANGE, start, i - start);
+    }
+  }
+
+  private void add(int operation, int a, int b) {
+    if (size + 3 > operations.length) {
+      operations = Arrays.copyOf(operations, operations.length * 2);
+    }
+    operations[size++] = operation;
+    operations[size++] = a;
+    operations[size++] = b;
+  }
+
+  /** @return true for positions in the longest increasing subsequence, ignoring -1 */
+  static boolean[] longestIncreasingSubsequence(int[] values) {
+    int[] tails = new int[values.length];
+    int[] previous = new int[values.length];
+    int length = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == -1) {
+        continue;
+      }
+      int low = 0;
+      int high = length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (values[tails[mid]] < values[i]) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      previous[i] = low > 0 ? tails[low - 1] : -1;
+      tails[low] = i;
+      if (low == length) {
+        length++;
+      }
+    }
+    boolean[] result = new boolean[values.length];
+    for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = previous[i]) {
+      result[i] = true;
+    }
+    return result;
+  }
+
+  /** Fenwick tree */
+  private static class Tree {
+    private final int[] tree;
+
+    Tree(int size) {
+      tree = new int[size + 1];
+    }
+
+    void add(int index, int delta) {
+      for (int i = index + 1; i < tree.length; i += i & -i) {
+        tree[i] += delta;
+      }
+    }
+
+    /** @return sum of values before index */
+    int count(int index) {
+      int sum = 0;
+      for (int i = index; i > 0; i -= i & -i) {
+        sum += tree[i];
+      }
+      return sum;
+    }
+  }
+}
@@ -1,20 +1,48 @@
 package org.tasks.tasklist;
 
+import static com.todoroo.andlib.utility.AndroidUtilities.assertMainThread;
+
 import android.os.Parcelable;
-import androidx.paging.AsyncPagedListDiffer;
+import androidx.annotation.NonNull;
 import androidx.paging.PagedList;
-import androidx.recyclerview.widget.AsyncDifferConfig;
 import androidx.recyclerview.widget.RecyclerView;
 import com.todoroo.astrid.activity.TaskListFragment;
 import com.todoroo.astrid.adapter.TaskAdapter;
 import com.todoroo.astrid.dao.TaskDao;
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.schedulers.Schedulers;
 import java.util.List;
 import org.tasks.data.TaskContainer;
 
 public class PagedListRecyclerAdapter extends TaskListRecyclerAdapter {
 
+  private final TaskAdapter adapter;
   private final RecyclerView recyclerView;
-  private final AsyncPagedListDiffer<TaskContainer> differ;
+  private final CompositeDisposable disposables = new CompositeDisposable();
+  private final PagedList.Callback pagedListCallback =
+      new PagedList.Callback() {
+        @Override
+        public void onChanged(int position, int count) {
+          notifyItemRangeChanged(position, count);
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+          notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+          notifyItemRangeRemoved(position, count);
+        }
+      };
+  private PagedList<TaskContainer> list;
+  /** Contents of {@link #list} when a new list was submitted, until the diff is applied */
+  private List<TaskContainer> snapshot;
+
+  private int generation;
 
   public PagedListRecyclerAdapter(
       TaskAdapter adapter,
@@ -24,22 +52,63 @@ public class PagedListRecyclerAdapter extends TaskListRecyclerAdapter {
       List<TaskContainer> list,
       TaskDao taskDao) {
     super(adapter, viewHolderFactory, taskList, taskDao);
+    this.adapter = adapter;
     this.recyclerView = recyclerView;
-    differ =
-        new AsyncPagedListDiffer<>(
-            this, new AsyncDifferConfig.Builder<>(new ItemCallback()).build());
     if (list instanceof PagedList) {
-      differ.submitList((PagedList<TaskContainer>) list);
+      this.list = (PagedList<TaskContainer>) list;
+      this.list.addWeakCallback(null, pagedListCallback);
     }
   }
 
   @Override
   public TaskContainer getItem(int position) {
-    return differ.getItem(position);
+    if (snapshot != null) {
+      return snapshot.get(position);
+    }
+    list.loadAround(position);
+    return list.get(position);
   }
 
   public void submitList(List<TaskContainer> list) {
-    differ.submitList((PagedList<TaskContainer>) list);
+    assertMainThread();
+
+    PagedList<TaskContainer> next = (PagedList<TaskContainer>) list;
+    if (next == this.list) {
+      return;
+    }
+    int generation = ++this.generation;
+    if (this.list == null) {
+      this.list = next;
+      next.addWeakCallback(null, pagedListCallback);
+      notifyItemRangeInserted(0, next.size());
+      return;
+    }
+    if (snapshot == null) {
+      snapshot = this.list.snapshot();
+      this.list.removeWeakCallback(pagedListCallback);
+    }
+    List<TaskContainer> oldSnapshot = snapshot;
+    List<TaskContainer> newSnapshot = next.snapshot();
+    disposables.add(
+        Single.fromCallable(
+                () -> KeyedDiff.calculate(new DiffCallback(oldSnapshot, newSnapshot, adapter)))
+            .subscribeOn(Schedulers.computation())
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                diff -> {
+                  if (generation == this.generation) {
+                    applyDiff(next, newSnapshot, diff);
+                  }
+                }));
+  }
+
+  private void applyDiff(
+      PagedList<TaskContainer> next, List<TaskContainer> newSnapshot, KeyedDiff diff) {
+    list = next;
+    snapshot = null;
+    diff.dispatchUpdatesTo(this);
+    // dispatches anything that loaded while the diff was calculated
+    next.addWeakCallback(newSnapshot, pagedListCallback);
   }
 
   @Override
@@ -51,6 +120,11 @@ public class PagedListRecyclerAdapter extends TaskListRecyclerAdapter {
     recyclerView.getLayoutManager().onRestoreInstanceState(recyclerViewState);
   }
 
+  @Override
+  public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+    disposables.dispose();
+  }
+
   @Override
   protected boolean dragAndDropEnabled() {
     return false;
@@ -58,6 +132,9 @@ public class PagedListRecyclerAdapter extends TaskListRecyclerAdapter {
 
   @Override
   public int getItemCount() {
-    return differ.getItemCount();
+    if (snapshot != null) {
+      return snapshot.size();
+    }
+    return list == null ? 0 : list.size();
   }
 }
@@ -25,6 +25,7 @@ import org.tasks.R;
 import org.tasks.data.TaskContainer;
 import org.tasks.dialogs.Linkify;
 import org.tasks.locale.Locale;
+import org.tasks.preferences.PreferenceSnapshot;
 import org.tasks.preferences.Preferences;
 import org.tasks.ui.CheckBoxProvider;
 import org.tasks.ui.ChipProvider;
@@ -110,13 +111,14 @@ public class ViewHolder extends RecyclerView.ViewHolder {
     this.linkify = linkify;
     ButterKnife.bind(this, view);
 
-    if (preferences.getBoolean(R.string.p_fullTaskTitle, false)) {
+    PreferenceSnapshot snapshot = preferences.getSnapshot();
+    if (snapshot.showFullTaskTitle()) {
       nameView.setMaxLines(Integer.MAX_VALUE);
       nameView.setSingleLine(false);
       nameView.setEllipsize(null);
     }
 
-    if (preferences.getBoolean(R.string.p_show_full_description, false)) {
+    if (snapshot.showFullDescription()) {
       description.setMaxLines(Integer.MAX_VALUE);
       description.setSingleLine(false);
       description.setEllipsize(null);
@@ -197,11 +199,12 @@ public class ViewHolder extends RecyclerView.ViewHolder {
     setupTitleAndCheckbox();
     setupDueDate();
     setupChips(filter);
-    if (preferences.getBoolean(R.string.p_show_description, true)) {
+    PreferenceSnapshot snapshot = preferences.getSnapshot();
+    if (snapshot.showDescription()) {
       description.setText(task.getNotes());
       description.setVisibility(task.hasNotes() ? View.VISIBLE : View.GONE);
     }
-    if (preferences.getBoolean(R.string.p_linkify_task_list, false)) {
+    if (snapshot.linkifyTaskList()) {
       linkify.linkify(nameView, this::onRowBodyClick);
       linkify.linkify(description, this::onRowBodyClick);
       nameView.setOnLongClickListener(view -> onRowBodyLongClick());
@@ -14,6 +14,7 @@ import javax.inject.Inject;
 import org.tasks.R;
 import org.tasks.dialogs.Linkify;
 import org.tasks.injection.ForActivity;
+import org.tasks.preferences.PreferenceSnapshot;
 import org.tasks.preferences.Preferences;
 import org.tasks.ui.CheckBoxProvider;
 import org.tasks.ui.ChipProvider;
@@ -52,9 +53,10 @@ public class ViewHolderFactory {
     textColorOverdue = context.getColor(R.color.overdue);
     background = getResourceId(context, R.attr.selectableItemBackground);
     selectedColor = getData(context, R.attr.colorControlHighlight);
-    fontSize = preferences.getFontSize();
+    PreferenceSnapshot snapshot = preferences.getSnapshot();
+    fontSize = snapshot.getFontSize();
     metrics = context.getResources().getDisplayMetrics();
-    rowPadding = convertDpToPixels(metrics, preferences.getInt(R.string.p_rowPadding, 16));
+    rowPadding = convertDpToPixels(metrics, snapshot.getRowPadding());
   }
 
   ViewHolder newViewHolder(ViewGroup parent, ViewHolder.ViewHolderCallbacks callbacks) {
@@ -0,0 +1,168 @@
+package org.tasks.time;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.threeten.bp.Instant;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.zone.ZoneOffsetTransition;
+import org.threeten.bp.zone.ZoneRules;
+
+/**
+ * {@link DateTime} arithmetic on epoch millis in the default time zone.
+ *
+ * <p>DateTime creates a calendar for every operation, which adds up when computing reminders or
+ * formatting dates for every task in a list. These methods use offset transitions cached from the
+ * zone rules instead and don't allocate. Results match DateTime, except for local times that
+ * don't exist or occur twice because of a daylight savings transition: times in a gap are moved
+ * forward by the length of the gap and ambiguous times use the offset after the transition.
+ *
+ * <p>Call {@link #resetZone()} when the default time zone changes.
+ */
+public final class DateMath {
+
+  public static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+  public static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+  public static final long MILLIS_PER_SECOND = TimeUnit.SECONDS.toMillis(1);
+
+  private static volatile Zone zone;
+
+  private DateMath() {}
+
+  public static void resetZone() {
+    zone = null;
+  }
+
+  /** @see DateTime#startOfDay() */
+  public static long startOfDay(long millis) {
+    return fromLocal(floor(toLocal(millis), MILLIS_PER_DAY));
+  }
+
+  /** @see DateTime#endOfDay() */
+  public static long endOfDay(long millis) {
+    return fromLocal(floor(toLocal(millis), MILLIS_PER_DAY) + MILLIS_PER_DAY - MILLIS_PER_SECOND);
+  }
+
+  /** @see DateTime#startOfMinute() */
+  public static long startOfMinute(long millis) {
+    return fromLocal(floor(toLocal(millis), MILLIS_PER_MINUTE));
+  }
+
+  /** @see DateTime#endOfMinute() */
+  public static long endOfMinute(long millis) {
+    return fromLocal(floor(toLocal(millis), MILLIS_PER_MINUTE) + MILLIS_PER_MINUTE - 1);
+  }
+
+  /** @see DateTime#withMillisOfDay(int) */
+  public static long withMillisOfDay(long millis, int millisOfDay) {
+    if (millisOfDay > DateTime.MAX_MILLIS_PER_DAY || millisOfDay < 0) {
+      throw new RuntimeException("Illegal millis of day: " + millisOfDay);
+    }
+    return fromLocal(floor(toLocal(millis), MILLIS_PER_DAY) + millisOfDay);
+  }
+
+  /** @see DateTime#getMillisOfDay() */
+  public static int getMillisOfDay(long millis) {
+    long local = toLocal(millis);
+    return (int) (local - floor(local, MILLIS_PER_DAY));
+  }
+
+  /** @see DateTime#plusDays(int) */
+  public static long plusDays(long millis, int days) {
+    return fromLocal(toLocal(millis) + days * MILLIS_PER_DAY);
+  }
+
+  /** @return {@link java.util.Calendar#SUNDAY} through {@link java.util.Calendar#SATURDAY} */
+  public static int getDayOfWeek(long millis) {
+    // 1970-01-01 was a thursday
+    long days = floor(toLocal(millis), MILLIS_PER_DAY) / MILLIS_PER_DAY;
+    return (int) (days - floor(days + 4, 7) + 4) + 1;
+  }
+
+  static long toLocal(long millis) {
+    return millis + getZone().getOffset(millis);
+  }
+
+  static long fromLocal(long local) {
+    Zone zone = getZone();
+    int before = zone.getOffset(local - MILLIS_PER_DAY);
+    int after = zone.getOffset(local + MILLIS_PER_DAY);
+    if (before == after) {
+      return local - before;
+    }
+    boolean afterValid = zone.getOffset(local - after) == after;
+    if (afterValid) {
+      return local - after;
+    }
+    // either only valid before the transition, or in the gap, which moves forward
+    return local - before;
+  }
+
+  /** Math.floorDiv requires API 24 */
+  private static long floor(long value, long unit) {
+    long remainder = value % unit;
+    return remainder < 0 ? value - remainder - unit : value - remainder;
+  }
+
+  private static Zone getZone() {
+    Zone zone = DateMath.zone;
+    if (zone == null) {
+      zone = new Zone(ZoneId.systemDefault().getRules());
+      DateMath.zone = zone;
+    }
+    return zone;
+  }
+
+  private static class Zone {
+    private static final long FIRST_TRANSITION = -2208988800000L; // 1900-01-01
+    private static final long LAST_TRANSITION = 4102444800000L; // 2100-01-01
+
+    private final ZoneRules rules;
+    private final int initialOffset;
+    /** transition instants in ascending order */
+    private final long[] transitions;
+    /** offsets in effect from the transition at the same index */
+    private final int[] offsets;
+
+    Zone(ZoneRules rules) {
+      this.rules = rules;
+      initialOffset = offsetMillis(rules, FIRST_TRANSITION);
+      int count = 0;
+      long[] transitions = new long[64];
+      int[] offsets = new int[64];
+      ZoneOffsetTransition transition =
+          rules.isFixedOffset()
+              ? null
+              : rules.nextTransition(Instant.ofEpochMilli(FIRST_TRANSITION));
+      while (transition != null && transition.toEpochSecond() * 1000 < LAST_TRANSITION) {
+        if (count == transitions.length) {
+          transitions = Arrays.copyOf(transitions, count * 2);
+          offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        transitions[count] = transition.toEpochSecond() * 1000;
+        offsets[count] = transition.getOffsetAfter().getTotalSeconds() * 1000;
+        count++;
+        transition = rules.nextTransition(transition.getInstant());
+      }
+      this.transitions = Arrays.copyOf(transitions, count);
+      this.offsets = Arrays.copyOf(offsets, count);
+    }
+
+    int getOffset(long millis) {
+      if (transitions.length == 0) {
+        return initialOffset;
+      }
+      if (millis < FIRST_TRANSITION || millis >= LAST_TRANSITION) {
+        return offsetMillis(rules, millis);
+      }
+      int index = Arrays.binarySearch(transitions, millis);
+      if (index < 0) {
+        index = -(index + 1) - 1;
+      }
+      return index < 0 ? initialOffset : offsets[index];
+    }
+
+    private static int offsetMillis(ZoneRules rules, long millis) {
+      return rules.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * 1000;
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package org.tasks.ui;
 
+import static com.google.common.collect.Sets.newHashSet;
+
+import com.google.common.collect.Ordering;
 import com.todoroo.astrid.api.CaldavFilter;
 import com.todoroo.astrid.api.Filter;
 import com.todoroo.astrid.api.GtasksFilter;
 import com.todoroo.astrid.api.TagFilter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,13 +21,30 @@ import org.tasks.data.TagData;
 import org.tasks.data.TagDataDao;
 import org.tasks.injection.ApplicationScope;
 
+/**
+ * Lists and tags shown as chips, keyed by uuid.
+ *
+ * <p>Each table is observed separately and only entries whose contents changed are replaced.
+ * Resolved tag strings are interned until the next change, so rows that share a tag string don't
+ * split and look it up again on every bind.
+ */
 @ApplicationScope
-class ChipListCache {
+public class ChipListCache {
+
+  private static final Ordering<TagFilter> ORDER_BY_NAME =
+      new Ordering<TagFilter>() {
+        @Override
+        public int compare(TagFilter left, TagFilter right) {
+          return left.listingTitle.compareTo(right.listingTitle);
+        }
+      };
 
   private final Map<String, GtasksFilter> googleTaskLists = new HashMap<>();
   private final Map<String, CaldavFilter> caldavCalendars = new HashMap<>();
   private final Map<String, TagFilter> tagDatas = new HashMap<>();
+  private final Map<String, List<TagFilter>> tagStrings = new HashMap<>();
   private final LocalBroadcastManager localBroadcastManager;
+  private int generation;
 
   @Inject
   ChipListCache(
@@ -39,27 +60,48 @@ class ChipListCache {
   }
 
   private void updateGoogleTaskLists(List<GoogleTaskList> updated) {
-    googleTaskLists.clear();
+    Map<String, GtasksFilter> filters = new HashMap<>();
     for (GoogleTaskList update : updated) {
-      googleTaskLists.put(update.getRemoteId(), new GtasksFilter(update));
+      filters.put(update.getRemoteId(), new GtasksFilter(update));
     }
-    localBroadcastManager.broadcastRefresh();
+    update(googleTaskLists, filters);
   }
 
   private void updateCaldavCalendars(List<CaldavCalendar> updated) {
-    caldavCalendars.clear();
+    Map<String, CaldavFilter> filters = new HashMap<>();
     for (CaldavCalendar update : updated) {
-      caldavCalendars.put(update.getUuid(), new CaldavFilter(update));
+      filters.put(update.getUuid(), new CaldavFilter(update));
     }
-    localBroadcastManager.broadcastRefresh();
+    update(caldavCalendars, filters);
   }
 
   private void updateTags(List<TagData> updated) {
-    tagDatas.clear();
+    Map<String, TagFilter> filters = new HashMap<>();
     for (TagData update : updated) {
-      tagDatas.put(update.getRemoteId(), new TagFilter(update));
+      filters.put(update.getRemoteId(), new TagFilter(update));
     }
-    localBroadcastManager.broadcastRefresh();
+    update(tagDatas, filters);
+  }
+
+  private <T extends Filter> void update(Map<String, T> cache, Map<String, T> updated) {
+    boolean changed = cache.keySet().retainAll(updated.keySet());
+    for (Map.Entry<String, T> entry : updated.entrySet()) {
+      T existing = cache.get(entry.getKey());
+      if (existing == null || !existing.areContentsTheSame(entry.getValue())) {
+        cache.put(entry.getKey(), entry.getValue());
+        changed = true;
+      }
+    }
+    if (changed) {
+      generation++;
+      tagStrings.clear();
+      localBroadcastManager.broadcastRefresh();
+    }
+  }
+
+  /** @return incremented whenever a cached list or tag changes */
+  int getGeneration() {
+    return generation;
   }
 
   Filter getGoogleTaskList(String googleTaskList) {
@@ -70,7 +112,20 @@ class ChipListCache {
     return caldavCalendars.get(caldav);
   }
 
-  TagFilter getTag(String tag) {
-    return tagDatas.get(tag);
+  /** @return tags in a comma separated uuid string, sorted by name */
+  List<TagFilter> getTags(String tagString) {
+    List<TagFilter> tags = tagStrings.get(tagString);
+    if (tags == null) {
+      tags = new ArrayList<>();
+      for (String uuid : newHashSet(tagString.split(","))) {
+        TagFilter tag = tagDatas.get(uuid);
+        if (tag != null) {
+          tags.add(tag);
+        }
+      }
+      tags = ORDER_BY_NAME.immutableSortedCopy(tags);
+      tagStrings.put(tagString, tags);
+    }
+    return tags;
   }
 }
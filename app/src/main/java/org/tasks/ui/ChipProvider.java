@@ -1,9 +1,6 @@
 package org.tasks.ui;
 
-import static com.google.common.collect.Collections2.filter;
-import static com.google.common.collect.Collections2.transform;
 import static com.google.common.collect.Iterables.removeIf;
-import static com.google.common.collect.Sets.newHashSet;
 import static com.todoroo.andlib.utility.AndroidUtilities.assertMainThread;
 import static org.tasks.Strings.isNullOrEmpty;
 
@@ -15,14 +12,12 @@ import androidx.annotation.Nullable;
 import androidx.core.content.res.ResourcesCompat;
 import com.google.android.material.chip.Chip;
 import com.google.common.base.Predicates;
-import com.google.common.collect.Ordering;
 import com.todoroo.astrid.api.CaldavFilter;
 import com.todoroo.astrid.api.Filter;
 import com.todoroo.astrid.api.GtasksFilter;
 import com.todoroo.astrid.api.TagFilter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import javax.inject.Inject;
 import org.tasks.R;
 import org.tasks.billing.Inventory;
@@ -31,6 +26,7 @@ import org.tasks.data.TagData;
 import org.tasks.data.TaskContainer;
 import org.tasks.filters.PlaceFilter;
 import org.tasks.locale.Locale;
+import org.tasks.preferences.PreferenceSnapshot;
 import org.tasks.preferences.Preferences;
 import org.tasks.themes.ColorProvider;
 import org.tasks.themes.CustomIcons;
@@ -45,13 +41,6 @@ public class ChipProvider {
   private final Preferences preferences;
   private final ColorProvider colorProvider;
   private final Locale locale;
-  private final Ordering<TagFilter> orderByName =
-      new Ordering<TagFilter>() {
-        @Override
-        public int compare(TagFilter left, TagFilter right) {
-          return left.listingTitle.compareTo(right.listingTitle);
-        }
-      };
   private boolean filled;
   private boolean showIcon;
   private boolean showText;
@@ -73,8 +62,9 @@ public class ChipProvider {
     this.colorProvider = colorProvider;
     this.locale = locale;
 
-    setStyle(preferences.getIntegerFromString(R.string.p_chip_style, 0));
-    setAppearance(preferences.getIntegerFromString(R.string.p_chip_appearance, 0));
+    PreferenceSnapshot snapshot = preferences.getSnapshot();
+    setStyle(snapshot.getChipStyle());
+    setAppearance(snapshot.getChipAppearance());
   }
 
   public void setStyle(int style) {
@@ -111,7 +101,7 @@ public class ChipProvider {
     if (task.hasChildren()) {
       chips.add(newSubtaskChip(task, !showText));
     }
-    if (preferences.getBoolean(R.string.p_show_list_indicators, true)) {
+    if (preferences.getSnapshot().showListIndicators()) {
       if (task.hasLocation() && !(filter instanceof PlaceFilter)) {
         Location location = task.getLocation();
         chips.add(newChip(new PlaceFilter(location.getPlace()), R.drawable.ic_outline_place_24px));
@@ -129,14 +119,12 @@ public class ChipProvider {
       }
       String tagString = task.getTagsString();
       if (!isNullOrEmpty(tagString)) {
-        Set<String> tags = newHashSet(tagString.split(","));
-        if (filter instanceof TagFilter) {
-          tags.remove(((TagFilter) filter).getUuid());
+        String uuid = filter instanceof TagFilter ? ((TagFilter) filter).getUuid() : null;
+        for (TagFilter tag : lists.getTags(tagString)) {
+          if (!tag.getUuid().equals(uuid)) {
+            chips.add(newChip(tag, R.drawable.ic_outline_label_24px));
+          }
         }
-        chips.addAll(
-            transform(
-                orderByName.sortedCopy(filter(transform(tags, lists::getTag), Predicates.notNull())),
-                tag -> newChip(tag, R.drawable.ic_outline_label_24px)));
       }
     }
 
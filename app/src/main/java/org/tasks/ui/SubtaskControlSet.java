@@ -168,7 +168,7 @@ public class SubtaskControlSet extends TaskEditControlFragment implements Callba
             new GoogleTask(subtask.getId(), ((GtasksFilter) remoteList).getRemoteId());
         googleTask.setParent(task.getId());
         googleTask.setMoved(true);
-        googleTaskDao.insertAndShift(googleTask, preferences.addGoogleTasksToTop());
+        googleTaskDao.insert(googleTask, preferences.addGoogleTasksToTop());
       } else if (remoteList instanceof CaldavFilter) {
         CaldavTask caldavTask =
             new CaldavTask(subtask.getId(), ((CaldavFilter) remoteList).getUuid());